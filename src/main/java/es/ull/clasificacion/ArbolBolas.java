@@ -0,0 +1,351 @@
+package clasificacion;
+
+import java.util.Arrays;
+
+/**
+ * @file ArbolBolas.java
+ * @brief Árbol de bolas (ball tree) para la búsqueda exacta de vecinos con cualquier métrica.
+ *
+ * Cada nodo agrupa un rango contiguo de una permutación de las filas de {@link DatosEntrenamiento}
+ * y guarda un centro (la media de sus filas) y un radio: la mayor distancia, según la métrica,
+ * del centro a cualquiera de ellas. Por la desigualdad triangular ninguna fila del nodo puede
+ * estar a menos de {@code d(consulta, centro) - radio} de la consulta, lo que permite descartar
+ * nodos enteros sin cambiar el resultado respecto a {@link BusquedaExhaustiva}.
+ *
+ * A diferencia de {@link ArbolKD}, las particiones no dependen de los ejes, por lo que la poda
+ * sigue siendo eficaz con un número medio de dimensiones (20-60) y con métricas no euclídeas.
+ * Solo admite distancias que declaren ser métricas ({@link Distancia#esMetrica()}).
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class ArbolBolas implements IndiceVecinos {
+	/**
+	 * @brief Número máximo de filas por hoja usado por defecto.
+	 */
+	public static final int TAMANO_HOJA = 16;
+
+	/**
+	 * @brief Los datos empaquetados sobre los que se construye el árbol.
+	 */
+	private final DatosEntrenamiento datos;
+	/**
+	 * @brief La métrica utilizada para construir y consultar el árbol.
+	 */
+	private final Distancia distancia;
+	/**
+	 * @brief Permutación de las filas: cada nodo ocupa un rango contiguo de esta permutación.
+	 */
+	private final int[] orden;
+	/**
+	 * @brief Número máximo de filas por hoja.
+	 */
+	private final int tamanoHoja;
+	/**
+	 * @brief Centros de los nodos, almacenados consecutivamente (nodo a nodo).
+	 */
+	private double[] centros;
+	/**
+	 * @brief Radio de cada nodo en el espacio de la métrica.
+	 */
+	private double[] radios;
+	/**
+	 * @brief Inicio (incluido) del rango de filas de cada nodo en {@link #orden}.
+	 */
+	private int[] inicio;
+	/**
+	 * @brief Fin (excluido) del rango de filas de cada nodo en {@link #orden}.
+	 */
+	private int[] fin;
+	/**
+	 * @brief Primer hijo de cada nodo, o -1 si el nodo es una hoja.
+	 */
+	private int[] hijoIzquierdo;
+	/**
+	 * @brief Segundo hijo de cada nodo, o -1 si el nodo es una hoja.
+	 */
+	private int[] hijoDerecho;
+	/**
+	 * @brief Número de nodos del árbol.
+	 */
+	private int numNodos;
+
+	/**
+	 * @brief Construye el árbol con la distancia euclídea ponderada y el tamaño de hoja por defecto.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 */
+	public ArbolBolas(DatosEntrenamiento datos) {
+		this(datos, DistanciaEuclidea.preferida(), TAMANO_HOJA);
+	}
+
+	/**
+	 * @brief Construye el árbol con una métrica dada y el tamaño de hoja por defecto.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La métrica a utilizar.
+	 */
+	public ArbolBolas(DatosEntrenamiento datos, Distancia distancia) {
+		this(datos, distancia, TAMANO_HOJA);
+	}
+
+	/**
+	 * @brief Construye el árbol con una métrica y un tamaño de hoja dados.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La métrica a utilizar.
+	 * @param tamanoHoja El número máximo de filas por hoja. Debe ser un entero positivo.
+	 * @throws IllegalArgumentException Si la distancia es nula, no es una métrica o no admite los atributos
+	 * cualitativos de los datos, o si el tamaño de hoja no es positivo.
+	 */
+	public ArbolBolas(DatosEntrenamiento datos, Distancia distancia, int tamanoHoja) {
+		if (distancia == null || !distancia.esMetrica()) {
+			throw new IllegalArgumentException("El árbol de bolas necesita una distancia que cumpla la desigualdad triangular.");
+		}
+		if (datos.numeroCategoricas() > 0 && !distancia.admiteCategoricos()) {
+			throw new IllegalArgumentException("La distancia no admite atributos cualitativos.");
+		}
+		if (tamanoHoja <= 0) {
+			throw new IllegalArgumentException("El tamaño de hoja debe ser mayor que cero.");
+		}
+		this.datos = datos;
+		this.distancia = distancia;
+		this.tamanoHoja = tamanoHoja;
+		int numFilas = datos.numeroFilas();
+		this.orden = new int[numFilas];
+		for (int i = 0; i < numFilas; i++) {
+			orden[i] = i;
+		}
+		int capacidad = Math.max(1, 2 * (numFilas / tamanoHoja) + 1);
+		this.centros = new double[capacidad * datos.getDimension()];
+		this.radios = new double[capacidad];
+		this.inicio = new int[capacidad];
+		this.fin = new int[capacidad];
+		this.hijoIzquierdo = new int[capacidad];
+		this.hijoDerecho = new int[capacidad];
+		if (numFilas > 0) {
+			construir(0, numFilas);
+		}
+	}
+
+	/**
+	 * @brief Construye recursivamente el subárbol de un rango de filas.
+	 *
+	 * @param desde Inicio (incluido) del rango en {@link #orden}.
+	 * @param hasta Fin (excluido) del rango en {@link #orden}.
+	 * @return El índice del nodo creado.
+	 */
+	private int construir(int desde, int hasta) {
+		int nodo = nuevoNodo(desde, hasta);
+		if (hasta - desde <= tamanoHoja || radios[nodo] == 0) {
+			return nodo;
+		}
+		int medio = dividir(desde, hasta);
+		int izquierdo = construir(desde, medio);
+		int derecho = construir(medio, hasta);
+		hijoIzquierdo[nodo] = izquierdo;
+		hijoDerecho[nodo] = derecho;
+		return nodo;
+	}
+
+	/**
+	 * @brief Crea un nodo hoja para un rango de filas, calculando su centro y su radio.
+	 *
+	 * @param desde Inicio (incluido) del rango.
+	 * @param hasta Fin (excluido) del rango.
+	 * @return El índice del nuevo nodo.
+	 */
+	private int nuevoNodo(int desde, int hasta) {
+		int dimension = datos.getDimension();
+		if (numNodos == radios.length) {
+			int capacidad = radios.length * 2;
+			centros = Arrays.copyOf(centros, capacidad * dimension);
+			radios = Arrays.copyOf(radios, capacidad);
+			inicio = Arrays.copyOf(inicio, capacidad);
+			fin = Arrays.copyOf(fin, capacidad);
+			hijoIzquierdo = Arrays.copyOf(hijoIzquierdo, capacidad);
+			hijoDerecho = Arrays.copyOf(hijoDerecho, capacidad);
+		}
+		int nodo = numNodos++;
+		inicio[nodo] = desde;
+		fin[nodo] = hasta;
+		hijoIzquierdo[nodo] = -1;
+		hijoDerecho[nodo] = -1;
+
+		double[] filas = datos.getFilas();
+		int baseCentro = nodo * dimension;
+		for (int i = desde; i < hasta; i++) {
+			int base = orden[i] * dimension;
+			for (int j = 0; j < dimension; j++) {
+				centros[baseCentro + j] += filas[base + j];
+			}
+		}
+		for (int j = 0; j < dimension; j++) {
+			centros[baseCentro + j] /= (hasta - desde);
+		}
+		double radio = 0;
+		for (int i = desde; i < hasta; i++) {
+			radio = Math.max(radio, distanciaMetrica(centros, baseCentro, orden[i]));
+		}
+		radios[nodo] = radio;
+		return nodo;
+	}
+
+	/**
+	 * @brief Divide un rango de filas en dos grupos alrededor de dos filas alejadas entre sí.
+	 * <p>
+	 * Se toma la fila más alejada de la primera y, después, la más alejada de esta; cada fila
+	 * se asigna al grupo de la más cercana de las dos. Si uno de los grupos queda vacío,
+	 * el rango se divide por la mitad.
+	 *
+	 * @param desde Inicio (incluido) del rango.
+	 * @param hasta Fin (excluido) del rango.
+	 * @return La posición donde empieza el segundo grupo.
+	 */
+	private int dividir(int desde, int hasta) {
+		double[] filas = datos.getFilas();
+		int dimension = datos.getDimension();
+		int primero = masAlejada(orden[desde], desde, hasta);
+		int segundo = masAlejada(primero, desde, hasta);
+		int basePrimero = primero * dimension;
+		int baseSegundo = segundo * dimension;
+
+		int i = desde;
+		int j = hasta - 1;
+		while (i <= j) {
+			int base = orden[i] * dimension;
+			double aPrimero = distancia.calcular(filas, base, filas, basePrimero, dimension, datos.getPesos());
+			double aSegundo = distancia.calcular(filas, base, filas, baseSegundo, dimension, datos.getPesos());
+			if (aPrimero <= aSegundo) {
+				i++;
+			} else {
+				int auxiliar = orden[i];
+				orden[i] = orden[j];
+				orden[j] = auxiliar;
+				j--;
+			}
+		}
+		if (i == desde || i == hasta) {
+			return (desde + hasta) >>> 1;
+		}
+		return i;
+	}
+
+	/**
+	 * @brief Busca la fila de un rango más alejada de una fila dada.
+	 *
+	 * @param fila La fila de referencia.
+	 * @param desde Inicio (incluido) del rango.
+	 * @param hasta Fin (excluido) del rango.
+	 * @return La fila más alejada.
+	 */
+	private int masAlejada(int fila, int desde, int hasta) {
+		double[] filas = datos.getFilas();
+		int dimension = datos.getDimension();
+		int mejor = fila;
+		double mayor = -1;
+		for (int i = desde; i < hasta; i++) {
+			double d = distancia.calcular(filas, fila * dimension, filas, orden[i] * dimension, dimension, datos.getPesos());
+			if (d > mayor) {
+				mayor = d;
+				mejor = orden[i];
+			}
+		}
+		return mejor;
+	}
+
+	/**
+	 * @brief Calcula la distancia métrica entre un punto y una fila de los datos.
+	 *
+	 * @param punto Array que contiene el punto.
+	 * @param desde Posición de `punto` donde empieza.
+	 * @param fila La fila de los datos.
+	 * @return La distancia en el espacio de la métrica.
+	 */
+	private double distanciaMetrica(double[] punto, int desde, int fila) {
+		int dimension = datos.getDimension();
+		return distancia.haciaMetrica(distancia.calcular(punto, desde, datos.getFilas(), fila * dimension, dimension, datos.getPesos()));
+	}
+
+	/**
+	 * @brief Busca los vecinos más cercanos a una consulta recorriendo el árbol con poda.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 */
+	@Override
+	public void buscar(double[] consulta, MonticuloVecinos vecinos) {
+		if (numNodos == 0) {
+			return;
+		}
+		buscar(0, consulta, vecinos, distanciaCentro(consulta, 0));
+	}
+
+	/**
+	 * @brief Visita un nodo si su bola puede contener algún vecino mejor que los actuales.
+	 *
+	 * @param nodo El nodo a visitar.
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El montículo de resultados.
+	 * @param aCentro Distancia métrica de la consulta al centro del nodo.
+	 */
+	private void buscar(int nodo, double[] consulta, MonticuloVecinos vecinos, double aCentro) {
+		if (MonticuloVecinos.descartable(aCentro - radios[nodo], distancia.haciaMetrica(vecinos.peorDistancia()), aCentro + radios[nodo])) {
+			return;
+		}
+		if (hijoIzquierdo[nodo] < 0) {
+			recorrerHoja(nodo, consulta, vecinos);
+			return;
+		}
+		int izquierdo = hijoIzquierdo[nodo];
+		int derecho = hijoDerecho[nodo];
+		double aIzquierdo = distanciaCentro(consulta, izquierdo);
+		double aDerecho = distanciaCentro(consulta, derecho);
+		// Se visita primero el hijo más cercano para reducir antes el radio de búsqueda.
+		if (aIzquierdo <= aDerecho) {
+			buscar(izquierdo, consulta, vecinos, aIzquierdo);
+			buscar(derecho, consulta, vecinos, aDerecho);
+		} else {
+			buscar(derecho, consulta, vecinos, aDerecho);
+			buscar(izquierdo, consulta, vecinos, aIzquierdo);
+		}
+	}
+
+	/**
+	 * @brief Calcula la distancia métrica de la consulta al centro de un nodo.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param nodo El nodo.
+	 * @return La distancia en el espacio de la métrica.
+	 */
+	private double distanciaCentro(double[] consulta, int nodo) {
+		int dimension = datos.getDimension();
+		return distancia.haciaMetrica(distancia.calcular(consulta, 0, centros, nodo * dimension, dimension, datos.getPesos()));
+	}
+
+	/**
+	 * @brief Calcula la distancia a todas las filas de una hoja y las ofrece al montículo.
+	 *
+	 * @param nodo La hoja a recorrer.
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El montículo de resultados.
+	 */
+	private void recorrerHoja(int nodo, double[] consulta, MonticuloVecinos vecinos) {
+		double[] filas = datos.getFilas();
+		int dimension = datos.getDimension();
+		for (int i = inicio[nodo]; i < fin[nodo]; i++) {
+			int fila = orden[i];
+			vecinos.ofrecer(distancia.calcularAcotada(consulta, 0, filas, fila * dimension, dimension, datos.getPesos(), vecinos.peorDistancia()), fila);
+		}
+	}
+
+	/**
+	 * @brief Obtiene el número de nodos del árbol.
+	 *
+	 * @return El número de nodos.
+	 */
+	public int numeroNodos() {
+		return numNodos;
+	}
+}
@@ -0,0 +1,350 @@
+package clasificacion;
+
+import java.util.Arrays;
+
+/**
+ * @file ArbolKD.java
+ * @brief Árbol KD para la búsqueda exacta de vecinos sobre atributos cuantitativos.
+ *
+ * El árbol se guarda en arrays paralelos (un nodo por posición) y sobre una permutación
+ * de las filas de {@link DatosEntrenamiento}, sin copiar los valores. Cada nodo interno
+ * divide su rango de filas por la mediana de la dimensión con mayor dispersión ponderada
+ * ({@code peso * (max - min)^2}), de modo que los pesos de los atributos guían tanto la
+ * construcción como la poda. La búsqueda mantiene la distancia ponderada mínima de la
+ * consulta a la celda de cada nodo y descarta las ramas cuya cota supera al K-ésimo vecino,
+ * por lo que el resultado es el mismo que el de {@link BusquedaExhaustiva}. Esa cota solo es válida
+ * para la distancia euclídea cuadrada ponderada ({@link DistanciaEuclidea}), la única que admite.
+ *
+ * Es adecuado para conjuntos con pocas dimensiones (del orden de 15 o menos) y muchas filas;
+ * con más dimensiones la poda pierde eficacia y conviene la búsqueda exhaustiva.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class ArbolKD implements IndiceVecinos {
+	/**
+	 * @brief Número máximo de filas por hoja usado por defecto.
+	 */
+	public static final int TAMANO_HOJA = 16;
+
+	/**
+	 * @brief Los datos empaquetados sobre los que se construye el árbol.
+	 */
+	private final DatosEntrenamiento datos;
+	/**
+	 * @brief La distancia euclídea con la que se comparan las filas de las hojas.
+	 */
+	private final DistanciaEuclidea distancia;
+	/**
+	 * @brief Permutación de las filas: cada nodo ocupa un rango contiguo de esta permutación.
+	 */
+	private final int[] orden;
+	/**
+	 * @brief Número máximo de filas por hoja.
+	 */
+	private final int tamanoHoja;
+	/**
+	 * @brief Dimensión de corte de cada nodo, o -1 si el nodo es una hoja.
+	 */
+	private int[] dimensionCorte;
+	/**
+	 * @brief Valor de corte de cada nodo interno.
+	 */
+	private double[] valorCorte;
+	/**
+	 * @brief Inicio (incluido) del rango de filas de cada nodo en {@link #orden}.
+	 */
+	private int[] inicio;
+	/**
+	 * @brief Fin (excluido) del rango de filas de cada nodo en {@link #orden}.
+	 */
+	private int[] fin;
+	/**
+	 * @brief Hijo izquierdo (valores menores o iguales al corte) de cada nodo interno.
+	 */
+	private int[] hijoIzquierdo;
+	/**
+	 * @brief Hijo derecho (valores mayores o iguales al corte) de cada nodo interno.
+	 */
+	private int[] hijoDerecho;
+	/**
+	 * @brief Número de nodos del árbol.
+	 */
+	private int numNodos;
+
+	/**
+	 * @brief Construye el árbol con el tamaño de hoja por defecto.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 */
+	public ArbolKD(DatosEntrenamiento datos) {
+		this(datos, DistanciaEuclidea.preferida(), TAMANO_HOJA);
+	}
+
+	/**
+	 * @brief Construye el árbol con un tamaño de hoja dado.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param tamanoHoja El número máximo de filas por hoja. Debe ser un entero positivo.
+	 * @throws IllegalArgumentException Si el tamaño de hoja es menor o igual a 0 o los datos tienen atributos cualitativos.
+	 */
+	public ArbolKD(DatosEntrenamiento datos, int tamanoHoja) {
+		this(datos, DistanciaEuclidea.preferida(), tamanoHoja);
+	}
+
+	/**
+	 * @brief Construye el árbol con el tamaño de hoja por defecto.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La distancia, que debe ser la euclídea cuadrada ponderada.
+	 * @throws IllegalArgumentException Si la distancia no es una {@link DistanciaEuclidea} o los datos tienen atributos cualitativos.
+	 */
+	public ArbolKD(DatosEntrenamiento datos, Distancia distancia) {
+		this(datos, distancia, TAMANO_HOJA);
+	}
+
+	/**
+	 * @brief Construye el árbol.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La distancia, que debe ser la euclídea cuadrada ponderada.
+	 * @param tamanoHoja El número máximo de filas por hoja. Debe ser un entero positivo.
+	 * @throws IllegalArgumentException Si la distancia no es una {@link DistanciaEuclidea}, si el tamaño de hoja
+	 * es menor o igual a 0 o si los datos tienen atributos cualitativos.
+	 */
+	public ArbolKD(DatosEntrenamiento datos, Distancia distancia, int tamanoHoja) {
+		if (!(distancia instanceof DistanciaEuclidea)) {
+			throw new IllegalArgumentException("El árbol KD solo admite la distancia euclídea ponderada.");
+		}
+		if (tamanoHoja <= 0) {
+			throw new IllegalArgumentException("El tamaño de hoja debe ser mayor que cero.");
+		}
+		if (datos.numeroCategoricas() > 0) {
+			throw new IllegalArgumentException("El árbol KD solo admite atributos numéricos.");
+		}
+		this.datos = datos;
+		this.distancia = (DistanciaEuclidea) distancia;
+		this.tamanoHoja = tamanoHoja;
+		int numFilas = datos.numeroFilas();
+		this.orden = new int[numFilas];
+		for (int i = 0; i < numFilas; i++) {
+			orden[i] = i;
+		}
+		int capacidad = Math.max(1, 2 * (numFilas / tamanoHoja) + 1);
+		this.dimensionCorte = new int[capacidad];
+		this.valorCorte = new double[capacidad];
+		this.inicio = new int[capacidad];
+		this.fin = new int[capacidad];
+		this.hijoIzquierdo = new int[capacidad];
+		this.hijoDerecho = new int[capacidad];
+		if (numFilas > 0) {
+			construir(0, numFilas);
+		}
+	}
+
+	/**
+	 * @brief Construye recursivamente el subárbol de un rango de filas.
+	 *
+	 * @param desde Inicio (incluido) del rango en {@link #orden}.
+	 * @param hasta Fin (excluido) del rango en {@link #orden}.
+	 * @return El índice del nodo creado.
+	 */
+	private int construir(int desde, int hasta) {
+		int nodo = nuevoNodo(desde, hasta);
+		if (hasta - desde <= tamanoHoja) {
+			return nodo;
+		}
+		int dimension = dimensionMayorDispersion(desde, hasta);
+		if (dimension < 0) {
+			// Todas las filas del rango son iguales en las dimensiones con peso: no tiene sentido dividir.
+			return nodo;
+		}
+		int medio = (desde + hasta) >>> 1;
+		seleccionar(desde, hasta, medio, dimension);
+		dimensionCorte[nodo] = dimension;
+		valorCorte[nodo] = valor(orden[medio], dimension);
+		int izquierdo = construir(desde, medio);
+		int derecho = construir(medio, hasta);
+		hijoIzquierdo[nodo] = izquierdo;
+		hijoDerecho[nodo] = derecho;
+		return nodo;
+	}
+
+	/**
+	 * @brief Reserva un nodo hoja para un rango de filas, ampliando los arrays si es necesario.
+	 *
+	 * @param desde Inicio (incluido) del rango.
+	 * @param hasta Fin (excluido) del rango.
+	 * @return El índice del nuevo nodo.
+	 */
+	private int nuevoNodo(int desde, int hasta) {
+		if (numNodos == dimensionCorte.length) {
+			int capacidad = dimensionCorte.length * 2;
+			dimensionCorte = Arrays.copyOf(dimensionCorte, capacidad);
+			valorCorte = Arrays.copyOf(valorCorte, capacidad);
+			inicio = Arrays.copyOf(inicio, capacidad);
+			fin = Arrays.copyOf(fin, capacidad);
+			hijoIzquierdo = Arrays.copyOf(hijoIzquierdo, capacidad);
+			hijoDerecho = Arrays.copyOf(hijoDerecho, capacidad);
+		}
+		int nodo = numNodos++;
+		dimensionCorte[nodo] = -1;
+		inicio[nodo] = desde;
+		fin[nodo] = hasta;
+		return nodo;
+	}
+
+	/**
+	 * @brief Elige la dimensión con mayor dispersión ponderada en un rango de filas.
+	 *
+	 * @param desde Inicio (incluido) del rango.
+	 * @param hasta Fin (excluido) del rango.
+	 * @return La dimensión elegida, o -1 si ninguna dimensión con peso presenta dispersión.
+	 */
+	private int dimensionMayorDispersion(int desde, int hasta) {
+		double[] pesos = datos.getPesos();
+		int mejor = -1;
+		double mejorDispersion = 0;
+		for (int d = 0; d < datos.getDimension(); d++) {
+			if (pesos[d] <= 0) {
+				continue;
+			}
+			double minimo = Double.POSITIVE_INFINITY;
+			double maximo = Double.NEGATIVE_INFINITY;
+			for (int i = desde; i < hasta; i++) {
+				double v = valor(orden[i], d);
+				if (v < minimo) minimo = v;
+				if (v > maximo) maximo = v;
+			}
+			double rango = maximo - minimo;
+			double dispersion = pesos[d] * rango * rango;
+			if (dispersion > mejorDispersion) {
+				mejorDispersion = dispersion;
+				mejor = d;
+			}
+		}
+		return mejor;
+	}
+
+	/**
+	 * @brief Reordena un rango de {@link #orden} para que la posición k contenga la mediana de una dimensión.
+	 * <p>
+	 * Tras la llamada, las filas anteriores a k tienen un valor menor o igual y las posteriores
+	 * un valor mayor o igual en esa dimensión (selección rápida de Hoare).
+	 *
+	 * @param desde Inicio (incluido) del rango.
+	 * @param hasta Fin (excluido) del rango.
+	 * @param k La posición a fijar.
+	 * @param dimension La dimensión por la que se compara.
+	 */
+	private void seleccionar(int desde, int hasta, int k, int dimension) {
+		int izquierda = desde;
+		int derecha = hasta - 1;
+		while (izquierda < derecha) {
+			double pivote = valor(orden[(izquierda + derecha) >>> 1], dimension);
+			int i = izquierda;
+			int j = derecha;
+			while (i <= j) {
+				while (valor(orden[i], dimension) < pivote) i++;
+				while (valor(orden[j], dimension) > pivote) j--;
+				if (i <= j) {
+					int auxiliar = orden[i];
+					orden[i] = orden[j];
+					orden[j] = auxiliar;
+					i++;
+					j--;
+				}
+			}
+			if (k <= j) {
+				derecha = j;
+			} else if (k >= i) {
+				izquierda = i;
+			} else {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * @brief Obtiene el valor de una fila en una dimensión.
+	 *
+	 * @param fila El índice de la fila.
+	 * @param dimension La dimensión.
+	 * @return El valor almacenado.
+	 */
+	private double valor(int fila, int dimension) {
+		return datos.getFilas()[fila * datos.getDimension() + dimension];
+	}
+
+	/**
+	 * @brief Busca los vecinos más cercanos a una consulta recorriendo el árbol con poda.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 */
+	@Override
+	public void buscar(double[] consulta, MonticuloVecinos vecinos) {
+		if (numNodos == 0) {
+			return;
+		}
+		buscar(0, consulta, vecinos, new double[datos.getDimension()], 0.0);
+	}
+
+	/**
+	 * @brief Visita un nodo: primero el hijo del lado de la consulta y luego, si la cota lo permite, el otro.
+	 *
+	 * @param nodo El nodo a visitar.
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El montículo de resultados.
+	 * @param desplazamientos Contribución de cada dimensión a la distancia mínima a la celda actual.
+	 * @param cota Distancia ponderada mínima de la consulta a la celda del nodo.
+	 */
+	private void buscar(int nodo, double[] consulta, MonticuloVecinos vecinos, double[] desplazamientos, double cota) {
+		int dimension = dimensionCorte[nodo];
+		if (dimension < 0) {
+			recorrerHoja(nodo, consulta, vecinos);
+			return;
+		}
+		double diferencia = consulta[dimension] - valorCorte[nodo];
+		int cercano = diferencia < 0 ? hijoIzquierdo[nodo] : hijoDerecho[nodo];
+		int lejano = diferencia < 0 ? hijoDerecho[nodo] : hijoIzquierdo[nodo];
+		buscar(cercano, consulta, vecinos, desplazamientos, cota);
+
+		double anterior = desplazamientos[dimension];
+		double nuevo = datos.getPesos()[dimension] * diferencia * diferencia;
+		double cotaLejano = cota - anterior + nuevo;
+		// Con el empate por fila, una celda a la misma distancia que el peor vecino aún puede aportar uno.
+		if (!MonticuloVecinos.descartable(cotaLejano, vecinos.peorDistancia(), cota + nuevo)) {
+			desplazamientos[dimension] = nuevo;
+			buscar(lejano, consulta, vecinos, desplazamientos, cotaLejano);
+			desplazamientos[dimension] = anterior;
+		}
+	}
+
+	/**
+	 * @brief Calcula la distancia a todas las filas de una hoja y las ofrece al montículo.
+	 *
+	 * @param nodo La hoja a recorrer.
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El montículo de resultados.
+	 */
+	private void recorrerHoja(int nodo, double[] consulta, MonticuloVecinos vecinos) {
+		double[] filas = datos.getFilas();
+		double[] pesos = datos.getPesos();
+		int dimension = datos.getDimension();
+		for (int i = inicio[nodo]; i < fin[nodo]; i++) {
+			int fila = orden[i];
+			vecinos.ofrecer(distancia.calcularAcotada(consulta, 0, filas, fila * dimension, dimension, pesos, vecinos.peorDistancia()), fila);
+		}
+	}
+
+	/**
+	 * @brief Obtiene el número de nodos del árbol.
+	 *
+	 * @return El número de nodos.
+	 */
+	public int numeroNodos() {
+		return numNodos;
+	}
+}
@@ -0,0 +1,655 @@
+package clasificacion;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @file ArchivoModelo.java
+ * @brief Formato binario de un modelo {@link KNN} ajustado, que se abre proyectando el fichero en memoria.
+ *
+ * El fichero empieza con una cabecera de 16 bytes (número mágico, versión, longitud de los
+ * metadatos y un entero reservado) seguida de los metadatos: K, el voto, la distancia configurada,
+ * el esquema de las dimensiones empaquetadas (pesos, orden, origen y preprocesado), las clases,
+ * los valores de cada atributo cualitativo, el estado de la distancia preparada y las filas pivote de
+ * {@link IndicePivotes}. A continuación, alineada a 8 bytes, va la matriz de filas en {@code double},
+ * después los códigos de clase y los identificadores de cada fila y, si hay pivotes, la tabla de
+ * distancias de cada fila a ellos, todo en orden little-endian. Solo se guardan las filas vivas.
+ *
+ * Al abrir, la matriz se proyecta con {@link MatrizFueraMonticulo#mapear} y se consulta en el propio
+ * fichero, sin volver a leer el CSV ni empaquetar el dataset; varios procesos que abren el mismo
+ * fichero comparten sus páginas. Guardar nunca modifica un fichero existente: lo sustituye por otro. De los
+ * índices solo se guarda la tabla de pivotes, con la que el modelo abierto reconstruye su
+ * {@link IndicePivotes} sin calcular distancias; sin ella se recorre con {@link BusquedaExhaustiva}. Las distancias que se preparan con los datos (heterogénea y Mahalanobis
+ * sin matriz) se guardan ya preparadas, con sus escalas, tablas VDM o factor de Cholesky, y se
+ * restauran sin recorrer la matriz: el modelo abierto mide igual que el guardado aunque las filas que
+ * fijaron esos parámetros se hubieran eliminado.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+final class ArchivoModelo {
+	/**
+	 * @brief Número mágico del formato ("KNNM").
+	 */
+	private static final int MAGICO = 0x4B4E4E4D;
+	/**
+	 * @brief Versión del formato.
+	 */
+	private static final int VERSION = 3;
+	/**
+	 * @brief Longitud de la cabecera, en bytes.
+	 */
+	private static final int CABECERA = 16;
+	/**
+	 * @brief Orden de los bytes de la matriz y de los arrays de enteros.
+	 */
+	private static final ByteOrder ORDEN = ByteOrder.LITTLE_ENDIAN;
+	/**
+	 * @brief Número de bytes que se escriben de una vez en el canal.
+	 */
+	private static final int BYTES_POR_ESCRITURA = 1 << 16;
+
+	/**
+	 * @brief Código de la distancia euclídea.
+	 */
+	private static final int EUCLIDEA = 1;
+	/**
+	 * @brief Código de la distancia de Manhattan.
+	 */
+	private static final int MANHATTAN = 2;
+	/**
+	 * @brief Código de la distancia de Chebyshev.
+	 */
+	private static final int CHEBYSHEV = 3;
+	/**
+	 * @brief Código de la distancia del coseno.
+	 */
+	private static final int COSENO = 4;
+	/**
+	 * @brief Código de la distancia de Minkowski, seguido de su exponente.
+	 */
+	private static final int MINKOWSKI = 5;
+	/**
+	 * @brief Código de la distancia heterogénea, seguido de si usa diferencias de valores.
+	 */
+	private static final int HETEROGENEA = 6;
+	/**
+	 * @brief Código de la distancia de Mahalanobis estimada con los datos.
+	 */
+	private static final int MAHALANOBIS = 7;
+	/**
+	 * @brief Código de una distancia preparada que es la propia distancia configurada, sin estado propio.
+	 */
+	private static final int SIN_PREPARACION = 0;
+
+	/**
+	 * @brief Constructor privado: clase de utilidades.
+	 */
+	private ArchivoModelo() {
+	}
+
+	/**
+	 * @brief Contenido de un modelo abierto.
+	 */
+	static final class Contenido {
+		/**
+		 * @brief El número de vecinos.
+		 */
+		int k;
+		/**
+		 * @brief Si los votos se ponderan por el inverso de la distancia.
+		 */
+		boolean votoPonderado;
+		/**
+		 * @brief La distancia configurada, sin preparar.
+		 */
+		Distancia distancia;
+		/**
+		 * @brief La distancia preparada para los datos.
+		 */
+		Distancia efectiva;
+		/**
+		 * @brief Los datos, con las filas proyectadas desde el fichero.
+		 */
+		DatosEntrenamiento datos;
+		/**
+		 * @brief Las filas pivote de la tabla guardada, o `null` si el modelo no tiene pivotes.
+		 */
+		int[] pivotes;
+		/**
+		 * @brief La tabla de distancias de cada fila a cada pivote, o `null` si el modelo no tiene pivotes.
+		 */
+		double[] tabla;
+	}
+
+	/**
+	 * @brief Guarda un modelo ajustado.
+	 * <p>
+	 * El modelo se escribe en un fichero temporal del mismo directorio, se fuerza al disco y se mueve
+	 * sobre el destino de forma atómica, así que los procesos que tienen abierto el modelo anterior,
+	 * incluido el que guarda, lo siguen consultando sin cambios.
+	 *
+	 * @param ruta El fichero a crear o sobrescribir.
+	 * @param k El número de vecinos.
+	 * @param votoPonderado Si los votos se ponderan por el inverso de la distancia.
+	 * @param distancia La distancia configurada, sin preparar.
+	 * @param efectiva La distancia preparada con la que se comparan los datos.
+	 * @param datos Los datos ajustados.
+	 * @param indicePivotes Un índice con pivotes construido sobre `datos` con `efectiva` y que cubre todas sus
+	 * filas, o `null` para no guardar pivotes. Los pivotes que son filas eliminadas se descartan.
+	 * @throws IOException Si no se puede escribir el fichero.
+	 * @throws IllegalArgumentException Si la distancia no puede guardarse.
+	 */
+	static void guardar(Path ruta, int k, boolean votoPonderado, Distancia distancia, Distancia efectiva, DatosEntrenamiento datos,
+			IndicePivotes indicePivotes) throws IOException {
+		int[] vivas = datos.filasVivas();
+		int dimension = datos.getDimension();
+		int[] pivotes = indicePivotes == null ? new int[0] : indicePivotes.getPivotes();
+		int[] posiciones = new int[datos.numeroFilas()];
+		Arrays.fill(posiciones, -1);
+		for (int i = 0; i < vivas.length; i++) {
+			posiciones[vivas[i]] = i;
+		}
+		// Las columnas de los pivotes eliminados se descartan: su fila no está en el fichero.
+		int[] columnas = new int[pivotes.length];
+		int numColumnas = 0;
+		for (int i = 0; i < pivotes.length; i++) {
+			if (posiciones[pivotes[i]] >= 0) {
+				columnas[numColumnas++] = i;
+			}
+		}
+		columnas = Arrays.copyOf(columnas, numColumnas);
+		double[] tabla = numColumnas > 0 ? indicePivotes.getTabla() : null;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream salida = new DataOutputStream(bytes)) {
+			salida.writeInt(k);
+			salida.writeBoolean(votoPonderado);
+			escribirDistancia(salida, distancia);
+			salida.writeInt(vivas.length);
+			salida.writeInt(dimension);
+			salida.writeInt(datos.numeroNumericas());
+			salida.writeInt(datos.getSiguienteIdentificador());
+			salida.writeInt(datos.getPreprocesado());
+			for (int j = 0; j < dimension; j++) {
+				salida.writeDouble(datos.getPesos()[j]);
+				salida.writeInt(datos.getOrdenDimensiones()[j]);
+				salida.writeInt(datos.getOrigen()[j]);
+			}
+			escribirTextos(salida, datos.getClases());
+			for (int j = datos.numeroNumericas(); j < dimension; j++) {
+				escribirTextos(salida, datos.valoresCategoricos(j));
+			}
+			escribirPreparada(salida, distancia, efectiva);
+			salida.writeInt(columnas.length);
+			for (int columna : columnas) {
+				salida.writeInt(posiciones[pivotes[columna]]);
+			}
+		}
+		byte[] metadatos = bytes.toByteArray();
+		long posicionMatriz = alinear(CABECERA + (long) metadatos.length);
+
+		// Se escribe en un fichero temporal del mismo directorio que después sustituye al destino de una vez:
+		// truncar el fichero en su sitio invalidaría las proyecciones de quienes lo tienen abierto.
+		Path temporal = Files.createTempFile(ruta.toAbsolutePath().getParent(), ruta.getFileName().toString(), ".tmp");
+		try {
+			escribir(temporal, metadatos, posicionMatriz, vivas, datos, tabla, pivotes.length, columnas);
+			Files.move(temporal, ruta, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporal);
+		}
+	}
+
+	/**
+	 * @brief Escribe el contenido del modelo en un fichero y lo fuerza al disco.
+	 *
+	 * @param ruta El fichero, que ya existe y está vacío.
+	 * @param metadatos Los metadatos serializados.
+	 * @param posicionMatriz La posición, alineada, en la que empieza la matriz de filas.
+	 * @param vivas Las filas vivas que se guardan.
+	 * @param datos Los datos empaquetados.
+	 * @param tabla La tabla de pivotes de todas las filas de `datos`, o `null` si no se guarda.
+	 * @param anchoTabla Número de pivotes, y de valores por fila, de la tabla.
+	 * @param columnas Las columnas de la tabla que se guardan.
+	 * @throws IOException Si no se puede escribir el fichero.
+	 */
+	private static void escribir(Path ruta, byte[] metadatos, long posicionMatriz, int[] vivas, DatosEntrenamiento datos,
+			double[] tabla, int anchoTabla, int[] columnas) throws IOException {
+		int dimension = datos.getDimension();
+		try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer cabecera = ByteBuffer.allocate((int) posicionMatriz);
+			cabecera.putInt(MAGICO).putInt(VERSION).putInt(metadatos.length).putInt(0).put(metadatos);
+			cabecera.position(cabecera.capacity());
+			escribirTodo(canal, cabecera);
+
+			ByteBuffer bloque = ByteBuffer.allocate(Math.max(BYTES_POR_ESCRITURA, dimension * Double.BYTES)).order(ORDEN);
+			double[] fila = new double[dimension];
+			for (int viva : vivas) {
+				if (bloque.remaining() < dimension * Double.BYTES) {
+					escribirTodo(canal, bloque);
+				}
+				datos.leerFilas(viva, 1, fila, 0);
+				bloque.asDoubleBuffer().put(fila);
+				bloque.position(bloque.position() + dimension * Double.BYTES);
+			}
+			for (int viva : vivas) {
+				if (bloque.remaining() < Integer.BYTES) {
+					escribirTodo(canal, bloque);
+				}
+				bloque.putInt(datos.getCodigoClase(viva));
+			}
+			for (int viva : vivas) {
+				if (bloque.remaining() < Integer.BYTES) {
+					escribirTodo(canal, bloque);
+				}
+				bloque.putInt(datos.getFilaOriginal(viva));
+			}
+			// Los dos arrays de enteros ocupan 8 bytes por fila, así que la tabla queda alineada.
+			for (int viva : vivas) {
+				for (int columna : columnas) {
+					if (bloque.remaining() < Double.BYTES) {
+						escribirTodo(canal, bloque);
+					}
+					bloque.putDouble(tabla[viva * anchoTabla + columna]);
+				}
+			}
+			escribirTodo(canal, bloque);
+			canal.force(true);
+		}
+	}
+
+	/**
+	 * @brief Abre un modelo guardado proyectando su matriz en memoria.
+	 *
+	 * @param ruta El fichero del modelo.
+	 * @return El contenido del modelo.
+	 * @throws IOException Si no se puede leer el fichero o no tiene el formato esperado.
+	 */
+	static Contenido abrir(Path ruta) throws IOException {
+		try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+			ByteBuffer cabecera = leer(canal, 0, CABECERA);
+			if (cabecera.getInt() != MAGICO) {
+				throw new IOException("El fichero " + ruta + " no es un modelo KNN.");
+			}
+			int version = cabecera.getInt();
+			if (version != VERSION) {
+				throw new IOException("La versión " + version + " del modelo no está soportada.");
+			}
+			int longitud = cabecera.getInt();
+			if (longitud < 0 || CABECERA + (long) longitud > canal.size()) {
+				throw new IOException("Los metadatos del modelo están incompletos.");
+			}
+			byte[] metadatos = new byte[longitud];
+			leer(canal, CABECERA, longitud).get(metadatos);
+
+			Contenido contenido = new Contenido();
+			try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(metadatos))) {
+				contenido.k = entrada.readInt();
+				contenido.votoPonderado = entrada.readBoolean();
+				contenido.distancia = leerDistancia(entrada);
+				int numFilas = entrada.readInt();
+				int dimension = entrada.readInt();
+				int numericas = entrada.readInt();
+				int siguienteIdentificador = entrada.readInt();
+				int preprocesado = entrada.readInt();
+				if (contenido.k <= 0 || numFilas < 0 || dimension < 0 || numericas < 0 || numericas > dimension) {
+					throw new IOException("Los metadatos del modelo no son válidos.");
+				}
+				double[] pesos = new double[dimension];
+				int[] ordenDimensiones = new int[dimension];
+				int[] origen = new int[dimension];
+				for (int j = 0; j < dimension; j++) {
+					pesos[j] = entrada.readDouble();
+					ordenDimensiones[j] = entrada.readInt();
+					origen[j] = entrada.readInt();
+				}
+				List<String> clases = leerTextos(entrada);
+				List<List<String>> valores = new ArrayList<>();
+				for (int j = numericas; j < dimension; j++) {
+					valores.add(leerTextos(entrada));
+				}
+				Distancia preparada = leerPreparada(entrada, contenido.distancia, numericas, dimension);
+				int numPivotes = entrada.readInt();
+				if (numPivotes < 0 || numPivotes > numFilas || (long) numFilas * numPivotes > Integer.MAX_VALUE) {
+					throw new IOException("Los metadatos del modelo no son válidos.");
+				}
+				int[] pivotes = new int[numPivotes];
+				for (int i = 0; i < numPivotes; i++) {
+					pivotes[i] = entrada.readInt();
+					if (pivotes[i] < 0 || pivotes[i] >= numFilas) {
+						throw new IOException("El modelo contiene un pivote no válido.");
+					}
+				}
+
+				long posicionMatriz = alinear(CABECERA + (long) longitud);
+				long bytesMatriz = (long) numFilas * dimension * Double.BYTES;
+				MatrizFueraMonticulo matriz = MatrizFueraMonticulo.mapear(canal, posicionMatriz, numFilas, dimension, ORDEN);
+				int[] codigosClase = leerEnteros(canal, posicionMatriz + bytesMatriz, numFilas);
+				int[] filasOriginales = leerEnteros(canal, posicionMatriz + bytesMatriz + (long) numFilas * Integer.BYTES, numFilas);
+				for (int codigo : codigosClase) {
+					if (codigo < 0 || codigo >= clases.size()) {
+						throw new IOException("El modelo contiene un código de clase no válido.");
+					}
+				}
+				contenido.datos = new DatosEntrenamiento(matriz, numericas, pesos, ordenDimensiones, origen, clases, valores,
+						codigosClase, filasOriginales, siguienteIdentificador, preprocesado);
+				contenido.efectiva = preparada;
+				if (numPivotes > 0) {
+					contenido.pivotes = pivotes;
+					contenido.tabla = leerReales(canal, posicionMatriz + bytesMatriz + 2L * numFilas * Integer.BYTES, numFilas * numPivotes);
+				}
+			}
+			return contenido;
+		}
+	}
+
+	/**
+	 * @brief Escribe el código y los parámetros de una distancia.
+	 *
+	 * @param salida El flujo de los metadatos.
+	 * @param distancia La distancia configurada.
+	 * @throws IOException Si no se puede escribir.
+	 * @throws IllegalArgumentException Si la distancia no puede guardarse.
+	 */
+	private static void escribirDistancia(DataOutputStream salida, Distancia distancia) throws IOException {
+		if (distancia instanceof DistanciaEuclidea) {
+			salida.writeInt(EUCLIDEA);
+		} else if (distancia instanceof DistanciaManhattan) {
+			salida.writeInt(MANHATTAN);
+		} else if (distancia instanceof DistanciaChebyshev) {
+			salida.writeInt(CHEBYSHEV);
+		} else if (distancia instanceof DistanciaCoseno) {
+			salida.writeInt(COSENO);
+		} else if (distancia instanceof DistanciaMinkowski) {
+			salida.writeInt(MINKOWSKI);
+			salida.writeDouble(((DistanciaMinkowski) distancia).getP());
+		} else if (distancia instanceof DistanciaHeterogenea) {
+			salida.writeInt(HETEROGENEA);
+			salida.writeBoolean(((DistanciaHeterogenea) distancia).usaDiferenciaValores());
+		} else if (distancia instanceof DistanciaMahalanobis && distancia.requierePreparacion()) {
+			salida.writeInt(MAHALANOBIS);
+		} else {
+			throw new IllegalArgumentException("La distancia " + distancia.getClass().getSimpleName() + " no puede guardarse en un modelo.");
+		}
+	}
+
+	/**
+	 * @brief Lee una distancia escrita con {@link #escribirDistancia(DataOutputStream, Distancia)}.
+	 *
+	 * @param entrada El flujo de los metadatos.
+	 * @return La distancia, sin preparar.
+	 * @throws IOException Si no se puede leer o el código no es válido.
+	 */
+	private static Distancia leerDistancia(DataInputStream entrada) throws IOException {
+		int codigo = entrada.readInt();
+		switch (codigo) {
+			case EUCLIDEA:
+				return DistanciaEuclidea.preferida();
+			case MANHATTAN:
+				return new DistanciaManhattan();
+			case CHEBYSHEV:
+				return new DistanciaChebyshev();
+			case COSENO:
+				return new DistanciaCoseno();
+			case MINKOWSKI:
+				return new DistanciaMinkowski(entrada.readDouble());
+			case HETEROGENEA:
+				return new DistanciaHeterogenea(entrada.readBoolean());
+			case MAHALANOBIS:
+				return new DistanciaMahalanobis();
+			default:
+				throw new IOException("El código de distancia " + codigo + " no es válido.");
+		}
+	}
+
+	/**
+	 * @brief Escribe el estado de la distancia preparada con la que se comparan los datos.
+	 * <p>
+	 * Se guarda lo que la preparación calculó con los datos al ajustar, no los datos de los que salió,
+	 * porque el fichero solo contiene las filas vivas.
+	 *
+	 * @param salida El flujo de los metadatos.
+	 * @param distancia La distancia configurada.
+	 * @param efectiva La distancia preparada.
+	 * @throws IOException Si no se puede escribir.
+	 * @throws IllegalArgumentException Si la distancia preparada no puede guardarse.
+	 */
+	private static void escribirPreparada(DataOutputStream salida, Distancia distancia, Distancia efectiva) throws IOException {
+		if (efectiva instanceof DistanciaHeterogenea && !efectiva.requierePreparacion()) {
+			DistanciaHeterogenea heterogenea = (DistanciaHeterogenea) efectiva;
+			salida.writeInt(HETEROGENEA);
+			salida.writeBoolean(heterogenea.usaDiferenciaValores());
+			for (double escala : heterogenea.getEscalas()) {
+				salida.writeDouble(escala);
+			}
+			double[][] tablas = heterogenea.getTablas();
+			int[] numValores = heterogenea.getNumValores();
+			for (int c = 0; c < numValores.length; c++) {
+				salida.writeInt(numValores[c]);
+				if (tablas != null) {
+					for (double valor : tablas[c]) {
+						salida.writeDouble(valor);
+					}
+				}
+			}
+		} else if (efectiva instanceof DistanciaMahalanobis && efectiva != distancia) {
+			DistanciaMahalanobis mahalanobis = (DistanciaMahalanobis) efectiva;
+			salida.writeInt(MAHALANOBIS);
+			for (double valor : mahalanobis.getTransformacion()) {
+				salida.writeDouble(valor);
+			}
+			for (int j = 0; j < mahalanobis.getDimension(); j++) {
+				salida.writeInt(mahalanobis.getDesdeColumna()[j]);
+				salida.writeInt(mahalanobis.getHastaColumna()[j]);
+			}
+		} else if (efectiva == distancia) {
+			salida.writeInt(SIN_PREPARACION);
+		} else {
+			throw new IllegalArgumentException("La distancia " + efectiva.getClass().getSimpleName() + " no puede guardarse en un modelo.");
+		}
+	}
+
+	/**
+	 * @brief Lee el estado escrito con {@link #escribirPreparada(DataOutputStream, Distancia, Distancia)}.
+	 *
+	 * @param entrada El flujo de los metadatos.
+	 * @param distancia La distancia configurada, ya leída.
+	 * @param numericas Número de dimensiones numéricas de los datos.
+	 * @param dimension Número total de dimensiones de los datos.
+	 * @return La distancia preparada, restaurada sin recorrer los datos.
+	 * @throws IOException Si no se puede leer o el estado no corresponde a los datos.
+	 */
+	private static Distancia leerPreparada(DataInputStream entrada, Distancia distancia, int numericas, int dimension) throws IOException {
+		int codigo = entrada.readInt();
+		switch (codigo) {
+			case SIN_PREPARACION:
+				if (distancia.requierePreparacion()) {
+					throw new IOException("Falta la distancia preparada del modelo.");
+				}
+				return distancia;
+			case HETEROGENEA: {
+				boolean diferenciaValores = entrada.readBoolean();
+				double[] escalas = new double[numericas];
+				for (int j = 0; j < numericas; j++) {
+					escalas[j] = entrada.readDouble();
+				}
+				int[] numValores = new int[dimension - numericas];
+				double[][] tablas = diferenciaValores ? new double[numValores.length][] : null;
+				for (int c = 0; c < numValores.length; c++) {
+					numValores[c] = entrada.readInt();
+					if (numValores[c] < 0 || (diferenciaValores && (long) numValores[c] * numValores[c] > Integer.MAX_VALUE)) {
+						throw new IOException("Los metadatos del modelo no son válidos.");
+					}
+					if (diferenciaValores) {
+						tablas[c] = new double[numValores[c] * numValores[c]];
+						for (int i = 0; i < tablas[c].length; i++) {
+							tablas[c][i] = entrada.readDouble();
+						}
+					}
+				}
+				return new DistanciaHeterogenea(diferenciaValores, numericas, dimension, escalas, numValores, tablas);
+			}
+			case MAHALANOBIS: {
+				double[] transformacion = new double[dimension * dimension];
+				for (int i = 0; i < transformacion.length; i++) {
+					transformacion[i] = entrada.readDouble();
+				}
+				int[] desde = new int[dimension];
+				int[] hasta = new int[dimension];
+				for (int j = 0; j < dimension; j++) {
+					desde[j] = entrada.readInt();
+					hasta[j] = entrada.readInt();
+					if (desde[j] < 0 || hasta[j] < desde[j] || hasta[j] > dimension) {
+						throw new IOException("Los metadatos del modelo no son válidos.");
+					}
+				}
+				return new DistanciaMahalanobis(dimension, transformacion, desde, hasta);
+			}
+			default:
+				throw new IOException("El código de distancia preparada " + codigo + " no es válido.");
+		}
+	}
+
+	/**
+	 * @brief Escribe una lista de textos precedida de su tamaño.
+	 *
+	 * @param salida El flujo de los metadatos.
+	 * @param textos Los textos.
+	 * @throws IOException Si no se puede escribir.
+	 */
+	private static void escribirTextos(DataOutputStream salida, List<String> textos) throws IOException {
+		salida.writeInt(textos.size());
+		for (String texto : textos) {
+			salida.writeUTF(texto);
+		}
+	}
+
+	/**
+	 * @brief Lee una lista de textos escrita con {@link #escribirTextos(DataOutputStream, List)}.
+	 *
+	 * @param entrada El flujo de los metadatos.
+	 * @return Los textos.
+	 * @throws IOException Si no se puede leer.
+	 */
+	private static List<String> leerTextos(DataInputStream entrada) throws IOException {
+		int tamano = entrada.readInt();
+		if (tamano < 0) {
+			throw new IOException("Los metadatos del modelo no son válidos.");
+		}
+		List<String> textos = new ArrayList<>(Math.min(tamano, 1024));
+		for (int i = 0; i < tamano; i++) {
+			textos.add(entrada.readUTF());
+		}
+		return textos;
+	}
+
+	/**
+	 * @brief Lee enteros consecutivos del fichero.
+	 *
+	 * @param canal El canal del fichero.
+	 * @param posicion La posición del primer entero.
+	 * @param cantidad El número de enteros.
+	 * @return Los enteros.
+	 * @throws IOException Si el fichero no los contiene.
+	 */
+	private static int[] leerEnteros(FileChannel canal, long posicion, int cantidad) throws IOException {
+		long bytes = (long) cantidad * Integer.BYTES;
+		if (posicion + bytes > canal.size()) {
+			throw new IOException("El fichero del modelo está incompleto.");
+		}
+		int[] enteros = new int[cantidad];
+		if (cantidad > 0) {
+			IntBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, posicion, bytes).order(ORDEN).asIntBuffer();
+			buffer.get(enteros);
+		}
+		return enteros;
+	}
+
+	/**
+	 * @brief Lee valores {@code double} consecutivos del fichero.
+	 *
+	 * @param canal El canal del fichero.
+	 * @param posicion La posición del primer valor.
+	 * @param cantidad El número de valores.
+	 * @return Los valores.
+	 * @throws IOException Si el fichero no los contiene.
+	 */
+	private static double[] leerReales(FileChannel canal, long posicion, int cantidad) throws IOException {
+		long bytes = (long) cantidad * Double.BYTES;
+		if (posicion + bytes > canal.size()) {
+			throw new IOException("El fichero del modelo está incompleto.");
+		}
+		double[] reales = new double[cantidad];
+		// Una proyección no puede superar los 2 GiB, así que la tabla se lee por tramos.
+		int porTramo = Integer.MAX_VALUE / Double.BYTES;
+		int leidos = 0;
+		while (leidos < cantidad) {
+			int tramo = Math.min(porTramo, cantidad - leidos);
+			DoubleBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, posicion + (long) leidos * Double.BYTES,
+					(long) tramo * Double.BYTES).order(ORDEN).asDoubleBuffer();
+			buffer.get(reales, leidos, tramo);
+			leidos += tramo;
+		}
+		return reales;
+	}
+
+	/**
+	 * @brief Lee un tramo del fichero.
+	 *
+	 * @param canal El canal del fichero.
+	 * @param posicion La posición del primer byte.
+	 * @param longitud El número de bytes.
+	 * @return Un búfer con los bytes leídos, listo para leer.
+	 * @throws IOException Si el fichero termina antes.
+	 */
+	private static ByteBuffer leer(FileChannel canal, long posicion, int longitud) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(longitud);
+		while (buffer.hasRemaining()) {
+			if (canal.read(buffer, posicion + buffer.position()) < 0) {
+				throw new IOException("El fichero del modelo está incompleto.");
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * @brief Escribe en el canal lo que contiene un búfer y lo deja vacío.
+	 *
+	 * @param canal El canal del fichero.
+	 * @param buffer El búfer, con la posición tras el último byte a escribir.
+	 * @throws IOException Si no se puede escribir.
+	 */
+	private static void escribirTodo(FileChannel canal, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			canal.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * @brief Redondea una posición al siguiente múltiplo de 8.
+	 *
+	 * @param posicion La posición.
+	 * @return La posición alineada.
+	 */
+	private static long alinear(long posicion) {
+		return (posicion + 7) & ~7L;
+	}
+}
@@ -0,0 +1,229 @@
+package clasificacion;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * @file BusquedaExhaustiva.java
+ * @brief Búsqueda de vecinos por fuerza bruta sobre los datos empaquetados.
+ *
+ * Calcula la distancia de la consulta a todas las filas recorriendo el array contiguo de
+ * {@link DatosEntrenamiento}; por defecto, la euclídea cuadrada ponderada de
+ * {@link DistanciaEuclidea#preferida()}. Es la estrategia por
+ * defecto de {@link KNN} y la referencia exacta con la que se comparan los demás índices.
+ * Con las distancias euclídea y del coseno (no sus subclases), los lotes de consultas se resuelven por bloques
+ * con {@link NucleoDistanciasBloque}, y una consulta sobre muchas filas puede repartirse en tramos
+ * entre los hilos de un pool, cada uno con sus propios mejores vecinos, que después se combinan.
+ * Si las filas están fuera del montículo ({@link DatosEntrenamiento#moverFueraMonticulo()}), se
+ * copian por bloques a un array auxiliar antes de calcular sus distancias. Recorre las filas que tenían los datos al crearse; las
+ * añadidas después las recorre {@link IndiceIncremental}.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class BusquedaExhaustiva implements IndiceVecinos {
+	/**
+	 * @brief Número mínimo de valores (filas por dimensión) de cada tramo en que se reparte una consulta.
+	 */
+	private static final int VALORES_POR_TRAMO = 1 << 16;
+	/**
+	 * @brief Número de valores que se copian de una vez de las filas fuera del montículo.
+	 */
+	private static final int VALORES_POR_BLOQUE = 1 << 12;
+
+	/**
+	 * @brief Los datos empaquetados sobre los que se busca.
+	 */
+	private final DatosEntrenamiento datos;
+	/**
+	 * @brief La distancia utilizada.
+	 */
+	private final Distancia distancia;
+	/**
+	 * @brief Núcleo por bloques utilizado para los lotes de consultas, o `null` si la distancia no lo admite.
+	 */
+	private final NucleoDistanciasBloque nucleo;
+	/**
+	 * @brief Número de filas recorridas: las que tenían los datos al crear la búsqueda.
+	 */
+	private final int numFilas;
+
+	/**
+	 * @brief Crea la búsqueda exhaustiva con la distancia euclídea ponderada.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a recorrer.
+	 */
+	public BusquedaExhaustiva(DatosEntrenamiento datos) {
+		this(datos, DistanciaEuclidea.preferida());
+	}
+
+	/**
+	 * @brief Crea la búsqueda exhaustiva con una distancia concreta.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a recorrer.
+	 * @param distancia La distancia a utilizar.
+	 * @throws IllegalArgumentException Si la distancia es nula o no admite los atributos cualitativos de los datos.
+	 */
+	public BusquedaExhaustiva(DatosEntrenamiento datos, Distancia distancia) {
+		if (distancia == null) {
+			throw new IllegalArgumentException("La distancia no puede ser nula.");
+		}
+		if (datos.numeroCategoricas() > 0 && !distancia.admiteCategoricos()) {
+			throw new IllegalArgumentException("La distancia no admite atributos cualitativos.");
+		}
+		this.datos = datos;
+		this.distancia = distancia;
+		this.numFilas = datos.numeroFilas();
+		if (!datos.estaFueraMonticulo() && NucleoDistanciasBloque.admite(distancia)) {
+			this.nucleo = new NucleoDistanciasBloque(datos, distancia);
+		} else {
+			this.nucleo = null;
+		}
+	}
+
+	/**
+	 * @brief Recorre todas las filas y ofrece cada una al montículo de vecinos.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 */
+	@Override
+	public void buscar(double[] consulta, MonticuloVecinos vecinos) {
+		recorrer(consulta, vecinos, 0, numFilas);
+	}
+
+	/**
+	 * @brief Reparte las filas en tramos contiguos que se recorren en paralelo y combina sus vecinos.
+	 * <p>
+	 * Cada tramo acumula sus K mejores en un montículo propio, con las mismas filas excluidas, y
+	 * los montículos se ofrecen después al recibido en el orden de los tramos. Con pocas filas, o si
+	 * el hilo actual ya pertenece a un pool (por ejemplo, en una clasificación por lotes), se recorre
+	 * en el hilo actual.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 * @param pool El {@link ForkJoinPool} en el que se reparten los tramos.
+	 */
+	@Override
+	public void buscar(double[] consulta, MonticuloVecinos vecinos, ForkJoinPool pool) {
+		int filasPorTramo = Math.max(1, VALORES_POR_TRAMO / Math.max(1, datos.getDimension()));
+		int tramos = Math.min(pool.getParallelism(), numFilas / filasPorTramo);
+		if (tramos < 2 || ForkJoinTask.inForkJoinPool()) {
+			buscar(consulta, vecinos);
+			return;
+		}
+		MonticuloVecinos[] parciales = new MonticuloVecinos[tramos];
+		for (int t = 0; t < tramos; t++) {
+			parciales[t] = new MonticuloVecinos(vecinos.capacidad());
+			parciales[t].setExcluidas(vecinos.getExcluidas());
+		}
+		// Cada subrango de un solo tramo recorre su parte de las filas en su propio montículo.
+		pool.invoke(new TareaRango(0, tramos, 1, (desde, hasta) -> {
+			for (int t = desde; t < hasta; t++) {
+				recorrer(consulta, parciales[t], (int) ((long) numFilas * t / tramos), (int) ((long) numFilas * (t + 1) / tramos));
+			}
+		}));
+		for (MonticuloVecinos parcial : parciales) {
+			for (int i = 0; i < parcial.tamano(); i++) {
+				vecinos.ofrecer(parcial.getDistancia(i), parcial.getFila(i));
+			}
+		}
+	}
+
+	/**
+	 * @brief Ofrece al montículo de vecinos las filas de un tramo.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 * @param desde Primera fila del tramo (incluida).
+	 * @param hasta Última fila del tramo (excluida).
+	 */
+	private void recorrer(double[] consulta, MonticuloVecinos vecinos, int desde, int hasta) {
+		MatrizFueraMonticulo matriz = datos.getMatriz();
+		double[] pesos = datos.getPesos();
+		int dimension = datos.getDimension();
+		if (matriz == null) {
+			double[] filas = datos.getFilas();
+			for (int fila = desde, base = desde * dimension; fila < hasta; fila++, base += dimension) {
+				// La K-ésima mejor distancia actual permite abandonar los candidatos que no entrarán.
+				vecinos.ofrecer(distancia.calcularAcotada(consulta, 0, filas, base, dimension, pesos, vecinos.peorDistancia()), fila);
+			}
+			return;
+		}
+		int filasPorBloque = Math.max(1, VALORES_POR_BLOQUE / Math.max(dimension, 1));
+		double[] bloque = new double[filasPorBloque * dimension];
+		for (int inicio = desde; inicio < hasta; inicio += filasPorBloque) {
+			int fin = Math.min(inicio + filasPorBloque, hasta);
+			matriz.leer(inicio, fin - inicio, bloque, 0);
+			for (int fila = inicio, base = 0; fila < fin; fila++, base += dimension) {
+				vecinos.ofrecer(distancia.calcularAcotada(consulta, 0, bloque, base, dimension, pesos, vecinos.peorDistancia()), fila);
+			}
+		}
+	}
+
+	/**
+	 * @brief Recorre todas las filas y conserva las que están dentro del radio.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param radio El radio, en las unidades de {@link Distancia#calcular}.
+	 * @return Un {@link MonticuloVecinos}, sin ordenar, con exactamente las filas dentro del radio.
+	 */
+	@Override
+	public MonticuloVecinos buscarRadio(double[] consulta, double radio) {
+		MatrizFueraMonticulo matriz = datos.getMatriz();
+		double[] pesos = datos.getPesos();
+		int dimension = datos.getDimension();
+		int filasPorBloque = matriz == null ? Math.max(numFilas, 1) : Math.max(1, VALORES_POR_BLOQUE / Math.max(dimension, 1));
+		double[] bloque = matriz == null ? datos.getFilas() : new double[filasPorBloque * dimension];
+		// Con la cota justo por encima del radio, todo valor que no la alcance es exacto y está dentro.
+		double cota = Math.nextUp(radio);
+		int[] encontradas = new int[16];
+		double[] distancias = new double[16];
+		int dentro = 0;
+		for (int inicio = 0; inicio < numFilas; inicio += filasPorBloque) {
+			int fin = Math.min(inicio + filasPorBloque, numFilas);
+			// En el montículo, el bloque es el propio array de filas; fuera, cada bloque se copia al auxiliar.
+			int primera = 0;
+			if (matriz != null) {
+				matriz.leer(inicio, fin - inicio, bloque, 0);
+				primera = inicio;
+			}
+			for (int fila = inicio; fila < fin; fila++) {
+				double valor = distancia.calcularAcotada(consulta, 0, bloque, (fila - primera) * dimension, dimension, pesos, cota);
+				if (valor < cota) {
+					if (dentro == encontradas.length) {
+						encontradas = Arrays.copyOf(encontradas, 2 * dentro);
+						distancias = Arrays.copyOf(distancias, 2 * dentro);
+					}
+					encontradas[dentro] = fila;
+					distancias[dentro] = valor;
+					dentro++;
+				}
+			}
+		}
+		MonticuloVecinos resultado = new MonticuloVecinos(Math.max(dentro, 1));
+		for (int i = 0; i < dentro; i++) {
+			resultado.ofrecer(distancias[i], encontradas[i]);
+		}
+		return resultado;
+	}
+
+	/**
+	 * @brief Calcula por bloques las distancias de un lote de consultas a todas las filas.
+	 * <p>
+	 * Con las distancias que no admite el núcleo por bloques se recorre consulta a consulta.
+	 *
+	 * @param consultas Las consultas. Las consultas nulas se ignoran.
+	 * @param vecinos Un {@link MonticuloVecinos} por consulta donde se acumulan los resultados.
+	 */
+	@Override
+	public void buscarLote(double[][] consultas, MonticuloVecinos[] vecinos) {
+		if (nucleo == null) {
+			IndiceVecinos.super.buscarLote(consultas, vecinos);
+			return;
+		}
+		nucleo.calcular(consultas, vecinos);
+	}
+}
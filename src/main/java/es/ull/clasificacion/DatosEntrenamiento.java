@@ -0,0 +1,994 @@
+package clasificacion;
+
+import datos.Atributo;
+import datos.Cualitativo;
+import datos.Dataset;
+import datos.Instancia;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import vectores.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file DatosEntrenamiento.java
+ * @brief Representación empaquetada en memoria contigua de un {@link Dataset} de entrenamiento.
+ *
+ * Al ajustar el clasificador, las instancias del dataset se recorren una única vez y
+ * sus valores numéricos se copian en un array de {@code double} ordenado por filas.
+ * Las clases se codifican como enteros y los pesos de los atributos se guardan en un
+ * array primitivo, de forma que las consultas posteriores no necesitan reconstruir
+ * objetos {@link Instancia}, {@link Vector} ni listas de pesos por cada fila.
+ *
+ * Opcionalmente, las dimensiones se reordenan de mayor a menor {@code peso * varianza} para
+ * que las distancias acotadas ({@link Distancia#calcularAcotada}) sumen primero los términos
+ * que más aportan y abandonen antes. El reordenamiento es interno: {@link #prepararConsulta(Instancia)}
+ * aplica la misma permutación a las consultas y las distancias no cambian.
+ *
+ * Los atributos {@link Cualitativo} se codifican una única vez, al empaquetar, como enteros
+ * (el índice de cada valor en un diccionario por atributo) y se guardan tras las dimensiones
+ * numéricas: cada fila contiene primero los {@link #numeroNumericas()} valores numéricos y después
+ * los {@link #numeroCategoricas()} códigos. Solo las distancias que lo declaran
+ * ({@link Distancia#admiteCategoricos()}) interpretan esos códigos; los valores de una consulta
+ * que no aparecen en el entrenamiento se codifican como {@link #VALOR_DESCONOCIDO}.
+ *
+ * Tras empaquetar pueden añadirse filas ({@link #anadir(Instancia)}), que reservan capacidad
+ * duplicando los arrays, y eliminarse marcándolas ({@link #eliminar(int)}) sin mover las demás;
+ * {@link #compactar()} crea unos datos nuevos solo con las filas vivas. Cada fila conserva un
+ * identificador estable ({@link #getFilaOriginal(int)}): el índice de su instancia en el
+ * {@link Dataset} o, para las añadidas, un número consecutivo a partir de su tamaño. Las
+ * modificaciones no están sincronizadas; {@link KNN} las excluye de las consultas con un cerrojo.
+ *
+ * Con {@link #moverFueraMonticulo()}, los valores de las filas pasan a una {@link MatrizFueraMonticulo}
+ * y el array del montículo se libera; para datos que no caben en el montículo, el constructor puede
+ * escribirlas directamente en la matriz. Desde entonces solo los recorre {@link BusquedaExhaustiva} y
+ * no pueden añadirse filas, aunque sí eliminarse y compactarse (los datos compactados siguen fuera).
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class DatosEntrenamiento {
+	/**
+	 * @brief Código de los valores cualitativos que no aparecen en los datos de entrenamiento.
+	 */
+	public static final int VALOR_DESCONOCIDO = -1;
+	/**
+	 * @brief Número máximo de valores del array de filas del montículo (el límite de tamaño de los arrays de la JVM).
+	 */
+	private static final int MAXIMO_VALORES_MONTICULO = Integer.MAX_VALUE - 8;
+
+	/**
+	 * @brief Valores numéricos de todas las filas, almacenados consecutivamente (fila a fila).
+	 */
+	private double[] filas;
+	/**
+	 * @brief Valores de las filas fuera del montículo, o `null` si están en {@link #filas}.
+	 */
+	private MatrizFueraMonticulo matriz;
+	/**
+	 * @brief Código entero de la clase de cada fila. Su tamaño es la capacidad reservada.
+	 */
+	private int[] codigosClase;
+	/**
+	 * @brief Identificador de cada fila, en orden creciente: el índice en el {@link Dataset} de su
+	 * instancia o, para las filas añadidas, un número consecutivo.
+	 */
+	private int[] filasOriginales;
+	/**
+	 * @brief Marca de las filas eliminadas, o `null` si no se ha eliminado ninguna.
+	 */
+	private boolean[] eliminadas;
+	/**
+	 * @brief Número de filas marcadas como eliminadas.
+	 */
+	private int numEliminadas;
+	/**
+	 * @brief Identificador que recibirá la próxima fila añadida.
+	 */
+	private int siguienteIdentificador;
+	/**
+	 * @brief Peso de cada dimensión empaquetada (sin el peso de la clase).
+	 */
+	private final double[] pesos;
+	/**
+	 * @brief Nombres de las clases, indexados por su código.
+	 */
+	private final List<String> clases;
+	/**
+	 * @brief Código de cada clase a partir de su nombre.
+	 */
+	private final Map<String, Integer> indiceClases;
+	/**
+	 * @brief Número de filas empaquetadas, incluidas las eliminadas.
+	 */
+	private int numFilas;
+	/**
+	 * @brief Número de valores (numéricos y códigos cualitativos) de cada fila.
+	 */
+	private final int dimension;
+	/**
+	 * @brief Número de dimensiones numéricas, que ocupan las primeras posiciones de cada fila.
+	 */
+	private final int numericas;
+	/**
+	 * @brief Atributo original de cada dimensión empaquetada (la identidad si no se reordena).
+	 */
+	private final int[] ordenDimensiones;
+	/**
+	 * @brief Origen del valor de cada dimensión al preparar una consulta: la posición en
+	 * {@link Instancia#getVector()} para las numéricas y en {@link Instancia#getValores()} para las cualitativas.
+	 */
+	private final int[] origen;
+	/**
+	 * @brief Diccionario de cada dimensión cualitativa, del valor a su código.
+	 */
+	private final List<Map<String, Integer>> diccionarios;
+	/**
+	 * @brief Preprocesado que tenía el dataset al empaquetarlo ({@link Dataset#getPreprocesado()}).
+	 */
+	private final int preprocesado;
+
+	/**
+	 * @brief Empaqueta un {@link Dataset} de entrenamiento conservando el orden de los atributos.
+	 *
+	 * @param entrenamiento El {@link Dataset} a empaquetar.
+	 * @throws IllegalArgumentException Si el dataset es nulo o vacío, o si la lista de pesos no es válida.
+	 */
+	public DatosEntrenamiento(Dataset entrenamiento) {
+		this(entrenamiento, false);
+	}
+
+	/**
+	 * @brief Empaqueta un {@link Dataset} de entrenamiento.
+	 * <p>
+	 * Las instancias con vector nulo o cuyo número de valores numéricos no coincide con el de
+	 * atributos {@link datos.Cuantitativo} se omiten, igual que en la clasificación sin ajustar.
+	 *
+	 * @param entrenamiento El {@link Dataset} a empaquetar.
+	 * @param ordenarDimensiones Si es `true`, las dimensiones numéricas se reordenan de mayor a menor `peso * varianza`.
+	 * @throws IllegalArgumentException Si el dataset es nulo o vacío, o si la lista de pesos no es válida.
+	 */
+	public DatosEntrenamiento(Dataset entrenamiento, boolean ordenarDimensiones) {
+		this(entrenamiento, ordenarDimensiones, false);
+	}
+
+	/**
+	 * @brief Empaqueta un {@link Dataset} de entrenamiento en el montículo o directamente fuera de él.
+	 * <p>
+	 * Fuera del montículo, cada instancia se escribe en una {@link MatrizFueraMonticulo} en cuanto se
+	 * convierte, sin reunir antes todos los valores en un array, así que el total de valores puede
+	 * superar el tamaño máximo de un array de Java. En el montículo, ese total está limitado por él.
+	 *
+	 * @param entrenamiento El {@link Dataset} a empaquetar.
+	 * @param ordenarDimensiones Si es `true`, las dimensiones numéricas se reordenan de mayor a menor `peso * varianza`.
+	 * @param fueraMonticulo Si es `true`, las filas se guardan fuera del montículo, como tras {@link #moverFueraMonticulo()}.
+	 * @throws IllegalArgumentException Si el dataset es nulo o vacío, si la lista de pesos no es válida o si
+	 * los valores no caben en un array del montículo.
+	 */
+	public DatosEntrenamiento(Dataset entrenamiento, boolean ordenarDimensiones, boolean fueraMonticulo) {
+		if (entrenamiento == null || entrenamiento.numeroCasos() == 0) {
+			throw new IllegalArgumentException("El dataset de entrenamiento no puede ser nulo ni estar vacío.");
+		}
+		List<Double> pesosDouble = entrenamiento.getPesosDouble();
+		if (pesosDouble == null || pesosDouble.isEmpty()) {
+			throw new IllegalArgumentException("La lista de pesos del dataset no es válida.");
+		}
+		// El último peso corresponde a la clase y no participa en la distancia.
+		this.dimension = pesosDouble.size() - 1;
+		this.preprocesado = entrenamiento.getPreprocesado();
+		List<Atributo> atributos = entrenamiento.getAtributos();
+		int categoricas = 0;
+		for (int i = 0; i < dimension; i++) {
+			if (esCualitativo(atributos, i)) {
+				categoricas++;
+			}
+		}
+		this.numericas = dimension - categoricas;
+		int[] columnas = separarColumnas(atributos, dimension);
+		this.pesos = new double[dimension];
+		for (int j = 0; j < dimension; j++) {
+			pesos[j] = pesosDouble.get(columnas[j]);
+		}
+		this.diccionarios = new ArrayList<>(categoricas);
+		for (int c = 0; c < categoricas; c++) {
+			diccionarios.add(new HashMap<>());
+		}
+
+		int totalCasos = entrenamiento.numeroCasos();
+		double[] valores;
+		if (fueraMonticulo) {
+			// Fuera del montículo solo se reserva una fila en él; las omitidas se descartan al final.
+			this.matriz = new MatrizFueraMonticulo(totalCasos, dimension);
+			valores = new double[dimension];
+		} else {
+			if ((long) totalCasos * dimension > MAXIMO_VALORES_MONTICULO) {
+				throw new IllegalArgumentException("El dataset tiene " + ((long) totalCasos * dimension)
+						+ " valores, más de los que caben en un array del montículo; deben guardarse fuera de él.");
+			}
+			valores = new double[totalCasos * dimension];
+		}
+		int[] codigos = new int[totalCasos];
+		int[] indices = new int[totalCasos];
+		this.clases = new ArrayList<>();
+		this.indiceClases = new HashMap<>();
+		int fila = 0;
+		for (int i = 0; i < totalCasos; i++) {
+			Instancia instancia = entrenamiento.getInstance(i);
+			Vector vector = instancia.getVector();
+			if (vector == null) {
+				continue;
+			}
+			if (vector.size() != numericas) {
+				Logger logger = LoggerFactory.getLogger(DatosEntrenamiento.class);
+				if (logger.isErrorEnabled()) {
+					logger.error("Error: La instancia {} tiene {} atributos numéricos y se esperaban {}; se omite.", i, vector.size(), numericas);
+				}
+				continue;
+			}
+			int base = (matriz == null) ? fila * dimension : 0;
+			for (int j = 0; j < numericas; j++) {
+				valores[base + j] = vector.get(j);
+			}
+			if (categoricas > 0) {
+				List<Object> originales = instancia.getValores();
+				for (int j = numericas; j < dimension; j++) {
+					Object valor = columnas[j] < originales.size() ? originales.get(columnas[j]) : null;
+					valores[base + j] = codificar(j, valor, true);
+				}
+			}
+			if (matriz != null) {
+				matriz.escribir(fila, 1, valores, 0);
+			}
+			codigos[fila] = codificarClase(instancia.getClase());
+			indices[fila] = i;
+			fila++;
+		}
+		this.numFilas = fila;
+		if (matriz == null) {
+			this.filas = (fila == totalCasos) ? valores : Arrays.copyOf(valores, fila * dimension);
+		} else if (fila < totalCasos) {
+			this.matriz = matriz.seleccionar(identidad(fila));
+		}
+		this.codigosClase = (fila == totalCasos) ? codigos : Arrays.copyOf(codigos, fila);
+		this.filasOriginales = (fila == totalCasos) ? indices : Arrays.copyOf(indices, fila);
+		this.siguienteIdentificador = totalCasos;
+		int[] orden = ordenarDimensiones ? calcularOrden() : identidad(dimension);
+		this.ordenDimensiones = new int[dimension];
+		this.origen = new int[dimension];
+		for (int j = 0; j < dimension; j++) {
+			ordenDimensiones[j] = columnas[orden[j]];
+			// Las numéricas se leen del vector de la consulta, que solo contiene los valores numéricos.
+			origen[j] = (j < numericas) ? orden[j] : columnas[j];
+		}
+		permutar(orden);
+	}
+
+	/**
+	 * @brief Crea unos datos con una selección de las filas de otros.
+	 * <p>
+	 * Comparten con la fuente los pesos, el orden de las dimensiones, las clases y los diccionarios,
+	 * así que los códigos y las consultas preparadas son válidos en ambos.
+	 *
+	 * @param fuente Los datos de los que se copian las filas.
+	 * @param seleccion Las filas de `fuente` a copiar, en el orden en que se guardarán.
+	 */
+	private DatosEntrenamiento(DatosEntrenamiento fuente, int[] seleccion) {
+		this.dimension = fuente.dimension;
+		this.numericas = fuente.numericas;
+		this.pesos = fuente.pesos;
+		this.ordenDimensiones = fuente.ordenDimensiones;
+		this.origen = fuente.origen;
+		this.clases = fuente.clases;
+		this.indiceClases = fuente.indiceClases;
+		this.diccionarios = fuente.diccionarios;
+		this.preprocesado = fuente.preprocesado;
+		this.siguienteIdentificador = fuente.siguienteIdentificador;
+		this.numFilas = seleccion.length;
+		if (fuente.matriz != null) {
+			this.matriz = fuente.matriz.seleccionar(seleccion);
+		} else {
+			this.filas = new double[numFilas * dimension];
+		}
+		this.codigosClase = new int[numFilas];
+		this.filasOriginales = new int[numFilas];
+		for (int i = 0; i < numFilas; i++) {
+			if (filas != null) {
+				System.arraycopy(fuente.filas, seleccion[i] * dimension, filas, i * dimension, dimension);
+			}
+			codigosClase[i] = fuente.codigosClase[seleccion[i]];
+			filasOriginales[i] = fuente.filasOriginales[seleccion[i]];
+		}
+	}
+
+	/**
+	 * @brief Reconstruye unos datos guardados cuyas filas ya están fuera del montículo.
+	 * <p>
+	 * Lo usa {@link ArchivoModelo} para abrir un modelo sin volver a empaquetar el dataset.
+	 *
+	 * @param matriz Los valores de las filas, con las dimensiones ya ordenadas y codificadas.
+	 * @param numericas El número de dimensiones numéricas.
+	 * @param pesos El peso de cada dimensión.
+	 * @param ordenDimensiones El atributo original de cada dimensión.
+	 * @param origen El origen del valor de cada dimensión al preparar una consulta.
+	 * @param clases Los nombres de las clases, por código.
+	 * @param valores Los valores de cada dimensión cualitativa, por código.
+	 * @param codigosClase El código de clase de cada fila.
+	 * @param filasOriginales El identificador de cada fila.
+	 * @param siguienteIdentificador El identificador que recibiría la próxima fila añadida.
+	 * @param preprocesado El preprocesado del dataset original.
+	 */
+	DatosEntrenamiento(MatrizFueraMonticulo matriz, int numericas, double[] pesos, int[] ordenDimensiones, int[] origen,
+			List<String> clases, List<List<String>> valores, int[] codigosClase, int[] filasOriginales,
+			int siguienteIdentificador, int preprocesado) {
+		this.matriz = matriz;
+		this.numFilas = matriz.numeroFilas();
+		this.dimension = matriz.getDimension();
+		this.numericas = numericas;
+		this.pesos = pesos;
+		this.ordenDimensiones = ordenDimensiones;
+		this.origen = origen;
+		this.clases = new ArrayList<>(clases);
+		this.indiceClases = new HashMap<>();
+		for (int codigo = 0; codigo < clases.size(); codigo++) {
+			indiceClases.put(clases.get(codigo), codigo);
+		}
+		this.diccionarios = new ArrayList<>(valores.size());
+		for (List<String> lista : valores) {
+			Map<String, Integer> diccionario = new HashMap<>();
+			for (int codigo = 0; codigo < lista.size(); codigo++) {
+				diccionario.put(lista.get(codigo), codigo);
+			}
+			diccionarios.add(diccionario);
+		}
+		this.codigosClase = codigosClase;
+		this.filasOriginales = filasOriginales;
+		this.siguienteIdentificador = siguienteIdentificador;
+		this.preprocesado = preprocesado;
+	}
+
+	/**
+	 * @brief Separa los atributos numéricos de los cualitativos, conservando su orden relativo.
+	 * <p>
+	 * Si el dataset no describe sus atributos, todos se consideran numéricos.
+	 *
+	 * @param atributos Los atributos del dataset (incluida la clase).
+	 * @param dimension El número de atributos sin la clase.
+	 * @return Los índices de los atributos numéricos seguidos de los de los cualitativos.
+	 */
+	private static int[] separarColumnas(List<Atributo> atributos, int dimension) {
+		int[] columnas = new int[dimension];
+		int siguiente = 0;
+		for (int i = 0; i < dimension; i++) {
+			if (!esCualitativo(atributos, i)) {
+				columnas[siguiente++] = i;
+			}
+		}
+		for (int i = 0; i < dimension; i++) {
+			if (esCualitativo(atributos, i)) {
+				columnas[siguiente++] = i;
+			}
+		}
+		return columnas;
+	}
+
+	/**
+	 * @brief Indica si un atributo del dataset es cualitativo.
+	 *
+	 * @param atributos Los atributos del dataset, o `null`.
+	 * @param indice El índice del atributo.
+	 * @return `true` si el atributo existe y es {@link Cualitativo}.
+	 */
+	private static boolean esCualitativo(List<Atributo> atributos, int indice) {
+		return atributos != null && indice < atributos.size() && atributos.get(indice) instanceof Cualitativo;
+	}
+
+	/**
+	 * @brief Obtiene el código de un valor cualitativo.
+	 *
+	 * @param dimensionCategorica La dimensión empaquetada del atributo cualitativo.
+	 * @param valor El valor a codificar.
+	 * @param anadir Si es `true`, los valores nuevos se añaden al diccionario.
+	 * @return El código del valor, o {@link #VALOR_DESCONOCIDO} si es nulo o no está en el diccionario.
+	 */
+	private int codificar(int dimensionCategorica, Object valor, boolean anadir) {
+		if (valor == null) {
+			return VALOR_DESCONOCIDO;
+		}
+		Map<String, Integer> diccionario = diccionarios.get(dimensionCategorica - numericas);
+		String texto = valor.toString();
+		Integer codigo = diccionario.get(texto);
+		if (codigo == null) {
+			if (!anadir) {
+				return VALOR_DESCONOCIDO;
+			}
+			codigo = diccionario.size();
+			diccionario.put(texto, codigo);
+		}
+		return codigo;
+	}
+
+	/**
+	 * @brief Obtiene el código de una clase, añadiéndola si es nueva.
+	 *
+	 * @param clase El nombre de la clase.
+	 * @return Su código entero.
+	 */
+	private int codificarClase(String clase) {
+		Integer codigo = indiceClases.get(clase);
+		if (codigo == null) {
+			codigo = clases.size();
+			indiceClases.put(clase, codigo);
+			clases.add(clase);
+		}
+		return codigo;
+	}
+
+	/**
+	 * @brief Calcula el orden de las dimensiones numéricas de mayor a menor `peso * varianza`.
+	 * <p>
+	 * Las dimensiones cualitativas conservan su posición al final de la fila.
+	 *
+	 * @return La posición original de cada dimensión empaquetada.
+	 */
+	private int[] calcularOrden() {
+		double[] media = new double[numericas];
+		double[] cuadrados = new double[numericas];
+		// Fuera del montículo, cada fila se copia a un array auxiliar antes de sumarla.
+		double[] valores = (matriz == null) ? filas : new double[dimension];
+		for (int fila = 0; fila < numFilas; fila++) {
+			int base = (matriz == null) ? fila * dimension : 0;
+			if (matriz != null) {
+				matriz.leer(fila, 1, valores, 0);
+			}
+			for (int j = 0; j < numericas; j++) {
+				double valor = valores[base + j];
+				media[j] += valor;
+				cuadrados[j] += valor * valor;
+			}
+		}
+		double[] importancia = new double[numericas];
+		for (int j = 0; j < numericas; j++) {
+			media[j] /= Math.max(numFilas, 1);
+			double varianza = Math.max(cuadrados[j] / Math.max(numFilas, 1) - media[j] * media[j], 0.0);
+			importancia[j] = pesos[j] * varianza;
+		}
+		Integer[] orden = new Integer[numericas];
+		for (int j = 0; j < numericas; j++) {
+			orden[j] = j;
+		}
+		// Orden estable: a igual importancia se conserva el orden original de los atributos.
+		Arrays.sort(orden, (x, y) -> Double.compare(importancia[y], importancia[x]));
+		int[] resultado = identidad(dimension);
+		for (int j = 0; j < numericas; j++) {
+			resultado[j] = orden[j];
+		}
+		return resultado;
+	}
+
+	/**
+	 * @brief Crea la permutación identidad.
+	 *
+	 * @param tamano El número de dimensiones.
+	 * @return Un array con los valores `0, 1, ..., tamano - 1`.
+	 */
+	private static int[] identidad(int tamano) {
+		int[] resultado = new int[tamano];
+		for (int j = 0; j < tamano; j++) {
+			resultado[j] = j;
+		}
+		return resultado;
+	}
+
+	/**
+	 * @brief Aplica una permutación de las dimensiones a los pesos y a cada fila empaquetada, esté o no en el montículo.
+	 *
+	 * @param orden La posición original de cada dimensión empaquetada.
+	 */
+	private void permutar(int[] orden) {
+		boolean esIdentidad = true;
+		for (int j = 0; j < dimension && esIdentidad; j++) {
+			esIdentidad = orden[j] == j;
+		}
+		if (esIdentidad) {
+			return;
+		}
+		double[] auxiliar = new double[dimension];
+		for (int j = 0; j < dimension; j++) {
+			auxiliar[j] = pesos[orden[j]];
+		}
+		System.arraycopy(auxiliar, 0, pesos, 0, dimension);
+		double[] valores = (matriz == null) ? filas : new double[dimension];
+		for (int fila = 0; fila < numFilas; fila++) {
+			int base = (matriz == null) ? fila * dimension : 0;
+			if (matriz != null) {
+				matriz.leer(fila, 1, valores, 0);
+			}
+			for (int j = 0; j < dimension; j++) {
+				auxiliar[j] = valores[base + orden[j]];
+			}
+			if (matriz != null) {
+				matriz.escribir(fila, 1, auxiliar, 0);
+			} else {
+				System.arraycopy(auxiliar, 0, filas, base, dimension);
+			}
+		}
+	}
+
+	/**
+	 * @brief Convierte una instancia de prueba en un array primitivo compatible con las filas empaquetadas.
+	 *
+	 * @param prueba La {@link Instancia} a convertir.
+	 * @return Un array con los valores numéricos y los códigos cualitativos de la instancia en el
+	 * orden de las dimensiones empaquetadas, o `null` si la instancia no es válida
+	 * o su número de valores numéricos no coincide con el de los datos.
+	 */
+	public double[] prepararConsulta(Instancia prueba) {
+		return convertir(prueba, false);
+	}
+
+	/**
+	 * @brief Convierte una instancia en una fila con el orden y la codificación de los datos.
+	 *
+	 * @param prueba La {@link Instancia} a convertir.
+	 * @param anadir Si es `true`, los valores cualitativos nuevos se añaden a los diccionarios.
+	 * @return La fila, o `null` si la instancia no es válida.
+	 */
+	private double[] convertir(Instancia prueba, boolean anadir) {
+		if (prueba == null) {
+			return null;
+		}
+		Vector vector = prueba.getVector();
+		if (vector == null || vector.size() != numericas) {
+			return null;
+		}
+		double[] consulta = new double[dimension];
+		for (int j = 0; j < numericas; j++) {
+			consulta[j] = vector.get(origen[j]);
+		}
+		if (numericas < dimension) {
+			List<Object> valores = prueba.getValores();
+			for (int j = numericas; j < dimension; j++) {
+				consulta[j] = codificar(j, origen[j] < valores.size() ? valores.get(origen[j]) : null, anadir);
+			}
+		}
+		return consulta;
+	}
+
+	/**
+	 * @brief Añade una instancia como nueva fila.
+	 * <p>
+	 * Los valores cualitativos y las clases nuevos reciben el siguiente código libre. Si no queda
+	 * capacidad, los arrays se duplican, así que {@link #getFilas()} puede devolver otro array.
+	 *
+	 * @param instancia La {@link Instancia} a añadir.
+	 * @return La fila asignada, o -1 si la instancia no es válida o su número de valores
+	 * numéricos no coincide con el de los datos.
+	 * @throws IllegalStateException Si las filas están fuera del montículo.
+	 */
+	public int anadir(Instancia instancia) {
+		comprobarEnMonticulo();
+		double[] valores = convertir(instancia, true);
+		if (valores == null) {
+			return -1;
+		}
+		int fila = reservarFila();
+		System.arraycopy(valores, 0, filas, fila * dimension, dimension);
+		codigosClase[fila] = codificarClase(instancia.getClase());
+		filasOriginales[fila] = siguienteIdentificador++;
+		return fila;
+	}
+
+	/**
+	 * @brief Añade una copia de una fila de otros datos que comparten la codificación, con su identificador.
+	 *
+	 * @param otros Los datos de origen, creados con {@link #seleccionar(int[])} a partir de estos o de un origen común.
+	 * @param fila La fila de `otros` a copiar.
+	 * @return La fila asignada en estos datos.
+	 * @throws IllegalArgumentException Si los datos no comparten clases y diccionarios o la fila no existe.
+	 * @throws IllegalStateException Si las filas de estos datos están fuera del montículo.
+	 */
+	public int anadirFila(DatosEntrenamiento otros, int fila) {
+		comprobarEnMonticulo();
+		if (otros.clases != clases || otros.diccionarios != diccionarios) {
+			throw new IllegalArgumentException("Los datos no comparten la codificación de clases y valores.");
+		}
+		if (fila < 0 || fila >= otros.numFilas) {
+			throw new IllegalArgumentException("La fila " + fila + " no existe.");
+		}
+		int nueva = reservarFila();
+		if (otros.matriz != null) {
+			otros.matriz.leer(fila, 1, filas, nueva * dimension);
+		} else {
+			System.arraycopy(otros.filas, fila * dimension, filas, nueva * dimension, dimension);
+		}
+		codigosClase[nueva] = otros.codigosClase[fila];
+		filasOriginales[nueva] = otros.filasOriginales[fila];
+		siguienteIdentificador = Math.max(siguienteIdentificador, otros.filasOriginales[fila] + 1);
+		return nueva;
+	}
+
+	/**
+	 * @brief Comprueba que las filas siguen en el montículo.
+	 *
+	 * @throws IllegalStateException Si se han movido fuera del montículo.
+	 */
+	private void comprobarEnMonticulo() {
+		if (matriz != null) {
+			throw new IllegalStateException("Las filas están fuera del montículo; solo las recorre la búsqueda exhaustiva y no admiten inserciones.");
+		}
+	}
+
+	/**
+	 * @brief Mueve los valores de las filas a una {@link MatrizFueraMonticulo} y libera el array del montículo.
+	 * <p>
+	 * Necesita que todas las filas quepan antes en el montículo; si no caben, deben empaquetarse
+	 * directamente fuera con {@link #DatosEntrenamiento(Dataset, boolean, boolean)}. No tiene efecto si
+	 * las filas ya están fuera.
+	 */
+	public void moverFueraMonticulo() {
+		if (matriz == null) {
+			matriz = MatrizFueraMonticulo.copiar(filas, numFilas, dimension);
+			filas = null;
+		}
+	}
+
+	/**
+	 * @brief Indica si los valores de las filas están fuera del montículo.
+	 *
+	 * @return `true` tras {@link #moverFueraMonticulo()} o si se empaquetaron directamente fuera.
+	 */
+	public boolean estaFueraMonticulo() {
+		return matriz != null;
+	}
+
+	/**
+	 * @brief Copia los valores de filas consecutivas, estén en el montículo o fuera de él.
+	 *
+	 * @param fila La primera fila.
+	 * @param filas El número de filas.
+	 * @param destino El array donde se copian los valores, fila a fila.
+	 * @param desde La posición de `destino` donde se copia el primer valor.
+	 * @throws IndexOutOfBoundsException Si las filas o las posiciones de destino no existen.
+	 */
+	public void leerFilas(int fila, int filas, double[] destino, int desde) {
+		if (fila < 0 || filas < 0 || fila + filas > numFilas) {
+			throw new IndexOutOfBoundsException("Las filas [" + fila + ", " + (fila + filas) + ") no existen.");
+		}
+		if (matriz != null) {
+			matriz.leer(fila, filas, destino, desde);
+		} else {
+			System.arraycopy(this.filas, fila * dimension, destino, desde, filas * dimension);
+		}
+	}
+
+	/**
+	 * @brief Obtiene la matriz con los valores de las filas fuera del montículo.
+	 *
+	 * @return La {@link MatrizFueraMonticulo}, o `null` si las filas están en el montículo.
+	 */
+	public MatrizFueraMonticulo getMatriz() {
+		return matriz;
+	}
+
+	/**
+	 * @brief Reserva la siguiente fila, duplicando la capacidad de los arrays si están llenos.
+	 *
+	 * @return El índice de la fila reservada.
+	 */
+	private int reservarFila() {
+		if (numFilas == codigosClase.length) {
+			int capacidad = Math.max(2 * numFilas, 16);
+			filas = Arrays.copyOf(filas, capacidad * dimension);
+			codigosClase = Arrays.copyOf(codigosClase, capacidad);
+			filasOriginales = Arrays.copyOf(filasOriginales, capacidad);
+			if (eliminadas != null) {
+				eliminadas = Arrays.copyOf(eliminadas, capacidad);
+			}
+		}
+		return numFilas++;
+	}
+
+	/**
+	 * @brief Marca una fila como eliminada sin mover las demás.
+	 *
+	 * @param fila El índice de la fila.
+	 * @return `true` si la fila estaba viva, `false` si ya estaba eliminada.
+	 * @throws IllegalArgumentException Si la fila no existe.
+	 */
+	public boolean eliminar(int fila) {
+		if (fila < 0 || fila >= numFilas) {
+			throw new IllegalArgumentException("La fila " + fila + " no existe.");
+		}
+		if (eliminadas == null) {
+			eliminadas = new boolean[codigosClase.length];
+		}
+		if (eliminadas[fila]) {
+			return false;
+		}
+		eliminadas[fila] = true;
+		numEliminadas++;
+		return true;
+	}
+
+	/**
+	 * @brief Indica si una fila está marcada como eliminada.
+	 *
+	 * @param fila El índice de la fila.
+	 * @return `true` si la fila se ha eliminado.
+	 */
+	public boolean estaEliminada(int fila) {
+		return eliminadas != null && eliminadas[fila];
+	}
+
+	/**
+	 * @brief Obtiene las marcas de las filas eliminadas, para {@link MonticuloVecinos#setExcluidas(boolean[])}.
+	 * <p>
+	 * Devuelve la referencia interna, no una copia.
+	 *
+	 * @return Un array con `true` en las filas eliminadas, o `null` si no se ha eliminado ninguna.
+	 */
+	public boolean[] getEliminadas() {
+		return eliminadas;
+	}
+
+	/**
+	 * @brief Obtiene el número de filas marcadas como eliminadas.
+	 *
+	 * @return El número de filas eliminadas.
+	 */
+	public int numeroEliminadas() {
+		return numEliminadas;
+	}
+
+	/**
+	 * @brief Obtiene el número de filas que no están eliminadas.
+	 *
+	 * @return El número de filas vivas.
+	 */
+	public int numeroFilasVivas() {
+		return numFilas - numEliminadas;
+	}
+
+	/**
+	 * @brief Busca la fila de un identificador.
+	 *
+	 * @param identificador El identificador devuelto por {@link #getFilaOriginal(int)}.
+	 * @return El índice de la fila (aunque esté eliminada), o -1 si no existe.
+	 */
+	public int buscarFila(int identificador) {
+		int fila = Arrays.binarySearch(filasOriginales, 0, numFilas, identificador);
+		return fila < 0 ? -1 : fila;
+	}
+
+	/**
+	 * @brief Obtiene las filas que no están eliminadas, en orden.
+	 *
+	 * @return Los índices de las filas vivas.
+	 */
+	public int[] filasVivas() {
+		int[] resultado = new int[numFilas - numEliminadas];
+		for (int fila = 0, i = 0; fila < numFilas; fila++) {
+			if (!estaEliminada(fila)) {
+				resultado[i++] = fila;
+			}
+		}
+		return resultado;
+	}
+
+	/**
+	 * @brief Crea unos datos con una copia de las filas indicadas.
+	 * <p>
+	 * Los datos nuevos comparten la codificación (clases y diccionarios) con estos, de modo que las
+	 * filas añadidas a unos pueden copiarse a los otros con {@link #anadirFila(DatosEntrenamiento, int)}.
+	 *
+	 * @param seleccion Los índices de las filas a copiar, en el orden en que se guardarán.
+	 * @return Los datos nuevos, sin filas eliminadas.
+	 * @throws IllegalArgumentException Si algún índice no es una fila existente.
+	 */
+	public DatosEntrenamiento seleccionar(int[] seleccion) {
+		for (int fila : seleccion) {
+			if (fila < 0 || fila >= numFilas) {
+				throw new IllegalArgumentException("La fila " + fila + " no existe.");
+			}
+		}
+		return new DatosEntrenamiento(this, seleccion);
+	}
+
+	/**
+	 * @brief Crea unos datos con solo las filas vivas, que conservan su orden y sus identificadores.
+	 *
+	 * @return Los datos compactados.
+	 */
+	public DatosEntrenamiento compactar() {
+		return seleccionar(filasVivas());
+	}
+
+	/**
+	 * @brief Obtiene el atributo original de cada dimensión empaquetada.
+	 * <p>
+	 * Devuelve la referencia interna, no una copia.
+	 *
+	 * @return La permutación aplicada a las dimensiones (la identidad si no se reordenaron).
+	 */
+	public int[] getOrdenDimensiones() {
+		return ordenDimensiones;
+	}
+
+	/**
+	 * @brief Obtiene el array con los valores de todas las filas (fila a fila).
+	 * <p>
+	 * Devuelve la referencia interna, no una copia. Puede ser mayor que las filas ocupadas y
+	 * cambia cuando {@link #anadir(Instancia)} amplía la capacidad.
+	 *
+	 * @return El array de valores empaquetados.
+	 * @throws IllegalStateException Si las filas están fuera del montículo ({@link #getMatriz()}).
+	 */
+	public double[] getFilas() {
+		comprobarEnMonticulo();
+		return filas;
+	}
+
+	/**
+	 * @brief Obtiene los pesos de los atributos, en el orden de las dimensiones empaquetadas.
+	 * <p>
+	 * Devuelve la referencia interna, no una copia.
+	 *
+	 * @return El array de pesos.
+	 */
+	public double[] getPesos() {
+		return pesos;
+	}
+
+	/**
+	 * @brief Obtiene el número de filas empaquetadas, incluidas las eliminadas.
+	 *
+	 * @return El número de filas.
+	 */
+	public int numeroFilas() {
+		return numFilas;
+	}
+
+	/**
+	 * @brief Obtiene el número de valores (numéricos y códigos cualitativos) de cada fila.
+	 *
+	 * @return La dimensión de las filas.
+	 */
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * @brief Obtiene el número de dimensiones numéricas, que ocupan las primeras posiciones de cada fila.
+	 *
+	 * @return El número de dimensiones numéricas.
+	 */
+	public int numeroNumericas() {
+		return numericas;
+	}
+
+	/**
+	 * @brief Obtiene el número de dimensiones cualitativas, que ocupan las últimas posiciones de cada fila.
+	 *
+	 * @return El número de dimensiones cualitativas.
+	 */
+	public int numeroCategoricas() {
+		return dimension - numericas;
+	}
+
+	/**
+	 * @brief Obtiene el número de valores distintos de una dimensión cualitativa en el entrenamiento.
+	 * <p>
+	 * Los códigos de esa dimensión van de 0 a este valor menos uno.
+	 *
+	 * @param dimensionCategorica La dimensión empaquetada, entre {@link #numeroNumericas()} y {@link #getDimension()}.
+	 * @return El número de valores distintos.
+	 * @throws IllegalArgumentException Si la dimensión no es cualitativa.
+	 */
+	public int numeroValores(int dimensionCategorica) {
+		if (dimensionCategorica < numericas || dimensionCategorica >= dimension) {
+			throw new IllegalArgumentException("La dimensión " + dimensionCategorica + " no es cualitativa.");
+		}
+		return diccionarios.get(dimensionCategorica - numericas).size();
+	}
+
+	/**
+	 * @brief Obtiene los valores de una dimensión cualitativa en el orden de sus códigos.
+	 *
+	 * @param dimensionCategorica La dimensión empaquetada, entre {@link #numeroNumericas()} y {@link #getDimension()}.
+	 * @return Los valores, de modo que el valor de código `c` está en la posición `c`.
+	 * @throws IllegalArgumentException Si la dimensión no es cualitativa.
+	 */
+	List<String> valoresCategoricos(int dimensionCategorica) {
+		String[] valores = new String[numeroValores(dimensionCategorica)];
+		for (Map.Entry<String, Integer> entrada : diccionarios.get(dimensionCategorica - numericas).entrySet()) {
+			valores[entrada.getValue()] = entrada.getKey();
+		}
+		return Arrays.asList(valores);
+	}
+
+	/**
+	 * @brief Obtiene el origen del valor de cada dimensión al preparar una consulta.
+	 * <p>
+	 * Devuelve la referencia interna, no una copia.
+	 *
+	 * @return La posición en el vector de la consulta (numéricas) o en sus valores (cualitativas).
+	 */
+	int[] getOrigen() {
+		return origen;
+	}
+
+	/**
+	 * @brief Obtiene el identificador que recibirá la próxima fila añadida.
+	 *
+	 * @return El siguiente identificador.
+	 */
+	int getSiguienteIdentificador() {
+		return siguienteIdentificador;
+	}
+
+	/**
+	 * @brief Obtiene el preprocesado que tenía el dataset al empaquetarlo.
+	 *
+	 * @return El valor de {@link Dataset#getPreprocesado()} en el momento de empaquetar.
+	 */
+	public int getPreprocesado() {
+		return preprocesado;
+	}
+
+	/**
+	 * @brief Obtiene el código de clase de una fila.
+	 *
+	 * @param fila El índice de la fila.
+	 * @return El código entero de su clase.
+	 */
+	public int getCodigoClase(int fila) {
+		return codigosClase[fila];
+	}
+
+	/**
+	 * @brief Obtiene el identificador de una fila: el índice en el {@link Dataset} de su instancia.
+	 * <p>
+	 * Difiere del índice de fila cuando se omitieron instancias no válidas al empaquetar o se
+	 * compactaron los datos. Las filas añadidas con {@link #anadir(Instancia)} reciben identificadores
+	 * consecutivos a partir del número de instancias del dataset.
+	 *
+	 * @param fila El índice de la fila.
+	 * @return El identificador de la fila.
+	 */
+	public int getFilaOriginal(int fila) {
+		return filasOriginales[fila];
+	}
+
+	/**
+	 * @brief Obtiene el nombre de la clase asociada a un código.
+	 *
+	 * @param codigo El código de la clase.
+	 * @return El nombre de la clase.
+	 */
+	public String getClase(int codigo) {
+		return clases.get(codigo);
+	}
+
+	/**
+	 * @brief Obtiene el número de clases distintas presentes en los datos.
+	 *
+	 * @return El número de clases.
+	 */
+	public int numeroClases() {
+		return clases.size();
+	}
+
+	/**
+	 * @brief Obtiene los nombres de las clases ordenados por su código.
+	 *
+	 * @return Una {@link List} de {@link String} con las clases.
+	 */
+	public List<String> getClases() {
+		return clases;
+	}
+}
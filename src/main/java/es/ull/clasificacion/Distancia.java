@@ -0,0 +1,140 @@
+package clasificacion;
+
+/**
+ * @file Distancia.java
+ * @brief Interfaz para las funciones de distancia entre filas empaquetadas.
+ *
+ * Una distancia compara dos vectores almacenados en arrays primitivos (a partir de un
+ * desplazamiento dado), ponderando cada dimensión con los pesos de los atributos.
+ * El valor devuelto por {@link #calcular} solo necesita conservar el orden de cercanía
+ * (por ejemplo, la distancia euclídea se devuelve al cuadrado); {@link #haciaMetrica(double)}
+ * lo transforma en el valor de la métrica correspondiente cuando los índices necesitan
+ * aplicar la desigualdad triangular.
+ *
+ * Además del cálculo, cada distancia describe qué optimizaciones admite:
+ * {@link #esMetrica()} (poda por desigualdad triangular en {@link ArbolBolas}) y
+ * {@link #admiteReordenar()} (reordenar dimensiones en {@link DatosEntrenamiento}) y
+ * {@link #admiteCategoricos()} (interpretar los códigos de los atributos cualitativos).
+ * Las distancias que dependen de los datos, como {@link DistanciaMahalanobis}, se
+ * ajustan con {@link #preparar(DatosEntrenamiento)} antes de usarse.
+ *
+ * Implementaciones disponibles: {@link DistanciaEuclidea}, {@link DistanciaManhattan},
+ * {@link DistanciaChebyshev}, {@link DistanciaMinkowski}, {@link DistanciaCoseno},
+ * {@link DistanciaMahalanobis} y {@link DistanciaHeterogenea}.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public interface Distancia {
+
+	/**
+	 * @brief Calcula la distancia entre dos vectores.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión.
+	 * @return La distancia (o un valor con el mismo orden que ella) entre ambos vectores.
+	 */
+	public double calcular(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos);
+
+	/**
+	 * @brief Calcula la distancia entre dos vectores, pudiendo abandonar en cuanto se supere una cota.
+	 * <p>
+	 * Los índices la usan con la K-ésima mejor distancia actual como cota: si el resultado es
+	 * mayor que ella, el candidato se descarta y el valor exacto no importa. Un candidato a la
+	 * misma distancia que la cota recibe su valor exacto, porque {@link MonticuloVecinos} desempata
+	 * por fila y aún puede entrar. Por defecto calcula la distancia completa.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión.
+	 * @param cota El valor a partir del cual puede dejar de calcularse la distancia.
+	 * @return La distancia exacta si no supera `cota`, o un valor mayor que `cota` en otro caso.
+	 */
+	public default double calcularAcotada(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos, double cota) {
+		return calcular(a, desdeA, b, desdeB, dimension, pesos);
+	}
+
+	/**
+	 * @brief Indica si {@link #haciaMetrica(double)} aplicada a {@link #calcular} cumple la desigualdad triangular.
+	 *
+	 * @return `true` si la distancia es una métrica, `false` en caso contrario (por defecto).
+	 */
+	public default boolean esMetrica() {
+		return false;
+	}
+
+	/**
+	 * @brief Indica si el valor no cambia al permutar a la vez las dimensiones de ambos vectores y sus pesos.
+	 * <p>
+	 * Solo en ese caso los datos pueden empaquetarse con las dimensiones reordenadas.
+	 *
+	 * @return `true` si admite reordenar las dimensiones, `false` en caso contrario (por defecto).
+	 */
+	public default boolean admiteReordenar() {
+		return false;
+	}
+
+	/**
+	 * @brief Indica si la distancia interpreta las dimensiones cualitativas de {@link DatosEntrenamiento}.
+	 * <p>
+	 * Esas dimensiones contienen códigos de valores, no magnitudes, por lo que el resto de
+	 * distancias no pueden usarse con datos que las tengan.
+	 *
+	 * @return `true` si admite atributos cualitativos, `false` en caso contrario (por defecto).
+	 */
+	public default boolean admiteCategoricos() {
+		return false;
+	}
+
+	/**
+	 * @brief Indica si {@link #preparar(DatosEntrenamiento)} necesita los datos de entrenamiento.
+	 *
+	 * @return `true` si la distancia debe ajustarse a los datos antes de usarse, `false` por defecto.
+	 */
+	public default boolean requierePreparacion() {
+		return false;
+	}
+
+	/**
+	 * @brief Ajusta la distancia a unos datos de entrenamiento.
+	 * <p>
+	 * {@link KNN} la llama al ajustarse y utiliza la distancia devuelta para construir el índice.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} sobre los que se usará la distancia.
+	 * @return La distancia lista para usarse sobre esos datos. Por defecto, la misma distancia.
+	 */
+	public default Distancia preparar(DatosEntrenamiento datos) {
+		return this;
+	}
+
+	/**
+	 * @brief Transforma un valor devuelto por {@link #calcular} en el valor de la métrica.
+	 *
+	 * @param valor El valor calculado.
+	 * @return El valor de la métrica. Por defecto, el mismo valor.
+	 */
+	public default double haciaMetrica(double valor) {
+		return valor;
+	}
+
+	/**
+	 * @brief Transforma un valor de la métrica en el valor equivalente de {@link #calcular}.
+	 * <p>
+	 * Es la inversa de {@link #haciaMetrica(double)}; permite expresar un radio de búsqueda en
+	 * las unidades con las que trabajan los índices.
+	 *
+	 * @param valor El valor de la métrica.
+	 * @return El valor calculado equivalente. Por defecto, el mismo valor.
+	 */
+	public default double desdeMetrica(double valor) {
+		return valor;
+	}
+}
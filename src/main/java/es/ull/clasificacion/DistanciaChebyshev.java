@@ -0,0 +1,73 @@
+package clasificacion;
+
+/**
+ * @file DistanciaChebyshev.java
+ * @brief Distancia de Chebyshev (L-infinito) ponderada: {@code max(peso_i * |a_i - b_i|)}.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class DistanciaChebyshev implements Distancia {
+
+	/**
+	 * @brief Calcula la distancia de Chebyshev ponderada entre dos vectores.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión.
+	 * @return La mayor diferencia ponderada entre ambos vectores.
+	 */
+	@Override
+	public double calcular(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos) {
+		double distancia = 0;
+		for (int j = 0; j < dimension; j++) {
+			distancia = Math.max(distancia, pesos[j] * Math.abs(a[desdeA + j] - b[desdeB + j]));
+		}
+		return distancia;
+	}
+
+	/**
+	 * @brief Calcula la distancia de Chebyshev ponderada abandonando en cuanto una dimensión supera la cota.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión.
+	 * @param cota El valor a partir del cual puede dejar de calcularse la distancia.
+	 * @return La distancia exacta si no supera `cota`, o un valor mayor que `cota`.
+	 */
+	@Override
+	public double calcularAcotada(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos, double cota) {
+		double distancia = 0;
+		for (int j = 0; j < dimension && distancia <= cota; j++) {
+			distancia = Math.max(distancia, pesos[j] * Math.abs(a[desdeA + j] - b[desdeB + j]));
+		}
+		return distancia;
+	}
+
+	/**
+	 * @brief La distancia de Chebyshev ponderada es una métrica (con pesos no negativos).
+	 *
+	 * @return `true`.
+	 */
+	@Override
+	public boolean esMetrica() {
+		return true;
+	}
+
+	/**
+	 * @brief El máximo no depende del orden de las dimensiones, así que admite reordenarlas.
+	 *
+	 * @return `true`.
+	 */
+	@Override
+	public boolean admiteReordenar() {
+		return true;
+	}
+}
@@ -0,0 +1,72 @@
+package clasificacion;
+
+/**
+ * @file DistanciaCoseno.java
+ * @brief Distancia del coseno ponderada: {@code 1 - cos(a, b)}.
+ *
+ * El coseno se calcula con el producto escalar ponderado {@code sum(peso_i * a_i * b_i)} y las
+ * normas ponderadas de ambos vectores, acumulados en una única pasada. Si alguno de los vectores
+ * es nulo (norma 0) la distancia es 1. No cumple la desigualdad triangular, por lo que no puede
+ * usarse con {@link ArbolBolas}; la búsqueda exhaustiva resuelve los lotes con el mismo núcleo por
+ * bloques que la distancia euclídea ({@link NucleoDistanciasBloque}).
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class DistanciaCoseno implements Distancia {
+
+	/**
+	 * @brief Calcula la distancia del coseno ponderada entre dos vectores.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión.
+	 * @return Un valor entre 0 (misma dirección) y 2 (direcciones opuestas).
+	 */
+	@Override
+	public double calcular(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos) {
+		double producto = 0;
+		double normaA = 0;
+		double normaB = 0;
+		for (int j = 0; j < dimension; j++) {
+			double valorA = a[desdeA + j];
+			double valorB = b[desdeB + j];
+			double ponderado = pesos[j] * valorA;
+			producto += ponderado * valorB;
+			normaA += ponderado * valorA;
+			normaB += pesos[j] * valorB * valorB;
+		}
+		return desdeCoseno(producto, normaA, normaB);
+	}
+
+	/**
+	 * @brief Convierte el producto escalar y las normas al cuadrado en la distancia del coseno.
+	 *
+	 * @param producto El producto escalar ponderado.
+	 * @param normaA La norma ponderada al cuadrado del primer vector.
+	 * @param normaB La norma ponderada al cuadrado del segundo vector.
+	 * @return La distancia del coseno, entre 0 y 2; 1 si alguna norma es 0.
+	 */
+	static double desdeCoseno(double producto, double normaA, double normaB) {
+		double normas = normaA * normaB;
+		if (normas <= 0) {
+			return 1.0;
+		}
+		double distancia = 1.0 - producto / Math.sqrt(normas);
+		return Math.min(Math.max(distancia, 0.0), 2.0);
+	}
+
+	/**
+	 * @brief El producto escalar y las normas no dependen del orden de las dimensiones.
+	 *
+	 * @return `true`.
+	 */
+	@Override
+	public boolean admiteReordenar() {
+		return true;
+	}
+}
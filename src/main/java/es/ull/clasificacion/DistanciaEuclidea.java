@@ -0,0 +1,163 @@
+package clasificacion;
+
+/**
+ * @file DistanciaEuclidea.java
+ * @brief Distancia euclídea ponderada, calculada al cuadrado.
+ *
+ * Es la distancia que usa {@link KNN} por defecto: {@code sum(peso_i * (a_i - b_i)^2)}.
+ * Se devuelve al cuadrado para evitar la raíz en el bucle de búsqueda, y
+ * {@link #haciaMetrica(double)} aplica la raíz cuando se necesita la métrica.
+ *
+ * {@link #preferida()} devuelve la implementación más rápida disponible en la JVM actual:
+ * {@link DistanciaEuclideaVectorial} si el módulo {@code jdk.incubator.vector} está cargado
+ * y esta versión escalar en caso contrario.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class DistanciaEuclidea implements Distancia {
+	/**
+	 * @brief Nombre del módulo que proporciona la API de vectores del JDK.
+	 */
+	private static final String MODULO_VECTORES = "jdk.incubator.vector";
+
+	/**
+	 * @brief Obtiene la implementación de la distancia euclídea elegida al arrancar.
+	 *
+	 * @return La versión SIMD si el módulo {@code jdk.incubator.vector} está disponible, o la escalar.
+	 */
+	public static DistanciaEuclidea preferida() {
+		return Preferida.INSTANCIA;
+	}
+
+	/**
+	 * @brief Elige la implementación comprobando si el módulo de vectores está en la capa de arranque.
+	 * <p>
+	 * La clase SIMD se carga por reflexión para que esta clase no dependa del módulo incubado.
+	 *
+	 * @return La implementación elegida.
+	 */
+	private static DistanciaEuclidea elegir() {
+		if (ModuleLayer.boot().findModule(MODULO_VECTORES).isPresent()) {
+			try {
+				return (DistanciaEuclidea) Class.forName("clasificacion.DistanciaEuclideaVectorial")
+						.getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | LinkageError e) {
+				// Si la API no puede inicializarse en esta plataforma, se utiliza la versión escalar.
+			}
+		}
+		return new DistanciaEuclidea();
+	}
+
+	/**
+	 * @brief Contenedor de la implementación preferida, inicializado la primera vez que se solicita.
+	 */
+	private static final class Preferida {
+		/**
+		 * @brief La implementación elegida.
+		 */
+		private static final DistanciaEuclidea INSTANCIA = elegir();
+	}
+
+	/**
+	 * @brief Calcula la distancia euclídea cuadrada ponderada entre dos vectores.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión.
+	 * @return La distancia euclídea cuadrada ponderada.
+	 */
+	@Override
+	public double calcular(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos) {
+		double distancia = 0;
+		for (int j = 0; j < dimension; j++) {
+			double diferencia = a[desdeA + j] - b[desdeB + j];
+			distancia += pesos[j] * diferencia * diferencia;
+		}
+		return distancia;
+	}
+
+	/**
+	 * @brief Calcula la distancia euclídea cuadrada ponderada abandonando cuando la suma parcial supera la cota.
+	 * <p>
+	 * La suma parcial se compara cada cuatro dimensiones para no añadir un salto por término.
+	 * Como los términos no son negativos, una suma parcial mayor que la cota garantiza
+	 * que la distancia completa también lo es.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión.
+	 * @param cota El valor a partir del cual puede dejar de calcularse la distancia.
+	 * @return La distancia exacta si no supera `cota`, o una suma parcial mayor que `cota`.
+	 */
+	@Override
+	public double calcularAcotada(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos, double cota) {
+		double distancia = 0;
+		int j = 0;
+		for (; j + 3 < dimension; j += 4) {
+			double diferencia0 = a[desdeA + j] - b[desdeB + j];
+			double diferencia1 = a[desdeA + j + 1] - b[desdeB + j + 1];
+			double diferencia2 = a[desdeA + j + 2] - b[desdeB + j + 2];
+			double diferencia3 = a[desdeA + j + 3] - b[desdeB + j + 3];
+			distancia += pesos[j] * diferencia0 * diferencia0 + pesos[j + 1] * diferencia1 * diferencia1
+					+ pesos[j + 2] * diferencia2 * diferencia2 + pesos[j + 3] * diferencia3 * diferencia3;
+			if (distancia > cota) {
+				return distancia;
+			}
+		}
+		for (; j < dimension; j++) {
+			double diferencia = a[desdeA + j] - b[desdeB + j];
+			distancia += pesos[j] * diferencia * diferencia;
+		}
+		return distancia;
+	}
+
+	/**
+	 * @brief La raíz de la distancia euclídea ponderada es una métrica (con pesos no negativos).
+	 *
+	 * @return `true`.
+	 */
+	@Override
+	public boolean esMetrica() {
+		return true;
+	}
+
+	/**
+	 * @brief La distancia es una suma de términos por dimensión, así que admite reordenarlas.
+	 *
+	 * @return `true`.
+	 */
+	@Override
+	public boolean admiteReordenar() {
+		return true;
+	}
+
+	/**
+	 * @brief Obtiene la distancia euclídea ponderada a partir de su cuadrado.
+	 *
+	 * @param valor La distancia al cuadrado.
+	 * @return La raíz cuadrada del valor.
+	 */
+	@Override
+	public double haciaMetrica(double valor) {
+		return Math.sqrt(valor);
+	}
+
+	/**
+	 * @brief Eleva al cuadrado un valor de la métrica.
+	 *
+	 * @param valor La distancia.
+	 * @return La distancia al cuadrado.
+	 */
+	@Override
+	public double desdeMetrica(double valor) {
+		return valor * valor;
+	}
+}
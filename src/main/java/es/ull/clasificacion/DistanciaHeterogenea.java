@@ -0,0 +1,354 @@
+package clasificacion;
+
+import java.util.Arrays;
+
+/**
+ * @file DistanciaHeterogenea.java
+ * @brief Distancia para datos con atributos numéricos y cualitativos (HEOM y VDM), calculada al cuadrado.
+ *
+ * Suma, para cada dimensión, el peso del atributo por el cuadrado de su diferencia:
+ * <ul>
+ *   <li>Numéricas: la diferencia dividida entre el rango del atributo en el entrenamiento.</li>
+ *   <li>Cualitativas, modo HEOM (solapamiento): 0 si los códigos coinciden y 1 si no.</li>
+ *   <li>Cualitativas, modo VDM (diferencia de valores): la mitad de {@code sum_c |P(c | x) - P(c | y)|},
+ *   entre 0 y 1, consultada en una tabla precalculada por atributo.</li>
+ * </ul>
+ * Un valor desconocido ({@link DatosEntrenamiento#VALOR_DESCONOCIDO}) dista 1 de cualquier otro; los
+ * valores añadidos a los datos después de preparar la distancia se comparan por solapamiento.
+ *
+ * Los valores cualitativos llegan ya codificados como enteros por {@link DatosEntrenamiento},
+ * así que en el bucle interno solo se comparan enteros o se indexa la tabla, sin cadenas ni
+ * expansión one-hot. Los rangos y las tablas dependen de los datos, por lo que la distancia debe
+ * ajustarse con {@link #preparar(DatosEntrenamiento)} antes de usarse; {@link KNN} lo hace al
+ * ajustarse y la usa automáticamente si los datos tienen atributos cualitativos y la distancia
+ * configurada no los admite. {@link #haciaMetrica(double)} aplica la raíz cuadrada. Como los
+ * rangos se asocian a las posiciones de los datos preparados, no admite reordenar las dimensiones.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class DistanciaHeterogenea implements Distancia {
+	/**
+	 * @brief Indica si los atributos cualitativos se comparan con la tabla VDM en lugar del solapamiento.
+	 */
+	private final boolean diferenciaValores;
+	/**
+	 * @brief Número de dimensiones numéricas, o -1 si la distancia aún no está preparada.
+	 */
+	private final int numericas;
+	/**
+	 * @brief Número total de dimensiones de los datos preparados.
+	 */
+	private final int dimension;
+	/**
+	 * @brief Inverso del cuadrado del rango de cada dimensión numérica (1 si el rango es 0).
+	 */
+	private final double[] escalas;
+	/**
+	 * @brief Número de valores distintos de cada dimensión cualitativa.
+	 */
+	private final int[] numValores;
+	/**
+	 * @brief Tabla VDM al cuadrado de cada dimensión cualitativa, de tamaño `numValores * numValores`,
+	 * o `null` en modo HEOM.
+	 */
+	private final double[][] tablas;
+
+	/**
+	 * @brief Crea la distancia HEOM, que compara los atributos cualitativos por solapamiento.
+	 */
+	public DistanciaHeterogenea() {
+		this(false);
+	}
+
+	/**
+	 * @brief Crea la distancia sin preparar.
+	 *
+	 * @param diferenciaValores Si es `true`, los atributos cualitativos se comparan con la
+	 * diferencia de valores (VDM); si no, por solapamiento (HEOM).
+	 */
+	public DistanciaHeterogenea(boolean diferenciaValores) {
+		this(diferenciaValores, -1, 0, null, null, null);
+	}
+
+	/**
+	 * @brief Constructor de la distancia preparada.
+	 * <p>
+	 * Además de {@link #preparar(DatosEntrenamiento)}, lo usa {@link ArchivoModelo} para restaurar la
+	 * distancia de un modelo guardado sin volver a recorrer los datos.
+	 *
+	 * @param diferenciaValores Si los atributos cualitativos se comparan con la tabla VDM.
+	 * @param numericas Número de dimensiones numéricas.
+	 * @param dimension Número total de dimensiones.
+	 * @param escalas Inverso del cuadrado del rango de cada dimensión numérica; no se copia.
+	 * @param numValores Número de valores de cada dimensión cualitativa; no se copia.
+	 * @param tablas Tablas VDM al cuadrado, o `null` en modo HEOM; no se copian.
+	 */
+	DistanciaHeterogenea(boolean diferenciaValores, int numericas, int dimension, double[] escalas, int[] numValores, double[][] tablas) {
+		this.diferenciaValores = diferenciaValores;
+		this.numericas = numericas;
+		this.dimension = dimension;
+		this.escalas = escalas;
+		this.numValores = numValores;
+		this.tablas = tablas;
+	}
+
+	/**
+	 * @brief Calcula los rangos numéricos y, en modo VDM, las tablas de diferencias de valores.
+	 * <p>
+	 * Siempre devuelve una distancia nueva, ajustada a los datos indicados.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} sobre los que se usará la distancia.
+	 * @return La distancia preparada para esos datos.
+	 */
+	@Override
+	public Distancia preparar(DatosEntrenamiento datos) {
+		int n = datos.getDimension();
+		int num = datos.numeroNumericas();
+		int numFilas = datos.numeroFilas();
+		// Las filas se leen de una en una para admitir también los datos fuera del montículo.
+		double[] valores = new double[n];
+
+		double[] minimos = new double[num];
+		double[] maximos = new double[num];
+		Arrays.fill(minimos, Double.POSITIVE_INFINITY);
+		Arrays.fill(maximos, Double.NEGATIVE_INFINITY);
+		for (int fila = 0; fila < numFilas; fila++) {
+			datos.leerFilas(fila, 1, valores, 0);
+			for (int j = 0; j < num; j++) {
+				minimos[j] = Math.min(minimos[j], valores[j]);
+				maximos[j] = Math.max(maximos[j], valores[j]);
+			}
+		}
+		double[] nuevasEscalas = new double[num];
+		for (int j = 0; j < num; j++) {
+			double rango = maximos[j] - minimos[j];
+			nuevasEscalas[j] = (rango > 0) ? 1.0 / (rango * rango) : 1.0;
+		}
+
+		int[] numeroValores = new int[n - num];
+		for (int j = num; j < n; j++) {
+			numeroValores[j - num] = datos.numeroValores(j);
+		}
+		double[][] nuevasTablas = diferenciaValores ? calcularTablas(datos, numeroValores) : null;
+		return new DistanciaHeterogenea(diferenciaValores, num, n, nuevasEscalas, numeroValores, nuevasTablas);
+	}
+
+	/**
+	 * @brief Calcula la tabla VDM al cuadrado de cada dimensión cualitativa.
+	 *
+	 * @param datos Los datos de entrenamiento.
+	 * @param valores Número de valores de cada dimensión cualitativa.
+	 * @return Una tabla por dimensión, indexada por `x * numValores + y`.
+	 */
+	private static double[][] calcularTablas(DatosEntrenamiento datos, int[] valores) {
+		int n = datos.getDimension();
+		int num = datos.numeroNumericas();
+		int numClases = datos.numeroClases();
+		int numFilas = datos.numeroFilas();
+		double[] fila = new double[n];
+		double[][] resultado = new double[valores.length][];
+		for (int c = 0; c < valores.length; c++) {
+			int v = valores[c];
+			// Frecuencia de cada clase para cada valor del atributo.
+			double[] conteo = new double[v * numClases];
+			double[] totales = new double[v];
+			for (int i = 0; i < numFilas; i++) {
+				datos.leerFilas(i, 1, fila, 0);
+				int codigo = (int) fila[num + c];
+				if (codigo >= 0) {
+					conteo[codigo * numClases + datos.getCodigoClase(i)]++;
+					totales[codigo]++;
+				}
+			}
+			double[] tabla = new double[v * v];
+			for (int x = 0; x < v; x++) {
+				for (int y = x + 1; y < v; y++) {
+					// Un valor del diccionario sin filas (por ejemplo, si se eliminaron todas) no tiene
+					// probabilidades de clase: se compara por solapamiento, como los valores nuevos.
+					double diferencia = 1.0;
+					if (totales[x] > 0 && totales[y] > 0) {
+						double suma = 0;
+						for (int clase = 0; clase < numClases; clase++) {
+							suma += Math.abs(conteo[x * numClases + clase] / totales[x] - conteo[y * numClases + clase] / totales[y]);
+						}
+						diferencia = 0.5 * suma;
+					}
+					tabla[x * v + y] = diferencia * diferencia;
+					tabla[y * v + x] = diferencia * diferencia;
+				}
+			}
+			resultado[c] = tabla;
+		}
+		return resultado;
+	}
+
+	/**
+	 * @brief Indica si la distancia aún debe calcular los rangos y tablas a partir de los datos.
+	 *
+	 * @return `true` si no se ha preparado.
+	 */
+	@Override
+	public boolean requierePreparacion() {
+		return numericas < 0;
+	}
+
+	/**
+	 * @brief Calcula la distancia heterogénea al cuadrado entre dos filas.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión.
+	 * @return La distancia al cuadrado.
+	 * @throws IllegalStateException Si la distancia no está preparada.
+	 * @throws IllegalArgumentException Si la dimensión no coincide con la de los datos preparados.
+	 */
+	@Override
+	public double calcular(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos) {
+		return calcularAcotada(a, desdeA, b, desdeB, dimension, pesos, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * @brief Calcula la distancia heterogénea al cuadrado abandonando al superar la cota.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión.
+	 * @param cota El valor a partir del cual puede dejar de calcularse la distancia.
+	 * @return La distancia exacta si no supera `cota`, o una suma parcial mayor que `cota`.
+	 * @throws IllegalStateException Si la distancia no está preparada.
+	 * @throws IllegalArgumentException Si la dimensión no coincide con la de los datos preparados.
+	 */
+	@Override
+	public double calcularAcotada(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos, double cota) {
+		if (numericas < 0) {
+			throw new IllegalStateException("La distancia heterogénea debe prepararse con los datos antes de usarse.");
+		}
+		if (dimension != this.dimension) {
+			throw new IllegalArgumentException("La dimensión no coincide con la de los datos preparados.");
+		}
+		double distancia = 0;
+		for (int j = 0; j < numericas && distancia <= cota; j++) {
+			double diferencia = a[desdeA + j] - b[desdeB + j];
+			distancia += pesos[j] * diferencia * diferencia * escalas[j];
+		}
+		for (int j = numericas; j < dimension && distancia <= cota; j++) {
+			int x = (int) a[desdeA + j];
+			int y = (int) b[desdeB + j];
+			double termino;
+			if (x < 0 || y < 0) {
+				termino = 1.0;
+			} else if (tablas == null || x >= numValores[j - numericas] || y >= numValores[j - numericas]) {
+				// Los valores añadidos después de preparar la distancia no están en la tabla y se comparan por solapamiento.
+				termino = (x == y) ? 0.0 : 1.0;
+			} else {
+				termino = tablas[j - numericas][x * numValores[j - numericas] + y];
+			}
+			distancia += pesos[j] * termino;
+		}
+		return distancia;
+	}
+
+	/**
+	 * @brief Interpreta los códigos de las dimensiones cualitativas.
+	 *
+	 * @return `true`.
+	 */
+	@Override
+	public boolean admiteCategoricos() {
+		return true;
+	}
+
+	/**
+	 * @brief La raíz de una suma de cuadrados de diferencias por atributo es una métrica.
+	 *
+	 * @return `true`.
+	 */
+	@Override
+	public boolean esMetrica() {
+		return true;
+	}
+
+	/**
+	 * @brief Aplica la raíz cuadrada al valor calculado.
+	 *
+	 * @param valor La distancia al cuadrado.
+	 * @return La distancia.
+	 */
+	@Override
+	public double haciaMetrica(double valor) {
+		return Math.sqrt(valor);
+	}
+
+	/**
+	 * @brief Eleva al cuadrado un valor de la métrica.
+	 *
+	 * @param valor La distancia.
+	 * @return La distancia al cuadrado.
+	 */
+	@Override
+	public double desdeMetrica(double valor) {
+		return valor * valor;
+	}
+
+	/**
+	 * @brief Indica si los atributos cualitativos se comparan con la diferencia de valores.
+	 *
+	 * @return `true` en modo VDM, `false` en modo HEOM.
+	 */
+	public boolean usaDiferenciaValores() {
+		return diferenciaValores;
+	}
+
+	/**
+	 * @brief Obtiene el número de dimensiones numéricas de los datos preparados.
+	 *
+	 * @return El número de dimensiones numéricas, o -1 si la distancia no está preparada.
+	 */
+	int numeroNumericas() {
+		return numericas;
+	}
+
+	/**
+	 * @brief Obtiene el número total de dimensiones de los datos preparados.
+	 *
+	 * @return El número de dimensiones.
+	 */
+	int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * @brief Obtiene el inverso del cuadrado del rango de cada dimensión numérica.
+	 *
+	 * @return Las escalas, sin copiar, o `null` si la distancia no está preparada.
+	 */
+	double[] getEscalas() {
+		return escalas;
+	}
+
+	/**
+	 * @brief Obtiene el número de valores de cada dimensión cualitativa al preparar la distancia.
+	 *
+	 * @return El número de valores, sin copiar, o `null` si la distancia no está preparada.
+	 */
+	int[] getNumValores() {
+		return numValores;
+	}
+
+	/**
+	 * @brief Obtiene las tablas VDM al cuadrado de cada dimensión cualitativa.
+	 *
+	 * @return Las tablas, sin copiar, o `null` en modo HEOM o si la distancia no está preparada.
+	 */
+	double[][] getTablas() {
+		return tablas;
+	}
+}
@@ -0,0 +1,389 @@
+package clasificacion;
+
+/**
+ * @file DistanciaMahalanobis.java
+ * @brief Distancia de Mahalanobis, calculada al cuadrado: {@code (a - b)^T M (a - b)}.
+ *
+ * La matriz {@code M} (la inversa de la covarianza) se factoriza una sola vez como
+ * {@code M = T^T T}, con {@code T} triangular, de modo que la distancia es la norma al
+ * cuadrado de {@code T (a - b)}. Esa norma se acumula fila a fila de {@code T} y cada
+ * término es no negativo, lo que permite abandonar el cálculo al superar una cota.
+ *
+ * La matriz puede indicarse explícitamente o estimarse a partir de los datos de entrenamiento
+ * con {@link #preparar(DatosEntrenamiento)}, que es lo que hace {@link KNN} al ajustarse si se
+ * construye sin matriz. La distancia es invariante a escalar cada atributo, así que los pesos
+ * de los atributos no se aplican. Como la matriz relaciona dimensiones concretas, no admite
+ * que se reordenen.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class DistanciaMahalanobis implements Distancia {
+	/**
+	 * @brief Regularización relativa que se suma a la diagonal de la covarianza estimada.
+	 */
+	private static final double REGULARIZACION = 1e-9;
+
+	/**
+	 * @brief Dimensión de los vectores, o -1 si la distancia aún no tiene matriz.
+	 */
+	private final int dimension;
+	/**
+	 * @brief Matriz triangular {@code T} almacenada por filas, o `null` si la distancia aún no tiene matriz.
+	 */
+	private final double[] transformacion;
+	/**
+	 * @brief Primera columna no nula de cada fila de {@link #transformacion}.
+	 */
+	private final int[] desdeColumna;
+	/**
+	 * @brief Columna siguiente a la última no nula de cada fila de {@link #transformacion}.
+	 */
+	private final int[] hastaColumna;
+
+	/**
+	 * @brief Crea la distancia sin matriz; la covarianza se estimará con {@link #preparar(DatosEntrenamiento)}.
+	 */
+	public DistanciaMahalanobis() {
+		this.dimension = -1;
+		this.transformacion = null;
+		this.desdeColumna = null;
+		this.hastaColumna = null;
+	}
+
+	/**
+	 * @brief Crea la distancia a partir de la inversa de la matriz de covarianza.
+	 *
+	 * @param inversaCovarianza La matriz `M`, cuadrada, simétrica y definida positiva.
+	 * @throws IllegalArgumentException Si la matriz es nula, no es cuadrada o no es definida positiva.
+	 */
+	public DistanciaMahalanobis(double[][] inversaCovarianza) {
+		int n = validarCuadrada(inversaCovarianza);
+		double[] factor = cholesky(aplanar(inversaCovarianza), n);
+		// M = R R^T con R triangular inferior, así que T = R^T es triangular superior.
+		double[] t = new double[n * n];
+		int[] desde = new int[n];
+		int[] hasta = new int[n];
+		for (int i = 0; i < n; i++) {
+			for (int j = i; j < n; j++) {
+				t[i * n + j] = factor[j * n + i];
+			}
+			desde[i] = i;
+			hasta[i] = n;
+		}
+		this.dimension = n;
+		this.transformacion = t;
+		this.desdeColumna = desde;
+		this.hastaColumna = hasta;
+	}
+
+	/**
+	 * @brief Constructor interno con la transformación ya calculada.
+	 * <p>
+	 * También lo usa {@link ArchivoModelo} para restaurar la distancia estimada de un modelo guardado.
+	 *
+	 * @param dimension La dimensión de los vectores.
+	 * @param transformacion La matriz triangular `T` por filas; no se copia.
+	 * @param desdeColumna Primera columna no nula de cada fila; no se copia.
+	 * @param hastaColumna Columna siguiente a la última no nula de cada fila; no se copia.
+	 */
+	DistanciaMahalanobis(int dimension, double[] transformacion, int[] desdeColumna, int[] hastaColumna) {
+		this.dimension = dimension;
+		this.transformacion = transformacion;
+		this.desdeColumna = desdeColumna;
+		this.hastaColumna = hastaColumna;
+	}
+
+	/**
+	 * @brief Crea la distancia a partir de la matriz de covarianza, sin invertirla explícitamente.
+	 *
+	 * @param covarianza La matriz de covarianza, cuadrada, simétrica y definida positiva.
+	 * @return La distancia de Mahalanobis correspondiente.
+	 * @throws IllegalArgumentException Si la matriz es nula, no es cuadrada o no es definida positiva.
+	 */
+	public static DistanciaMahalanobis desdeCovarianza(double[][] covarianza) {
+		int n = validarCuadrada(covarianza);
+		return desdeCovarianza(aplanar(covarianza), n);
+	}
+
+	/**
+	 * @brief Crea la distancia a partir de la covarianza almacenada por filas.
+	 * <p>
+	 * Si {@code C = L L^T}, entonces {@code C^-1 = L^-T L^-1} y {@code T = L^-1}, triangular inferior.
+	 *
+	 * @param covarianza La covarianza por filas.
+	 * @param n La dimensión.
+	 * @return La distancia de Mahalanobis correspondiente.
+	 */
+	private static DistanciaMahalanobis desdeCovarianza(double[] covarianza, int n) {
+		double[] factor = cholesky(covarianza, n);
+		double[] inversa = new double[n * n];
+		for (int j = 0; j < n; j++) {
+			inversa[j * n + j] = 1.0 / factor[j * n + j];
+			for (int i = j + 1; i < n; i++) {
+				double suma = 0;
+				for (int k = j; k < i; k++) {
+					suma += factor[i * n + k] * inversa[k * n + j];
+				}
+				inversa[i * n + j] = -suma / factor[i * n + i];
+			}
+		}
+		int[] desde = new int[n];
+		int[] hasta = new int[n];
+		for (int i = 0; i < n; i++) {
+			hasta[i] = i + 1;
+		}
+		return new DistanciaMahalanobis(n, inversa, desde, hasta);
+	}
+
+	/**
+	 * @brief Estima la covarianza de los datos si la distancia no tiene matriz.
+	 * <p>
+	 * Se suma a la diagonal una pequeña regularización para que la covarianza sea definida
+	 * positiva aunque haya atributos constantes o dependientes.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} sobre los que se usará la distancia.
+	 * @return Esta distancia si ya tiene matriz, o una nueva con la covarianza de los datos.
+	 * @throws IllegalArgumentException Si la matriz existente no tiene la dimensión de los datos.
+	 */
+	@Override
+	public Distancia preparar(DatosEntrenamiento datos) {
+		int n = datos.getDimension();
+		if (transformacion != null) {
+			if (dimension != n) {
+				throw new IllegalArgumentException("La matriz de Mahalanobis no tiene la dimensión de los datos.");
+			}
+			return this;
+		}
+		// Las filas se leen de una en una para admitir también los datos fuera del montículo.
+		double[] valores = new double[n];
+		int numFilas = Math.max(datos.numeroFilas(), 1);
+		double[] media = new double[n];
+		for (int fila = 0; fila < datos.numeroFilas(); fila++) {
+			datos.leerFilas(fila, 1, valores, 0);
+			for (int j = 0; j < n; j++) {
+				media[j] += valores[j];
+			}
+		}
+		for (int j = 0; j < n; j++) {
+			media[j] /= numFilas;
+		}
+		double[] covarianza = new double[n * n];
+		for (int fila = 0; fila < datos.numeroFilas(); fila++) {
+			datos.leerFilas(fila, 1, valores, 0);
+			for (int i = 0; i < n; i++) {
+				double di = valores[i] - media[i];
+				for (int j = 0; j <= i; j++) {
+					covarianza[i * n + j] += di * (valores[j] - media[j]);
+				}
+			}
+		}
+		double traza = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j <= i; j++) {
+				covarianza[i * n + j] /= numFilas;
+				covarianza[j * n + i] = covarianza[i * n + j];
+			}
+			traza += covarianza[i * n + i];
+		}
+		double regularizacion = REGULARIZACION * Math.max(traza / Math.max(n, 1), 1.0);
+		for (int i = 0; i < n; i++) {
+			covarianza[i * n + i] += regularizacion;
+		}
+		return desdeCovarianza(covarianza, n);
+	}
+
+	/**
+	 * @brief Indica si la distancia aún debe estimar su matriz a partir de los datos.
+	 *
+	 * @return `true` si se construyó sin matriz.
+	 */
+	@Override
+	public boolean requierePreparacion() {
+		return transformacion == null;
+	}
+
+	/**
+	 * @brief Calcula la distancia de Mahalanobis al cuadrado entre dos vectores.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión (no se utiliza).
+	 * @return La distancia de Mahalanobis al cuadrado.
+	 * @throws IllegalStateException Si la distancia no tiene matriz.
+	 * @throws IllegalArgumentException Si la dimensión no coincide con la de la matriz.
+	 */
+	@Override
+	public double calcular(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos) {
+		return calcularAcotada(a, desdeA, b, desdeB, dimension, pesos, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * @brief Calcula la distancia de Mahalanobis al cuadrado abandonando cuando la suma parcial supera la cota.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión (no se utiliza).
+	 * @param cota El valor a partir del cual puede dejar de calcularse la distancia.
+	 * @return La distancia exacta si no supera `cota`, o una suma parcial mayor que `cota`.
+	 * @throws IllegalStateException Si la distancia no tiene matriz.
+	 * @throws IllegalArgumentException Si la dimensión no coincide con la de la matriz.
+	 */
+	@Override
+	public double calcularAcotada(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos, double cota) {
+		if (transformacion == null) {
+			throw new IllegalStateException("La distancia de Mahalanobis debe prepararse con los datos antes de usarse.");
+		}
+		if (dimension != this.dimension) {
+			throw new IllegalArgumentException("La dimensión no coincide con la de la matriz de Mahalanobis.");
+		}
+		double distancia = 0;
+		for (int i = 0; i < dimension && distancia <= cota; i++) {
+			int base = i * dimension;
+			double termino = 0;
+			for (int j = desdeColumna[i]; j < hastaColumna[i]; j++) {
+				termino += transformacion[base + j] * (a[desdeA + j] - b[desdeB + j]);
+			}
+			distancia += termino * termino;
+		}
+		return distancia;
+	}
+
+	/**
+	 * @brief La raíz de la distancia de Mahalanobis es una métrica (con una matriz definida positiva).
+	 *
+	 * @return `true`.
+	 */
+	@Override
+	public boolean esMetrica() {
+		return true;
+	}
+
+	/**
+	 * @brief Obtiene la distancia de Mahalanobis a partir de su cuadrado.
+	 *
+	 * @param valor La distancia al cuadrado.
+	 * @return La raíz cuadrada del valor.
+	 */
+	@Override
+	public double haciaMetrica(double valor) {
+		return Math.sqrt(valor);
+	}
+
+	/**
+	 * @brief Eleva al cuadrado un valor de la métrica.
+	 *
+	 * @param valor La distancia.
+	 * @return La distancia al cuadrado.
+	 */
+	@Override
+	public double desdeMetrica(double valor) {
+		return valor * valor;
+	}
+
+	/**
+	 * @brief Obtiene la dimensión de la matriz.
+	 *
+	 * @return La dimensión, o -1 si la distancia aún no tiene matriz.
+	 */
+	int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * @brief Obtiene la matriz triangular {@code T}, por filas.
+	 *
+	 * @return La matriz, sin copiar, o `null` si la distancia aún no tiene matriz.
+	 */
+	double[] getTransformacion() {
+		return transformacion;
+	}
+
+	/**
+	 * @brief Obtiene la primera columna no nula de cada fila de {@code T}.
+	 *
+	 * @return Las columnas, sin copiar, o `null` si la distancia aún no tiene matriz.
+	 */
+	int[] getDesdeColumna() {
+		return desdeColumna;
+	}
+
+	/**
+	 * @brief Obtiene la columna siguiente a la última no nula de cada fila de {@code T}.
+	 *
+	 * @return Las columnas, sin copiar, o `null` si la distancia aún no tiene matriz.
+	 */
+	int[] getHastaColumna() {
+		return hastaColumna;
+	}
+
+	/**
+	 * @brief Comprueba que una matriz es cuadrada y no vacía.
+	 *
+	 * @param matriz La matriz a comprobar.
+	 * @return Su dimensión.
+	 * @throws IllegalArgumentException Si la matriz es nula, vacía o no es cuadrada.
+	 */
+	private static int validarCuadrada(double[][] matriz) {
+		if (matriz == null || matriz.length == 0) {
+			throw new IllegalArgumentException("La matriz no puede ser nula ni estar vacía.");
+		}
+		for (double[] fila : matriz) {
+			if (fila == null || fila.length != matriz.length) {
+				throw new IllegalArgumentException("La matriz debe ser cuadrada.");
+			}
+		}
+		return matriz.length;
+	}
+
+	/**
+	 * @brief Copia una matriz en un array por filas.
+	 *
+	 * @param matriz La matriz cuadrada.
+	 * @return Sus valores por filas.
+	 */
+	private static double[] aplanar(double[][] matriz) {
+		int n = matriz.length;
+		double[] plana = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(matriz[i], 0, plana, i * n, n);
+		}
+		return plana;
+	}
+
+	/**
+	 * @brief Calcula la factorización de Cholesky {@code A = L L^T} de una matriz simétrica.
+	 *
+	 * @param matriz La matriz por filas (solo se lee la parte triangular inferior).
+	 * @param n La dimensión.
+	 * @return El factor triangular inferior `L` por filas.
+	 * @throws IllegalArgumentException Si la matriz no es definida positiva.
+	 */
+	private static double[] cholesky(double[] matriz, int n) {
+		double[] factor = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j <= i; j++) {
+				double suma = matriz[i * n + j];
+				for (int k = 0; k < j; k++) {
+					suma -= factor[i * n + k] * factor[j * n + k];
+				}
+				if (i == j) {
+					if (!(suma > 0)) {
+						throw new IllegalArgumentException("La matriz no es definida positiva.");
+					}
+					factor[i * n + i] = Math.sqrt(suma);
+				} else {
+					factor[i * n + j] = suma / factor[j * n + j];
+				}
+			}
+		}
+		return factor;
+	}
+}
@@ -0,0 +1,73 @@
+package clasificacion;
+
+/**
+ * @file DistanciaManhattan.java
+ * @brief Distancia Manhattan (L1) ponderada: {@code sum(peso_i * |a_i - b_i|)}.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class DistanciaManhattan implements Distancia {
+
+	/**
+	 * @brief Calcula la distancia Manhattan ponderada entre dos vectores.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión.
+	 * @return La distancia Manhattan ponderada.
+	 */
+	@Override
+	public double calcular(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos) {
+		double distancia = 0;
+		for (int j = 0; j < dimension; j++) {
+			distancia += pesos[j] * Math.abs(a[desdeA + j] - b[desdeB + j]);
+		}
+		return distancia;
+	}
+
+	/**
+	 * @brief Calcula la distancia Manhattan ponderada abandonando cuando la suma parcial supera la cota.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión.
+	 * @param cota El valor a partir del cual puede dejar de calcularse la distancia.
+	 * @return La distancia exacta si no supera `cota`, o una suma parcial mayor que `cota`.
+	 */
+	@Override
+	public double calcularAcotada(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos, double cota) {
+		double distancia = 0;
+		for (int j = 0; j < dimension && distancia <= cota; j++) {
+			distancia += pesos[j] * Math.abs(a[desdeA + j] - b[desdeB + j]);
+		}
+		return distancia;
+	}
+
+	/**
+	 * @brief La distancia Manhattan ponderada es una métrica (con pesos no negativos).
+	 *
+	 * @return `true`.
+	 */
+	@Override
+	public boolean esMetrica() {
+		return true;
+	}
+
+	/**
+	 * @brief La distancia es una suma de términos por dimensión, así que admite reordenarlas.
+	 *
+	 * @return `true`.
+	 */
+	@Override
+	public boolean admiteReordenar() {
+		return true;
+	}
+}
@@ -0,0 +1,139 @@
+package clasificacion;
+
+/**
+ * @file DistanciaMinkowski.java
+ * @brief Distancia de Minkowski de orden p ponderada, calculada sin la raíz p-ésima.
+ *
+ * {@link #calcular} devuelve {@code sum(peso_i * |a_i - b_i|^p)}, que conserva el orden de
+ * cercanía, y {@link #haciaMetrica(double)} aplica la raíz p-ésima. Con {@code p >= 1} es una
+ * métrica. Los órdenes 1 y 2 se calculan sin {@link Math#pow}; el orden se comprueba una vez
+ * por llamada y no en cada dimensión.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class DistanciaMinkowski implements Distancia {
+	/**
+	 * @brief El orden p de la distancia.
+	 */
+	private final double p;
+
+	/**
+	 * @brief Crea la distancia de Minkowski de un orden dado.
+	 *
+	 * @param p El orden de la distancia. Debe ser un número finito mayor que cero.
+	 * @throws IllegalArgumentException Si el orden no es válido.
+	 */
+	public DistanciaMinkowski(double p) {
+		if (!(p > 0) || Double.isInfinite(p)) {
+			throw new IllegalArgumentException("El orden de la distancia de Minkowski debe ser finito y mayor que cero.");
+		}
+		this.p = p;
+	}
+
+	/**
+	 * @brief Calcula la suma ponderada de las diferencias elevadas a p.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión.
+	 * @return La distancia de Minkowski ponderada elevada a p.
+	 */
+	@Override
+	public double calcular(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos) {
+		return calcularAcotada(a, desdeA, b, desdeB, dimension, pesos, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * @brief Calcula la suma ponderada de las diferencias elevadas a p abandonando al superar la cota.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición de `a` donde empieza el primer vector.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición de `b` donde empieza el segundo vector.
+	 * @param dimension Número de valores de cada vector.
+	 * @param pesos Peso de cada dimensión.
+	 * @param cota El valor a partir del cual puede dejar de calcularse la distancia.
+	 * @return La distancia exacta si no supera `cota`, o una suma parcial mayor que `cota`.
+	 */
+	@Override
+	public double calcularAcotada(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos, double cota) {
+		double distancia = 0;
+		if (p == 1.0) {
+			for (int j = 0; j < dimension && distancia <= cota; j++) {
+				distancia += pesos[j] * Math.abs(a[desdeA + j] - b[desdeB + j]);
+			}
+		} else if (p == 2.0) {
+			for (int j = 0; j < dimension && distancia <= cota; j++) {
+				double diferencia = a[desdeA + j] - b[desdeB + j];
+				distancia += pesos[j] * diferencia * diferencia;
+			}
+		} else {
+			for (int j = 0; j < dimension && distancia <= cota; j++) {
+				distancia += pesos[j] * Math.pow(Math.abs(a[desdeA + j] - b[desdeB + j]), p);
+			}
+		}
+		return distancia;
+	}
+
+	/**
+	 * @brief La distancia de Minkowski es una métrica para órdenes mayores o iguales que 1.
+	 *
+	 * @return `true` si `p >= 1`.
+	 */
+	@Override
+	public boolean esMetrica() {
+		return p >= 1.0;
+	}
+
+	/**
+	 * @brief La distancia es una suma de términos por dimensión, así que admite reordenarlas.
+	 *
+	 * @return `true`.
+	 */
+	@Override
+	public boolean admiteReordenar() {
+		return true;
+	}
+
+	/**
+	 * @brief Aplica la raíz p-ésima al valor calculado.
+	 *
+	 * @param valor La suma ponderada de las diferencias elevadas a p.
+	 * @return La distancia de Minkowski.
+	 */
+	@Override
+	public double haciaMetrica(double valor) {
+		if (p == 1.0) {
+			return valor;
+		}
+		return p == 2.0 ? Math.sqrt(valor) : Math.pow(valor, 1.0 / p);
+	}
+
+	/**
+	 * @brief Eleva a p un valor de la métrica.
+	 *
+	 * @param valor La distancia de Minkowski.
+	 * @return La suma ponderada de las diferencias elevadas a p equivalente.
+	 */
+	@Override
+	public double desdeMetrica(double valor) {
+		if (p == 1.0) {
+			return valor;
+		}
+		return p == 2.0 ? valor * valor : Math.pow(valor, p);
+	}
+
+	/**
+	 * @brief Obtiene el orden de la distancia.
+	 *
+	 * @return El orden p.
+	 */
+	public double getP() {
+		return p;
+	}
+}
@@ -0,0 +1,29 @@
+package clasificacion;
+
+/**
+ * @file FabricaIndice.java
+ * @brief Interfaz funcional que construye un {@link IndiceVecinos} a partir de unos {@link DatosEntrenamiento}
+ * y la distancia con la que se compararon.
+ *
+ * Permite indicar a {@link KNN} qué estructura de búsqueda debe crear cada vez que se ajusta,
+ * por ejemplo {@code knn.setIndice(ArbolKD::new)}. El índice recibe la distancia configurada en el
+ * clasificador ya preparada para los datos, de modo que compara las filas igual que la búsqueda exhaustiva;
+ * un índice que no admite esa distancia lanza una {@link IllegalArgumentException}.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+@FunctionalInterface
+public interface FabricaIndice {
+
+	/**
+	 * @brief Construye el índice sobre los datos empaquetados.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} sobre los que se construye el índice.
+	 * @param distancia La distancia, ya preparada para los datos ({@link Distancia#preparar(DatosEntrenamiento)}).
+	 * @return El {@link IndiceVecinos} construido.
+	 * @throws IllegalArgumentException Si el índice no admite la distancia o los datos.
+	 */
+	public IndiceVecinos construir(DatosEntrenamiento datos, Distancia distancia);
+}
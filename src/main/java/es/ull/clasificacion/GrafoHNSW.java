@@ -0,0 +1,637 @@
+package clasificacion;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @file GrafoHNSW.java
+ * @brief Índice aproximado de vecinos basado en grafos jerárquicos navegables (HNSW).
+ *
+ * Cada fila de {@link DatosEntrenamiento} es un nodo de un grafo por capas: la capa 0
+ * contiene todas las filas y cada capa superior una fracción exponencialmente menor.
+ * La búsqueda desciende de forma voraz por las capas superiores y explora la capa 0
+ * manteniendo una lista de {@code efBusqueda} candidatos, por lo que el coste crece
+ * de forma aproximadamente logarítmica con el número de filas.
+ *
+ * El resultado es aproximado: aumentar {@code efBusqueda} (globalmente con
+ * {@link #setEfBusqueda(int)} o en cada consulta con {@link #buscar(double[], MonticuloVecinos, int)})
+ * mejora la exhaustividad a cambio de más tiempo de consulta. Los parámetros de
+ * construcción {@code m} (enlaces por nodo) y {@code efConstruccion} determinan la
+ * calidad del grafo y el coste de construirlo.
+ *
+ * Admite inserciones después de construirse ({@link #insertar(int)}), con el mismo procedimiento
+ * que la construcción. Las filas eliminadas de los datos siguen en el grafo como nodos de paso,
+ * pero el montículo de resultados las rechaza ({@link MonticuloVecinos#setExcluidas(boolean[])}).
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class GrafoHNSW implements IndiceVecinos {
+	/**
+	 * @brief Número de enlaces por nodo y capa usado por defecto.
+	 */
+	public static final int M_POR_DEFECTO = 16;
+	/**
+	 * @brief Tamaño de la lista de candidatos durante la construcción usado por defecto.
+	 */
+	public static final int EF_CONSTRUCCION_POR_DEFECTO = 200;
+	/**
+	 * @brief Tamaño de la lista de candidatos durante la búsqueda usado por defecto.
+	 */
+	public static final int EF_BUSQUEDA_POR_DEFECTO = 50;
+
+	/**
+	 * @brief Los datos empaquetados sobre los que se construye el grafo.
+	 */
+	private final DatosEntrenamiento datos;
+	/**
+	 * @brief La distancia utilizada para construir y consultar el grafo.
+	 */
+	private final Distancia distancia;
+	/**
+	 * @brief Número máximo de enlaces por nodo en las capas superiores.
+	 */
+	private final int m;
+	/**
+	 * @brief Número máximo de enlaces por nodo en la capa 0 (el doble de {@link #m}).
+	 */
+	private final int mMaximoBase;
+	/**
+	 * @brief Tamaño de la lista de candidatos durante la construcción.
+	 */
+	private final int efConstruccion;
+	/**
+	 * @brief Tamaño de la lista de candidatos por defecto durante la búsqueda.
+	 */
+	private volatile int efBusqueda = EF_BUSQUEDA_POR_DEFECTO;
+	/**
+	 * @brief Capa más alta de cada nodo.
+	 */
+	private int[] niveles;
+	/**
+	 * @brief Enlaces de la capa 0: para cada nodo, el número de enlaces seguido de sus vecinos.
+	 */
+	private int[] enlacesBase;
+	/**
+	 * @brief Enlaces de las capas superiores de cada nodo (nulo si el nodo solo está en la capa 0).
+	 */
+	private int[][] enlacesSuperiores;
+	/**
+	 * @brief Generador que reparte los nodos entre capas, también los insertados después de construir.
+	 */
+	// Suprimir la advertencia de SonarCloud (java:S2245): el generador solo reparte los nodos
+	// entre capas y se siembra para que la construcción sea reproducible.
+	@SuppressWarnings("java:S2245")
+	private final Random random;
+	/**
+	 * @brief Factor de la distribución exponencial de las capas, `1 / ln(m)`.
+	 */
+	private final double factorNivel;
+	/**
+	 * @brief Nodo por el que empieza la búsqueda (el de la capa más alta).
+	 */
+	private int puntoEntrada = -1;
+	/**
+	 * @brief Capa más alta del grafo.
+	 */
+	private int nivelMaximo = -1;
+	/**
+	 * @brief Marcas de nodos visitados, una por hilo para permitir consultas concurrentes.
+	 */
+	private final ThreadLocal<Visitados> visitados = ThreadLocal.withInitial(Visitados::new);
+
+	/**
+	 * @brief Construye el grafo con la distancia euclídea ponderada y los parámetros por defecto.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 */
+	public GrafoHNSW(DatosEntrenamiento datos) {
+		this(datos, DistanciaEuclidea.preferida());
+	}
+
+	/**
+	 * @brief Construye el grafo con los parámetros por defecto.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La distancia a utilizar.
+	 */
+	public GrafoHNSW(DatosEntrenamiento datos, Distancia distancia) {
+		this(datos, distancia, M_POR_DEFECTO, EF_CONSTRUCCION_POR_DEFECTO, 1234L);
+	}
+
+	/**
+	 * @brief Construye el grafo con la distancia euclídea ponderada y los parámetros de construcción dados.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param m El número de enlaces por nodo y capa.
+	 * @param efConstruccion El tamaño de la lista de candidatos durante la construcción.
+	 */
+	public GrafoHNSW(DatosEntrenamiento datos, int m, int efConstruccion) {
+		this(datos, DistanciaEuclidea.preferida(), m, efConstruccion, 1234L);
+	}
+
+	/**
+	 * @brief Construye el grafo.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La distancia a utilizar.
+	 * @param m El número de enlaces por nodo y capa (al menos 2).
+	 * @param efConstruccion El tamaño de la lista de candidatos durante la construcción (al menos `m`).
+	 * @param semilla La semilla para asignar las capas de los nodos, lo que hace la construcción reproducible.
+	 * @throws IllegalArgumentException Si la distancia es nula o no admite los atributos cualitativos de los datos,
+	 * o si los parámetros no son válidos.
+	 */
+	public GrafoHNSW(DatosEntrenamiento datos, Distancia distancia, int m, int efConstruccion, long semilla) {
+		if (distancia == null) {
+			throw new IllegalArgumentException("La distancia no puede ser nula.");
+		}
+		if (datos.numeroCategoricas() > 0 && !distancia.admiteCategoricos()) {
+			throw new IllegalArgumentException("La distancia no admite atributos cualitativos.");
+		}
+		if (m < 2 || efConstruccion < m) {
+			throw new IllegalArgumentException("Se requiere m >= 2 y efConstruccion >= m.");
+		}
+		this.datos = datos;
+		this.distancia = distancia;
+		this.m = m;
+		this.mMaximoBase = 2 * m;
+		this.efConstruccion = efConstruccion;
+		int numFilas = datos.numeroFilas();
+		this.niveles = new int[numFilas];
+		this.enlacesBase = new int[numFilas * (mMaximoBase + 1)];
+		this.enlacesSuperiores = new int[numFilas][];
+
+		this.random = new Random(semilla);
+		this.factorNivel = 1.0 / Math.log(m);
+		for (int fila = 0; fila < numFilas; fila++) {
+			insertar(fila, sortearNivel());
+		}
+	}
+
+	/**
+	 * @brief Sortea la capa más alta de un nodo nuevo.
+	 *
+	 * @return La capa, con probabilidad exponencialmente menor cuanto más alta.
+	 */
+	private int sortearNivel() {
+		return (int) (-Math.log(1.0 - random.nextDouble()) * factorNivel);
+	}
+
+	/**
+	 * @brief Inserta en el grafo una fila añadida a los datos después de construirlo.
+	 * <p>
+	 * Amplía los arrays de nodos si es necesario y conecta la fila como durante la construcción.
+	 * No debe ejecutarse a la vez que otras inserciones o consultas.
+	 *
+	 * @param fila La fila añadida con {@link DatosEntrenamiento#anadir(datos.Instancia)}.
+	 * @return `true`.
+	 * @throws IllegalArgumentException Si la fila no existe en los datos.
+	 */
+	@Override
+	public boolean insertar(int fila) {
+		if (fila < 0 || fila >= datos.numeroFilas()) {
+			throw new IllegalArgumentException("La fila " + fila + " no existe en los datos.");
+		}
+		if (fila >= niveles.length) {
+			int capacidad = Math.max(fila + 1, 2 * niveles.length);
+			niveles = Arrays.copyOf(niveles, capacidad);
+			enlacesBase = Arrays.copyOf(enlacesBase, capacidad * (mMaximoBase + 1));
+			enlacesSuperiores = Arrays.copyOf(enlacesSuperiores, capacidad);
+		}
+		insertar(fila, sortearNivel());
+		return true;
+	}
+
+	/**
+	 * @brief Inserta una fila en el grafo conectándola con sus vecinos en cada capa.
+	 *
+	 * @param fila La fila a insertar.
+	 * @param nivel La capa más alta que ocupará la fila.
+	 */
+	private void insertar(int fila, int nivel) {
+		niveles[fila] = nivel;
+		if (nivel > 0) {
+			enlacesSuperiores[fila] = new int[nivel * (m + 1)];
+		}
+		if (puntoEntrada < 0) {
+			puntoEntrada = fila;
+			nivelMaximo = nivel;
+			return;
+		}
+		double[] filas = datos.getFilas();
+		int desde = fila * datos.getDimension();
+		int actual = puntoEntrada;
+		double distanciaActual = distanciaA(filas, desde, actual);
+		for (int capa = nivelMaximo; capa > nivel; capa--) {
+			actual = descensoVoraz(filas, desde, actual, distanciaActual, capa);
+			distanciaActual = distanciaA(filas, desde, actual);
+		}
+		for (int capa = Math.min(nivel, nivelMaximo); capa >= 0; capa--) {
+			MonticuloVecinos candidatos = buscarEnCapa(filas, desde, actual, distanciaActual, efConstruccion, capa);
+			int[] elegidos = seleccionarVecinos(candidatos, m);
+			int[] lista = lista(fila, capa);
+			int base = desplazamiento(fila, capa);
+			lista[base] = elegidos.length;
+			System.arraycopy(elegidos, 0, lista, base + 1, elegidos.length);
+			for (int vecino : elegidos) {
+				enlazar(vecino, fila, capa);
+			}
+			// La siguiente capa empieza por el candidato más cercano de esta.
+			actual = candidatos.getFila(0);
+			distanciaActual = candidatos.getDistancia(0);
+		}
+		if (nivel > nivelMaximo) {
+			nivelMaximo = nivel;
+			puntoEntrada = fila;
+		}
+	}
+
+	/**
+	 * @brief Añade un enlace de un nodo a otro, podando la lista del primero si se llena.
+	 *
+	 * @param nodo El nodo que recibe el enlace.
+	 * @param nuevo El nodo enlazado.
+	 * @param capa La capa del enlace.
+	 */
+	private void enlazar(int nodo, int nuevo, int capa) {
+		int[] lista = lista(nodo, capa);
+		int base = desplazamiento(nodo, capa);
+		int cantidad = lista[base];
+		int maximo = capa == 0 ? mMaximoBase : m;
+		if (cantidad < maximo) {
+			lista[base + 1 + cantidad] = nuevo;
+			lista[base] = cantidad + 1;
+			return;
+		}
+		double[] filas = datos.getFilas();
+		int desde = nodo * datos.getDimension();
+		MonticuloVecinos candidatos = new MonticuloVecinos(cantidad + 1);
+		for (int i = 0; i < cantidad; i++) {
+			int vecino = lista[base + 1 + i];
+			candidatos.ofrecer(distanciaA(filas, desde, vecino), vecino);
+		}
+		candidatos.ofrecer(distanciaA(filas, desde, nuevo), nuevo);
+		int[] elegidos = seleccionarVecinos(candidatos, maximo);
+		lista[base] = elegidos.length;
+		System.arraycopy(elegidos, 0, lista, base + 1, elegidos.length);
+	}
+
+	/**
+	 * @brief Elige hasta `maximo` vecinos entre los candidatos con la heurística de diversidad de HNSW.
+	 * <p>
+	 * Un candidato se acepta si está más cerca del nodo que de cualquier vecino ya elegido, lo que
+	 * reparte los enlaces en distintas direcciones; si no se alcanza el máximo, se completa con los
+	 * candidatos descartados más cercanos.
+	 *
+	 * @param candidatos Los candidatos con su distancia al nodo.
+	 * @param maximo El número máximo de vecinos.
+	 * @return Los vecinos elegidos.
+	 */
+	private int[] seleccionarVecinos(MonticuloVecinos candidatos, int maximo) {
+		candidatos.ordenar();
+		double[] filas = datos.getFilas();
+		int dimension = datos.getDimension();
+		int[] elegidos = new int[Math.min(maximo, candidatos.tamano())];
+		int[] descartados = new int[candidatos.tamano()];
+		int numElegidos = 0;
+		int numDescartados = 0;
+		for (int i = 0; i < candidatos.tamano() && numElegidos < elegidos.length; i++) {
+			int candidato = candidatos.getFila(i);
+			double aNodo = candidatos.getDistancia(i);
+			boolean diverso = true;
+			for (int j = 0; j < numElegidos && diverso; j++) {
+				diverso = distanciaA(filas, candidato * dimension, elegidos[j]) >= aNodo;
+			}
+			if (diverso) {
+				elegidos[numElegidos++] = candidato;
+			} else {
+				descartados[numDescartados++] = candidato;
+			}
+		}
+		for (int i = 0; i < numDescartados && numElegidos < elegidos.length; i++) {
+			elegidos[numElegidos++] = descartados[i];
+		}
+		return numElegidos == elegidos.length ? elegidos : Arrays.copyOf(elegidos, numElegidos);
+	}
+
+	/**
+	 * @brief Avanza de forma voraz por una capa hacia el nodo más cercano a la consulta.
+	 *
+	 * @param consulta Array que contiene la consulta.
+	 * @param desde Posición de la consulta en el array.
+	 * @param entrada El nodo de partida.
+	 * @param distanciaEntrada La distancia de la consulta al nodo de partida.
+	 * @param capa La capa a recorrer.
+	 * @return El nodo más cercano encontrado (un mínimo local).
+	 */
+	private int descensoVoraz(double[] consulta, int desde, int entrada, double distanciaEntrada, int capa) {
+		int actual = entrada;
+		double mejor = distanciaEntrada;
+		boolean mejorado = true;
+		while (mejorado) {
+			mejorado = false;
+			int[] lista = lista(actual, capa);
+			int base = desplazamiento(actual, capa);
+			for (int i = 0; i < lista[base]; i++) {
+				int vecino = lista[base + 1 + i];
+				double d = distanciaA(consulta, desde, vecino);
+				if (d < mejor) {
+					mejor = d;
+					actual = vecino;
+					mejorado = true;
+				}
+			}
+		}
+		return actual;
+	}
+
+	/**
+	 * @brief Explora una capa a partir de un nodo manteniendo los `ef` candidatos más cercanos.
+	 *
+	 * @param consulta Array que contiene la consulta.
+	 * @param desde Posición de la consulta en el array.
+	 * @param entrada El nodo de partida.
+	 * @param distanciaEntrada La distancia de la consulta al nodo de partida.
+	 * @param ef El número de candidatos a mantener.
+	 * @param capa La capa a recorrer.
+	 * @return Los candidatos encontrados, ordenados de menor a mayor distancia.
+	 */
+	private MonticuloVecinos buscarEnCapa(double[] consulta, int desde, int entrada, double distanciaEntrada, int ef, int capa) {
+		Visitados marcas = visitados.get();
+		marcas.nuevaBusqueda(niveles.length);
+		ColaCandidatos candidatos = new ColaCandidatos(ef);
+		MonticuloVecinos resultado = new MonticuloVecinos(ef);
+		marcas.marcar(entrada);
+		candidatos.insertar(distanciaEntrada, entrada);
+		resultado.ofrecer(distanciaEntrada, entrada);
+		while (!candidatos.estaVacia()) {
+			if (candidatos.menorDistancia() > resultado.peorDistancia()) {
+				break;
+			}
+			int actual = candidatos.extraer();
+			int[] lista = lista(actual, capa);
+			int base = desplazamiento(actual, capa);
+			for (int i = 0; i < lista[base]; i++) {
+				int vecino = lista[base + 1 + i];
+				if (!marcas.marcar(vecino)) {
+					continue;
+				}
+				double d = distanciaA(consulta, desde, vecino);
+				if (d < resultado.peorDistancia()) {
+					candidatos.insertar(d, vecino);
+					resultado.ofrecer(d, vecino);
+				}
+			}
+		}
+		resultado.ordenar();
+		return resultado;
+	}
+
+	/**
+	 * @brief Busca los vecinos aproximados de una consulta con el `efBusqueda` por defecto.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 */
+	@Override
+	public void buscar(double[] consulta, MonticuloVecinos vecinos) {
+		buscar(consulta, vecinos, efBusqueda);
+	}
+
+	/**
+	 * @brief Busca los vecinos aproximados de una consulta con un `efBusqueda` propio.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 * @param ef El tamaño de la lista de candidatos; si es menor que K se usa K.
+	 */
+	public void buscar(double[] consulta, MonticuloVecinos vecinos, int ef) {
+		if (puntoEntrada < 0) {
+			return;
+		}
+		int actual = puntoEntrada;
+		double distanciaActual = distanciaA(consulta, 0, actual);
+		for (int capa = nivelMaximo; capa > 0; capa--) {
+			actual = descensoVoraz(consulta, 0, actual, distanciaActual, capa);
+			distanciaActual = distanciaA(consulta, 0, actual);
+		}
+		MonticuloVecinos candidatos = buscarEnCapa(consulta, 0, actual, distanciaActual, Math.max(ef, vecinos.capacidad()), 0);
+		for (int i = 0; i < candidatos.tamano(); i++) {
+			vecinos.ofrecer(candidatos.getDistancia(i), candidatos.getFila(i));
+		}
+	}
+
+	/**
+	 * @brief Establece el tamaño de la lista de candidatos por defecto durante la búsqueda.
+	 *
+	 * @param ef El nuevo valor. Debe ser un entero positivo.
+	 * @throws IllegalArgumentException Si el valor no es positivo.
+	 */
+	public void setEfBusqueda(int ef) {
+		if (ef <= 0) {
+			throw new IllegalArgumentException("efBusqueda debe ser mayor que cero.");
+		}
+		this.efBusqueda = ef;
+	}
+
+	/**
+	 * @brief Obtiene el tamaño de la lista de candidatos por defecto durante la búsqueda.
+	 *
+	 * @return El valor de `efBusqueda`.
+	 */
+	public int getEfBusqueda() {
+		return efBusqueda;
+	}
+
+	/**
+	 * @brief Obtiene la capa más alta del grafo.
+	 *
+	 * @return El nivel máximo, o -1 si el grafo está vacío.
+	 */
+	public int getNivelMaximo() {
+		return nivelMaximo;
+	}
+
+	/**
+	 * @brief Calcula la distancia de una consulta a una fila de los datos.
+	 *
+	 * @param consulta Array que contiene la consulta.
+	 * @param desde Posición de la consulta en el array.
+	 * @param fila La fila de los datos.
+	 * @return La distancia calculada.
+	 */
+	private double distanciaA(double[] consulta, int desde, int fila) {
+		int dimension = datos.getDimension();
+		return distancia.calcular(consulta, desde, datos.getFilas(), fila * dimension, dimension, datos.getPesos());
+	}
+
+	/**
+	 * @brief Obtiene el array que contiene los enlaces de un nodo en una capa.
+	 *
+	 * @param nodo El nodo.
+	 * @param capa La capa.
+	 * @return El array de enlaces.
+	 */
+	private int[] lista(int nodo, int capa) {
+		return capa == 0 ? enlacesBase : enlacesSuperiores[nodo];
+	}
+
+	/**
+	 * @brief Obtiene la posición donde empiezan los enlaces de un nodo en una capa.
+	 *
+	 * @param nodo El nodo.
+	 * @param capa La capa.
+	 * @return La posición del contador de enlaces, seguida de los enlaces.
+	 */
+	private int desplazamiento(int nodo, int capa) {
+		return capa == 0 ? nodo * (mMaximoBase + 1) : (capa - 1) * (m + 1);
+	}
+
+	/**
+	 * @brief Marcas de nodos visitados reutilizables entre búsquedas mediante un contador de generación.
+	 */
+	static class Visitados {
+		/**
+		 * @brief Generación en la que se visitó cada nodo.
+		 */
+		private int[] marcas = new int[0];
+		/**
+		 * @brief Generación de la búsqueda actual.
+		 */
+		private int generacion;
+
+		/**
+		 * @brief Prepara las marcas para una nueva búsqueda sin recorrer el array.
+		 *
+		 * @param numNodos El número de nodos del grafo.
+		 */
+		void nuevaBusqueda(int numNodos) {
+			if (marcas.length < numNodos) {
+				marcas = new int[numNodos];
+				generacion = 0;
+			}
+			generacion++;
+			if (generacion == Integer.MAX_VALUE) {
+				Arrays.fill(marcas, 0);
+				generacion = 1;
+			}
+		}
+
+		/**
+		 * @brief Marca un nodo como visitado.
+		 *
+		 * @param nodo El nodo.
+		 * @return `true` si el nodo no había sido visitado en esta búsqueda.
+		 */
+		boolean marcar(int nodo) {
+			if (marcas[nodo] == generacion) {
+				return false;
+			}
+			marcas[nodo] = generacion;
+			return true;
+		}
+	}
+
+	/**
+	 * @brief Cola de prioridad de mínimos sobre arrays primitivos para los candidatos pendientes de expandir.
+	 */
+	private static class ColaCandidatos {
+		/**
+		 * @brief Distancias de los candidatos.
+		 */
+		private double[] distancias;
+		/**
+		 * @brief Nodos de los candidatos.
+		 */
+		private int[] nodos;
+		/**
+		 * @brief Número de candidatos en la cola.
+		 */
+		private int tamano;
+
+		/**
+		 * @brief Crea la cola con una capacidad inicial.
+		 *
+		 * @param capacidad La capacidad inicial.
+		 */
+		ColaCandidatos(int capacidad) {
+			this.distancias = new double[Math.max(capacidad, 1)];
+			this.nodos = new int[Math.max(capacidad, 1)];
+		}
+
+		/**
+		 * @brief Indica si la cola está vacía.
+		 *
+		 * @return `true` si no quedan candidatos.
+		 */
+		boolean estaVacia() {
+			return tamano == 0;
+		}
+
+		/**
+		 * @brief Obtiene la menor distancia de la cola.
+		 *
+		 * @return La distancia del candidato más cercano.
+		 */
+		double menorDistancia() {
+			return distancias[0];
+		}
+
+		/**
+		 * @brief Inserta un candidato.
+		 *
+		 * @param distancia La distancia del candidato.
+		 * @param nodo El nodo del candidato.
+		 */
+		void insertar(double distancia, int nodo) {
+			if (tamano == distancias.length) {
+				distancias = Arrays.copyOf(distancias, tamano * 2);
+				nodos = Arrays.copyOf(nodos, tamano * 2);
+			}
+			int i = tamano++;
+			while (i > 0) {
+				int padre = (i - 1) >>> 1;
+				if (distancias[padre] <= distancia) {
+					break;
+				}
+				distancias[i] = distancias[padre];
+				nodos[i] = nodos[padre];
+				i = padre;
+			}
+			distancias[i] = distancia;
+			nodos[i] = nodo;
+		}
+
+		/**
+		 * @brief Extrae el candidato más cercano.
+		 *
+		 * @return El nodo extraído.
+		 */
+		int extraer() {
+			int resultado = nodos[0];
+			tamano--;
+			double distancia = distancias[tamano];
+			int nodo = nodos[tamano];
+			int i = 0;
+			while (true) {
+				int hijo = 2 * i + 1;
+				if (hijo >= tamano) {
+					break;
+				}
+				if (hijo + 1 < tamano && distancias[hijo + 1] < distancias[hijo]) {
+					hijo++;
+				}
+				if (distancias[hijo] >= distancia) {
+					break;
+				}
+				distancias[i] = distancias[hijo];
+				nodos[i] = nodos[hijo];
+				i = hijo;
+			}
+			distancias[i] = distancia;
+			nodos[i] = nodo;
+			return resultado;
+		}
+	}
+}
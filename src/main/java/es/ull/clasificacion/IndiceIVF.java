@@ -0,0 +1,285 @@
+package clasificacion;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @file IndiceIVF.java
+ * @brief Índice aproximado de vecinos de fichero invertido (IVF): las filas se reparten en celdas con k-medias.
+ *
+ * Al construirse, {@link KMedias} agrupa una muestra de hasta {@code 256 * numCeldas} filas en
+ * {@code numCeldas} centroides, y cada fila se asigna a la celda de su centroide más cercano; las dos
+ * fases se reparten entre los hilos de un {@link ForkJoinPool}. Cada celda guarda solo los números de
+ * sus filas, así que la memoria del índice es la de los centroides más un entero por fila,
+ * independientemente de la distribución de los datos.
+ *
+ * Una consulta ordena los centroides por su distancia y recorre solo las filas de las {@code sondas}
+ * celdas más cercanas, con la distancia exacta; si no reúnen K vecinos, sigue con las celdas siguientes.
+ * El resultado es aproximado: más sondas (globalmente con {@link #setSondas(int)} o en cada consulta con
+ * {@link #buscar(double[], MonticuloVecinos, int)}) mejoran la exhaustividad a cambio de recorrer más filas;
+ * con todas las celdas equivale a la búsqueda exhaustiva. Las celdas se forman con la distancia euclídea
+ * ponderada; las consultas usan la distancia del índice tanto para ordenar los centroides como para las filas.
+ *
+ * Admite inserciones después de construirse ({@link #insertar(int)}): la fila se añade a la celda de su
+ * centroide más cercano, sin mover los centroides. Solo admite atributos numéricos.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class IndiceIVF implements IndiceVecinos {
+	/**
+	 * @brief Número de celdas recorridas en cada consulta usado por defecto.
+	 */
+	public static final int SONDAS_POR_DEFECTO = 8;
+	/**
+	 * @brief Número de filas de la muestra de entrenamiento de k-medias por cada celda.
+	 */
+	private static final int MUESTRA_POR_CELDA = 256;
+	/**
+	 * @brief Número de valores que se copian de una vez al asignar las filas a las celdas.
+	 */
+	private static final int VALORES_POR_BLOQUE = 1 << 20;
+
+	/**
+	 * @brief Los datos empaquetados sobre los que se construye el índice.
+	 */
+	private final DatosEntrenamiento datos;
+	/**
+	 * @brief La distancia utilizada en las consultas.
+	 */
+	private final Distancia distancia;
+	/**
+	 * @brief Número de celdas.
+	 */
+	private final int numCeldas;
+	/**
+	 * @brief Los centroides de las celdas, empaquetados.
+	 */
+	private final double[] centroides;
+	/**
+	 * @brief Filas de cada celda, en orden creciente salvo las insertadas después de construir.
+	 */
+	private int[][] celdas;
+	/**
+	 * @brief Número de filas de cada celda.
+	 */
+	private final int[] tamanos;
+	/**
+	 * @brief Número de celdas recorridas en cada consulta por defecto.
+	 */
+	private volatile int sondas = SONDAS_POR_DEFECTO;
+
+	/**
+	 * @brief Construye el índice con la distancia euclídea ponderada y unas {@code 4 * sqrt(filas)} celdas.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 */
+	public IndiceIVF(DatosEntrenamiento datos) {
+		this(datos, DistanciaEuclidea.preferida());
+	}
+
+	/**
+	 * @brief Construye el índice con unas {@code 4 * sqrt(filas)} celdas en el pool común.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La distancia a utilizar en las consultas.
+	 */
+	public IndiceIVF(DatosEntrenamiento datos, Distancia distancia) {
+		this(datos, distancia, (int) Math.max(1, Math.round(4 * Math.sqrt(datos.numeroFilas()))), 1234L, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @brief Construye el índice en el pool común.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La distancia a utilizar en las consultas.
+	 * @param numCeldas El número de celdas. Debe ser un entero positivo.
+	 */
+	public IndiceIVF(DatosEntrenamiento datos, Distancia distancia, int numCeldas) {
+		this(datos, distancia, numCeldas, 1234L, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @brief Construye el índice.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La distancia a utilizar en las consultas.
+	 * @param numCeldas El número de celdas. Debe ser un entero positivo; si hay menos filas, se usa una celda por fila.
+	 * @param semilla La semilla de la muestra y de los centroides iniciales, lo que hace la construcción reproducible.
+	 * @param pool El {@link ForkJoinPool} en el que se reparten k-medias y la asignación de las filas.
+	 * @throws IllegalArgumentException Si la distancia o el pool son nulos, si los datos tienen atributos
+	 * cualitativos o si el número de celdas no es positivo.
+	 */
+	public IndiceIVF(DatosEntrenamiento datos, Distancia distancia, int numCeldas, long semilla, ForkJoinPool pool) {
+		if (distancia == null) {
+			throw new IllegalArgumentException("La distancia no puede ser nula.");
+		}
+		if (pool == null) {
+			throw new IllegalArgumentException("El pool de hilos no puede ser nulo.");
+		}
+		if (datos.numeroCategoricas() > 0) {
+			throw new IllegalArgumentException("El índice IVF solo admite atributos numéricos.");
+		}
+		if (numCeldas <= 0) {
+			throw new IllegalArgumentException("El número de celdas debe ser mayor que cero.");
+		}
+		this.datos = datos;
+		this.distancia = distancia;
+		int numFilas = datos.numeroFilas();
+		int dimension = datos.getDimension();
+		double[] pesos = datos.getPesos();
+		if (numFilas == 0) {
+			this.numCeldas = 0;
+			this.centroides = new double[0];
+			this.celdas = new int[0][];
+			this.tamanos = new int[0];
+			return;
+		}
+
+		KMedias kMedias = new KMedias(numCeldas, KMedias.ITERACIONES_POR_DEFECTO, semilla);
+		kMedias.setPool(pool);
+		int tamanoMuestra = (int) Math.min(numFilas, (long) MUESTRA_POR_CELDA * numCeldas);
+		this.centroides = kMedias.agrupar(KMedias.muestra(datos, tamanoMuestra, semilla), tamanoMuestra, dimension, pesos);
+		this.numCeldas = dimension == 0 ? 1 : centroides.length / dimension;
+
+		int[] celdaFila = new int[numFilas];
+		int filasPorBloque = Math.max(1, VALORES_POR_BLOQUE / Math.max(dimension, 1));
+		double[] bloque = new double[Math.min(filasPorBloque, numFilas) * dimension];
+		for (int inicio = 0; inicio < numFilas; inicio += filasPorBloque) {
+			int fin = Math.min(inicio + filasPorBloque, numFilas);
+			datos.leerFilas(inicio, fin - inicio, bloque, 0);
+			System.arraycopy(kMedias.asignar(centroides, bloque, fin - inicio, dimension, pesos), 0, celdaFila, inicio, fin - inicio);
+		}
+		this.tamanos = new int[this.numCeldas];
+		for (int celda : celdaFila) {
+			tamanos[celda]++;
+		}
+		this.celdas = new int[this.numCeldas][];
+		for (int c = 0; c < this.numCeldas; c++) {
+			celdas[c] = new int[Math.max(tamanos[c], 1)];
+		}
+		int[] ocupadas = new int[this.numCeldas];
+		for (int fila = 0; fila < numFilas; fila++) {
+			int c = celdaFila[fila];
+			celdas[c][ocupadas[c]++] = fila;
+		}
+	}
+
+	/**
+	 * @brief Busca los vecinos aproximados de una consulta con el número de sondas por defecto.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 */
+	@Override
+	public void buscar(double[] consulta, MonticuloVecinos vecinos) {
+		buscar(consulta, vecinos, sondas);
+	}
+
+	/**
+	 * @brief Busca los vecinos aproximados de una consulta recorriendo un número de celdas propio.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 * @param sondas El número de celdas más cercanas a recorrer; se recorren más si no reúnen K vecinos.
+	 */
+	public void buscar(double[] consulta, MonticuloVecinos vecinos, int sondas) {
+		if (numCeldas == 0) {
+			return;
+		}
+		int dimension = datos.getDimension();
+		double[] pesos = datos.getPesos();
+		MonticuloVecinos cercanas = new MonticuloVecinos(numCeldas);
+		for (int c = 0; c < numCeldas; c++) {
+			cercanas.ofrecer(distancia.calcular(consulta, 0, centroides, c * dimension, dimension, pesos), c);
+		}
+		cercanas.ordenar();
+		double[] filas = datos.estaFueraMonticulo() ? null : datos.getFilas();
+		double[] auxiliar = filas == null ? new double[dimension] : null;
+		for (int i = 0; i < numCeldas && (i < sondas || vecinos.tamano() < vecinos.capacidad()); i++) {
+			int c = cercanas.getFila(i);
+			int[] celda = celdas[c];
+			for (int j = 0; j < tamanos[c]; j++) {
+				int fila = celda[j];
+				double d;
+				if (filas != null) {
+					d = distancia.calcularAcotada(consulta, 0, filas, fila * dimension, dimension, pesos, vecinos.peorDistancia());
+				} else {
+					datos.leerFilas(fila, 1, auxiliar, 0);
+					d = distancia.calcularAcotada(consulta, 0, auxiliar, 0, dimension, pesos, vecinos.peorDistancia());
+				}
+				vecinos.ofrecer(d, fila);
+			}
+		}
+	}
+
+	/**
+	 * @brief Añade a la celda de su centroide más cercano una fila añadida a los datos después de construir el índice.
+	 * <p>
+	 * No debe ejecutarse a la vez que otras inserciones o consultas.
+	 *
+	 * @param fila La fila añadida con {@link DatosEntrenamiento#anadir(datos.Instancia)}.
+	 * @return `true` si la fila se ha incorporado, `false` si el índice se construyó sin filas y no tiene celdas.
+	 * @throws IllegalArgumentException Si la fila no existe en los datos.
+	 */
+	@Override
+	public boolean insertar(int fila) {
+		if (fila < 0 || fila >= datos.numeroFilas()) {
+			throw new IllegalArgumentException("La fila " + fila + " no existe en los datos.");
+		}
+		if (numCeldas == 0) {
+			return false;
+		}
+		int dimension = datos.getDimension();
+		double[] valores = new double[dimension];
+		datos.leerFilas(fila, 1, valores, 0);
+		int c = KMedias.masCercano(centroides, valores, 0, dimension, datos.getPesos());
+		if (tamanos[c] == celdas[c].length) {
+			celdas[c] = Arrays.copyOf(celdas[c], 2 * celdas[c].length);
+		}
+		celdas[c][tamanos[c]++] = fila;
+		return true;
+	}
+
+	/**
+	 * @brief Establece el número de celdas recorridas en cada consulta por defecto.
+	 *
+	 * @param sondas El nuevo valor. Debe ser un entero positivo.
+	 * @throws IllegalArgumentException Si el valor no es positivo.
+	 */
+	public void setSondas(int sondas) {
+		if (sondas <= 0) {
+			throw new IllegalArgumentException("El número de sondas debe ser mayor que cero.");
+		}
+		this.sondas = sondas;
+	}
+
+	/**
+	 * @brief Obtiene el número de celdas recorridas en cada consulta por defecto.
+	 *
+	 * @return El número de sondas.
+	 */
+	public int getSondas() {
+		return sondas;
+	}
+
+	/**
+	 * @brief Obtiene el número de celdas del índice.
+	 *
+	 * @return El número de celdas.
+	 */
+	public int numeroCeldas() {
+		return numCeldas;
+	}
+
+	/**
+	 * @brief Obtiene el número de filas de una celda.
+	 *
+	 * @param celda La celda.
+	 * @return El número de filas.
+	 */
+	public int tamanoCelda(int celda) {
+		return tamanos[celda];
+	}
+}
@@ -0,0 +1,222 @@
+package clasificacion;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @file IndiceIncremental.java
+ * @brief Índice que admite filas añadidas y eliminadas sobre otro índice ya construido.
+ *
+ * Cada fila añadida a los {@link DatosEntrenamiento} se ofrece primero al índice base
+ * ({@link IndiceVecinos#insertar(int)}); las que no acepta, como las de los árboles, quedan en
+ * una lista de filas pendientes que se recorre por fuerza bruta en cada consulta. Las filas
+ * eliminadas se descartan en el propio montículo de resultados
+ * ({@link MonticuloVecinos#setExcluidas(boolean[])}), así que los índices siguen podando con la
+ * K-ésima distancia válida.
+ *
+ * El coste de las consultas crece con las filas pendientes y eliminadas hasta que el índice se
+ * reconstruye sobre los datos compactados ({@link DatosEntrenamiento#compactar()}), lo que
+ * {@link KNN} hace en segundo plano. Las inserciones no deben ejecutarse a la vez que las consultas.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class IndiceIncremental implements IndiceVecinos {
+	/**
+	 * @brief Los datos empaquetados, que incluyen las filas añadidas.
+	 */
+	private final DatosEntrenamiento datos;
+	/**
+	 * @brief El índice construido sobre los datos.
+	 */
+	private final IndiceVecinos base;
+	/**
+	 * @brief La distancia con la que se recorren las filas pendientes, la misma que usa el índice base.
+	 */
+	private final Distancia distancia;
+	/**
+	 * @brief Filas añadidas que el índice base no ha aceptado.
+	 */
+	private int[] pendientes = new int[16];
+	/**
+	 * @brief Número de filas pendientes.
+	 */
+	private int numPendientes;
+
+	/**
+	 * @brief Crea el índice incremental sobre un índice ya construido.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} sobre los que se construyó `base`.
+	 * @param base El índice construido.
+	 * @param distancia La distancia del índice base.
+	 * @throws IllegalArgumentException Si algún argumento es nulo.
+	 */
+	public IndiceIncremental(DatosEntrenamiento datos, IndiceVecinos base, Distancia distancia) {
+		if (datos == null || base == null || distancia == null) {
+			throw new IllegalArgumentException("Los datos, el índice base y la distancia no pueden ser nulos.");
+		}
+		this.datos = datos;
+		this.base = base;
+		this.distancia = distancia;
+	}
+
+	/**
+	 * @brief Incorpora una fila añadida a los datos.
+	 * <p>
+	 * Si el índice base no la acepta, la fila queda pendiente y se recorre por fuerza bruta.
+	 *
+	 * @param fila La fila añadida con {@link DatosEntrenamiento#anadir(datos.Instancia)}.
+	 * @return `true`.
+	 */
+	@Override
+	public boolean insertar(int fila) {
+		if (!base.insertar(fila)) {
+			if (numPendientes == pendientes.length) {
+				pendientes = Arrays.copyOf(pendientes, 2 * numPendientes);
+			}
+			pendientes[numPendientes++] = fila;
+		}
+		return true;
+	}
+
+	/**
+	 * @brief Busca los vecinos en el índice base y en las filas pendientes, sin las filas eliminadas.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 */
+	@Override
+	public void buscar(double[] consulta, MonticuloVecinos vecinos) {
+		vecinos.setExcluidas(datos.getEliminadas());
+		try {
+			base.buscar(consulta, vecinos);
+			recorrerPendientes(consulta, vecinos);
+		} finally {
+			vecinos.setExcluidas(null);
+		}
+	}
+
+	/**
+	 * @brief Busca los vecinos en el índice base, repartido entre los hilos de un pool, y en las filas
+	 * pendientes, sin las filas eliminadas.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 * @param pool El {@link ForkJoinPool} en el que se reparte la búsqueda del índice base.
+	 */
+	@Override
+	public void buscar(double[] consulta, MonticuloVecinos vecinos, ForkJoinPool pool) {
+		vecinos.setExcluidas(datos.getEliminadas());
+		try {
+			base.buscar(consulta, vecinos, pool);
+			recorrerPendientes(consulta, vecinos);
+		} finally {
+			vecinos.setExcluidas(null);
+		}
+	}
+
+	/**
+	 * @brief Busca los vecinos de un lote en el índice base y en las filas pendientes, sin las filas eliminadas.
+	 *
+	 * @param consultas Las consultas. Las consultas nulas se ignoran.
+	 * @param vecinos Un {@link MonticuloVecinos} por consulta donde se acumulan los resultados.
+	 */
+	@Override
+	public void buscarLote(double[][] consultas, MonticuloVecinos[] vecinos) {
+		boolean[] eliminadas = datos.getEliminadas();
+		for (MonticuloVecinos monticulo : vecinos) {
+			monticulo.setExcluidas(eliminadas);
+		}
+		try {
+			base.buscarLote(consultas, vecinos);
+			for (int i = 0; i < consultas.length; i++) {
+				if (consultas[i] != null) {
+					recorrerPendientes(consultas[i], vecinos[i]);
+				}
+			}
+		} finally {
+			for (MonticuloVecinos monticulo : vecinos) {
+				monticulo.setExcluidas(null);
+			}
+		}
+	}
+
+	/**
+	 * @brief Busca las filas dentro del radio en el índice base y en las filas pendientes, sin las eliminadas.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param radio El radio, en las unidades de {@link Distancia#calcular}.
+	 * @return Un {@link MonticuloVecinos}, sin ordenar, con exactamente las filas vivas dentro del radio.
+	 */
+	@Override
+	public MonticuloVecinos buscarRadio(double[] consulta, double radio) {
+		MonticuloVecinos encontradas = base.buscarRadio(consulta, radio);
+		// Sin filas pendientes no hace falta el array, que no existe si las filas están fuera del montículo.
+		double[] filas = numPendientes > 0 ? datos.getFilas() : null;
+		double[] pesos = datos.getPesos();
+		int dimension = datos.getDimension();
+		double cota = Math.nextUp(radio);
+		int[] dentro = new int[encontradas.tamano() + numPendientes];
+		double[] distancias = new double[dentro.length];
+		int total = 0;
+		for (int i = 0; i < encontradas.tamano(); i++) {
+			if (!datos.estaEliminada(encontradas.getFila(i))) {
+				dentro[total] = encontradas.getFila(i);
+				distancias[total++] = encontradas.getDistancia(i);
+			}
+		}
+		for (int i = 0; i < numPendientes; i++) {
+			int fila = pendientes[i];
+			if (!datos.estaEliminada(fila)) {
+				double valor = distancia.calcularAcotada(consulta, 0, filas, fila * dimension, dimension, pesos, cota);
+				if (valor < cota) {
+					dentro[total] = fila;
+					distancias[total++] = valor;
+				}
+			}
+		}
+		MonticuloVecinos resultado = new MonticuloVecinos(Math.max(total, 1));
+		for (int i = 0; i < total; i++) {
+			resultado.ofrecer(distancias[i], dentro[i]);
+		}
+		return resultado;
+	}
+
+	/**
+	 * @brief Ofrece las filas pendientes al montículo de vecinos.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El montículo, que ya rechaza las filas eliminadas.
+	 */
+	private void recorrerPendientes(double[] consulta, MonticuloVecinos vecinos) {
+		if (numPendientes == 0) {
+			return;
+		}
+		double[] filas = datos.getFilas();
+		double[] pesos = datos.getPesos();
+		int dimension = datos.getDimension();
+		for (int i = 0; i < numPendientes; i++) {
+			int fila = pendientes[i];
+			vecinos.ofrecer(distancia.calcularAcotada(consulta, 0, filas, fila * dimension, dimension, pesos, vecinos.peorDistancia()), fila);
+		}
+	}
+
+	/**
+	 * @brief Obtiene el número de filas añadidas que se recorren por fuerza bruta.
+	 *
+	 * @return El número de filas pendientes.
+	 */
+	public int numeroPendientes() {
+		return numPendientes;
+	}
+
+	/**
+	 * @brief Obtiene el índice construido sobre los datos.
+	 *
+	 * @return El índice base.
+	 */
+	public IndiceVecinos getBase() {
+		return base;
+	}
+}
@@ -0,0 +1,507 @@
+package clasificacion;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @file IndiceLSH.java
+ * @brief Índice aproximado de vecinos basado en funciones hash sensibles a la localidad (LSH).
+ *
+ * Cada una de las {@code numTablas} tablas agrupa las filas en cubetas según {@code hashesPorTabla}
+ * proyecciones aleatorias de sus valores ponderados ({@code sqrt(peso) * valor}):
+ * <ul>
+ * <li>Con la distancia del coseno ({@link DistanciaCoseno}), cada proyección es un hiperplano
+ * aleatorio y aporta el lado en que queda la fila.</li>
+ * <li>Con la distancia euclídea ({@link DistanciaEuclidea}), cada proyección es p-estable (gaussiana)
+ * y se discretiza en intervalos de anchura {@code anchura} con un desplazamiento aleatorio.</li>
+ * </ul>
+ * Dos filas cercanas caen con mucha probabilidad en la misma cubeta de alguna tabla. La búsqueda reúne
+ * como candidatas las filas de la cubeta de la consulta en cada tabla y, con sondeo múltiple, las de las
+ * {@code sondas} cubetas vecinas más prometedoras (las que resultan de mover la proyección más próxima
+ * a un límite de intervalo); después calcula la distancia exacta de cada candidata. Si no se reúnen K
+ * candidatas, se recorren las filas restantes para devolver siempre K vecinos.
+ *
+ * El resultado es aproximado: más tablas o más sondas (globalmente con {@link #setSondas(int)} o en
+ * cada consulta con {@link #buscar(double[], MonticuloVecinos, int)}) mejoran la exhaustividad a cambio
+ * de más candidatas; más proyecciones por tabla dan cubetas más pequeñas. Está pensado para muchos
+ * atributos cuantitativos, donde los árboles no podan; no admite atributos cualitativos. Como el resto
+ * de índices, {@link KNN} lo usa con {@link KNN#setIndice(FabricaIndice)}, por ejemplo {@code IndiceLSH::new}.
+ *
+ * Las cubetas de cada tabla se guardan como un array ordenado de claves con las filas de cada cubeta
+ * contiguas, así que el índice no admite inserciones: las filas añadidas después las recorre
+ * {@link IndiceIncremental}.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class IndiceLSH implements IndiceVecinos {
+	/**
+	 * @brief Número de tablas usado por defecto.
+	 */
+	public static final int TABLAS_POR_DEFECTO = 12;
+	/**
+	 * @brief Número de proyecciones por tabla usado por defecto.
+	 */
+	public static final int HASHES_POR_DEFECTO = 8;
+	/**
+	 * @brief Número de cubetas vecinas sondeadas en cada tabla usado por defecto.
+	 */
+	public static final int SONDAS_POR_DEFECTO = 4;
+	/**
+	 * @brief Factor que multiplica la distancia media al vecino más cercano para estimar la anchura de los intervalos.
+	 */
+	private static final double FACTOR_ANCHURA = 4.0;
+	/**
+	 * @brief Número de filas de muestra con las que se estima la anchura de los intervalos.
+	 */
+	private static final int MUESTRA_ANCHURA = 32;
+	/**
+	 * @brief Número de valores que se leen de una vez al calcular las claves de las filas.
+	 */
+	private static final int VALORES_POR_BLOQUE = 1 << 12;
+
+	/**
+	 * @brief Los datos empaquetados sobre los que se construye el índice.
+	 */
+	private final DatosEntrenamiento datos;
+	/**
+	 * @brief La distancia con la que se calculan las distancias exactas de las candidatas.
+	 */
+	private final Distancia distancia;
+	/**
+	 * @brief Indica si las proyecciones son hiperplanos (coseno) en lugar de proyecciones discretizadas (euclídea).
+	 */
+	private final boolean coseno;
+	/**
+	 * @brief Número de filas indexadas: las que tenían los datos al construir el índice.
+	 */
+	private final int numFilas;
+	/**
+	 * @brief Número de tablas.
+	 */
+	private final int numTablas;
+	/**
+	 * @brief Número de proyecciones de cada tabla.
+	 */
+	private final int hashesPorTabla;
+	/**
+	 * @brief Anchura de los intervalos de las proyecciones euclídeas, en unidades de la métrica.
+	 */
+	private final double anchura;
+	/**
+	 * @brief Coeficientes de las proyecciones de cada tabla, ya multiplicados por la raíz de los pesos: `hashesPorTabla` filas de `dimension` valores.
+	 */
+	private final double[][] proyecciones;
+	/**
+	 * @brief Desplazamiento aleatorio de cada proyección euclídea, en unidades de intervalo.
+	 */
+	private final double[][] desplazamientos;
+	/**
+	 * @brief Claves de las cubetas no vacías de cada tabla, en orden ascendente.
+	 */
+	private final long[][] claves;
+	/**
+	 * @brief Posición en {@link #filas} donde empieza cada cubeta de cada tabla, más la posición final.
+	 */
+	private final int[][] inicios;
+	/**
+	 * @brief Filas de cada tabla agrupadas por cubeta.
+	 */
+	private final int[][] filas;
+	/**
+	 * @brief Número de cubetas vecinas sondeadas en cada tabla por defecto.
+	 */
+	private volatile int sondas = SONDAS_POR_DEFECTO;
+	/**
+	 * @brief Marcas de filas ya evaluadas, una por hilo para permitir consultas concurrentes.
+	 */
+	private final ThreadLocal<GrafoHNSW.Visitados> visitados = ThreadLocal.withInitial(GrafoHNSW.Visitados::new);
+
+	/**
+	 * @brief Construye el índice con la distancia euclídea ponderada y los parámetros por defecto.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 */
+	public IndiceLSH(DatosEntrenamiento datos) {
+		this(datos, DistanciaEuclidea.preferida());
+	}
+
+	/**
+	 * @brief Construye el índice con una distancia y los parámetros por defecto.
+	 * <p>
+	 * La anchura de los intervalos se estima a partir de los datos.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La distancia a utilizar: euclídea o del coseno.
+	 */
+	public IndiceLSH(DatosEntrenamiento datos, Distancia distancia) {
+		this(datos, distancia, TABLAS_POR_DEFECTO, HASHES_POR_DEFECTO, 0.0, 1234L);
+	}
+
+	/**
+	 * @brief Construye el índice.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La distancia a utilizar: euclídea ({@link DistanciaEuclidea}) o del coseno ({@link DistanciaCoseno}).
+	 * @param numTablas El número de tablas (al menos 1).
+	 * @param hashesPorTabla El número de proyecciones de cada tabla (entre 1 y 64).
+	 * @param anchura La anchura de los intervalos de las proyecciones euclídeas, en unidades de la métrica
+	 * ({@link Distancia#haciaMetrica(double)}); con 0 se estima como cuatro veces la distancia media al vecino
+	 * más cercano de una muestra de filas. Se ignora con la distancia del coseno.
+	 * @param semilla La semilla de las proyecciones, lo que hace la construcción reproducible.
+	 * @throws IllegalArgumentException Si la distancia es nula o de otro tipo, si los datos tienen atributos
+	 * cualitativos o si los parámetros no son válidos.
+	 */
+	public IndiceLSH(DatosEntrenamiento datos, Distancia distancia, int numTablas, int hashesPorTabla, double anchura, long semilla) {
+		if (distancia == null) {
+			throw new IllegalArgumentException("La distancia no puede ser nula.");
+		}
+		if (!(distancia instanceof DistanciaEuclidea) && !(distancia instanceof DistanciaCoseno)) {
+			throw new IllegalArgumentException("El índice LSH solo admite las distancias euclídea y del coseno.");
+		}
+		if (datos.numeroCategoricas() > 0) {
+			throw new IllegalArgumentException("El índice LSH solo admite atributos numéricos.");
+		}
+		if (numTablas < 1 || hashesPorTabla < 1 || hashesPorTabla > 64 || !(anchura >= 0) || Double.isInfinite(anchura)) {
+			throw new IllegalArgumentException("Se requiere numTablas >= 1, 1 <= hashesPorTabla <= 64 y una anchura finita no negativa.");
+		}
+		this.datos = datos;
+		this.distancia = distancia;
+		this.coseno = distancia instanceof DistanciaCoseno;
+		this.numFilas = datos.numeroFilas();
+		this.numTablas = numTablas;
+		this.hashesPorTabla = hashesPorTabla;
+
+		// Suprimir la advertencia de SonarCloud (java:S2245): el generador solo sortea las proyecciones
+		// y se siembra para que la construcción sea reproducible.
+		@SuppressWarnings("java:S2245")
+		Random random = new Random(semilla);
+		this.anchura = coseno ? 0.0 : (anchura > 0 ? anchura : estimarAnchura(random));
+		int dimension = datos.getDimension();
+		double[] pesos = datos.getPesos();
+		this.proyecciones = new double[numTablas][hashesPorTabla * dimension];
+		this.desplazamientos = new double[numTablas][hashesPorTabla];
+		for (int t = 0; t < numTablas; t++) {
+			for (int h = 0; h < hashesPorTabla; h++) {
+				for (int j = 0; j < dimension; j++) {
+					// Proyectar sqrt(peso) * valor hace que la distancia ponderada sea la euclídea (o el coseno) usual.
+					proyecciones[t][h * dimension + j] = random.nextGaussian() * Math.sqrt(pesos[j]);
+				}
+				desplazamientos[t][h] = random.nextDouble();
+			}
+		}
+		this.claves = new long[numTablas][];
+		this.inicios = new int[numTablas][];
+		this.filas = new int[numTablas][];
+		construir();
+	}
+
+	/**
+	 * @brief Estima la anchura de los intervalos a partir de la distancia al vecino más cercano de una muestra de filas.
+	 *
+	 * @param random El generador con el que se eligen las filas de la muestra.
+	 * @return La anchura estimada, o 1 si los datos no permiten estimarla.
+	 */
+	private double estimarAnchura(Random random) {
+		if (numFilas < 2) {
+			return 1.0;
+		}
+		BusquedaExhaustiva exhaustiva = new BusquedaExhaustiva(datos, distancia);
+		double[] fila = new double[datos.getDimension()];
+		int muestra = Math.min(MUESTRA_ANCHURA, numFilas);
+		double suma = 0;
+		for (int i = 0; i < muestra; i++) {
+			datos.leerFilas(random.nextInt(numFilas), 1, fila, 0);
+			// El más cercano es la propia fila (o una igual); el segundo da la distancia al vecino.
+			MonticuloVecinos vecinos = new MonticuloVecinos(2);
+			exhaustiva.buscar(fila, vecinos);
+			suma += distancia.haciaMetrica(vecinos.peorDistancia());
+		}
+		double media = suma / muestra;
+		return media > 0 ? FACTOR_ANCHURA * media : 1.0;
+	}
+
+	/**
+	 * @brief Calcula la clave de todas las filas en cada tabla y las agrupa por cubetas.
+	 */
+	private void construir() {
+		int dimension = datos.getDimension();
+		long[][] clavesFilas = new long[numTablas][numFilas];
+		double[] valores = new double[hashesPorTabla];
+		int[] cubetas = new int[hashesPorTabla];
+		int filasPorBloque = Math.max(1, VALORES_POR_BLOQUE / Math.max(dimension, 1));
+		double[] bloque = new double[filasPorBloque * dimension];
+		for (int inicio = 0; inicio < numFilas; inicio += filasPorBloque) {
+			int fin = Math.min(inicio + filasPorBloque, numFilas);
+			datos.leerFilas(inicio, fin - inicio, bloque, 0);
+			for (int fila = inicio, base = 0; fila < fin; fila++, base += dimension) {
+				for (int t = 0; t < numTablas; t++) {
+					proyectar(t, bloque, base, valores, cubetas);
+					clavesFilas[t][fila] = clave(cubetas);
+				}
+			}
+		}
+		for (int t = 0; t < numTablas; t++) {
+			long[] ordenadas = clavesFilas[t].clone();
+			Arrays.sort(ordenadas);
+			int distintas = 0;
+			for (int i = 0; i < ordenadas.length; i++) {
+				if (i == 0 || ordenadas[i] != ordenadas[i - 1]) {
+					ordenadas[distintas++] = ordenadas[i];
+				}
+			}
+			long[] clavesTabla = Arrays.copyOf(ordenadas, distintas);
+			int[] iniciosTabla = new int[distintas + 1];
+			int[] cubetaFila = new int[numFilas];
+			for (int fila = 0; fila < numFilas; fila++) {
+				cubetaFila[fila] = Arrays.binarySearch(clavesTabla, clavesFilas[t][fila]);
+				iniciosTabla[cubetaFila[fila] + 1]++;
+			}
+			for (int c = 0; c < distintas; c++) {
+				iniciosTabla[c + 1] += iniciosTabla[c];
+			}
+			int[] siguiente = Arrays.copyOf(iniciosTabla, distintas);
+			int[] filasTabla = new int[numFilas];
+			for (int fila = 0; fila < numFilas; fila++) {
+				filasTabla[siguiente[cubetaFila[fila]]++] = fila;
+			}
+			claves[t] = clavesTabla;
+			inicios[t] = iniciosTabla;
+			filas[t] = filasTabla;
+		}
+	}
+
+	/**
+	 * @brief Calcula las proyecciones de un vector en una tabla y la cubeta de cada una.
+	 *
+	 * @param tabla La tabla.
+	 * @param vector Array que contiene el vector.
+	 * @param desde Posición del vector en el array.
+	 * @param valores Array donde se guarda cada proyección: con signo para el coseno y en unidades de intervalo para la euclídea.
+	 * @param cubetas Array donde se guarda la cubeta de cada proyección.
+	 */
+	private void proyectar(int tabla, double[] vector, int desde, double[] valores, int[] cubetas) {
+		int dimension = datos.getDimension();
+		double[] coeficientes = proyecciones[tabla];
+		for (int h = 0, base = 0; h < hashesPorTabla; h++, base += dimension) {
+			double producto = 0;
+			for (int j = 0; j < dimension; j++) {
+				producto += coeficientes[base + j] * vector[desde + j];
+			}
+			if (coseno) {
+				valores[h] = producto;
+				cubetas[h] = producto >= 0 ? 1 : 0;
+			} else {
+				valores[h] = producto / anchura + desplazamientos[tabla][h];
+				cubetas[h] = (int) Math.floor(valores[h]);
+			}
+		}
+	}
+
+	/**
+	 * @brief Combina las cubetas de las proyecciones de una tabla en una clave.
+	 * <p>
+	 * Dos combinaciones distintas pueden compartir clave; solo añade candidatas, porque todas se comprueban con la distancia exacta.
+	 *
+	 * @param cubetas La cubeta de cada proyección.
+	 * @return La clave.
+	 */
+	private static long clave(int[] cubetas) {
+		long clave = 0;
+		for (int cubeta : cubetas) {
+			clave = clave * 0x9E3779B97F4A7C15L + cubeta;
+		}
+		return clave ^ (clave >>> 31);
+	}
+
+	/**
+	 * @brief Busca los vecinos aproximados de una consulta con el número de sondas por defecto.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 */
+	@Override
+	public void buscar(double[] consulta, MonticuloVecinos vecinos) {
+		buscar(consulta, vecinos, sondas);
+	}
+
+	/**
+	 * @brief Busca los vecinos aproximados de una consulta con un número de sondas propio.
+	 * <p>
+	 * En cada tabla se evalúan las filas de la cubeta de la consulta y las de las `sondas` cubetas que
+	 * resultan de mover una proyección al intervalo (o al lado del hiperplano) contiguo, empezando por
+	 * las proyecciones que quedan más cerca del límite.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 * @param sondas El número de cubetas vecinas a sondear en cada tabla; 0 solo evalúa la cubeta de la consulta.
+	 */
+	public void buscar(double[] consulta, MonticuloVecinos vecinos, int sondas) {
+		GrafoHNSW.Visitados marcas = visitados.get();
+		marcas.nuevaBusqueda(numFilas);
+		double[] filasDatos = datos.estaFueraMonticulo() ? null : datos.getFilas();
+		double[] auxiliar = filasDatos == null ? new double[datos.getDimension()] : null;
+		double[] valores = new double[hashesPorTabla];
+		int[] cubetas = new int[hashesPorTabla];
+		int numPerturbaciones = coseno ? hashesPorTabla : 2 * hashesPorTabla;
+		double[] puntuaciones = new double[numPerturbaciones];
+		int[] perturbaciones = new int[numPerturbaciones];
+		int numSondas = Math.min(Math.max(sondas, 0), numPerturbaciones);
+		for (int t = 0; t < numTablas; t++) {
+			proyectar(t, consulta, 0, valores, cubetas);
+			evaluarCubeta(t, clave(cubetas), consulta, vecinos, marcas, filasDatos, auxiliar);
+			if (numSondas == 0) {
+				continue;
+			}
+			// Perturbación p: con el coseno, cambiar de lado el hiperplano p; con la euclídea, mover la
+			// proyección p % h un intervalo hacia abajo (p < h) o hacia arriba. Menor puntuación, más prometedora.
+			for (int p = 0; p < numPerturbaciones; p++) {
+				perturbaciones[p] = p;
+			}
+			for (int h = 0; h < hashesPorTabla; h++) {
+				if (coseno) {
+					puntuaciones[h] = Math.abs(valores[h]);
+				} else {
+					double fraccion = valores[h] - cubetas[h];
+					puntuaciones[h] = fraccion;
+					puntuaciones[hashesPorTabla + h] = 1.0 - fraccion;
+				}
+			}
+			for (int s = 0; s < numSondas; s++) {
+				int mejor = s;
+				for (int p = s + 1; p < numPerturbaciones; p++) {
+					if (puntuaciones[p] < puntuaciones[mejor]) {
+						mejor = p;
+					}
+				}
+				double puntuacion = puntuaciones[mejor];
+				puntuaciones[mejor] = puntuaciones[s];
+				puntuaciones[s] = puntuacion;
+				int perturbacion = perturbaciones[mejor];
+				perturbaciones[mejor] = perturbaciones[s];
+				perturbaciones[s] = perturbacion;
+				sondear(t, perturbacion, consulta, vecinos, marcas, filasDatos, auxiliar, cubetas);
+			}
+		}
+		if (vecinos.tamano() < vecinos.capacidad()) {
+			// Sin K candidatas válidas, las filas restantes completan el resultado.
+			for (int fila = 0; fila < numFilas; fila++) {
+				if (marcas.marcar(fila)) {
+					vecinos.ofrecer(distanciaA(consulta, fila, filasDatos, auxiliar, vecinos.peorDistancia()), fila);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @brief Evalúa la cubeta que resulta de aplicar una perturbación a las cubetas de la consulta en una tabla.
+	 *
+	 * @param tabla La tabla.
+	 * @param perturbacion La perturbación, con la numeración de {@link #buscar(double[], MonticuloVecinos, int)}.
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 * @param marcas Las marcas de filas ya evaluadas en esta consulta.
+	 * @param filasDatos Las filas de los datos, o `null` si están fuera del montículo.
+	 * @param auxiliar Array donde se copia cada fila si están fuera del montículo.
+	 * @param cubetas Las cubetas de la consulta en la tabla; se restauran antes de volver.
+	 */
+	private void sondear(int tabla, int perturbacion, double[] consulta, MonticuloVecinos vecinos, GrafoHNSW.Visitados marcas,
+			double[] filasDatos, double[] auxiliar, int[] cubetas) {
+		int h = perturbacion % hashesPorTabla;
+		int original = cubetas[h];
+		if (coseno) {
+			cubetas[h] = 1 - original;
+		} else {
+			cubetas[h] = perturbacion < hashesPorTabla ? original - 1 : original + 1;
+		}
+		evaluarCubeta(tabla, clave(cubetas), consulta, vecinos, marcas, filasDatos, auxiliar);
+		cubetas[h] = original;
+	}
+
+	/**
+	 * @brief Ofrece al montículo de vecinos las filas todavía no evaluadas de una cubeta.
+	 *
+	 * @param tabla La tabla.
+	 * @param clave La clave de la cubeta.
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 * @param marcas Las marcas de filas ya evaluadas en esta consulta.
+	 * @param filasDatos Las filas de los datos, o `null` si están fuera del montículo.
+	 * @param auxiliar Array donde se copia cada fila si están fuera del montículo.
+	 */
+	private void evaluarCubeta(int tabla, long clave, double[] consulta, MonticuloVecinos vecinos, GrafoHNSW.Visitados marcas,
+			double[] filasDatos, double[] auxiliar) {
+		int cubeta = Arrays.binarySearch(claves[tabla], clave);
+		if (cubeta < 0) {
+			return;
+		}
+		int[] filasTabla = filas[tabla];
+		for (int i = inicios[tabla][cubeta]; i < inicios[tabla][cubeta + 1]; i++) {
+			int fila = filasTabla[i];
+			if (marcas.marcar(fila)) {
+				vecinos.ofrecer(distanciaA(consulta, fila, filasDatos, auxiliar, vecinos.peorDistancia()), fila);
+			}
+		}
+	}
+
+	/**
+	 * @brief Calcula la distancia exacta de una consulta a una fila de los datos.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param fila La fila de los datos.
+	 * @param filasDatos Las filas de los datos, o `null` si están fuera del montículo.
+	 * @param auxiliar Array donde se copia la fila si están fuera del montículo.
+	 * @param cota La distancia a partir de la cual el valor exacto no interesa.
+	 * @return La distancia calculada, o un valor mayor que la cota.
+	 */
+	private double distanciaA(double[] consulta, int fila, double[] filasDatos, double[] auxiliar, double cota) {
+		int dimension = datos.getDimension();
+		if (filasDatos != null) {
+			return distancia.calcularAcotada(consulta, 0, filasDatos, fila * dimension, dimension, datos.getPesos(), cota);
+		}
+		datos.leerFilas(fila, 1, auxiliar, 0);
+		return distancia.calcularAcotada(consulta, 0, auxiliar, 0, dimension, datos.getPesos(), cota);
+	}
+
+	/**
+	 * @brief Establece el número de cubetas vecinas sondeadas en cada tabla por defecto.
+	 *
+	 * @param sondas El nuevo valor. No puede ser negativo.
+	 * @throws IllegalArgumentException Si el valor es negativo.
+	 */
+	public void setSondas(int sondas) {
+		if (sondas < 0) {
+			throw new IllegalArgumentException("El número de sondas no puede ser negativo.");
+		}
+		this.sondas = sondas;
+	}
+
+	/**
+	 * @brief Obtiene el número de cubetas vecinas sondeadas en cada tabla por defecto.
+	 *
+	 * @return El número de sondas.
+	 */
+	public int getSondas() {
+		return sondas;
+	}
+
+	/**
+	 * @brief Obtiene la anchura de los intervalos de las proyecciones euclídeas.
+	 *
+	 * @return La anchura, en unidades de la métrica, o 0 con la distancia del coseno.
+	 */
+	public double getAnchura() {
+		return anchura;
+	}
+
+	/**
+	 * @brief Obtiene el número de cubetas no vacías de una tabla.
+	 *
+	 * @param tabla La tabla.
+	 * @return El número de cubetas.
+	 */
+	public int numeroCubetas(int tabla) {
+		return claves[tabla].length;
+	}
+}
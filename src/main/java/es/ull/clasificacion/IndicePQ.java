@@ -0,0 +1,356 @@
+package clasificacion;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @file IndicePQ.java
+ * @brief Índice aproximado de vecinos con cuantización por producto (PQ) y distancia asimétrica.
+ *
+ * Las dimensiones se dividen en {@code numSubespacios} tramos contiguos y, en cada tramo, {@link KMedias}
+ * aprende hasta 256 centroides sobre una muestra de filas. Cada fila se comprime en un byte por tramo:
+ * el número de su centroide más cercano. Con el número de subespacios por defecto (un tramo por cada
+ * cuatro dimensiones), una fila de {@code d} valores {@code double} ocupa {@code d / 4} bytes, unas 32 veces menos.
+ *
+ * Una consulta calcula primero, en cada tramo, su distancia euclídea cuadrada ponderada a los 256
+ * centroides; la distancia aproximada a una fila es la suma de las entradas de esas tablas que indican
+ * sus códigos (distancia asimétrica: la consulta no se cuantiza). El recorrido solo lee los códigos, así
+ * que mueve una fracción de la memoria de la búsqueda exhaustiva y las filas completas pueden quedarse
+ * fuera del montículo o en un fichero proyectado ({@link DatosEntrenamiento#moverFueraMonticulo()}).
+ * Opcionalmente, las {@code reordenar * K} filas con menor distancia aproximada se reordenan con la
+ * distancia exacta, leyendo solo esas filas; sin reordenar, el montículo recibe las distancias aproximadas.
+ *
+ * Solo admite la distancia euclídea ({@link DistanciaEuclidea}) y atributos numéricos. Admite inserciones
+ * después de construirse ({@link #insertar(int)}): la fila se codifica con los centroides existentes.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class IndicePQ implements IndiceVecinos {
+	/**
+	 * @brief Número de dimensiones de cada subespacio con el número de subespacios por defecto.
+	 */
+	public static final int DIMENSIONES_POR_SUBESPACIO = 4;
+	/**
+	 * @brief Número de candidatas por vecino que se reordenan con la distancia exacta, usado por defecto.
+	 */
+	public static final int REORDENAR_POR_DEFECTO = 4;
+	/**
+	 * @brief Número máximo de centroides de cada subespacio: los que caben en un byte.
+	 */
+	private static final int CENTROIDES = 256;
+	/**
+	 * @brief Número de filas de la muestra con la que se entrenan los centroides.
+	 */
+	private static final int MUESTRA = 64 * CENTROIDES;
+	/**
+	 * @brief Número de valores que se copian de una vez al codificar las filas.
+	 */
+	private static final int VALORES_POR_BLOQUE = 1 << 20;
+
+	/**
+	 * @brief Los datos empaquetados sobre los que se construye el índice.
+	 */
+	private final DatosEntrenamiento datos;
+	/**
+	 * @brief La distancia con la que se reordenan las candidatas.
+	 */
+	private final Distancia distancia;
+	/**
+	 * @brief Número de subespacios (bytes por fila).
+	 */
+	private final int numSubespacios;
+	/**
+	 * @brief Primera dimensión de cada subespacio, más la dimensión final.
+	 */
+	private final int[] limites;
+	/**
+	 * @brief Centroides de cada subespacio, empaquetados con la dimensión del subespacio.
+	 */
+	private final double[][] centroides;
+	/**
+	 * @brief Pesos de las dimensiones de cada subespacio.
+	 */
+	private final double[][] pesosSubespacio;
+	/**
+	 * @brief Códigos de las filas: `numSubespacios` bytes por fila, cada uno el número (sin signo) de un centroide.
+	 */
+	private byte[] codigos;
+	/**
+	 * @brief Número de filas codificadas.
+	 */
+	private int numFilas;
+	/**
+	 * @brief Número de candidatas por vecino que se reordenan con la distancia exacta (0 para no reordenar).
+	 */
+	private volatile int reordenar = REORDENAR_POR_DEFECTO;
+
+	/**
+	 * @brief Construye el índice con un subespacio por cada cuatro dimensiones y la distancia euclídea ponderada.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 */
+	public IndicePQ(DatosEntrenamiento datos) {
+		this(datos, DistanciaEuclidea.preferida());
+	}
+
+	/**
+	 * @brief Construye el índice con un subespacio por cada cuatro dimensiones en el pool común.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La distancia euclídea con la que se reordenan las candidatas.
+	 */
+	public IndicePQ(DatosEntrenamiento datos, Distancia distancia) {
+		this(datos, distancia, (datos.getDimension() + DIMENSIONES_POR_SUBESPACIO - 1) / DIMENSIONES_POR_SUBESPACIO,
+				1234L, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @brief Construye el índice con la distancia euclídea ponderada en el pool común.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param numSubespacios El número de subespacios, es decir, de bytes por fila.
+	 */
+	public IndicePQ(DatosEntrenamiento datos, int numSubespacios) {
+		this(datos, DistanciaEuclidea.preferida(), numSubespacios, 1234L, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @brief Construye el índice.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La distancia euclídea con la que se reordenan las candidatas.
+	 * @param numSubespacios El número de subespacios, es decir, de bytes por fila. Debe ser un entero positivo;
+	 * si hay menos dimensiones, se usa un subespacio por dimensión.
+	 * @param semilla La semilla de la muestra y de los centroides iniciales, lo que hace la construcción reproducible.
+	 * @param pool El {@link ForkJoinPool} en el que se reparten k-medias y la codificación de las filas.
+	 * @throws IllegalArgumentException Si la distancia no es euclídea, si el pool es nulo, si los datos tienen
+	 * atributos cualitativos o si el número de subespacios no es positivo.
+	 */
+	public IndicePQ(DatosEntrenamiento datos, Distancia distancia, int numSubespacios, long semilla, ForkJoinPool pool) {
+		if (!(distancia instanceof DistanciaEuclidea)) {
+			throw new IllegalArgumentException("La cuantización por producto solo admite la distancia euclídea.");
+		}
+		if (pool == null) {
+			throw new IllegalArgumentException("El pool de hilos no puede ser nulo.");
+		}
+		if (datos.numeroCategoricas() > 0) {
+			throw new IllegalArgumentException("La cuantización por producto solo admite atributos numéricos.");
+		}
+		if (numSubespacios <= 0) {
+			throw new IllegalArgumentException("El número de subespacios debe ser mayor que cero.");
+		}
+		this.datos = datos;
+		this.distancia = distancia;
+		int dimension = datos.getDimension();
+		this.numSubespacios = Math.max(1, Math.min(numSubespacios, dimension));
+		this.limites = new int[this.numSubespacios + 1];
+		for (int s = 0; s <= this.numSubespacios; s++) {
+			limites[s] = (int) ((long) s * dimension / this.numSubespacios);
+		}
+		this.centroides = new double[this.numSubespacios][];
+		this.pesosSubespacio = new double[this.numSubespacios][];
+		for (int s = 0; s < this.numSubespacios; s++) {
+			pesosSubespacio[s] = Arrays.copyOfRange(datos.getPesos(), limites[s], limites[s + 1]);
+		}
+		this.numFilas = datos.numeroFilas();
+		this.codigos = new byte[numFilas * this.numSubespacios];
+		if (numFilas == 0) {
+			for (int s = 0; s < this.numSubespacios; s++) {
+				centroides[s] = new double[0];
+			}
+			return;
+		}
+
+		KMedias kMedias = new KMedias(CENTROIDES, KMedias.ITERACIONES_POR_DEFECTO, semilla);
+		kMedias.setPool(pool);
+		int tamanoMuestra = Math.min(numFilas, MUESTRA);
+		double[] muestra = KMedias.muestra(datos, tamanoMuestra, semilla);
+		for (int s = 0; s < this.numSubespacios; s++) {
+			centroides[s] = kMedias.agrupar(subespacio(muestra, tamanoMuestra, s), tamanoMuestra, limites[s + 1] - limites[s], pesosSubespacio[s]);
+		}
+		int filasPorBloque = Math.max(1, VALORES_POR_BLOQUE / Math.max(dimension, 1));
+		double[] bloque = new double[Math.min(filasPorBloque, numFilas) * dimension];
+		for (int inicio = 0; inicio < numFilas; inicio += filasPorBloque) {
+			int fin = Math.min(inicio + filasPorBloque, numFilas);
+			datos.leerFilas(inicio, fin - inicio, bloque, 0);
+			for (int s = 0; s < this.numSubespacios; s++) {
+				int[] asignaciones = kMedias.asignar(centroides[s], subespacio(bloque, fin - inicio, s), fin - inicio,
+						limites[s + 1] - limites[s], pesosSubespacio[s]);
+				for (int i = 0; i < asignaciones.length; i++) {
+					codigos[(inicio + i) * this.numSubespacios + s] = (byte) asignaciones[i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * @brief Copia las dimensiones de un subespacio de unas filas empaquetadas.
+	 *
+	 * @param valores Las filas empaquetadas con todas las dimensiones.
+	 * @param filas El número de filas a copiar.
+	 * @param subespacio El subespacio.
+	 * @return Las filas empaquetadas con solo las dimensiones del subespacio.
+	 */
+	private double[] subespacio(double[] valores, int filas, int subespacio) {
+		int dimension = datos.getDimension();
+		int desde = limites[subespacio];
+		int ancho = limites[subespacio + 1] - desde;
+		double[] resultado = new double[filas * ancho];
+		for (int fila = 0; fila < filas; fila++) {
+			System.arraycopy(valores, fila * dimension + desde, resultado, fila * ancho, ancho);
+		}
+		return resultado;
+	}
+
+	/**
+	 * @brief Calcula las tablas de distancias de una consulta a los centroides de cada subespacio.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @return Las tablas, una tras otra: `CENTROIDES` posiciones por subespacio.
+	 */
+	private double[] tablas(double[] consulta) {
+		double[] tablas = new double[numSubespacios * CENTROIDES];
+		for (int s = 0; s < numSubespacios; s++) {
+			int desde = limites[s];
+			int ancho = limites[s + 1] - desde;
+			double[] pesos = pesosSubespacio[s];
+			double[] centroidesSubespacio = centroides[s];
+			for (int c = 0, base = 0; base < centroidesSubespacio.length; c++, base += ancho) {
+				double d = 0;
+				for (int j = 0; j < ancho; j++) {
+					double diferencia = consulta[desde + j] - centroidesSubespacio[base + j];
+					d += pesos[j] * diferencia * diferencia;
+				}
+				tablas[s * CENTROIDES + c] = d;
+			}
+		}
+		return tablas;
+	}
+
+	/**
+	 * @brief Busca los vecinos aproximados de una consulta, reordenando las candidatas según la configuración.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 */
+	@Override
+	public void buscar(double[] consulta, MonticuloVecinos vecinos) {
+		buscar(consulta, vecinos, reordenar);
+	}
+
+	/**
+	 * @brief Busca los vecinos aproximados de una consulta con un número de candidatas a reordenar propio.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 * @param reordenar El número de candidatas por vecino que se reordenan con la distancia exacta; con 0,
+	 * el montículo recibe directamente las distancias aproximadas.
+	 */
+	public void buscar(double[] consulta, MonticuloVecinos vecinos, int reordenar) {
+		double[] tablas = tablas(consulta);
+		MonticuloVecinos candidatas = vecinos;
+		if (reordenar > 0) {
+			candidatas = new MonticuloVecinos((int) Math.min(Integer.MAX_VALUE - 8L, (long) reordenar * vecinos.capacidad()));
+			candidatas.setExcluidas(vecinos.getExcluidas());
+		}
+		byte[] codigosFilas = codigos;
+		for (int fila = 0, base = 0; fila < numFilas; fila++, base += numSubespacios) {
+			double d = 0;
+			for (int s = 0, tabla = 0; s < numSubespacios; s++, tabla += CENTROIDES) {
+				d += tablas[tabla + (codigosFilas[base + s] & 0xFF)];
+			}
+			candidatas.ofrecer(d, fila);
+		}
+		if (candidatas == vecinos) {
+			return;
+		}
+		int dimension = datos.getDimension();
+		double[] pesos = datos.getPesos();
+		double[] filas = datos.estaFueraMonticulo() ? null : datos.getFilas();
+		double[] auxiliar = filas == null ? new double[dimension] : null;
+		for (int i = 0; i < candidatas.tamano(); i++) {
+			int fila = candidatas.getFila(i);
+			double d;
+			if (filas != null) {
+				d = distancia.calcularAcotada(consulta, 0, filas, fila * dimension, dimension, pesos, vecinos.peorDistancia());
+			} else {
+				datos.leerFilas(fila, 1, auxiliar, 0);
+				d = distancia.calcularAcotada(consulta, 0, auxiliar, 0, dimension, pesos, vecinos.peorDistancia());
+			}
+			vecinos.ofrecer(d, fila);
+		}
+	}
+
+	/**
+	 * @brief Codifica una fila añadida a los datos después de construir el índice.
+	 * <p>
+	 * No debe ejecutarse a la vez que otras inserciones o consultas.
+	 *
+	 * @param fila La fila añadida con {@link DatosEntrenamiento#anadir(datos.Instancia)}; debe ser la siguiente a las ya codificadas.
+	 * @return `true` si la fila se ha codificado, `false` si el índice se construyó sin filas y no tiene centroides
+	 * o la fila no es la siguiente.
+	 * @throws IllegalArgumentException Si la fila no existe en los datos.
+	 */
+	@Override
+	public boolean insertar(int fila) {
+		if (fila < 0 || fila >= datos.numeroFilas()) {
+			throw new IllegalArgumentException("La fila " + fila + " no existe en los datos.");
+		}
+		if (fila != numFilas || centroides[0].length == 0) {
+			return false;
+		}
+		double[] valores = new double[datos.getDimension()];
+		datos.leerFilas(fila, 1, valores, 0);
+		if ((numFilas + 1) * numSubespacios > codigos.length) {
+			codigos = Arrays.copyOf(codigos, Math.max(2 * codigos.length, (numFilas + 1) * numSubespacios));
+		}
+		for (int s = 0; s < numSubespacios; s++) {
+			int c = KMedias.masCercano(centroides[s], valores, limites[s], limites[s + 1] - limites[s], pesosSubespacio[s]);
+			codigos[fila * numSubespacios + s] = (byte) c;
+		}
+		numFilas++;
+		return true;
+	}
+
+	/**
+	 * @brief Establece el número de candidatas por vecino que se reordenan con la distancia exacta.
+	 *
+	 * @param reordenar El nuevo valor; 0 para devolver las distancias aproximadas sin leer las filas.
+	 * @throws IllegalArgumentException Si el valor es negativo.
+	 */
+	public void setReordenar(int reordenar) {
+		if (reordenar < 0) {
+			throw new IllegalArgumentException("El número de candidatas a reordenar no puede ser negativo.");
+		}
+		this.reordenar = reordenar;
+	}
+
+	/**
+	 * @brief Obtiene el número de candidatas por vecino que se reordenan con la distancia exacta.
+	 *
+	 * @return El número de candidatas por vecino, o 0 si no se reordena.
+	 */
+	public int getReordenar() {
+		return reordenar;
+	}
+
+	/**
+	 * @brief Obtiene el número de subespacios, que es el número de bytes de cada fila codificada.
+	 *
+	 * @return El número de subespacios.
+	 */
+	public int numeroSubespacios() {
+		return numSubespacios;
+	}
+
+	/**
+	 * @brief Obtiene la memoria que ocupan los códigos de las filas.
+	 *
+	 * @return El número de bytes de los códigos.
+	 */
+	public long bytesCodigos() {
+		return (long) numFilas * numSubespacios;
+	}
+}
@@ -0,0 +1,404 @@
+package clasificacion;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @file IndicePivotes.java
+ * @brief Búsqueda exacta de vecinos con una tabla de distancias a filas pivote (LAESA).
+ *
+ * Al construirse se eligen {@code numPivotes} filas como pivotes, cada una la más alejada de los
+ * pivotes ya elegidos, y se guarda la distancia, según la métrica, de cada fila a cada pivote. En una
+ * consulta se calcula solo su distancia a los pivotes; por la desigualdad triangular, ninguna fila
+ * {@code x} puede estar a menos de {@code max_p |d(consulta, p) - d(x, p)|} de la consulta, así que la
+ * distancia exacta solo se calcula para las filas cuya cota no supera al K-ésimo vecino actual. Las filas
+ * con menor cota se evalúan primero para que ese umbral baje pronto. El resultado es el mismo que el de
+ * {@link BusquedaExhaustiva}.
+ *
+ * A diferencia de los árboles, solo necesita que la distancia sea una métrica ({@link Distancia#esMetrica()}),
+ * así que sirve con métricas propias y, si la distancia los admite, con atributos cualitativos. La poda es
+ * mayor cuanto menor es la dimensión intrínseca de los datos. La tabla ocupa {@code numPivotes} valores por
+ * fila y puede guardarse con {@link #getPivotes()} y {@link #getTabla()} para reconstruir el índice sin
+ * recalcularla.
+ *
+ * Admite inserciones después de construirse ({@link #insertar(int)}): se calcula la distancia de la fila a los pivotes.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class IndicePivotes implements IndiceVecinos {
+	/**
+	 * @brief Número de pivotes usado por defecto.
+	 */
+	public static final int PIVOTES_POR_DEFECTO = 16;
+	/**
+	 * @brief Número de valores que se copian de una vez de las filas al calcular la tabla.
+	 */
+	private static final int VALORES_POR_BLOQUE = 1 << 12;
+
+	/**
+	 * @brief Los datos empaquetados sobre los que se construye el índice.
+	 */
+	private final DatosEntrenamiento datos;
+	/**
+	 * @brief La métrica utilizada.
+	 */
+	private final Distancia distancia;
+	/**
+	 * @brief Las filas elegidas como pivotes.
+	 */
+	private final int[] pivotes;
+	/**
+	 * @brief Los valores de los pivotes, empaquetados.
+	 */
+	private final double[] valoresPivotes;
+	/**
+	 * @brief Distancia, en unidades de la métrica, de cada fila a cada pivote: `pivotes.length` valores por fila.
+	 */
+	private double[] tabla;
+	/**
+	 * @brief Número de filas de la tabla.
+	 */
+	private int numFilas;
+
+	/**
+	 * @brief Construye el índice con la distancia euclídea ponderada y el número de pivotes por defecto.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 */
+	public IndicePivotes(DatosEntrenamiento datos) {
+		this(datos, DistanciaEuclidea.preferida(), PIVOTES_POR_DEFECTO, 1234L);
+	}
+
+	/**
+	 * @brief Construye el índice con una métrica y el número de pivotes por defecto.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La métrica a utilizar.
+	 */
+	public IndicePivotes(DatosEntrenamiento datos, Distancia distancia) {
+		this(datos, distancia, PIVOTES_POR_DEFECTO, 1234L);
+	}
+
+	/**
+	 * @brief Construye el índice eligiendo los pivotes y calculando la tabla de distancias.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La métrica a utilizar.
+	 * @param numPivotes El número de pivotes. Debe ser un entero positivo; si hay menos filas, todas son pivotes.
+	 * @param semilla La semilla con la que se elige el primer pivote, lo que hace la construcción reproducible.
+	 * @throws IllegalArgumentException Si la distancia es nula, no es una métrica o no admite los atributos
+	 * cualitativos de los datos, o si el número de pivotes no es positivo.
+	 */
+	public IndicePivotes(DatosEntrenamiento datos, Distancia distancia, int numPivotes, long semilla) {
+		comprobar(datos, distancia);
+		if (numPivotes <= 0) {
+			throw new IllegalArgumentException("El número de pivotes debe ser mayor que cero.");
+		}
+		this.datos = datos;
+		this.distancia = distancia;
+		this.numFilas = datos.numeroFilas();
+		int m = Math.min(numPivotes, numFilas);
+		int dimension = datos.getDimension();
+		this.pivotes = new int[m];
+		this.valoresPivotes = new double[m * dimension];
+		this.tabla = new double[numFilas * m];
+		if (m == 0) {
+			return;
+		}
+		// Suprimir la advertencia de SonarCloud (java:S2245): el generador solo elige el primer pivote
+		// y se siembra para que la construcción sea reproducible.
+		@SuppressWarnings("java:S2245")
+		Random random = new Random(semilla);
+		double[] minimas = new double[numFilas];
+		Arrays.fill(minimas, Double.POSITIVE_INFINITY);
+		int siguiente = random.nextInt(numFilas);
+		for (int i = 0; i < m; i++) {
+			pivotes[i] = siguiente;
+			datos.leerFilas(siguiente, 1, valoresPivotes, i * dimension);
+			calcularColumna(i);
+			// El siguiente pivote es la fila más alejada de los ya elegidos (la primera en caso de empate).
+			siguiente = 0;
+			for (int fila = 0; fila < numFilas; fila++) {
+				minimas[fila] = Math.min(minimas[fila], tabla[fila * m + i]);
+				if (minimas[fila] > minimas[siguiente]) {
+					siguiente = fila;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @brief Reconstruye el índice a partir de unos pivotes y una tabla guardados.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} sobre los que se calculó la tabla.
+	 * @param distancia La métrica con la que se calculó la tabla.
+	 * @param pivotes Las filas pivote, como las devuelve {@link #getPivotes()}.
+	 * @param tabla La tabla de distancias, como la devuelve {@link #getTabla()}; no se copia.
+	 * @throws IllegalArgumentException Si la distancia no es válida para los datos, si algún pivote no existe
+	 * o si la tabla no tiene una fila por cada fila de los datos.
+	 */
+	public IndicePivotes(DatosEntrenamiento datos, Distancia distancia, int[] pivotes, double[] tabla) {
+		comprobar(datos, distancia);
+		this.numFilas = datos.numeroFilas();
+		if (tabla.length != (long) numFilas * pivotes.length || (pivotes.length == 0 && numFilas > 0)) {
+			throw new IllegalArgumentException("La tabla no corresponde a los pivotes y a las filas de los datos.");
+		}
+		int dimension = datos.getDimension();
+		this.datos = datos;
+		this.distancia = distancia;
+		this.pivotes = pivotes.clone();
+		this.valoresPivotes = new double[pivotes.length * dimension];
+		for (int i = 0; i < pivotes.length; i++) {
+			if (pivotes[i] < 0 || pivotes[i] >= numFilas) {
+				throw new IllegalArgumentException("El pivote " + pivotes[i] + " no existe en los datos.");
+			}
+			datos.leerFilas(pivotes[i], 1, valoresPivotes, i * dimension);
+		}
+		this.tabla = tabla;
+	}
+
+	/**
+	 * @brief Comprueba que una distancia sirve para construir el índice sobre unos datos.
+	 *
+	 * @param datos Los datos a indexar.
+	 * @param distancia La distancia.
+	 * @throws IllegalArgumentException Si la distancia es nula, no es una métrica o no admite los atributos cualitativos de los datos.
+	 */
+	private static void comprobar(DatosEntrenamiento datos, Distancia distancia) {
+		if (distancia == null || !distancia.esMetrica()) {
+			throw new IllegalArgumentException("La búsqueda con pivotes necesita una distancia que cumpla la desigualdad triangular.");
+		}
+		if (datos.numeroCategoricas() > 0 && !distancia.admiteCategoricos()) {
+			throw new IllegalArgumentException("La distancia no admite atributos cualitativos.");
+		}
+	}
+
+	/**
+	 * @brief Calcula la columna de la tabla de un pivote: la distancia de cada fila a él.
+	 *
+	 * @param pivote La posición del pivote en {@link #pivotes}.
+	 */
+	private void calcularColumna(int pivote) {
+		int dimension = datos.getDimension();
+		double[] pesos = datos.getPesos();
+		int m = pivotes.length;
+		int filasPorBloque = Math.max(1, VALORES_POR_BLOQUE / Math.max(dimension, 1));
+		double[] bloque = new double[filasPorBloque * dimension];
+		for (int inicio = 0; inicio < numFilas; inicio += filasPorBloque) {
+			int fin = Math.min(inicio + filasPorBloque, numFilas);
+			datos.leerFilas(inicio, fin - inicio, bloque, 0);
+			for (int fila = inicio, base = 0; fila < fin; fila++, base += dimension) {
+				tabla[fila * m + pivote] = distancia.haciaMetrica(
+						distancia.calcular(valoresPivotes, pivote * dimension, bloque, base, dimension, pesos));
+			}
+		}
+	}
+
+	/**
+	 * @brief Calcula la distancia, en unidades de la métrica, de un vector a cada pivote.
+	 *
+	 * @param vector Los valores del vector.
+	 * @return La distancia a cada pivote.
+	 */
+	private double[] aPivotes(double[] vector) {
+		int dimension = datos.getDimension();
+		double[] distancias = new double[pivotes.length];
+		for (int i = 0; i < pivotes.length; i++) {
+			distancias[i] = distancia.haciaMetrica(distancia.calcular(vector, 0, valoresPivotes, i * dimension, dimension, datos.getPesos()));
+		}
+		return distancias;
+	}
+
+	/**
+	 * @brief Obtiene la mayor distancia de la consulta a un pivote, que acota la magnitud de las restas de {@link #cota}.
+	 *
+	 * @param aPivotes La distancia de la consulta a cada pivote.
+	 * @return La mayor de las distancias.
+	 */
+	private static double escala(double[] aPivotes) {
+		double escala = 0;
+		for (double a : aPivotes) {
+			escala = Math.max(escala, a);
+		}
+		return escala;
+	}
+
+	/**
+	 * @brief Calcula la cota inferior de la distancia de la consulta a una fila según la desigualdad triangular.
+	 *
+	 * @param aPivotes La distancia de la consulta a cada pivote.
+	 * @param fila La fila.
+	 * @return La cota, en unidades de la métrica.
+	 */
+	private double cota(double[] aPivotes, int fila) {
+		int m = aPivotes.length;
+		double cota = 0;
+		for (int i = 0, base = fila * m; i < m; i++) {
+			cota = Math.max(cota, Math.abs(aPivotes[i] - tabla[base + i]));
+		}
+		return cota;
+	}
+
+	/**
+	 * @brief Busca los vecinos exactos de una consulta calculando solo las distancias que la tabla no descarta.
+	 * <p>
+	 * Primero se evalúan las K filas con menor cota, que fijan un umbral inicial; después se recorren
+	 * todas las filas y solo se evalúan las que no se han evaluado y cuya cota no supera el umbral actual.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 */
+	@Override
+	public void buscar(double[] consulta, MonticuloVecinos vecinos) {
+		if (numFilas == 0) {
+			return;
+		}
+		double[] aPivotes = aPivotes(consulta);
+		double[] cotas = new double[numFilas];
+		MonticuloVecinos menores = new MonticuloVecinos(vecinos.capacidad());
+		menores.setExcluidas(vecinos.getExcluidas());
+		for (int fila = 0; fila < numFilas; fila++) {
+			cotas[fila] = cota(aPivotes, fila);
+			menores.ofrecer(cotas[fila], fila);
+		}
+		double[] filas = datos.estaFueraMonticulo() ? null : datos.getFilas();
+		double[] auxiliar = filas == null ? new double[datos.getDimension()] : null;
+		for (int i = 0; i < menores.tamano(); i++) {
+			int fila = menores.getFila(i);
+			vecinos.ofrecer(distanciaA(consulta, fila, filas, auxiliar, vecinos.peorDistancia()), fila);
+			// Marcar la fila como evaluada para no ofrecerla dos veces.
+			cotas[fila] = Double.POSITIVE_INFINITY;
+		}
+		boolean[] excluidas = vecinos.getExcluidas();
+		double umbral = distancia.haciaMetrica(vecinos.peorDistancia());
+		double escala = escala(aPivotes);
+		for (int fila = 0; fila < numFilas; fila++) {
+			if (cotas[fila] == Double.POSITIVE_INFINITY || MonticuloVecinos.descartable(cotas[fila], umbral, escala + cotas[fila])
+					|| (excluidas != null && fila < excluidas.length && excluidas[fila])) {
+				continue;
+			}
+			if (vecinos.ofrecer(distanciaA(consulta, fila, filas, auxiliar, vecinos.peorDistancia()), fila)) {
+				umbral = distancia.haciaMetrica(vecinos.peorDistancia());
+			}
+		}
+	}
+
+	/**
+	 * @brief Busca todas las filas dentro de un radio calculando solo las distancias que la tabla no descarta.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param radio El radio, en las unidades de {@link Distancia#calcular}.
+	 * @return Un {@link MonticuloVecinos}, sin ordenar, con exactamente las filas dentro del radio.
+	 */
+	@Override
+	public MonticuloVecinos buscarRadio(double[] consulta, double radio) {
+		double[] aPivotes = aPivotes(consulta);
+		double radioMetrica = distancia.haciaMetrica(radio);
+		double escala = escala(aPivotes);
+		double[] filas = datos.estaFueraMonticulo() ? null : datos.getFilas();
+		double[] auxiliar = filas == null ? new double[datos.getDimension()] : null;
+		double cota = Math.nextUp(radio);
+		int[] encontradas = new int[16];
+		double[] distancias = new double[16];
+		int dentro = 0;
+		for (int fila = 0; fila < numFilas; fila++) {
+			double cotaFila = cota(aPivotes, fila);
+			if (MonticuloVecinos.descartable(cotaFila, radioMetrica, escala + cotaFila)) {
+				continue;
+			}
+			double valor = distanciaA(consulta, fila, filas, auxiliar, cota);
+			if (valor < cota) {
+				if (dentro == encontradas.length) {
+					encontradas = Arrays.copyOf(encontradas, 2 * dentro);
+					distancias = Arrays.copyOf(distancias, 2 * dentro);
+				}
+				encontradas[dentro] = fila;
+				distancias[dentro] = valor;
+				dentro++;
+			}
+		}
+		MonticuloVecinos resultado = new MonticuloVecinos(Math.max(dentro, 1));
+		for (int i = 0; i < dentro; i++) {
+			resultado.ofrecer(distancias[i], encontradas[i]);
+		}
+		return resultado;
+	}
+
+	/**
+	 * @brief Calcula la distancia exacta de una consulta a una fila de los datos.
+	 *
+	 * @param consulta Los valores de la consulta.
+	 * @param fila La fila de los datos.
+	 * @param filas Las filas de los datos, o `null` si están fuera del montículo.
+	 * @param auxiliar Array donde se copia la fila si están fuera del montículo.
+	 * @param cota La distancia a partir de la cual el valor exacto no interesa.
+	 * @return La distancia calculada, o un valor mayor que la cota.
+	 */
+	private double distanciaA(double[] consulta, int fila, double[] filas, double[] auxiliar, double cota) {
+		int dimension = datos.getDimension();
+		if (filas != null) {
+			return distancia.calcularAcotada(consulta, 0, filas, fila * dimension, dimension, datos.getPesos(), cota);
+		}
+		datos.leerFilas(fila, 1, auxiliar, 0);
+		return distancia.calcularAcotada(consulta, 0, auxiliar, 0, dimension, datos.getPesos(), cota);
+	}
+
+	/**
+	 * @brief Añade a la tabla una fila añadida a los datos después de construir el índice.
+	 * <p>
+	 * No debe ejecutarse a la vez que otras inserciones o consultas.
+	 *
+	 * @param fila La fila añadida con {@link DatosEntrenamiento#anadir(datos.Instancia)}; debe ser la siguiente a las de la tabla.
+	 * @return `true` si la fila se ha incorporado, `false` si el índice no tiene pivotes o la fila no es la siguiente.
+	 * @throws IllegalArgumentException Si la fila no existe en los datos.
+	 */
+	@Override
+	public boolean insertar(int fila) {
+		if (fila < 0 || fila >= datos.numeroFilas()) {
+			throw new IllegalArgumentException("La fila " + fila + " no existe en los datos.");
+		}
+		int m = pivotes.length;
+		if (fila != numFilas || m == 0) {
+			return false;
+		}
+		if ((numFilas + 1) * m > tabla.length) {
+			tabla = Arrays.copyOf(tabla, Math.max(2 * tabla.length, (numFilas + 1) * m));
+		}
+		double[] valores = new double[datos.getDimension()];
+		datos.leerFilas(fila, 1, valores, 0);
+		System.arraycopy(aPivotes(valores), 0, tabla, fila * m, m);
+		numFilas++;
+		return true;
+	}
+
+	/**
+	 * @brief Obtiene las filas elegidas como pivotes.
+	 *
+	 * @return Una copia de las filas pivote.
+	 */
+	public int[] getPivotes() {
+		return pivotes.clone();
+	}
+
+	/**
+	 * @brief Obtiene la tabla de distancias de cada fila a cada pivote.
+	 * <p>
+	 * Junto con {@link #getPivotes()}, permite guardar el índice y reconstruirlo sin calcular distancias.
+	 *
+	 * @return Una copia de la tabla, fila a fila, en unidades de la métrica.
+	 */
+	public double[] getTabla() {
+		return Arrays.copyOf(tabla, numFilas * pivotes.length);
+	}
+
+	/**
+	 * @brief Obtiene el número de filas de la tabla.
+	 *
+	 * @return El número de filas.
+	 */
+	public int numeroFilas() {
+		return numFilas;
+	}
+}
@@ -0,0 +1,111 @@
+package clasificacion;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @file IndiceVecinos.java
+ * @brief Interfaz para las estructuras que buscan los vecinos más cercanos sobre unos {@link DatosEntrenamiento}.
+ *
+ * Cada implementación se construye a partir de los datos empaquetados y responde consultas
+ * de K vecinos más cercanos rellenando un {@link MonticuloVecinos}. Los índices de fila
+ * devueltos se refieren a las filas de los {@link DatosEntrenamiento} sobre los que se construyó.
+ * Un índice solo recorre las filas que existían al construirlo y las que acepta después con
+ * {@link #insertar(int)}; {@link IndiceIncremental} busca además en las filas que no acepta.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public interface IndiceVecinos {
+
+	/**
+	 * @brief Busca los vecinos más cercanos a una consulta.
+	 * <p>
+	 * El número de vecinos buscados es la capacidad del montículo recibido.
+	 * Los candidatos se añaden al montículo con {@link MonticuloVecinos#ofrecer(double, int)}.
+	 *
+	 * @param consulta Los valores de la consulta, con la misma dimensión que los datos.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 */
+	public void buscar(double[] consulta, MonticuloVecinos vecinos);
+
+	/**
+	 * @brief Busca los vecinos más cercanos a una consulta repartiendo el trabajo entre los hilos de un pool.
+	 * <p>
+	 * Por defecto llama a {@link #buscar(double[], MonticuloVecinos)} en el hilo actual; los
+	 * índices cuya búsqueda puede dividirse por filas lo redefinen. El resultado es el mismo.
+	 *
+	 * @param consulta Los valores de la consulta, con la misma dimensión que los datos.
+	 * @param vecinos El {@link MonticuloVecinos} donde se acumulan los resultados.
+	 * @param pool El {@link ForkJoinPool} en el que se reparte la búsqueda.
+	 */
+	public default void buscar(double[] consulta, MonticuloVecinos vecinos, ForkJoinPool pool) {
+		buscar(consulta, vecinos);
+	}
+
+	/**
+	 * @brief Busca los vecinos más cercanos de un lote de consultas.
+	 * <p>
+	 * Por defecto llama a {@link #buscar(double[], MonticuloVecinos)} para cada consulta;
+	 * los índices que pueden compartir trabajo entre consultas lo redefinen.
+	 *
+	 * @param consultas Las consultas, con la misma dimensión que los datos. Las consultas nulas se ignoran.
+	 * @param vecinos Un {@link MonticuloVecinos} por consulta donde se acumulan los resultados.
+	 */
+	public default void buscarLote(double[][] consultas, MonticuloVecinos[] vecinos) {
+		for (int i = 0; i < consultas.length; i++) {
+			if (consultas[i] != null) {
+				buscar(consultas[i], vecinos[i]);
+			}
+		}
+	}
+
+	/**
+	 * @brief Busca todas las filas a una distancia menor o igual que un radio.
+	 * <p>
+	 * Por defecto repite {@link #buscar(double[], MonticuloVecinos)} duplicando el número de
+	 * vecinos hasta que el más lejano queda fuera del radio o ya no quedan filas, así que el
+	 * resultado es exacto si lo es la búsqueda de K vecinos. Los índices que pueden podar
+	 * directamente por el radio lo redefinen.
+	 *
+	 * @param consulta Los valores de la consulta, con la misma dimensión que los datos.
+	 * @param radio El radio, en las unidades de {@link Distancia#calcular}.
+	 * @return Un {@link MonticuloVecinos}, sin ordenar, con exactamente las filas dentro del radio.
+	 */
+	public default MonticuloVecinos buscarRadio(double[] consulta, double radio) {
+		int capacidad = 16;
+		MonticuloVecinos vecinos = new MonticuloVecinos(capacidad);
+		buscar(consulta, vecinos);
+		while (vecinos.tamano() == capacidad && vecinos.peorDistancia() <= radio) {
+			capacidad *= 2;
+			vecinos = new MonticuloVecinos(capacidad);
+			buscar(consulta, vecinos);
+		}
+		int dentro = 0;
+		for (int i = 0; i < vecinos.tamano(); i++) {
+			if (vecinos.getDistancia(i) <= radio) {
+				dentro++;
+			}
+		}
+		MonticuloVecinos resultado = new MonticuloVecinos(Math.max(dentro, 1));
+		for (int i = 0; i < vecinos.tamano(); i++) {
+			if (vecinos.getDistancia(i) <= radio) {
+				resultado.ofrecer(vecinos.getDistancia(i), vecinos.getFila(i));
+			}
+		}
+		return resultado;
+	}
+
+	/**
+	 * @brief Incorpora al índice una fila añadida a los datos después de construirlo.
+	 * <p>
+	 * Por defecto no se admiten inserciones: el índice sigue recorriendo solo las filas que
+	 * existían al construirse y debe reconstruirse para incluir las nuevas.
+	 *
+	 * @param fila La fila añadida con {@link DatosEntrenamiento#anadir(datos.Instancia)}.
+	 * @return `true` si la fila se ha incorporado, `false` si el índice no admite inserciones.
+	 */
+	public default boolean insertar(int fila) {
+		return false;
+	}
+}
@@ -0,0 +1,331 @@
+package clasificacion;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @file KMedias.java
+ * @brief Agrupamiento k-medias (algoritmo de Lloyd) de vectores empaquetados con la distancia euclídea ponderada.
+ *
+ * Los centroides iniciales se eligen con k-medias++: el primero es una fila al azar y cada uno de los
+ * siguientes, una fila elegida con probabilidad proporcional a su distancia al centroide más cercano,
+ * lo que evita empezar con varios centroides en el mismo grupo. Cada iteración asigna
+ * cada fila a su centroide más cercano y recalcula cada centroide como la media de sus filas; termina
+ * cuando una iteración no cambia ninguna asignación o tras {@code maxIteraciones}. Un grupo que se
+ * queda vacío pasa a centrarse en la fila más alejada de su centroide.
+ *
+ * La asignación, que concentra el coste ({@code filas * centroides * dimension}), y la actualización de las
+ * distancias al elegir cada centroide inicial se reparten por rangos de filas entre los hilos del
+ * {@link ForkJoinPool} configurado; los sorteos y la actualización de los centroides son secuenciales,
+ * así que el resultado no depende del número de hilos. Los pesos solo intervienen en la
+ * asignación: la media de un grupo no depende de ellos.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class KMedias {
+	/**
+	 * @brief Número máximo de iteraciones usado por defecto.
+	 */
+	public static final int ITERACIONES_POR_DEFECTO = 25;
+	/**
+	 * @brief Número de filas por debajo del cual una {@link TareaRango} deja de dividirse.
+	 */
+	private static final int UMBRAL_TAREA = 256;
+
+	/**
+	 * @brief Número de centroides buscados.
+	 */
+	private final int numCentroides;
+	/**
+	 * @brief Número máximo de iteraciones.
+	 */
+	private final int maxIteraciones;
+	/**
+	 * @brief Semilla con la que se sortean los centroides iniciales.
+	 */
+	private final long semilla;
+	/**
+	 * @brief Pool de hilos en el que se reparten los recorridos de las filas. Por defecto, el pool común.
+	 */
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	/**
+	 * @brief Crea el agrupamiento con el número máximo de iteraciones por defecto.
+	 *
+	 * @param numCentroides El número de centroides. Debe ser un entero positivo.
+	 * @throws IllegalArgumentException Si el número de centroides no es positivo.
+	 */
+	public KMedias(int numCentroides) {
+		this(numCentroides, ITERACIONES_POR_DEFECTO, 1234L);
+	}
+
+	/**
+	 * @brief Crea el agrupamiento.
+	 *
+	 * @param numCentroides El número de centroides. Debe ser un entero positivo.
+	 * @param maxIteraciones El número máximo de iteraciones. Debe ser un entero positivo.
+	 * @param semilla La semilla con la que se eligen los centroides iniciales, lo que hace el resultado reproducible.
+	 * @throws IllegalArgumentException Si el número de centroides o de iteraciones no es positivo.
+	 */
+	public KMedias(int numCentroides, int maxIteraciones, long semilla) {
+		if (numCentroides <= 0 || maxIteraciones <= 0) {
+			throw new IllegalArgumentException("El número de centroides y de iteraciones deben ser mayores que cero.");
+		}
+		this.numCentroides = numCentroides;
+		this.maxIteraciones = maxIteraciones;
+		this.semilla = semilla;
+	}
+
+	/**
+	 * @brief Agrupa unas filas empaquetadas.
+	 *
+	 * @param valores Los valores de las filas, fila a fila.
+	 * @param numFilas El número de filas.
+	 * @param dimension El número de valores de cada fila.
+	 * @param pesos El peso de cada dimensión.
+	 * @return Los centroides empaquetados, fila a fila: `min(numCentroides, numFilas)` filas de `dimension` valores.
+	 * @throws IllegalArgumentException Si no hay filas o el array no las contiene.
+	 */
+	public double[] agrupar(double[] valores, int numFilas, int dimension, double[] pesos) {
+		if (numFilas <= 0 || (long) numFilas * dimension > valores.length) {
+			throw new IllegalArgumentException("Se necesita al menos una fila para agrupar.");
+		}
+		int k = Math.min(numCentroides, numFilas);
+		double[] centroides = inicializar(valores, numFilas, dimension, pesos, k);
+		int[] asignaciones = new int[numFilas];
+		int[] anteriores = new int[numFilas];
+		double[] distancias = new double[numFilas];
+		double[] sumas = new double[k * dimension];
+		int[] tamanos = new int[k];
+		for (int iteracion = 0; iteracion < maxIteraciones; iteracion++) {
+			asignar(centroides, valores, dimension, pesos, asignaciones, distancias, numFilas);
+			if (iteracion > 0 && Arrays.equals(asignaciones, anteriores)) {
+				break;
+			}
+			System.arraycopy(asignaciones, 0, anteriores, 0, numFilas);
+			Arrays.fill(sumas, 0.0);
+			Arrays.fill(tamanos, 0);
+			for (int fila = 0; fila < numFilas; fila++) {
+				int c = asignaciones[fila];
+				tamanos[c]++;
+				for (int j = 0, base = fila * dimension; j < dimension; j++) {
+					sumas[c * dimension + j] += valores[base + j];
+				}
+			}
+			for (int c = 0; c < k; c++) {
+				if (tamanos[c] > 0) {
+					for (int j = 0; j < dimension; j++) {
+						centroides[c * dimension + j] = sumas[c * dimension + j] / tamanos[c];
+					}
+				} else {
+					int lejana = 0;
+					for (int fila = 1; fila < numFilas; fila++) {
+						if (distancias[fila] > distancias[lejana]) {
+							lejana = fila;
+						}
+					}
+					System.arraycopy(valores, lejana * dimension, centroides, c * dimension, dimension);
+					// La fila ya es un centroide: no debe volver a elegirse para otro grupo vacío.
+					distancias[lejana] = 0.0;
+				}
+			}
+		}
+		return centroides;
+	}
+
+	/**
+	 * @brief Copia una muestra aleatoria de filas de unos datos con la que entrenar k-medias.
+	 * <p>
+	 * Recorre las filas una vez eligiendo cada una con la probabilidad justa para completar la muestra
+	 * (muestreo por selección), así que las filas se leen en orden y no se necesita memoria por fila.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento}, en el montículo o fuera de él.
+	 * @param tamano El número de filas de la muestra, como mucho el de los datos.
+	 * @param semilla La semilla del muestreo.
+	 * @return Los valores de las filas elegidas, empaquetados en orden creciente de fila.
+	 */
+	public static double[] muestra(DatosEntrenamiento datos, int tamano, long semilla) {
+		int numFilas = datos.numeroFilas();
+		int dimension = datos.getDimension();
+		double[] valores = new double[tamano * dimension];
+		if (tamano == numFilas) {
+			datos.leerFilas(0, numFilas, valores, 0);
+			return valores;
+		}
+		// Suprimir la advertencia de SonarCloud (java:S2245): el generador solo elige la muestra
+		// y se siembra para que el resultado sea reproducible.
+		@SuppressWarnings("java:S2245")
+		Random random = new Random(semilla);
+		int elegidas = 0;
+		for (int fila = 0; fila < numFilas && elegidas < tamano; fila++) {
+			if (random.nextInt(numFilas - fila) < tamano - elegidas) {
+				datos.leerFilas(fila, 1, valores, elegidas * dimension);
+				elegidas++;
+			}
+		}
+		return valores;
+	}
+
+	/**
+	 * @brief Asigna cada fila a su centroide más cercano, repartiendo las filas entre los hilos del pool.
+	 *
+	 * @param centroides Los centroides empaquetados.
+	 * @param valores Los valores de las filas, fila a fila.
+	 * @param numFilas El número de filas.
+	 * @param dimension El número de valores de cada fila y de cada centroide.
+	 * @param pesos El peso de cada dimensión.
+	 * @return El centroide de cada fila.
+	 */
+	public int[] asignar(double[] centroides, double[] valores, int numFilas, int dimension, double[] pesos) {
+		int[] asignaciones = new int[numFilas];
+		asignar(centroides, valores, dimension, pesos, asignaciones, new double[numFilas], numFilas);
+		return asignaciones;
+	}
+
+	/**
+	 * @brief Elige los centroides iniciales con k-medias++.
+	 *
+	 * @param valores Los valores de las filas, fila a fila.
+	 * @param numFilas El número de filas.
+	 * @param dimension El número de valores de cada fila.
+	 * @param pesos El peso de cada dimensión.
+	 * @param k El número de centroides, como mucho el número de filas.
+	 * @return Los centroides iniciales empaquetados.
+	 */
+	private double[] inicializar(double[] valores, int numFilas, int dimension, double[] pesos, int k) {
+		double[] centroides = new double[k * dimension];
+		// Suprimir la advertencia de SonarCloud (java:S2245): el generador solo sortea los centroides
+		// iniciales y se siembra para que el resultado sea reproducible.
+		@SuppressWarnings("java:S2245")
+		Random random = new Random(semilla);
+		double[] distancias = new double[numFilas];
+		Arrays.fill(distancias, Double.POSITIVE_INFINITY);
+		int elegida = random.nextInt(numFilas);
+		for (int c = 0; c < k; c++) {
+			System.arraycopy(valores, elegida * dimension, centroides, c * dimension, dimension);
+			if (c == k - 1) {
+				break;
+			}
+			int base = c * dimension;
+			pool.invoke(new TareaRango(0, numFilas, UMBRAL_TAREA, (desde, hasta) -> {
+				for (int fila = desde; fila < hasta; fila++) {
+					distancias[fila] = Math.min(distancias[fila], distancia(valores, fila * dimension, centroides, base, dimension, pesos));
+				}
+			}));
+			double total = 0;
+			for (double d : distancias) {
+				total += d;
+			}
+			if (total <= 0) {
+				// Todas las filas coinciden con algún centroide: se completa con las primeras no elegidas.
+				elegida = (elegida + 1) % numFilas;
+				continue;
+			}
+			double objetivo = random.nextDouble() * total;
+			elegida = numFilas - 1;
+			for (int fila = 0; fila < numFilas; fila++) {
+				objetivo -= distancias[fila];
+				if (objetivo < 0) {
+					elegida = fila;
+					break;
+				}
+			}
+		}
+		return centroides;
+	}
+
+	/**
+	 * @brief Asigna cada fila a su centroide más cercano repartiendo las filas entre los hilos del pool.
+	 *
+	 * @param centroides Los centroides empaquetados.
+	 * @param valores Los valores de las filas, fila a fila.
+	 * @param dimension El número de valores de cada fila.
+	 * @param pesos El peso de cada dimensión.
+	 * @param asignaciones Array donde se guarda el centroide de cada fila.
+	 * @param distancias Array donde se guarda la distancia de cada fila a su centroide.
+	 * @param numFilas El número de filas.
+	 */
+	private void asignar(double[] centroides, double[] valores, int dimension, double[] pesos, int[] asignaciones, double[] distancias,
+			int numFilas) {
+		pool.invoke(new TareaRango(0, numFilas, UMBRAL_TAREA, (desde, hasta) -> {
+			for (int fila = desde; fila < hasta; fila++) {
+				int c = masCercano(centroides, valores, fila * dimension, dimension, pesos);
+				asignaciones[fila] = c;
+				distancias[fila] = distancia(valores, fila * dimension, centroides, c * dimension, dimension, pesos);
+			}
+		}));
+	}
+
+	/**
+	 * @brief Calcula la distancia euclídea cuadrada ponderada entre dos vectores.
+	 *
+	 * @param a Array que contiene el primer vector.
+	 * @param desdeA Posición del primer vector en el array.
+	 * @param b Array que contiene el segundo vector.
+	 * @param desdeB Posición del segundo vector en el array.
+	 * @param dimension El número de valores de cada vector.
+	 * @param pesos El peso de cada dimensión.
+	 * @return La distancia.
+	 */
+	private static double distancia(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos) {
+		double d = 0;
+		for (int j = 0; j < dimension; j++) {
+			double diferencia = a[desdeA + j] - b[desdeB + j];
+			d += pesos[j] * diferencia * diferencia;
+		}
+		return d;
+	}
+
+	/**
+	 * @brief Busca el centroide más cercano a un vector.
+	 *
+	 * @param centroides Los centroides empaquetados.
+	 * @param vector Array que contiene el vector.
+	 * @param desde Posición del vector en el array.
+	 * @param dimension El número de valores del vector y de cada centroide.
+	 * @param pesos El peso de cada dimensión.
+	 * @return El centroide más cercano (el primero en caso de empate).
+	 */
+	public static int masCercano(double[] centroides, double[] vector, int desde, int dimension, double[] pesos) {
+		int numCentroides = dimension == 0 ? 1 : centroides.length / dimension;
+		int mejor = 0;
+		double mejorDistancia = Double.POSITIVE_INFINITY;
+		for (int c = 0, base = 0; c < numCentroides; c++, base += dimension) {
+			double d = 0;
+			for (int j = 0; j < dimension && d < mejorDistancia; j++) {
+				double diferencia = vector[desde + j] - centroides[base + j];
+				d += pesos[j] * diferencia * diferencia;
+			}
+			if (d < mejorDistancia) {
+				mejorDistancia = d;
+				mejor = c;
+			}
+		}
+		return mejor;
+	}
+
+	/**
+	 * @brief Establece el pool de hilos en el que se reparten los recorridos de las filas.
+	 *
+	 * @param pool El {@link ForkJoinPool} a utilizar.
+	 * @throws IllegalArgumentException Si el pool es nulo.
+	 */
+	public void setPool(ForkJoinPool pool) {
+		if (pool == null) {
+			throw new IllegalArgumentException("El pool de hilos no puede ser nulo.");
+		}
+		this.pool = pool;
+	}
+
+	/**
+	 * @brief Obtiene el número de centroides buscados.
+	 *
+	 * @return El número de centroides.
+	 */
+	public int getNumCentroides() {
+		return numCentroides;
+	}
+}
@@ -6,7 +6,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import vectores.Vector;
 
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 
 /**
  * @file KNN.java
@@ -14,17 +22,109 @@ import java.util.*;
  *
  * Esta clase proporciona la funcionalidad para clasificar una nueva instancia
  * basándose en las K instancias más cercanas de un conjunto de datos de entrenamiento.
- * Utiliza la distancia euclídea ponderada para determinar la cercanía.
+ * Utiliza por defecto la distancia euclídea ponderada para determinar la cercanía;
+ * otras distancias pueden configurarse con {@link #setDistancia(Distancia)}.
+ * Cada vecino vota con el mismo peso o, con {@link #setVotoPonderado(boolean)}, con el
+ * inverso de su distancia; {@link #predecirProbabilidades(Instancia)} devuelve la proporción
+ * de votos de cada clase.
+ *
+ * Un clasificador ajustado admite añadir ({@link #insertar(Instancia)}) y eliminar
+ * ({@link #eliminar(int)}) instancias sin volver a ajustarse. Las eliminadas se marcan y las
+ * añadidas se incorporan al índice o se recorren aparte ({@link IndiceIncremental}); cuando las
+ * filas marcadas y pendientes superan una proporción de las vivas, los datos se compactan y el
+ * índice se reconstruye en segundo plano, en el pool configurado, mientras se siguen atendiendo
+ * consultas. Las consultas pueden ejecutarse en paralelo entre sí y se excluyen con las
+ * modificaciones mediante un cerrojo de lectura y escritura.
+ *
+ * Salvo que se configure otro con {@link #setIndice(FabricaIndice)}, el índice de búsqueda lo elige
+ * {@link SelectorIndice} al ajustar, según el número de filas, la dimensión, la distancia y la
+ * exhaustividad pedida con {@link #setObjetivoExhaustividad(double)}; por defecto solo se eligen
+ * índices exactos, así que los vecinos son los mismos que los de la búsqueda exhaustiva.
  *
  * @author [Tu Nombre/Nombre del Equipo]
  * @version 1.0
  * @since 2023-XX-XX
  */
 public class KNN {
+	/**
+	 * @brief Número de instancias por debajo del cual una tarea de {@link #clasificarLote(List)} deja de dividirse.
+	 */
+	private static final int UMBRAL_LOTE = 64;
+	/**
+	 * @brief Proporción de filas eliminadas o pendientes, respecto a las vivas, que lanza la compactación por defecto.
+	 */
+	public static final double PROPORCION_COMPACTACION_POR_DEFECTO = 0.25;
+	/**
+	 * @brief Número mínimo de filas eliminadas o pendientes para compactar automáticamente.
+	 */
+	private static final int MINIMO_COMPACTACION = 64;
 	/**
 	 * @brief El número de vecinos más cercanos (K) a considerar para la clasificación.
 	 */
 	private int k;
+	/**
+	 * @brief Datos de entrenamiento empaquetados por {@link #ajustar(Dataset)}, o `null` si el clasificador no está ajustado.
+	 */
+	private DatosEntrenamiento ajustado;
+	/**
+	 * @brief Fábrica del índice de búsqueda que se construye al ajustar. Por defecto, el que elige {@link SelectorIndice}.
+	 */
+	private FabricaIndice fabricaIndice = (datos, preparada) ->
+			new SelectorIndice(this.k, this.objetivoExhaustividad, this.pool).construir(datos, preparada);
+	/**
+	 * @brief Fracción mínima de los vecinos exactos que debe encontrar el índice elegido por defecto.
+	 */
+	private double objetivoExhaustividad = 1;
+	/**
+	 * @brief La distancia configurada. Por defecto, la euclídea cuadrada ponderada.
+	 */
+	private Distancia distancia = DistanciaEuclidea.preferida();
+	/**
+	 * @brief La distancia preparada para {@link #ajustado} con {@link Distancia#preparar(DatosEntrenamiento)}.
+	 */
+	private Distancia distanciaAjustada;
+	/**
+	 * @brief Índice de búsqueda construido sobre {@link #ajustado}, o `null` si el clasificador no está ajustado.
+	 */
+	private IndiceVecinos indice;
+	/**
+	 * @brief Pool de hilos en el que se reparten las clasificaciones por lotes y las búsquedas de una
+	 * sola consulta que admiten dividirse. Por defecto, el pool común.
+	 */
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+	/**
+	 * @brief Indica si los votos de los vecinos se ponderan por el inverso de su distancia.
+	 */
+	private boolean votoPonderado;
+	/**
+	 * @brief Indica si los datos ajustados se guardan fuera del montículo de Java.
+	 */
+	private boolean fueraMonticulo;
+	/**
+	 * @brief Cerrojo que permite consultas concurrentes y excluye las modificaciones de los datos ajustados.
+	 */
+	private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+	/**
+	 * @brief Proporción de filas eliminadas o pendientes, respecto a las vivas, que lanza la compactación.
+	 */
+	private double proporcionCompactacion = PROPORCION_COMPACTACION_POR_DEFECTO;
+	/**
+	 * @brief Contador que cambia cada vez que se reajusta el clasificador o se sustituye el índice,
+	 * para descartar las compactaciones iniciadas antes.
+	 */
+	private int version;
+	/**
+	 * @brief Indica si hay una compactación en curso o pendiente de instalar.
+	 */
+	private volatile boolean compactando;
+	/**
+	 * @brief Compactación terminada en segundo plano que aún no se ha instalado, o `null`.
+	 */
+	private volatile Compactacion compactacionPendiente;
+	/**
+	 * @brief Última distancia preparada por {@link #clasificar(Dataset, Instancia)}, o `null`.
+	 */
+	private volatile PreparacionSinAjustar preparacionSinAjustar;
 
 	/**
 	 * @brief Constructor de la clase KNN.
@@ -41,6 +141,10 @@ public class KNN {
 	 * <p>
 	 * Identifica los K vecinos más cercanos en el dataset de entrenamiento a la instancia de prueba,
 	 * y luego determina la clase mayoritaria entre estos vecinos.
+	 * Si la distancia necesita prepararse ({@link Distancia#requierePreparacion()}), la versión
+	 * preparada se conserva para el último dataset utilizado y solo se vuelve a preparar si cambian
+	 * el dataset, su número de casos, sus pesos o la distancia configurada. Para clasificar
+	 * repetidamente sobre los mismos datos es preferible {@link #ajustar(Dataset)}.
 	 *
 	 * @param entrenamiento El {@link Dataset} utilizado para entrenar el clasificador.
 	 * @param prueba La {@link Instancia} a clasificar.
@@ -48,31 +152,53 @@ public class KNN {
 	 * si el dataset de entrenamiento o la instancia de prueba son inválidos.
 	 */
 	public String clasificar(Dataset entrenamiento, Instancia prueba) {
-		if (entrenamiento == null || entrenamiento.numeroCasos() == 0 || prueba == null || prueba.getVector() == null) {
+		if (entrenamiento == null || entrenamiento.numeroCasos() == 0 || prueba == null) {
+			return null;
+		}
+		Vector vectorPrueba = prueba.getVector();
+		if (vectorPrueba == null) {
 			return null;
 		}
 
-		// PriorityQueue para mantener los K vecinos más cercanos.
-		// El comparador es inverso porque queremos que el elemento de mayor distancia (peor)
-		// se elimine cuando la cola exceda el tamaño k.
-		PriorityQueue<Vecino> vecinos = new PriorityQueue<>(k, Comparator.comparingDouble(Vecino::getDistancia).reversed());
+		// Los pesos son los mismos para todas las filas, así que se leen una sola vez.
+		// Se asume que el último elemento de pesosDouble es el peso de la clase,
+		// por lo que el tamaño del vector de la instancia de prueba debe ser
+		// igual a pesosDouble.size() - 1.
+		List<Double> pesosDouble = entrenamiento.getPesosDouble();
+		boolean pesosValidos = pesosDouble != null && pesosDouble.size()-1 == vectorPrueba.size();
+		double[] consulta = new double[vectorPrueba.size()];
+		double[] pesos = new double[vectorPrueba.size()];
+		int[] orden = new int[vectorPrueba.size()];
+		double[] fila = new double[vectorPrueba.size()];
+		Distancia efectiva = distancia;
+		if (pesosValidos) {
+			Integer[] porPeso = new Integer[orden.length];
+			for (int j = 0; j < porPeso.length; j++) {
+				porPeso[j] = j;
+			}
+			// Si la distancia lo admite, los atributos de mayor peso se suman primero para poder abandonar antes cada fila.
+			if (distancia.admiteReordenar()) {
+				Arrays.sort(porPeso, (x, y) -> Double.compare(pesosDouble.get(y), pesosDouble.get(x)));
+			}
+			if (distancia.requierePreparacion()) {
+				efectiva = prepararSinAjustar(entrenamiento, pesosDouble);
+			}
+			for (int j = 0; j < consulta.length; j++) {
+				orden[j] = porPeso[j];
+				consulta[j] = vectorPrueba.get(orden[j]);
+				pesos[j] = pesosDouble.get(orden[j]);
+			}
+		}
+
+		// Montículo acotado de los K vecinos más cercanos: descarta sin reservar memoria
+		// los candidatos que no mejoran la K-ésima distancia actual.
+		MonticuloVecinos vecinos = new MonticuloVecinos(k);
 
 		for (int i = 0; i < entrenamiento.numeroCasos(); i++) {
-			Instancia instanciaEntrenamiento = entrenamiento.getInstance(i);
-			if (instanciaEntrenamiento.getVector() != null) {
-				List<Double> pesosDouble = entrenamiento.getPesosDouble();
-				// Se asume que el último elemento de pesosDouble es el peso de la clase,
-				// por lo que el tamaño del vector de la instancia de prueba debe ser
-				// igual a pesosDouble.size() - 1.
-				if (pesosDouble != null && pesosDouble.size()-1 == prueba.getVector().size()) {
-					double distancia = calcularDistanciaEuclideaCuadrada(prueba.getVector(), instanciaEntrenamiento.getVector(), pesosDouble);
-					String clase = instanciaEntrenamiento.getClase();
-
-					// Añadir el vecino a la cola de prioridad
-					vecinos.offer(new Vecino(distancia, clase));
-
-					// Si la cola excede K elementos, eliminar el más lejano (el que tiene mayor distancia)
-					vecinos = pollVecinos(vecinos);
+			Vector vectorEntrenamiento = entrenamiento.getInstance(i).getVector();
+			if (vectorEntrenamiento != null) {
+				if (pesosValidos) {
+					vecinos.ofrecer(calcularDistancia(efectiva, consulta, vectorEntrenamiento, fila, pesos, orden, vecinos.peorDistancia()), i);
 				} else {
 					Logger logger = LoggerFactory.getLogger(KNN.class);
 					if (logger.isErrorEnabled()) {
@@ -83,121 +209,1265 @@ public class KNN {
 		}
 
 		// Obtener la clase mayoritaria de los K vecinos
-		return obtenerClaseMayoritaria(vecinos);
+		return obtenerClaseMayoritaria(entrenamiento, vecinos, efectiva);
 	}
 
 	/**
-	 * @brief Ajusta el tamaño de la cola de prioridad para mantener solo los K elementos más cercanos.
+	 * @brief Obtiene la distancia configurada preparada para un dataset, reutilizando la última si sigue siendo válida.
 	 *
-	 * Si la cola de prioridad tiene más de `k` elementos, elimina el elemento con la distancia más grande
-	 * (ya que el comparador es inverso y el elemento más grande estará en la cima de la cola).
+	 * @param entrenamiento El {@link Dataset} de entrenamiento.
+	 * @param pesosDouble Los pesos actuales del dataset.
+	 * @return La distancia preparada sobre los datos del dataset.
+	 */
+	private Distancia prepararSinAjustar(Dataset entrenamiento, List<Double> pesosDouble) {
+		Distancia configurada = distancia;
+		PreparacionSinAjustar anterior = preparacionSinAjustar;
+		if (anterior != null && anterior.dataset.get() == entrenamiento && anterior.distancia == configurada
+				&& anterior.numeroCasos == entrenamiento.numeroCasos() && anterior.pesos.equals(pesosDouble)) {
+			return anterior.preparada;
+		}
+		Distancia preparada = configurada.preparar(new DatosEntrenamiento(entrenamiento));
+		preparacionSinAjustar = new PreparacionSinAjustar(entrenamiento, configurada, preparada, pesosDouble);
+		return preparada;
+	}
+
+	/**
+	 * @brief Ajusta el clasificador a un dataset de entrenamiento.
+	 * <p>
+	 * Empaqueta una única vez las instancias del dataset en arrays primitivos
+	 * ({@link DatosEntrenamiento}) para que las llamadas posteriores a
+	 * {@link #clasificar(Instancia)} no tengan que reconstruir cada fila.
+	 * Los cambios posteriores en el dataset no se reflejan hasta volver a ajustar.
+	 * Si el dataset tiene atributos cualitativos y la distancia configurada no los admite,
+	 * se usa {@link DistanciaHeterogenea} (HEOM).
 	 *
-	 * @param vecinos La {@link PriorityQueue} de {@link Vecino}s a ajustar.
-	 * @return La {@link PriorityQueue} ajustada con un máximo de K vecinos.
+	 * @param entrenamiento El {@link Dataset} utilizado para entrenar el clasificador.
+	 * @throws IllegalArgumentException Si el dataset es nulo, vacío o sus pesos no son válidos.
+	 * @throws IllegalStateException Si los datos se guardan fuera del montículo y el índice configurado no lo admite.
+	 * @throws IllegalArgumentException Si el índice configurado no admite la distancia o los datos.
 	 */
-	private PriorityQueue<Vecino> pollVecinos(PriorityQueue<Vecino> vecinos) {
-		if (vecinos.size() > k) {
-			// Eliminar el vecino más lejano si hay más de k vecinos
-			vecinos.poll(); // Mantener solo los k vecinos más cercanos
+	public void ajustar(Dataset entrenamiento) {
+		// Si la distancia lo admite, las dimensiones se reordenan para que las distancias acotadas abandonen antes.
+		// Fuera del montículo, las filas se escriben directamente en la matriz sin pasar por un array completo.
+		DatosEntrenamiento datos = new DatosEntrenamiento(entrenamiento, distancia.admiteReordenar(), fueraMonticulo);
+		Distancia elegida = distancia;
+		if (datos.numeroCategoricas() > 0 && !distancia.admiteCategoricos()) {
+			// Los códigos cualitativos no son magnitudes: se comparan con la distancia heterogénea.
+			Logger logger = LoggerFactory.getLogger(KNN.class);
+			if (logger.isWarnEnabled()) {
+				logger.warn("El dataset tiene {} atributos cualitativos; se usa la distancia heterogénea (HEOM).", datos.numeroCategoricas());
+			}
+			elegida = new DistanciaHeterogenea();
 		}
-		return vecinos;
+		// Las distancias se preparan leyendo las filas con leerFilas, así que también admiten los datos fuera.
+		Distancia preparada = elegida.preparar(datos);
+		cerrojo.writeLock().lock();
+		try {
+			// El índice se construye antes de sustituir los datos, para que un índice que no admite la
+			// distancia deje el clasificador como estaba.
+			IndiceVecinos nuevo = fabricaIndice.construir(datos, preparada);
+			this.distanciaAjustada = preparada;
+			this.ajustado = datos;
+			this.indice = nuevo;
+			descartarCompactacion();
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Establece la estructura de búsqueda que se construirá al ajustar el clasificador.
+	 * <p>
+	 * Si el clasificador ya está ajustado, el índice se reconstruye sobre los mismos datos. La fábrica
+	 * recibe la distancia configurada, preparada para los datos, así que el índice encuentra los mismos
+	 * vecinos que la búsqueda exhaustiva (o una aproximación de ellos).
+	 *
+	 * @param fabrica La {@link FabricaIndice} a utilizar (por ejemplo {@code ArbolKD::new}).
+	 * @throws IllegalArgumentException Si la fábrica es nula o el índice no admite la distancia configurada
+	 * (por ejemplo, {@link ArbolKD} con una distancia que no sea la euclídea); en ese caso se conserva el índice anterior.
+	 * @throws IllegalStateException Si los datos ajustados están fuera del montículo y el índice no lo admite;
+	 * en ese caso se conserva el índice anterior.
+	 */
+	public void setIndice(FabricaIndice fabrica) {
+		if (fabrica == null) {
+			throw new IllegalArgumentException("La fábrica de índices no puede ser nula.");
+		}
+		cerrojo.writeLock().lock();
+		try {
+			if (ajustado != null) {
+				IndiceVecinos base = fabrica.construir(ajustado, distanciaAjustada);
+				// El índice nuevo cubre todas las filas, pero las eliminadas deben seguir excluyéndose.
+				this.indice = ajustado.numeroEliminadas() > 0 ? new IndiceIncremental(ajustado, base, distanciaAjustada) : base;
+			}
+			this.fabricaIndice = fabrica;
+			descartarCompactacion();
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Establece la distancia utilizada para comparar instancias.
+	 * <p>
+	 * La distancia se aplica a la clasificación sin ajustar y al índice por defecto ({@link SelectorIndice});
+	 * los índices configurados con {@link #setIndice(FabricaIndice)} la reciben, ya preparada, en la fábrica.
+	 * Como la distancia determina cómo se empaquetan los datos, un clasificador ya ajustado deja de
+	 * estarlo y debe volver a ajustarse.
+	 *
+	 * @param distancia La {@link Distancia} a utilizar.
+	 * @throws IllegalArgumentException Si la distancia es nula.
+	 */
+	public void setDistancia(Distancia distancia) {
+		if (distancia == null) {
+			throw new IllegalArgumentException("La distancia no puede ser nula.");
+		}
+		cerrojo.writeLock().lock();
+		try {
+			this.distancia = distancia;
+			this.ajustado = null;
+			this.distanciaAjustada = null;
+			this.indice = null;
+			descartarCompactacion();
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Obtiene la distancia configurada.
+	 *
+	 * @return La {@link Distancia} utilizada para comparar instancias.
+	 */
+	public Distancia getDistancia() {
+		return distancia;
+	}
+
+	/**
+	 * @brief Establece cómo votan los vecinos.
+	 * <p>
+	 * Con votos ponderados, cada vecino vota con el inverso de su distancia
+	 * ({@link Distancia#haciaMetrica(double)}); si algún vecino está a distancia 0, solo votan,
+	 * con el mismo peso, los que están a distancia 0. No es necesario volver a ajustar.
+	 *
+	 * @param votoPonderado `true` para ponderar los votos por el inverso de la distancia,
+	 * `false` para que todos los vecinos voten con el mismo peso (por defecto).
+	 */
+	public void setVotoPonderado(boolean votoPonderado) {
+		this.votoPonderado = votoPonderado;
+	}
+
+	/**
+	 * @brief Indica si los votos de los vecinos se ponderan por el inverso de su distancia.
+	 *
+	 * @return `true` si los votos son ponderados, `false` si todos los vecinos votan igual.
+	 */
+	public boolean esVotoPonderado() {
+		return votoPonderado;
+	}
+
+	/**
+	 * @brief Establece la fracción mínima de los vecinos exactos que debe encontrar el índice elegido por defecto.
+	 * <p>
+	 * Con un objetivo menor que 1, {@link SelectorIndice} puede elegir un índice aproximado
+	 * ({@link GrafoHNSW} o {@link IndiceIVF}) cuando es más rápido y, en las consultas de calibración,
+	 * encuentra al menos esa fracción de los vecinos. No afecta a los índices configurados con
+	 * {@link #setIndice(FabricaIndice)}. Se aplica a partir del siguiente ajuste.
+	 *
+	 * @param objetivoExhaustividad La fracción, en (0, 1]. Por defecto, 1: solo índices exactos.
+	 * @throws IllegalArgumentException Si la fracción no está en (0, 1].
+	 */
+	public void setObjetivoExhaustividad(double objetivoExhaustividad) {
+		if (!(objetivoExhaustividad > 0 && objetivoExhaustividad <= 1)) {
+			throw new IllegalArgumentException("El objetivo de exhaustividad debe estar en (0, 1].");
+		}
+		this.objetivoExhaustividad = objetivoExhaustividad;
+	}
+
+	/**
+	 * @brief Obtiene la fracción mínima de los vecinos exactos que debe encontrar el índice elegido por defecto.
+	 *
+	 * @return El objetivo de exhaustividad.
+	 */
+	public double getObjetivoExhaustividad() {
+		return objetivoExhaustividad;
+	}
+
+	/**
+	 * @brief Establece si los datos se guardan fuera del montículo de Java al ajustar.
+	 * <p>
+	 * Las filas empaquetadas pasan a una {@link MatrizFueraMonticulo}, de modo que un modelo muy grande
+	 * no ocupa el montículo ni alarga las pausas del recolector. El índice por defecto recorre entonces
+	 * las filas con la búsqueda exhaustiva; con un índice que no lo admite, el ajuste y
+	 * {@link #setIndice(FabricaIndice)} lanzan una {@link IllegalStateException}. Las filas se escriben en la
+	 * matriz a medida que se empaquetan, así que el modelo puede tener más valores de los que caben en un
+	 * array de Java. Se aplica a partir del siguiente ajuste.
+	 * <p>
+	 * La matriz tiene un tamaño fijo: las instancias pueden eliminarse ({@link #eliminar(int)}) y
+	 * compactarse, pero {@link #insertar(Instancia)} lanza una {@link IllegalStateException}. Para
+	 * incorporar instancias nuevas hay que volver a ajustar con el dataset completo.
+	 *
+	 * @param fueraMonticulo `true` para guardar los datos fuera del montículo, `false` para guardarlos
+	 * en arrays del montículo (por defecto).
+	 */
+	public void setFueraMonticulo(boolean fueraMonticulo) {
+		this.fueraMonticulo = fueraMonticulo;
 	}
 
 	/**
-	 * @brief Calcula la distancia euclídea al cuadrado entre dos vectores, ponderada por los pesos.
+	 * @brief Indica si los datos se guardan fuera del montículo de Java al ajustar.
+	 *
+	 * @return `true` si los datos se guardan fuera del montículo.
+	 */
+	public boolean esFueraMonticulo() {
+		return fueraMonticulo;
+	}
+
+	/**
+	 * @brief Obtiene el índice de búsqueda construido al ajustar.
+	 *
+	 * @return El {@link IndiceVecinos} actual, o `null` si el clasificador no está ajustado.
+	 */
+	public IndiceVecinos getIndice() {
+		return indice;
+	}
+
+	/**
+	 * @brief Indica si el clasificador ha sido ajustado con {@link #ajustar(Dataset)}.
+	 *
+	 * @return `true` si hay datos de entrenamiento empaquetados, `false` en caso contrario.
+	 */
+	public boolean estaAjustado() {
+		return ajustado != null;
+	}
+
+	/**
+	 * @brief Clasifica una instancia de prueba utilizando los datos empaquetados por {@link #ajustar(Dataset)}.
+	 * <p>
+	 * Los K vecinos se obtienen del índice construido al ajustar (búsqueda exhaustiva por defecto)
+	 * y se vota sobre los códigos enteros de clase.
+	 *
+	 * @param prueba La {@link Instancia} a clasificar.
+	 * @return La clase predicha, o `null` si la instancia no es válida o no tiene la dimensión de los datos.
+	 * @throws IllegalStateException Si el clasificador no ha sido ajustado.
+	 */
+	public String clasificar(Instancia prueba) {
+		cerrojo.readLock().lock();
+		try {
+			if (ajustado == null) {
+				throw new IllegalStateException("El clasificador KNN debe ajustarse antes de clasificar.");
+			}
+			double[] consulta = ajustado.prepararConsulta(prueba);
+			if (consulta == null || ajustado.numeroFilasVivas() == 0) {
+				return null;
+			}
+			MonticuloVecinos vecinos = new MonticuloVecinos(k);
+			indice.buscar(consulta, vecinos, pool);
+			return obtenerClaseMayoritaria(vecinos);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Calcula la proporción de votos de cada clase para una instancia de prueba.
+	 *
+	 * @param prueba La {@link Instancia} a clasificar.
+	 * @return Un array con una puntuación por clase, en el orden de {@link #getClases()}, que suman 1;
+	 * o `null` si la instancia no es válida o no tiene la dimensión de los datos.
+	 * @throws IllegalStateException Si el clasificador no ha sido ajustado.
+	 */
+	public double[] predecirProbabilidades(Instancia prueba) {
+		cerrojo.readLock().lock();
+		try {
+			if (ajustado == null) {
+				throw new IllegalStateException("El clasificador KNN debe ajustarse antes de clasificar.");
+			}
+			double[] probabilidades = new double[ajustado.numeroClases()];
+			return predecirProbabilidades(prueba, probabilidades) ? probabilidades : null;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Calcula la proporción de votos de cada clase en un array proporcionado por el llamador.
+	 * <p>
+	 * Permite reutilizar el mismo array para muchas consultas sin reservar memoria en cada una.
+	 *
+	 * @param prueba La {@link Instancia} a clasificar.
+	 * @param probabilidades Array con al menos {@link #getClases()}`.size()` posiciones donde se escribe
+	 * la puntuación de cada clase, en el orden de {@link #getClases()}. Si la instancia no es válida
+	 * las puntuaciones quedan a 0.
+	 * @return `true` si se han calculado las puntuaciones, `false` si la instancia no es válida.
+	 * @throws IllegalStateException Si el clasificador no ha sido ajustado.
+	 * @throws IllegalArgumentException Si el array es nulo o no tiene una posición por clase.
+	 */
+	public boolean predecirProbabilidades(Instancia prueba, double[] probabilidades) {
+		cerrojo.readLock().lock();
+		try {
+			if (ajustado == null) {
+				throw new IllegalStateException("El clasificador KNN debe ajustarse antes de clasificar.");
+			}
+			if (probabilidades == null || probabilidades.length < ajustado.numeroClases()) {
+				throw new IllegalArgumentException("El array de probabilidades debe tener una posición por clase.");
+			}
+			Arrays.fill(probabilidades, 0, ajustado.numeroClases(), 0.0);
+			double[] consulta = ajustado.prepararConsulta(prueba);
+			if (consulta == null || ajustado.numeroFilasVivas() == 0) {
+				return false;
+			}
+			MonticuloVecinos vecinos = new MonticuloVecinos(k);
+			indice.buscar(consulta, vecinos, pool);
+			votar(vecinos, codigosVecinos(vecinos), distanciaAjustada, votoPonderado, probabilidades);
+			return true;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Busca los K vecinos más cercanos a una instancia de prueba.
+	 *
+	 * @param prueba La {@link Instancia} de consulta.
+	 * @return Los índices de instancia del dataset de entrenamiento y las distancias de los vecinos,
+	 * del más cercano al más lejano; o `null` si la instancia no es válida o no tiene la dimensión de los datos.
+	 * @throws IllegalStateException Si el clasificador no ha sido ajustado.
+	 */
+	public ResultadoVecinos buscarVecinos(Instancia prueba) {
+		return buscarVecinos(prueba, k);
+	}
+
+	/**
+	 * @brief Busca un número dado de vecinos más cercanos a una instancia de prueba.
+	 * <p>
+	 * Usa el mismo índice que la clasificación, así que no hay que recorrer de nuevo los datos
+	 * para obtener la lista de vecinos.
+	 *
+	 * @param prueba La {@link Instancia} de consulta.
+	 * @param numVecinos El número de vecinos a buscar. Debe ser un entero positivo.
+	 * @return Los índices de instancia del dataset de entrenamiento y las distancias de los vecinos,
+	 * del más cercano al más lejano; o `null` si la instancia no es válida o no tiene la dimensión de los datos.
+	 * @throws IllegalArgumentException Si el número de vecinos es menor o igual a 0.
+	 * @throws IllegalStateException Si el clasificador no ha sido ajustado.
+	 */
+	public ResultadoVecinos buscarVecinos(Instancia prueba, int numVecinos) {
+		cerrojo.readLock().lock();
+		try {
+			if (numVecinos <= 0) {
+				throw new IllegalArgumentException("El número de vecinos debe ser mayor que cero.");
+			}
+			if (ajustado == null) {
+				throw new IllegalStateException("El clasificador KNN debe ajustarse antes de buscar vecinos.");
+			}
+			double[] consulta = ajustado.prepararConsulta(prueba);
+			if (consulta == null) {
+				return null;
+			}
+			MonticuloVecinos vecinos = new MonticuloVecinos(numVecinos);
+			indice.buscar(consulta, vecinos, pool);
+			return aResultado(vecinos);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Busca todas las instancias de entrenamiento a una distancia menor o igual que un radio.
+	 *
+	 * @param prueba La {@link Instancia} de consulta.
+	 * @param radio El radio, en las unidades de la métrica ({@link Distancia#haciaMetrica(double)}).
+	 * @return Los índices de instancia del dataset de entrenamiento y las distancias de los vecinos
+	 * dentro del radio, del más cercano al más lejano; o `null` si la instancia no es válida o no tiene
+	 * la dimensión de los datos.
+	 * @throws IllegalArgumentException Si el radio es negativo o no es un número.
+	 * @throws IllegalStateException Si el clasificador no ha sido ajustado.
+	 */
+	public ResultadoVecinos buscarVecinosEnRadio(Instancia prueba, double radio) {
+		cerrojo.readLock().lock();
+		try {
+			if (!(radio >= 0)) {
+				throw new IllegalArgumentException("El radio debe ser mayor o igual que cero.");
+			}
+			if (ajustado == null) {
+				throw new IllegalStateException("El clasificador KNN debe ajustarse antes de buscar vecinos.");
+			}
+			double[] consulta = ajustado.prepararConsulta(prueba);
+			if (consulta == null) {
+				return null;
+			}
+			return aResultado(indice.buscarRadio(consulta, distanciaAjustada.desdeMetrica(radio)));
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Ordena los vecinos de un montículo y los convierte en índices de instancia y distancias de la métrica.
+	 *
+	 * @param vecinos El montículo con los vecinos encontrados.
+	 * @return El {@link ResultadoVecinos} correspondiente.
+	 */
+	private ResultadoVecinos aResultado(MonticuloVecinos vecinos) {
+		vecinos.ordenar();
+		int[] filas = new int[vecinos.tamano()];
+		double[] distancias = new double[vecinos.tamano()];
+		for (int i = 0; i < filas.length; i++) {
+			filas[i] = ajustado.getFilaOriginal(vecinos.getFila(i));
+			distancias[i] = distanciaAjustada.haciaMetrica(vecinos.getDistancia(i));
+		}
+		return new ResultadoVecinos(filas, distancias);
+	}
+
+	/**
+	 * @brief Obtiene las clases de los datos ajustados, en el orden de las puntuaciones de
+	 * {@link #predecirProbabilidades(Instancia)}.
+	 *
+	 * @return Una {@link List} de {@link String} con las clases.
+	 * @throws IllegalStateException Si el clasificador no ha sido ajustado.
+	 */
+	public List<String> getClases() {
+		cerrojo.readLock().lock();
+		try {
+			if (ajustado == null) {
+				throw new IllegalStateException("El clasificador KNN debe ajustarse antes de consultar sus clases.");
+			}
+			return Collections.unmodifiableList(ajustado.getClases());
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Añade una instancia a los datos ajustados sin volver a ajustar.
+	 * <p>
+	 * La instancia se incorpora al índice si lo admite ({@link IndiceVecinos#insertar(int)}) o se
+	 * recorre aparte hasta la siguiente compactación. Los valores cualitativos y las clases nuevos se
+	 * codifican, pero la distancia conserva la preparación del último ajuste (rangos, tablas o covarianza).
+	 *
+	 * @param instancia La {@link Instancia} a añadir.
+	 * @return El identificador de la instancia, que es el que devuelven {@link #buscarVecinos(Instancia, int)}
+	 * y recibe {@link #eliminar(int)}; o -1 si la instancia no es válida o no tiene la dimensión de los datos.
+	 * @throws IllegalStateException Si el clasificador no ha sido ajustado o sus datos están fuera del montículo.
+	 */
+	public int insertar(Instancia instancia) {
+		int identificador;
+		Runnable compactacion;
+		cerrojo.writeLock().lock();
+		try {
+			if (ajustado == null) {
+				throw new IllegalStateException("El clasificador KNN debe ajustarse antes de insertar instancias.");
+			}
+			instalarCompactacion();
+			int fila = ajustado.anadir(instancia);
+			if (fila < 0) {
+				return -1;
+			}
+			incremental().insertar(fila);
+			identificador = ajustado.getFilaOriginal(fila);
+			compactacion = programarCompactacion();
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+		lanzar(compactacion);
+		return identificador;
+	}
+
+	/**
+	 * @brief Elimina una instancia de los datos ajustados sin volver a ajustar.
+	 * <p>
+	 * La fila se marca y las consultas la descartan; se libera al compactar.
+	 *
+	 * @param identificador El índice de la instancia en el dataset del ajuste o el identificador
+	 * devuelto por {@link #insertar(Instancia)}.
+	 * @return `true` si la instancia existía y no estaba eliminada.
+	 * @throws IllegalStateException Si el clasificador no ha sido ajustado.
+	 */
+	public boolean eliminar(int identificador) {
+		Runnable compactacion;
+		cerrojo.writeLock().lock();
+		try {
+			if (ajustado == null) {
+				throw new IllegalStateException("El clasificador KNN debe ajustarse antes de eliminar instancias.");
+			}
+			instalarCompactacion();
+			int fila = ajustado.buscarFila(identificador);
+			if (fila < 0 || !ajustado.eliminar(fila)) {
+				return false;
+			}
+			incremental();
+			compactacion = programarCompactacion();
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+		lanzar(compactacion);
+		return true;
+	}
+
+	/**
+	 * @brief Compacta los datos ajustados y reconstruye el índice inmediatamente.
+	 * <p>
+	 * A diferencia de la compactación automática, bloquea las consultas mientras se reconstruye el índice.
+	 * Los identificadores de las instancias no cambian.
+	 *
+	 * @throws IllegalStateException Si el clasificador no ha sido ajustado.
+	 */
+	public void compactar() {
+		cerrojo.writeLock().lock();
+		try {
+			if (ajustado == null) {
+				throw new IllegalStateException("El clasificador KNN debe ajustarse antes de compactar.");
+			}
+			DatosEntrenamiento compactados = ajustado.compactar();
+			this.ajustado = compactados;
+			this.indice = fabricaIndice.construir(compactados, distanciaAjustada);
+			descartarCompactacion();
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Establece cuándo se compactan automáticamente los datos ajustados.
+	 * <p>
+	 * La compactación se lanza en segundo plano cuando las filas eliminadas más las pendientes de
+	 * indexar superan esta proporción de las filas vivas (y al menos 64).
 	 *
-	 * @param v1 El primer {@link Vector} de valores.
-	 * @param v2 El segundo {@link Vector} de valores.
-	 * @param pesos Una {@link List} de {@link Double} que contiene los pesos para cada dimensión.
-	 * El tamaño de `pesos` debe ser igual al tamaño de los vectores más uno (para la clase).
-	 * @return La distancia euclídea al cuadrado ponderada entre los dos vectores.
-	 * Retorna {@link Double#MAX_VALUE} y registra un error si los inputs son inválidos.
+	 * @param proporcion La proporción, mayor que 0; {@link Double#POSITIVE_INFINITY} desactiva la compactación automática.
+	 * @throws IllegalArgumentException Si la proporción no es mayor que 0.
 	 */
-	private double calcularDistanciaEuclideaCuadrada(Vector v1, Vector v2, List<Double> pesos) {
-		if (v1 == null || v2 == null || pesos == null || v1.size() != v2.size() || v1.size() != pesos.size()-1) {
+	public void setProporcionCompactacion(double proporcion) {
+		if (!(proporcion > 0)) {
+			throw new IllegalArgumentException("La proporción de compactación debe ser mayor que cero.");
+		}
+		cerrojo.writeLock().lock();
+		try {
+			this.proporcionCompactacion = proporcion;
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Obtiene la proporción de filas eliminadas o pendientes que lanza la compactación.
+	 *
+	 * @return La proporción configurada.
+	 */
+	public double getProporcionCompactacion() {
+		return proporcionCompactacion;
+	}
+
+	/**
+	 * @brief Guarda el modelo ajustado en un fichero binario que {@link #abrir(String)} proyecta en memoria.
+	 * <p>
+	 * Se guardan K, el voto, la distancia, ya preparada para los datos, y los datos empaquetados (esquema,
+	 * pesos, clases, valores cualitativos y filas vivas con sus identificadores). Del índice solo se guarda
+	 * la tabla de {@link IndicePivotes}: la del índice actual si lo es, o una calculada al guardar si la
+	 * distancia es una métrica y hay al menos {@link SelectorIndice#MINIMO_FILAS} filas vivas, para que el
+	 * modelo abierto no recorra todas las filas en cada consulta. El formato se describe en {@link ArchivoModelo}.
+	 *
+	 * @param filename La ruta del fichero a crear o sobrescribir.
+	 * @throws IOException Si no se puede escribir el fichero.
+	 * @throws IllegalStateException Si el clasificador no ha sido ajustado.
+	 * @throws IllegalArgumentException Si la distancia no puede guardarse (distancias propias o Mahalanobis con una matriz dada).
+	 */
+	public void guardar(String filename) throws IOException {
+		cerrojo.readLock().lock();
+		try {
+			if (ajustado == null) {
+				throw new IllegalStateException("El clasificador KNN debe ajustarse antes de guardarlo.");
+			}
+			ArchivoModelo.guardar(Paths.get(filename), k, votoPonderado, distancia, distanciaAjustada, ajustado, pivotesParaGuardar());
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Obtiene el índice con pivotes cuya tabla se guarda con el modelo.
+	 * <p>
+	 * Debe llamarse con el cerrojo de lectura.
+	 *
+	 * @return El índice actual si es un {@link IndicePivotes} que cubre todas las filas; si no, uno nuevo
+	 * cuando la distancia es una métrica que admite los datos y hay al menos {@link SelectorIndice#MINIMO_FILAS}
+	 * filas vivas; `null` en otro caso.
+	 */
+	private IndicePivotes pivotesParaGuardar() {
+		IndiceVecinos base = indice instanceof IndiceIncremental ? ((IndiceIncremental) indice).getBase() : indice;
+		if (base instanceof IndicePivotes && ((IndicePivotes) base).numeroFilas() == ajustado.numeroFilas()) {
+			return (IndicePivotes) base;
+		}
+		if (distanciaAjustada.esMetrica() && (ajustado.numeroCategoricas() == 0 || distanciaAjustada.admiteCategoricos())
+				&& ajustado.numeroFilasVivas() >= SelectorIndice.MINIMO_FILAS) {
+			return new IndicePivotes(ajustado, distanciaAjustada);
+		}
+		return null;
+	}
+
+	/**
+	 * @brief Abre un modelo guardado con {@link #guardar(String)} sin volver a leer ni empaquetar el dataset.
+	 * <p>
+	 * La matriz de filas se proyecta en memoria y se consulta en el propio fichero, así que abrir
+	 * no depende del tamaño del modelo y los procesos que abren el mismo fichero comparten sus páginas.
+	 * El clasificador queda ajustado, con los datos fuera del montículo ({@link #setFueraMonticulo(boolean)}).
+	 * Si el modelo guardó una tabla de pivotes, el índice es el {@link IndicePivotes} reconstruido con ella y
+	 * las compactaciones construyen también un {@link IndicePivotes}; si no, el que construye la fábrica por
+	 * defecto, que con los datos fuera del montículo es la búsqueda exhaustiva.
+	 *
+	 * @param filename La ruta del fichero del modelo.
+	 * @return El clasificador ajustado.
+	 * @throws IOException Si no se puede leer el fichero o no es un modelo válido.
+	 */
+	public static KNN abrir(String filename) throws IOException {
+		ArchivoModelo.Contenido contenido = ArchivoModelo.abrir(Paths.get(filename));
+		KNN knn = new KNN(contenido.k);
+		knn.distancia = contenido.distancia;
+		knn.votoPonderado = contenido.votoPonderado;
+		knn.fueraMonticulo = true;
+		knn.distanciaAjustada = contenido.efectiva;
+		knn.ajustado = contenido.datos;
+		if (contenido.pivotes != null) {
+			knn.indice = new IndicePivotes(contenido.datos, contenido.efectiva, contenido.pivotes, contenido.tabla);
+			knn.fabricaIndice = IndicePivotes::new;
+		} else {
+			knn.indice = knn.fabricaIndice.construir(contenido.datos, contenido.efectiva);
+		}
+		return knn;
+	}
+
+	/**
+	 * @brief Obtiene el índice actual como {@link IndiceIncremental}, envolviéndolo si aún no lo es.
+	 * <p>
+	 * Debe llamarse con el cerrojo de escritura.
+	 *
+	 * @return El índice incremental.
+	 */
+	private IndiceIncremental incremental() {
+		if (!(indice instanceof IndiceIncremental)) {
+			indice = new IndiceIncremental(ajustado, indice, distanciaAjustada);
+		}
+		return (IndiceIncremental) indice;
+	}
+
+	/**
+	 * @brief Prepara la compactación en segundo plano si hay demasiadas filas eliminadas o pendientes.
+	 * <p>
+	 * Debe llamarse con el cerrojo de escritura; la tarea devuelta se lanza con {@link #lanzar(Runnable)}
+	 * después de liberarlo, para que pueda tomar el cerrojo de lectura en cuanto empiece.
+	 *
+	 * @return La tarea de compactación, o `null` si no hace falta compactar o ya hay una en curso.
+	 */
+	private Runnable programarCompactacion() {
+		int obsoletas = ajustado.numeroEliminadas() + incremental().numeroPendientes();
+		if (compactando || obsoletas < MINIMO_COMPACTACION || obsoletas <= proporcionCompactacion * ajustado.numeroFilasVivas()) {
+			return null;
+		}
+		compactando = true;
+		int versionActual = version;
+		return () -> compactarEnSegundoPlano(versionActual);
+	}
+
+	/**
+	 * @brief Lanza en el pool una tarea preparada por {@link #programarCompactacion()}.
+	 *
+	 * @param compactacion La tarea, o `null` si no hay que compactar.
+	 */
+	private void lanzar(Runnable compactacion) {
+		if (compactacion != null) {
+			pool.execute(compactacion);
+		}
+	}
+
+	/**
+	 * @brief Compacta una copia de los datos y construye su índice sin bloquear las consultas.
+	 * <p>
+	 * Solo toma el cerrojo de lectura para copiar las filas vivas; el índice se construye sin cerrojo.
+	 * El resultado se instala si el cerrojo de escritura está libre y, si no, lo instala la siguiente
+	 * modificación. La tarea nunca espera por el cerrojo, para no bloquear hilos del pool de los que
+	 * puede depender una consulta por lotes en curso: si una modificación lo tiene, se reintenta en
+	 * un milisegundo.
+	 *
+	 * @param versionInicial La {@link #version} de los datos cuando se lanzó la compactación.
+	 */
+	private void compactarEnSegundoPlano(int versionInicial) {
+		try {
+			if (!cerrojo.readLock().tryLock()) {
+				CompletableFuture.runAsync(() -> compactarEnSegundoPlano(versionInicial),
+						CompletableFuture.delayedExecutor(1, TimeUnit.MILLISECONDS, pool));
+				return;
+			}
+			Compactacion compactacion;
+			FabricaIndice fabrica;
+			Distancia preparada;
+			try {
+				if (versionInicial != version) {
+					// Los datos se reajustaron o se compactaron después de lanzar la tarea, que ya se descartó.
+					return;
+				}
+				int[] vivas = ajustado.filasVivas();
+				compactacion = new Compactacion(versionInicial, ajustado, vivas, ajustado.seleccionar(vivas));
+				fabrica = fabricaIndice;
+				preparada = distanciaAjustada;
+			} finally {
+				cerrojo.readLock().unlock();
+			}
+			compactacion.indice = fabrica.construir(compactacion.compactados, preparada);
+			compactacionPendiente = compactacion;
+			if (cerrojo.writeLock().tryLock()) {
+				try {
+					instalarCompactacion();
+				} finally {
+					cerrojo.writeLock().unlock();
+				}
+			}
+		} catch (RuntimeException e) {
+			compactacionPendiente = null;
+			compactando = false;
 			Logger logger = LoggerFactory.getLogger(KNN.class);
 			if (logger.isErrorEnabled()) {
-				logger.error("Error: Los vectores y la lista de pesos deben ser no nulos y tener el mismo tamaño para calcular la distancia euclídea ponderada.");
+				logger.error("Error: No se pudo compactar el índice en segundo plano: {}", e.getMessage());
 			}
-			return Double.MAX_VALUE;
 		}
-		double distanciaCuadrada = 0;
-		for (int i = 0; i < v1.size(); i++) {
-			double diferencia = v1.get(i) - v2.get(i);
-			distanciaCuadrada += pesos.get(i) * diferencia * diferencia;
+	}
+
+	/**
+	 * @brief Instala la compactación terminada, si la hay, aplicando los cambios posteriores a la copia.
+	 * <p>
+	 * Las filas eliminadas después de copiar se marcan también en los datos compactados y las añadidas
+	 * se copian a ellos y se insertan en el índice nuevo. Debe llamarse con el cerrojo de escritura.
+	 */
+	private void instalarCompactacion() {
+		Compactacion compactacion = compactacionPendiente;
+		if (compactacion == null) {
+			return;
+		}
+		compactacionPendiente = null;
+		compactando = false;
+		if (compactacion.version != version || compactacion.origen != ajustado) {
+			return;
+		}
+		DatosEntrenamiento compactados = compactacion.compactados;
+		if (ajustado.numeroEliminadas() != compactacion.eliminadas) {
+			for (int i = 0; i < compactacion.vivas.length; i++) {
+				if (ajustado.estaEliminada(compactacion.vivas[i])) {
+					compactados.eliminar(i);
+				}
+			}
+		}
+		IndiceVecinos nuevo = compactacion.indice;
+		if (ajustado.numeroFilas() > compactacion.filasCopiadas || compactados.numeroEliminadas() > 0) {
+			IndiceIncremental envoltorio = new IndiceIncremental(compactados, nuevo, distanciaAjustada);
+			for (int fila = compactacion.filasCopiadas; fila < ajustado.numeroFilas(); fila++) {
+				if (!ajustado.estaEliminada(fila)) {
+					envoltorio.insertar(compactados.anadirFila(ajustado, fila));
+				}
+			}
+			nuevo = envoltorio;
+		}
+		this.ajustado = compactados;
+		this.indice = nuevo;
+	}
+
+	/**
+	 * @brief Descarta la compactación pendiente e invalida las que estén en curso.
+	 * <p>
+	 * Debe llamarse con el cerrojo de escritura.
+	 */
+	private void descartarCompactacion() {
+		version++;
+		compactacionPendiente = null;
+		compactando = false;
+	}
+
+	/**
+	 * @brief Clasifica un lote de instancias ajustando una única vez el clasificador al dataset de entrenamiento.
+	 * <p>
+	 * Equivale a llamar a {@link #ajustar(Dataset)} y después a {@link #clasificarLote(List)}, de modo que
+	 * los datos de entrenamiento se empaquetan una sola vez para todo el lote.
+	 *
+	 * @param entrenamiento El {@link Dataset} utilizado para entrenar el clasificador.
+	 * @param pruebas La {@link List} de instancias a clasificar.
+	 * @return Las clases predichas en el mismo orden que `pruebas`. Si el dataset de entrenamiento es nulo
+	 * o vacío, todas las predicciones son `null`, igual que en {@link #clasificar(Dataset, Instancia)}.
+	 * @throws IllegalArgumentException Si la lista de pruebas es nula o los pesos del dataset no son válidos.
+	 */
+	public List<String> clasificarLote(Dataset entrenamiento, List<Instancia> pruebas) {
+		if (pruebas == null) {
+			throw new IllegalArgumentException("La lista de instancias a clasificar no puede ser nula.");
+		}
+		if (entrenamiento == null || entrenamiento.numeroCasos() == 0) {
+			return new ArrayList<>(Collections.nCopies(pruebas.size(), null));
+		}
+		ajustar(entrenamiento);
+		return clasificarLote(pruebas);
+	}
+
+	/**
+	 * @brief Clasifica un lote de instancias en paralelo con los datos empaquetados por {@link #ajustar(Dataset)}.
+	 * <p>
+	 * Las instancias se reparten entre los hilos del {@link ForkJoinPool} configurado con
+	 * {@link #setPool(ForkJoinPool)} y cada hilo resuelve su rango con
+	 * {@link IndiceVecinos#buscarLote(double[][], MonticuloVecinos[])}, que con la búsqueda
+	 * exhaustiva calcula las distancias por bloques. Las predicciones son las mismas que las de
+	 * {@link #clasificar(Instancia)} para cada instancia.
+	 *
+	 * @param pruebas La {@link List} de instancias a clasificar.
+	 * @return Las clases predichas en el mismo orden que `pruebas` (`null` para las instancias no válidas).
+	 * @throws IllegalArgumentException Si la lista de pruebas es nula.
+	 * @throws IllegalStateException Si el clasificador no ha sido ajustado.
+	 */
+	public List<String> clasificarLote(List<Instancia> pruebas) {
+		cerrojo.readLock().lock();
+		try {
+			if (pruebas == null) {
+				throw new IllegalArgumentException("La lista de instancias a clasificar no puede ser nula.");
+			}
+			if (ajustado == null) {
+				throw new IllegalStateException("El clasificador KNN debe ajustarse antes de clasificar.");
+			}
+			Instancia[] consultas = pruebas.toArray(new Instancia[0]);
+			String[] predicciones = new String[consultas.length];
+			if (consultas.length > 0) {
+				pool.invoke(new TareaRango(0, consultas.length, UMBRAL_LOTE,
+						(desde, hasta) -> resolverLote(consultas, predicciones, k, this::obtenerClaseMayoritaria, desde, hasta)));
+			}
+			return new ArrayList<>(Arrays.asList(predicciones));
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Clasifica una instancia de prueba con todos los valores de K entre 1 y `kMaximo` en una sola búsqueda.
+	 * <p>
+	 * Busca una única vez los `kMaximo` vecinos más cercanos, los ordena por distancia y obtiene la
+	 * clase mayoritaria de cada prefijo acumulando los votos vecino a vecino. Cada predicción coincide
+	 * con la de {@link #clasificar(Instancia)} con ese valor de K (mismos votos y mismo desempate):
+	 * como los empates de distancia se resuelven por fila, cada prefijo son exactamente esos K vecinos.
+	 *
+	 * @param prueba La {@link Instancia} a clasificar.
+	 * @param kMaximo El mayor valor de K. Debe ser un entero positivo.
+	 * @return Un array de tamaño `kMaximo` cuya posición `k - 1` es la clase predicha con K = k;
+	 * o `null` si la instancia no es válida o no tiene la dimensión de los datos.
+	 * @throws IllegalArgumentException Si `kMaximo` es menor o igual a 0.
+	 * @throws IllegalStateException Si el clasificador no ha sido ajustado.
+	 */
+	public String[] clasificarMultiplesK(Instancia prueba, int kMaximo) {
+		cerrojo.readLock().lock();
+		try {
+			if (kMaximo <= 0) {
+				throw new IllegalArgumentException("El valor máximo de K debe ser mayor que cero.");
+			}
+			if (ajustado == null) {
+				throw new IllegalStateException("El clasificador KNN debe ajustarse antes de clasificar.");
+			}
+			double[] consulta = ajustado.prepararConsulta(prueba);
+			if (consulta == null || ajustado.numeroFilasVivas() == 0) {
+				return null;
+			}
+			MonticuloVecinos vecinos = new MonticuloVecinos(kMaximo);
+			indice.buscar(consulta, vecinos, pool);
+			return obtenerClasesPorPrefijo(vecinos);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Clasifica un lote de instancias en paralelo con todos los valores de K entre 1 y `kMaximo`.
+	 * <p>
+	 * Equivale a {@link #clasificarMultiplesK(Instancia, int)} para cada instancia, repartiendo el
+	 * lote entre los hilos del pool como {@link #clasificarLote(List)}.
+	 *
+	 * @param pruebas La {@link List} de instancias a clasificar.
+	 * @param kMaximo El mayor valor de K. Debe ser un entero positivo.
+	 * @return Para cada instancia, en el mismo orden que `pruebas`, el array de clases predichas por
+	 * valor de K (`null` para las instancias no válidas).
+	 * @throws IllegalArgumentException Si la lista de pruebas es nula o `kMaximo` es menor o igual a 0.
+	 * @throws IllegalStateException Si el clasificador no ha sido ajustado.
+	 */
+	public List<String[]> clasificarLoteMultiplesK(List<Instancia> pruebas, int kMaximo) {
+		cerrojo.readLock().lock();
+		try {
+			if (pruebas == null) {
+				throw new IllegalArgumentException("La lista de instancias a clasificar no puede ser nula.");
+			}
+			if (kMaximo <= 0) {
+				throw new IllegalArgumentException("El valor máximo de K debe ser mayor que cero.");
+			}
+			if (ajustado == null) {
+				throw new IllegalStateException("El clasificador KNN debe ajustarse antes de clasificar.");
+			}
+			Instancia[] consultas = pruebas.toArray(new Instancia[0]);
+			String[][] predicciones = new String[consultas.length][];
+			if (consultas.length > 0) {
+				pool.invoke(new TareaRango(0, consultas.length, UMBRAL_LOTE,
+						(desde, hasta) -> resolverLote(consultas, predicciones, kMaximo, this::obtenerClasesPorPrefijo, desde, hasta)));
+			}
+			return new ArrayList<>(Arrays.asList(predicciones));
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @brief Obtiene la clase mayoritaria de cada prefijo de los vecinos ordenados por distancia.
+	 * <p>
+	 * Los votos se acumulan con los mismos pesos que {@link #votar}; la clase en cabeza solo puede
+	 * cambiar a la del vecino recién añadido, así que cada prefijo cuesta O(1). Como los vecinos
+	 * están ordenados, la primera aparición de cada clase es su vecino más cercano, que decide los empates.
+	 *
+	 * @param vecinos El montículo con los vecinos encontrados.
+	 * @return Un array con una posición por vecino pedido (la capacidad del montículo); si hay menos
+	 * vecinos, las últimas posiciones repiten la predicción con todos ellos.
+	 */
+	private String[] obtenerClasesPorPrefijo(MonticuloVecinos vecinos) {
+		vecinos.ordenar();
+		String[] resultado = new String[vecinos.capacidad()];
+		int numVecinos = vecinos.tamano();
+		if (numVecinos == 0) {
+			return resultado;
+		}
+		double[] puntuaciones = new double[ajustado.numeroClases()];
+		// Posición del primer vecino de cada clase: ordenados por distancia y fila, es su vecino más cercano.
+		int[] primero = new int[ajustado.numeroClases()];
+		Arrays.fill(primero, -1);
+		// Ordenados, los vecinos a distancia 0 son los primeros: con votos ponderados solo votan ellos.
+		boolean exactos = votoPonderado && vecinos.getDistancia(0) <= 0;
+		int lider = -1;
+		for (int i = 0; i < numVecinos; i++) {
+			int codigo = ajustado.getCodigoClase(vecinos.getFila(i));
+			double distancia = vecinos.getDistancia(i);
+			double voto;
+			if (!votoPonderado) {
+				voto = 1.0;
+			} else if (exactos) {
+				voto = distancia <= 0 ? 1.0 : 0.0;
+			} else {
+				voto = 1.0 / distanciaAjustada.haciaMetrica(distancia);
+			}
+			puntuaciones[codigo] += voto;
+			if (primero[codigo] < 0) {
+				primero[codigo] = i;
+			}
+			if (lider < 0 || puntuaciones[codigo] > puntuaciones[lider]
+					|| (codigo != lider && puntuaciones[codigo] == puntuaciones[lider] && primero[codigo] < primero[lider])) {
+				lider = codigo;
+			}
+			resultado[i] = ajustado.getClase(lider);
+		}
+		Arrays.fill(resultado, numVecinos, resultado.length, resultado[numVecinos - 1]);
+		return resultado;
+	}
+
+	/**
+	 * @brief Establece el pool de hilos utilizado por {@link #clasificarLote(List)}.
+	 * <p>
+	 * También reparte la búsqueda de una sola consulta cuando el índice lo admite
+	 * ({@link IndiceVecinos#buscar(double[], MonticuloVecinos, ForkJoinPool)}), como la búsqueda exhaustiva.
+	 *
+	 * @param pool El {@link ForkJoinPool} a utilizar (por ejemplo, uno con un paralelismo limitado).
+	 * @throws IllegalArgumentException Si el pool es nulo.
+	 */
+	public void setPool(ForkJoinPool pool) {
+		if (pool == null) {
+			throw new IllegalArgumentException("El pool de hilos no puede ser nulo.");
+		}
+		this.pool = pool;
+	}
+
+	/**
+	 * @brief Determina la clase mayoritaria entre los vecinos de un {@link MonticuloVecinos}.
+	 * <p>
+	 * Vota sobre los códigos de clase de {@link #ajustado} con {@link #votar}.
+	 *
+	 * @param vecinos El montículo con los vecinos encontrados.
+	 * @return La clase mayoritaria, o `null` si no hay vecinos.
+	 */
+	private String obtenerClaseMayoritaria(MonticuloVecinos vecinos) {
+		int mejor = votar(vecinos, codigosVecinos(vecinos), distanciaAjustada, votoPonderado, new double[ajustado.numeroClases()]);
+		return mejor < 0 ? null : ajustado.getClase(mejor);
+	}
+
+	/**
+	 * @brief Obtiene el código de clase de {@link #ajustado} de cada vecino.
+	 *
+	 * @param vecinos El montículo con los vecinos encontrados.
+	 * @return El código de clase de cada vecino, en el orden del montículo.
+	 */
+	private int[] codigosVecinos(MonticuloVecinos vecinos) {
+		int[] codigos = new int[vecinos.tamano()];
+		for (int i = 0; i < codigos.length; i++) {
+			codigos[i] = ajustado.getCodigoClase(vecinos.getFila(i));
 		}
-		return distanciaCuadrada;
+		return codigos;
 	}
 
 	/**
-	 * @brief Determina la clase mayoritaria entre un conjunto de vecinos.
+	 * @brief Reparte los votos de los vecinos entre las clases y elige la ganadora.
 	 * <p>
-	 * Cuenta la frecuencia de cada clase entre los vecinos y devuelve la clase
-	 * con el conteo más alto. En caso de empate, la clase devuelta puede depender
-	 * del orden de iteración del mapa.
+	 * Cada vecino vota con peso 1 o, si `ponderado`, con el inverso de su distancia;
+	 * si algún vecino está a distancia 0, solo votan (con peso 1) los que están a distancia 0.
+	 * Los votos se normalizan para que sumen 1. En caso de empate gana, de forma determinista,
+	 * la clase con el vecino más cercano y, si también en eso empatan, la del vecino de menor fila
+	 * (el orden de {@link MonticuloVecinos}), así que el resultado no depende de cómo se codifiquen las clases.
+	 *
+	 * @param vecinos El montículo con los vecinos encontrados.
+	 * @param codigos El código de clase de cada vecino, en el orden del montículo.
+	 * @param distancia La distancia con la que se calcularon los vecinos.
+	 * @param ponderado Si los votos se ponderan por el inverso de la distancia.
+	 * @param puntuaciones Array con una posición por código de clase, inicialmente a 0, donde se
+	 * escribe la proporción de votos de cada clase.
+	 * @return El código de la clase ganadora, o -1 si no hay vecinos.
+	 */
+	static int votar(MonticuloVecinos vecinos, int[] codigos, Distancia distancia, boolean ponderado, double[] puntuaciones) {
+		int numVecinos = vecinos.tamano();
+		if (numVecinos == 0) {
+			return -1;
+		}
+		boolean exactos = false;
+		if (ponderado) {
+			for (int i = 0; i < numVecinos && !exactos; i++) {
+				exactos = vecinos.getDistancia(i) <= 0;
+			}
+		}
+		double total = 0;
+		for (int i = 0; i < numVecinos; i++) {
+			double voto;
+			if (!ponderado) {
+				voto = 1.0;
+			} else if (exactos) {
+				voto = vecinos.getDistancia(i) <= 0 ? 1.0 : 0.0;
+			} else {
+				voto = 1.0 / distancia.haciaMetrica(vecinos.getDistancia(i));
+			}
+			puntuaciones[codigos[i]] += voto;
+			total += voto;
+		}
+		int mejor = -1;
+		for (int i = 0; i < numVecinos; i++) {
+			int codigo = codigos[i];
+			if (codigo == mejor) {
+				continue;
+			}
+			if (mejor < 0 || puntuaciones[codigo] > puntuaciones[mejor]
+					|| (puntuaciones[codigo] == puntuaciones[mejor] && ganaDesempate(vecinos, codigos, codigo, mejor))) {
+				mejor = codigo;
+			}
+		}
+		if (total > 0) {
+			for (int codigo = 0; codigo < puntuaciones.length; codigo++) {
+				puntuaciones[codigo] /= total;
+			}
+		}
+		return mejor;
+	}
+
+	/**
+	 * @brief Decide un empate de votos entre dos clases.
 	 *
-	 * @param vecinos Una {@link PriorityQueue} de {@link Vecino}s de la cual obtener las clases.
-	 * @return La clase (como {@link String}) que aparece con mayor frecuencia entre los vecinos.
+	 * @param vecinos El montículo con los vecinos encontrados.
+	 * @param codigos El código de clase de cada vecino, en el orden del montículo.
+	 * @param codigo La clase candidata.
+	 * @param actual La clase que va ganando.
+	 * @return `true` si el vecino más cercano de la candidata va antes, por distancia y fila, que el de la actual.
 	 */
-	private String obtenerClaseMayoritaria(PriorityQueue<Vecino> vecinos) {
-		Map<String, Integer> conteoClases = new HashMap<>();
-		for (Vecino vecino : vecinos) {
-			conteoClases.put(vecino.getClase(), conteoClases.getOrDefault(vecino.getClase(), 0) + 1);
+	private static boolean ganaDesempate(MonticuloVecinos vecinos, int[] codigos, int codigo, int actual) {
+		double cercaniaCodigo = Double.POSITIVE_INFINITY;
+		double cercaniaActual = Double.POSITIVE_INFINITY;
+		int filaCodigo = Integer.MAX_VALUE;
+		int filaActual = Integer.MAX_VALUE;
+		for (int i = 0; i < codigos.length; i++) {
+			double distancia = vecinos.getDistancia(i);
+			int fila = vecinos.getFila(i);
+			if (codigos[i] == codigo && MonticuloVecinos.antes(distancia, fila, cercaniaCodigo, filaCodigo)) {
+				cercaniaCodigo = distancia;
+				filaCodigo = fila;
+			} else if (codigos[i] == actual && MonticuloVecinos.antes(distancia, fila, cercaniaActual, filaActual)) {
+				cercaniaActual = distancia;
+				filaActual = fila;
+			}
 		}
+		return MonticuloVecinos.antes(cercaniaCodigo, filaCodigo, cercaniaActual, filaActual);
+	}
 
-		String claseMayoritaria = null;
-		int maxConteo = -1;
-		for (Map.Entry<String, Integer> entry : conteoClases.entrySet()) {
-			if (entry.getValue() > maxConteo) {
-				maxConteo = entry.getValue();
-				claseMayoritaria = entry.getKey();
+	/**
+	 * @brief Calcula la distancia configurada entre una consulta y un vector.
+	 * <p>
+	 * Deja de calcular en cuanto se supera la cota, ya que entonces la fila no
+	 * puede estar entre los K vecinos más cercanos.
+	 *
+	 * @param distancia La {@link Distancia} a utilizar.
+	 * @param consulta Los valores de la consulta, en el orden dado por `orden`.
+	 * @param vector El {@link Vector} de valores de la fila de entrenamiento.
+	 * @param fila Array auxiliar, con el tamaño de la consulta, donde se copian los valores de la fila.
+	 * @param pesos Los pesos de cada dimensión, en el orden dado por `orden`.
+	 * @param orden La posición en `vector` de cada dimensión de la consulta.
+	 * @param cota La K-ésima mejor distancia actual.
+	 * @return La distancia, o un valor mayor que `cota` si la fila no puede ser vecina.
+	 * Retorna {@link Double#MAX_VALUE} y registra un error si el vector no tiene el tamaño de la consulta.
+	 */
+	private double calcularDistancia(Distancia distancia, double[] consulta, Vector vector, double[] fila, double[] pesos, int[] orden, double cota) {
+		if (vector.size() != consulta.length) {
+			Logger logger = LoggerFactory.getLogger(KNN.class);
+			if (logger.isErrorEnabled()) {
+				logger.error("Error: Los vectores y la lista de pesos deben ser no nulos y tener el mismo tamaño para calcular la distancia.");
 			}
+			return Double.MAX_VALUE;
+		}
+		for (int i = 0; i < consulta.length; i++) {
+			fila[i] = vector.get(orden[i]);
 		}
-		return claseMayoritaria;
+		return distancia.calcularAcotada(consulta, 0, fila, 0, consulta.length, pesos, cota);
 	}
 
 	/**
-	 * @brief Clase interna privada para representar un vecino en el algoritmo KNN.
+	 * @brief Determina la clase mayoritaria entre los vecinos encontrados en un dataset.
 	 * <p>
-	 * Contiene la distancia a la instancia de prueba y la clase asociada a esa instancia.
+	 * Las clases de los vecinos se codifican como enteros en el orden en que aparecen en el
+	 * montículo y se vota con {@link #votar}. Como el último desempate es la fila del vecino más
+	 * cercano, y no el código, el resultado coincide con el del modo ajustado sobre los mismos datos.
+	 *
+	 * @param entrenamiento El {@link Dataset} al que se refieren las filas de los vecinos.
+	 * @param vecinos El {@link MonticuloVecinos} con las filas de los vecinos.
+	 * @param distancia La distancia con la que se calcularon los vecinos.
+	 * @return La clase (como {@link String}) que aparece con mayor frecuencia entre los vecinos,
+	 * o `null` si no hay vecinos.
+	 */
+	private String obtenerClaseMayoritaria(Dataset entrenamiento, MonticuloVecinos vecinos, Distancia distancia) {
+		// Como mucho hay K clases distintas: una búsqueda lineal evita crear un mapa por consulta.
+		List<String> clases = new ArrayList<>();
+		int[] codigos = new int[vecinos.tamano()];
+		for (int i = 0; i < codigos.length; i++) {
+			String clase = entrenamiento.getInstance(vecinos.getFila(i)).getClase();
+			int codigo = clases.indexOf(clase);
+			if (codigo < 0) {
+				codigo = clases.size();
+				clases.add(clase);
+			}
+			codigos[i] = codigo;
+		}
+		int mejor = votar(vecinos, codigos, distancia, votoPonderado, new double[clases.size()]);
+		return mejor < 0 ? null : clases.get(mejor);
+	}
+
+	/**
+	 * @brief Resultado de una compactación en segundo plano: los datos compactados, su índice y lo
+	 * necesario para aplicarles los cambios hechos mientras se construía.
 	 */
-	private static class Vecino {
+	private static class Compactacion {
+		/**
+		 * @brief La {@link KNN#version} de los datos cuando se copiaron.
+		 */
+		private final int version;
+		/**
+		 * @brief Los datos que se copiaron.
+		 */
+		private final DatosEntrenamiento origen;
+		/**
+		 * @brief La fila de `origen` de cada fila compactada.
+		 */
+		private final int[] vivas;
 		/**
-		 * @brief La distancia de este vecino a la instancia de prueba.
+		 * @brief Número de filas de `origen` al copiar: las siguientes se añadieron después.
 		 */
-		private double distancia;
+		private final int filasCopiadas;
 		/**
-		 * @brief La clase a la que pertenece este vecino.
+		 * @brief Número de filas eliminadas de `origen` al copiar.
 		 */
-		private String clase;
+		private final int eliminadas;
+		/**
+		 * @brief Los datos compactados.
+		 */
+		private final DatosEntrenamiento compactados;
+		/**
+		 * @brief El índice construido sobre los datos compactados.
+		 */
+		private IndiceVecinos indice;
 
 		/**
-		 * @brief Constructor para crear un objeto Vecino.
+		 * @brief Registra la copia de las filas vivas.
 		 *
-		 * @param distancia La distancia calculada.
-		 * @param clase La clase del vecino.
+		 * @param version La versión de los datos.
+		 * @param origen Los datos copiados.
+		 * @param vivas Las filas copiadas.
+		 * @param compactados La copia.
 		 */
-		public Vecino(double distancia, String clase) {
-			this.distancia = distancia;
-			this.clase = clase;
+		Compactacion(int version, DatosEntrenamiento origen, int[] vivas, DatosEntrenamiento compactados) {
+			this.version = version;
+			this.origen = origen;
+			this.vivas = vivas;
+			this.filasCopiadas = origen.numeroFilas();
+			this.eliminadas = origen.numeroEliminadas();
+			this.compactados = compactados;
 		}
+	}
 
+	/**
+	 * @brief Distancia preparada para un dataset sin ajustar el clasificador, con lo necesario para saber si sigue siendo válida.
+	 */
+	private static class PreparacionSinAjustar {
 		/**
-		 * @brief Obtiene la distancia del vecino.
-		 *
-		 * @return La distancia como un {@link Double}.
+		 * @brief El dataset sobre el que se preparó; la referencia débil no impide liberarlo.
 		 */
-		public double getDistancia() {
-			return distancia;
-		}
+		private final WeakReference<Dataset> dataset;
+		/**
+		 * @brief Número de casos del dataset al prepararse.
+		 */
+		private final int numeroCasos;
+		/**
+		 * @brief Copia de los pesos del dataset al prepararse.
+		 */
+		private final List<Double> pesos;
+		/**
+		 * @brief La distancia configurada que se preparó.
+		 */
+		private final Distancia distancia;
+		/**
+		 * @brief La distancia preparada.
+		 */
+		private final Distancia preparada;
 
 		/**
-		 * @brief Obtiene la clase del vecino.
+		 * @brief Registra la distancia preparada para un dataset.
 		 *
-		 * @return La clase como un {@link String}.
+		 * @param dataset El dataset sobre el que se preparó.
+		 * @param distancia La distancia configurada.
+		 * @param preparada La distancia preparada.
+		 * @param pesos Los pesos del dataset al prepararse.
 		 */
-		public String getClase() {
-			return clase;
+		PreparacionSinAjustar(Dataset dataset, Distancia distancia, Distancia preparada, List<Double> pesos) {
+			this.dataset = new WeakReference<>(dataset);
+			this.numeroCasos = dataset.numeroCasos();
+			this.pesos = new ArrayList<>(pesos);
+			this.distancia = distancia;
+			this.preparada = preparada;
+		}
+	}
+
+	/**
+	 * @brief Resuelve un rango de un lote de consultas con una sola búsqueda por lotes en el índice.
+	 * <p>
+	 * Las consultas del rango se resuelven juntas para que el índice pueda compartir el recorrido
+	 * de los datos entre ellas.
+	 *
+	 * @param <T> El tipo del resultado de cada consulta.
+	 * @param consultas Las instancias del lote completo.
+	 * @param resultados El array donde se escriben los resultados (`null` para las instancias no válidas).
+	 * @param numVecinos Número de vecinos que se buscan para cada consulta.
+	 * @param resolver Obtiene el resultado de una consulta a partir de sus vecinos.
+	 * @param desde Primera posición del rango (incluida).
+	 * @param hasta Última posición del rango (excluida).
+	 */
+	private <T> void resolverLote(Instancia[] consultas, T[] resultados, int numVecinos, Function<MonticuloVecinos, T> resolver, int desde, int hasta) {
+		double[][] preparadas = new double[hasta - desde][];
+		MonticuloVecinos[] vecinos = new MonticuloVecinos[hasta - desde];
+		for (int i = 0; i < preparadas.length; i++) {
+			preparadas[i] = ajustado.prepararConsulta(consultas[desde + i]);
+			vecinos[i] = new MonticuloVecinos(numVecinos);
+		}
+		indice.buscarLote(preparadas, vecinos);
+		for (int i = 0; i < preparadas.length; i++) {
+			resultados[desde + i] = preparadas[i] == null ? null : resolver.apply(vecinos[i]);
 		}
 	}
-}
\ No newline at end of file
+}
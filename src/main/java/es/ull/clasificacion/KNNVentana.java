@@ -0,0 +1,333 @@
+package clasificacion;
+
+import datos.Instancia;
+import vectores.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file KNNVentana.java
+ * @brief Clasificador KNN para flujos de datos que solo conserva las instancias más recientes.
+ *
+ * Las instancias etiquetadas llegan una a una con {@link #anadir(Instancia, long)} y se guardan
+ * en un búfer circular de arrays primitivos de capacidad fija: cuando está lleno, la instancia
+ * nueva ocupa el hueco de la más antigua, que se descarta en O(1) sin mover las demás. Opcionalmente
+ * se descartan también las instancias más antiguas que una duración ({@link #setDuracionVentana(long)}).
+ * La memoria no crece con el flujo, por lo que sirve para datos cuya distribución cambia con el
+ * tiempo, a diferencia de {@link KNN}, que se ajusta a un {@link datos.Dataset} completo.
+ *
+ * La clasificación recorre la ventana por fuerza bruta con la distancia configurada y vota como
+ * {@link KNN}. Solo admite atributos numéricos (los valores de {@link Instancia#getVector()});
+ * la dimensión la fija la primera instancia válida. Los métodos están sincronizados, así que
+ * un hilo puede añadir instancias mientras otros clasifican.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class KNNVentana {
+	/**
+	 * @brief El número de vecinos más cercanos (K) a considerar para la clasificación.
+	 */
+	private final int k;
+	/**
+	 * @brief Número máximo de instancias de la ventana.
+	 */
+	private final int capacidad;
+	/**
+	 * @brief Valores de las instancias de la ventana, una fila por hueco del búfer.
+	 */
+	private double[] filas;
+	/**
+	 * @brief Código de clase de cada hueco del búfer.
+	 */
+	private final int[] codigosClase;
+	/**
+	 * @brief Marca de tiempo de cada hueco del búfer.
+	 */
+	private final long[] marcas;
+	/**
+	 * @brief Hueco de la instancia más antigua.
+	 */
+	private int inicio;
+	/**
+	 * @brief Número de instancias en la ventana.
+	 */
+	private int tamano;
+	/**
+	 * @brief Número de valores de cada instancia, o -1 hasta recibir la primera instancia válida.
+	 */
+	private int dimension = -1;
+	/**
+	 * @brief Peso de cada dimensión, o `null` para que todas pesen 1.
+	 */
+	private double[] pesos;
+	/**
+	 * @brief Duración máxima de la ventana, en las unidades de las marcas de tiempo.
+	 */
+	private long duracion = Long.MAX_VALUE;
+	/**
+	 * @brief Marca de tiempo más reciente recibida.
+	 */
+	private long ultimaMarca = Long.MIN_VALUE;
+	/**
+	 * @brief La distancia utilizada. Por defecto, la euclídea cuadrada ponderada.
+	 */
+	private Distancia distancia = DistanciaEuclidea.preferida();
+	/**
+	 * @brief Indica si los votos de los vecinos se ponderan por el inverso de su distancia.
+	 */
+	private boolean votoPonderado;
+	/**
+	 * @brief Nombres de las clases vistas, indexados por su código.
+	 */
+	private final List<String> clases = new ArrayList<>();
+	/**
+	 * @brief Código de cada clase a partir de su nombre.
+	 */
+	private final Map<String, Integer> indiceClases = new HashMap<>();
+
+	/**
+	 * @brief Constructor del clasificador por ventana.
+	 *
+	 * @param k El número de vecinos a utilizar para la clasificación. Debe ser un entero positivo.
+	 * @param capacidad El número máximo de instancias que conserva la ventana. Debe ser un entero positivo.
+	 * @throws IllegalArgumentException Si `k` o la capacidad son menores o iguales a 0.
+	 */
+	public KNNVentana(int k, int capacidad) {
+		if (k <= 0 || capacidad <= 0) {
+			throw new IllegalArgumentException("K y la capacidad de la ventana deben ser mayores que cero.");
+		}
+		this.k = k;
+		this.capacidad = capacidad;
+		this.filas = new double[0];
+		this.codigosClase = new int[capacidad];
+		this.marcas = new long[capacidad];
+	}
+
+	/**
+	 * @brief Añade una instancia etiquetada con la hora actual del sistema en milisegundos.
+	 * <p>
+	 * Si el reloj del sistema retrocede (por ejemplo, al sincronizarse), la instancia recibe la marca
+	 * de la última añadida en lugar de una anterior, así que las instancias nunca se desordenan; la
+	 * ventana temporal no avanza hasta que el reloj vuelve a alcanzar esa marca.
+	 *
+	 * @param instancia La {@link Instancia} a añadir.
+	 * @return `true` si se ha añadido, `false` si no es válida o no tiene la dimensión de la ventana.
+	 */
+	public synchronized boolean anadir(Instancia instancia) {
+		return anadir(instancia, Math.max(System.currentTimeMillis(), ultimaMarca));
+	}
+
+	/**
+	 * @brief Añade una instancia etiquetada a la ventana.
+	 * <p>
+	 * Antes de añadirla se descartan las instancias que han salido de la ventana temporal; si la
+	 * ventana sigue llena, la instancia nueva sustituye a la más antigua.
+	 *
+	 * @param instancia La {@link Instancia} a añadir.
+	 * @param marcaTiempo La marca de tiempo de la instancia, no anterior a la de la última añadida.
+	 * @return `true` si se ha añadido, `false` si no es válida o no tiene la dimensión de la ventana.
+	 * @throws IllegalArgumentException Si la marca de tiempo es anterior a la de la última instancia añadida.
+	 */
+	public synchronized boolean anadir(Instancia instancia, long marcaTiempo) {
+		if (marcaTiempo < ultimaMarca) {
+			throw new IllegalArgumentException("Las instancias deben añadirse en orden de marca de tiempo.");
+		}
+		Vector vector = instancia == null ? null : instancia.getVector();
+		if (vector == null || (dimension >= 0 && vector.size() != dimension)) {
+			return false;
+		}
+		if (dimension < 0) {
+			if (pesos != null && pesos.length != vector.size()) {
+				return false;
+			}
+			dimension = vector.size();
+			filas = new double[capacidad * dimension];
+		}
+		ultimaMarca = marcaTiempo;
+		expirar(marcaTiempo);
+		int hueco = (inicio + tamano) % capacidad;
+		if (tamano == capacidad) {
+			// La ventana está llena: el hueco es el de la instancia más antigua, que se descarta.
+			inicio = (inicio + 1) % capacidad;
+		} else {
+			tamano++;
+		}
+		int base = hueco * dimension;
+		for (int j = 0; j < dimension; j++) {
+			filas[base + j] = vector.get(j);
+		}
+		codigosClase[hueco] = codificarClase(instancia.getClase());
+		marcas[hueco] = marcaTiempo;
+		return true;
+	}
+
+	/**
+	 * @brief Descarta las instancias que han salido de la ventana temporal en un instante dado.
+	 *
+	 * @param ahora El instante actual, en las unidades de las marcas de tiempo.
+	 * @return El número de instancias descartadas.
+	 */
+	public synchronized int expirar(long ahora) {
+		if (duracion == Long.MAX_VALUE) {
+			return 0;
+		}
+		int descartadas = 0;
+		// Las marcas crecen desde el inicio del búfer, así que basta con avanzar el inicio.
+		while (tamano > 0 && ahora - marcas[inicio] > duracion) {
+			inicio = (inicio + 1) % capacidad;
+			tamano--;
+			descartadas++;
+		}
+		return descartadas;
+	}
+
+	/**
+	 * @brief Obtiene el código de una clase, añadiéndola si es nueva.
+	 *
+	 * @param clase El nombre de la clase.
+	 * @return Su código entero.
+	 */
+	private int codificarClase(String clase) {
+		Integer codigo = indiceClases.get(clase);
+		if (codigo == null) {
+			codigo = clases.size();
+			indiceClases.put(clase, codigo);
+			clases.add(clase);
+		}
+		return codigo;
+	}
+
+	/**
+	 * @brief Clasifica una instancia con las instancias de la ventana.
+	 *
+	 * @param prueba La {@link Instancia} a clasificar.
+	 * @return La clase predicha, o `null` si la ventana está vacía o la instancia no es válida
+	 * o no tiene la dimensión de la ventana.
+	 */
+	public synchronized String clasificar(Instancia prueba) {
+		Vector vector = prueba == null ? null : prueba.getVector();
+		if (tamano == 0 || vector == null || vector.size() != dimension) {
+			return null;
+		}
+		double[] consulta = new double[dimension];
+		for (int j = 0; j < dimension; j++) {
+			consulta[j] = vector.get(j);
+		}
+		double[] pesosEfectivos = pesos;
+		if (pesosEfectivos == null) {
+			pesosEfectivos = new double[dimension];
+			Arrays.fill(pesosEfectivos, 1.0);
+		}
+		// Solo se recorren los huecos ocupados, de la instancia más antigua a la más reciente.
+		MonticuloVecinos vecinos = new MonticuloVecinos(k);
+		for (int i = 0; i < tamano; i++) {
+			int hueco = (inicio + i) % capacidad;
+			vecinos.ofrecer(distancia.calcularAcotada(consulta, 0, filas, hueco * dimension, dimension, pesosEfectivos, vecinos.peorDistancia()), hueco);
+		}
+		int[] codigos = new int[vecinos.tamano()];
+		for (int i = 0; i < codigos.length; i++) {
+			codigos[i] = codigosClase[vecinos.getFila(i)];
+		}
+		int mejor = KNN.votar(vecinos, codigos, distancia, votoPonderado, new double[clases.size()]);
+		return mejor < 0 ? null : clases.get(mejor);
+	}
+
+	/**
+	 * @brief Vacía la ventana conservando su configuración y las clases vistas.
+	 */
+	public synchronized void vaciar() {
+		inicio = 0;
+		tamano = 0;
+		ultimaMarca = Long.MIN_VALUE;
+	}
+
+	/**
+	 * @brief Establece la duración máxima de la ventana.
+	 * <p>
+	 * Una instancia se descarta cuando la diferencia entre el instante actual (la marca de la
+	 * última instancia añadida o el indicado en {@link #expirar(long)}) y su marca supera la duración.
+	 *
+	 * @param duracion La duración, en las unidades de las marcas de tiempo; {@link Long#MAX_VALUE}
+	 * (por defecto) conserva las instancias hasta que las sustituyan otras más recientes.
+	 * @throws IllegalArgumentException Si la duración es negativa.
+	 */
+	public synchronized void setDuracionVentana(long duracion) {
+		if (duracion < 0) {
+			throw new IllegalArgumentException("La duración de la ventana no puede ser negativa.");
+		}
+		this.duracion = duracion;
+	}
+
+	/**
+	 * @brief Establece los pesos de los atributos.
+	 *
+	 * @param pesos El peso de cada atributo numérico, o `null` para que todos pesen 1.
+	 * @throws IllegalArgumentException Si el número de pesos no coincide con la dimensión de la ventana.
+	 */
+	public synchronized void setPesos(double[] pesos) {
+		if (pesos != null && dimension >= 0 && pesos.length != dimension) {
+			throw new IllegalArgumentException("El número de pesos no coincide con la dimensión de la ventana.");
+		}
+		this.pesos = pesos == null ? null : pesos.clone();
+	}
+
+	/**
+	 * @brief Establece la distancia utilizada para comparar instancias.
+	 *
+	 * @param distancia La {@link Distancia} a utilizar.
+	 * @throws IllegalArgumentException Si la distancia es nula o necesita prepararse con unos datos fijos,
+	 * lo que no es posible en una ventana que cambia con cada instancia.
+	 */
+	public synchronized void setDistancia(Distancia distancia) {
+		if (distancia == null) {
+			throw new IllegalArgumentException("La distancia no puede ser nula.");
+		}
+		if (distancia.requierePreparacion()) {
+			throw new IllegalArgumentException("La ventana no admite distancias que deben prepararse con los datos.");
+		}
+		this.distancia = distancia;
+	}
+
+	/**
+	 * @brief Establece cómo votan los vecinos, igual que {@link KNN#setVotoPonderado(boolean)}.
+	 *
+	 * @param votoPonderado `true` para ponderar los votos por el inverso de la distancia.
+	 */
+	public synchronized void setVotoPonderado(boolean votoPonderado) {
+		this.votoPonderado = votoPonderado;
+	}
+
+	/**
+	 * @brief Obtiene el número de instancias de la ventana.
+	 *
+	 * @return El número de instancias.
+	 */
+	public synchronized int tamano() {
+		return tamano;
+	}
+
+	/**
+	 * @brief Obtiene el número máximo de instancias de la ventana.
+	 *
+	 * @return La capacidad.
+	 */
+	public int capacidad() {
+		return capacidad;
+	}
+
+	/**
+	 * @brief Obtiene las clases vistas desde la creación del clasificador.
+	 *
+	 * @return Una {@link List} no modificable con las clases, en orden de aparición.
+	 */
+	public synchronized List<String> getClases() {
+		return Collections.unmodifiableList(new ArrayList<>(clases));
+	}
+}
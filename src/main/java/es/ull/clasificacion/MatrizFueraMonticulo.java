@@ -0,0 +1,267 @@
+package clasificacion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * @file MatrizFueraMonticulo.java
+ * @brief Matriz de valores {@code double} guardada fuera del montículo de Java, fila a fila.
+ *
+ * Los valores se reparten en trozos de memoria directa ({@link ByteBuffer#allocateDirect(int)}) de
+ * hasta 1 GiB, cada uno con un número entero de filas, porque un búfer no puede superar los 2 GiB.
+ * El recolector de basura no recorre esta memoria, así que un modelo de decenas de GB no alarga sus
+ * pausas ni obliga a reservar un montículo de ese tamaño; la memoria se libera cuando la matriz deja
+ * de ser alcanzable. El total de memoria directa está limitado por la opción
+ * {@code -XX:MaxDirectMemorySize} de la máquina virtual, que por defecto vale el tamaño máximo del montículo.
+ *
+ * Los trozos también pueden proyectar un fichero en memoria ({@link #mapear(FileChannel, long, int, int, ByteOrder)}):
+ * el sistema operativo carga las páginas a medida que se leen y las comparte entre los procesos que
+ * abren el mismo fichero, y esa memoria no cuenta para el límite anterior. Una matriz proyectada es de solo lectura.
+ *
+ * Las búsquedas leen bloques de filas con {@link #leer(int, int, double[], int)} en un array
+ * auxiliar y calculan las distancias sobre él con las mismas {@link Distancia} que los datos en el montículo.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class MatrizFueraMonticulo {
+	/**
+	 * @brief Número máximo de valores de cada trozo (1 GiB).
+	 */
+	private static final int VALORES_POR_TROZO = 1 << 27;
+
+	/**
+	 * @brief Los trozos de memoria, cada uno con {@link #filasPorTrozo} filas salvo el último.
+	 */
+	private final DoubleBuffer[] trozos;
+	/**
+	 * @brief Número de filas de cada trozo.
+	 */
+	private final int filasPorTrozo;
+	/**
+	 * @brief Número de filas de la matriz.
+	 */
+	private final int numFilas;
+	/**
+	 * @brief Número de valores de cada fila.
+	 */
+	private final int dimension;
+
+	/**
+	 * @brief Reserva una matriz con todos los valores a cero.
+	 *
+	 * @param numFilas El número de filas.
+	 * @param dimension El número de valores de cada fila.
+	 * @throws IllegalArgumentException Si el número de filas o la dimensión son negativos.
+	 */
+	public MatrizFueraMonticulo(int numFilas, int dimension) {
+		this(numFilas, dimension, Math.max(1, VALORES_POR_TROZO / Math.max(dimension, 1)));
+	}
+
+	/**
+	 * @brief Reserva una matriz con un número de filas por trozo concreto.
+	 *
+	 * @param numFilas El número de filas.
+	 * @param dimension El número de valores de cada fila.
+	 * @param filasPorTrozo El número de filas de cada trozo.
+	 * @throws IllegalArgumentException Si algún tamaño es negativo o un trozo no tiene filas.
+	 */
+	MatrizFueraMonticulo(int numFilas, int dimension, int filasPorTrozo) {
+		if (numFilas < 0 || dimension < 0 || filasPorTrozo <= 0) {
+			throw new IllegalArgumentException("Los tamaños de la matriz no son válidos.");
+		}
+		this.numFilas = numFilas;
+		this.dimension = dimension;
+		this.filasPorTrozo = filasPorTrozo;
+		int numTrozos = (int) (((long) numFilas + filasPorTrozo - 1) / filasPorTrozo);
+		this.trozos = new DoubleBuffer[numTrozos];
+		for (int t = 0; t < numTrozos; t++) {
+			int filasTrozo = Math.min(filasPorTrozo, numFilas - t * filasPorTrozo);
+			trozos[t] = ByteBuffer.allocateDirect(filasTrozo * dimension * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+		}
+	}
+
+	/**
+	 * @brief Crea una matriz sobre unos trozos ya reservados.
+	 *
+	 * @param trozos Los trozos, cada uno con `filasPorTrozo` filas salvo el último.
+	 * @param filasPorTrozo El número de filas de cada trozo.
+	 * @param numFilas El número de filas.
+	 * @param dimension El número de valores de cada fila.
+	 */
+	private MatrizFueraMonticulo(DoubleBuffer[] trozos, int filasPorTrozo, int numFilas, int dimension) {
+		this.trozos = trozos;
+		this.filasPorTrozo = filasPorTrozo;
+		this.numFilas = numFilas;
+		this.dimension = dimension;
+	}
+
+	/**
+	 * @brief Proyecta en memoria, en modo de solo lectura, una matriz guardada en un fichero.
+	 * <p>
+	 * La proyección sigue siendo válida después de cerrar el canal.
+	 *
+	 * @param canal El canal del fichero, abierto para lectura.
+	 * @param posicion La posición del fichero donde empieza el primer valor.
+	 * @param numFilas El número de filas.
+	 * @param dimension El número de valores de cada fila.
+	 * @param orden El orden de los bytes de cada valor en el fichero.
+	 * @return La matriz proyectada.
+	 * @throws IOException Si no se puede proyectar el fichero o no contiene todas las filas.
+	 */
+	public static MatrizFueraMonticulo mapear(FileChannel canal, long posicion, int numFilas, int dimension, ByteOrder orden) throws IOException {
+		if (posicion + (long) numFilas * dimension * Double.BYTES > canal.size()) {
+			throw new IOException("El fichero no contiene las " + numFilas + " filas de la matriz.");
+		}
+		int filasPorTrozo = Math.max(1, VALORES_POR_TROZO / Math.max(dimension, 1));
+		int numTrozos = (int) (((long) numFilas + filasPorTrozo - 1) / filasPorTrozo);
+		DoubleBuffer[] trozos = new DoubleBuffer[numTrozos];
+		for (int t = 0; t < numTrozos; t++) {
+			int filasTrozo = Math.min(filasPorTrozo, numFilas - t * filasPorTrozo);
+			long desde = posicion + (long) t * filasPorTrozo * dimension * Double.BYTES;
+			trozos[t] = canal.map(FileChannel.MapMode.READ_ONLY, desde, (long) filasTrozo * dimension * Double.BYTES).order(orden).asDoubleBuffer();
+		}
+		return new MatrizFueraMonticulo(trozos, filasPorTrozo, numFilas, dimension);
+	}
+
+	/**
+	 * @brief Copia fuera del montículo unas filas empaquetadas.
+	 *
+	 * @param valores Los valores, fila a fila; puede tener más posiciones que las copiadas.
+	 * @param numFilas El número de filas a copiar.
+	 * @param dimension El número de valores de cada fila.
+	 * @return La matriz con las filas copiadas.
+	 * @throws IllegalArgumentException Si el array no tiene las filas indicadas.
+	 */
+	public static MatrizFueraMonticulo copiar(double[] valores, int numFilas, int dimension) {
+		if ((long) numFilas * dimension > valores.length) {
+			throw new IllegalArgumentException("El array no tiene las filas indicadas.");
+		}
+		MatrizFueraMonticulo matriz = new MatrizFueraMonticulo(numFilas, dimension);
+		matriz.escribir(0, numFilas, valores, 0);
+		return matriz;
+	}
+
+	/**
+	 * @brief Lee filas consecutivas en un array.
+	 *
+	 * @param fila La primera fila a leer.
+	 * @param filas El número de filas a leer.
+	 * @param destino El array donde se copian los valores, fila a fila.
+	 * @param desde La posición de `destino` donde se copia el primer valor.
+	 * @throws IndexOutOfBoundsException Si las filas o las posiciones de destino no existen.
+	 */
+	public void leer(int fila, int filas, double[] destino, int desde) {
+		comprobarFilas(fila, filas);
+		while (filas > 0) {
+			int trozo = fila / filasPorTrozo;
+			int local = fila - trozo * filasPorTrozo;
+			int n = Math.min(filas, filasPorTrozo - local);
+			trozos[trozo].get(local * dimension, destino, desde, n * dimension);
+			fila += n;
+			filas -= n;
+			desde += n * dimension;
+		}
+	}
+
+	/**
+	 * @brief Escribe filas consecutivas desde un array.
+	 *
+	 * @param fila La primera fila a escribir.
+	 * @param filas El número de filas a escribir.
+	 * @param origen El array con los valores, fila a fila.
+	 * @param desde La posición de `origen` del primer valor.
+	 * @throws IndexOutOfBoundsException Si las filas o las posiciones de origen no existen.
+	 * @throws java.nio.ReadOnlyBufferException Si la matriz proyecta un fichero.
+	 */
+	public void escribir(int fila, int filas, double[] origen, int desde) {
+		comprobarFilas(fila, filas);
+		while (filas > 0) {
+			int trozo = fila / filasPorTrozo;
+			int local = fila - trozo * filasPorTrozo;
+			int n = Math.min(filas, filasPorTrozo - local);
+			trozos[trozo].put(local * dimension, origen, desde, n * dimension);
+			fila += n;
+			filas -= n;
+			desde += n * dimension;
+		}
+	}
+
+	/**
+	 * @brief Obtiene un valor de la matriz.
+	 *
+	 * @param fila La fila.
+	 * @param j La posición del valor dentro de la fila.
+	 * @return El valor.
+	 * @throws IndexOutOfBoundsException Si la fila o la posición no existen.
+	 */
+	public double get(int fila, int j) {
+		comprobarFilas(fila, 1);
+		if (j < 0 || j >= dimension) {
+			throw new IndexOutOfBoundsException("La posición " + j + " no existe en filas de dimensión " + dimension + ".");
+		}
+		int trozo = fila / filasPorTrozo;
+		return trozos[trozo].get((fila - trozo * filasPorTrozo) * dimension + j);
+	}
+
+	/**
+	 * @brief Crea otra matriz fuera del montículo con una copia de las filas indicadas.
+	 *
+	 * @param seleccion Las filas a copiar, en el orden en que se guardarán.
+	 * @return La matriz nueva.
+	 * @throws IndexOutOfBoundsException Si alguna fila no existe.
+	 */
+	public MatrizFueraMonticulo seleccionar(int[] seleccion) {
+		MatrizFueraMonticulo resultado = new MatrizFueraMonticulo(seleccion.length, dimension, filasPorTrozo);
+		double[] fila = new double[dimension];
+		for (int i = 0; i < seleccion.length; i++) {
+			leer(seleccion[i], 1, fila, 0);
+			resultado.escribir(i, 1, fila, 0);
+		}
+		return resultado;
+	}
+
+	/**
+	 * @brief Comprueba que un rango de filas existe.
+	 *
+	 * @param fila La primera fila.
+	 * @param filas El número de filas.
+	 * @throws IndexOutOfBoundsException Si el rango no está dentro de la matriz.
+	 */
+	private void comprobarFilas(int fila, int filas) {
+		if (fila < 0 || filas < 0 || (long) fila + filas > numFilas) {
+			throw new IndexOutOfBoundsException("Las filas [" + fila + ", " + ((long) fila + filas) + ") no existen en una matriz de " + numFilas + " filas.");
+		}
+	}
+
+	/**
+	 * @brief Obtiene el número de filas de la matriz.
+	 *
+	 * @return El número de filas.
+	 */
+	public int numeroFilas() {
+		return numFilas;
+	}
+
+	/**
+	 * @brief Obtiene el número de valores de cada fila.
+	 *
+	 * @return La dimensión.
+	 */
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * @brief Obtiene el número de trozos de memoria en que se reparten las filas.
+	 *
+	 * @return El número de trozos.
+	 */
+	public int numeroTrozos() {
+		return trozos.length;
+	}
+}
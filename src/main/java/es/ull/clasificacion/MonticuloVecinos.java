@@ -0,0 +1,262 @@
+package clasificacion;
+
+/**
+ * @file MonticuloVecinos.java
+ * @brief Montículo de máximos acotado que conserva los K vecinos más cercanos encontrados.
+ *
+ * Guarda las distancias y los índices de fila en dos arrays primitivos paralelos,
+ * por lo que insertar un candidato no crea ningún objeto. La raíz del montículo es
+ * siempre el peor de los K vecinos actuales, lo que permite descartar candidatos
+ * con una sola comparación contra {@link #peorDistancia()}.
+ *
+ * Los vecinos se ordenan por distancia y, a igual distancia, por fila: entre dos candidatos
+ * igual de cercanos se conserva el de menor fila. Así el resultado es el mismo sea cual sea el
+ * orden en que se ofrecen los candidatos, y todos los índices exactos devuelven los mismos vecinos.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class MonticuloVecinos {
+	/**
+	 * @brief Error relativo de redondeo que se admite al comparar una cota inferior con una distancia.
+	 */
+	static final double HOLGURA_COTAS = 1e-9;
+
+	/**
+	 * @brief Distancias de los vecinos almacenados.
+	 */
+	private final double[] distancias;
+	/**
+	 * @brief Índices de fila de los vecinos almacenados.
+	 */
+	private final int[] filas;
+	/**
+	 * @brief Número de vecinos almacenados actualmente.
+	 */
+	private int tamano;
+	/**
+	 * @brief Indica si los arrays están ordenados por distancia ascendente en lugar de formar un montículo.
+	 */
+	private boolean ordenado;
+	/**
+	 * @brief Marca de las filas que {@link #ofrecer(double, int)} rechaza, o `null` si se aceptan todas.
+	 */
+	private boolean[] excluidas;
+
+	/**
+	 * @brief Crea un montículo vacío con capacidad para K vecinos.
+	 *
+	 * @param capacidad El número máximo de vecinos (K). Debe ser un entero positivo.
+	 * @throws IllegalArgumentException Si la capacidad es menor o igual a 0.
+	 */
+	public MonticuloVecinos(int capacidad) {
+		if (capacidad <= 0) {
+			throw new IllegalArgumentException("El número de vecinos debe ser mayor que cero.");
+		}
+		this.distancias = new double[capacidad];
+		this.filas = new int[capacidad];
+	}
+
+	/**
+	 * @brief Vacía el montículo para reutilizarlo en otra consulta.
+	 */
+	public void reiniciar() {
+		tamano = 0;
+		ordenado = false;
+	}
+
+	/**
+	 * @brief Ofrece un candidato al montículo.
+	 * <p>
+	 * Si el montículo no está lleno, el candidato se inserta siempre. Si está lleno,
+	 * solo se inserta cuando es más cercano que el peor vecino, que entonces se descarta: con
+	 * menor distancia o, con la misma, con menor fila.
+	 *
+	 * @param distancia La distancia del candidato a la consulta.
+	 * @param fila El índice de fila del candidato.
+	 * @return `true` si el candidato ha entrado en el montículo, `false` en caso contrario
+	 * (también si la fila está excluida con {@link #setExcluidas(boolean[])}).
+	 * @throws IllegalStateException Si el montículo ya ha sido ordenado y no se ha reiniciado.
+	 */
+	public boolean ofrecer(double distancia, int fila) {
+		if (ordenado) {
+			throw new IllegalStateException("El montículo está ordenado; debe reiniciarse antes de ofrecer nuevos vecinos.");
+		}
+		if (excluidas != null && fila < excluidas.length && excluidas[fila]) {
+			return false;
+		}
+		if (tamano < distancias.length) {
+			int i = tamano++;
+			// Subir el nuevo elemento mientras sea mayor que su padre.
+			while (i > 0) {
+				int padre = (i - 1) >>> 1;
+				if (!antes(distancias[padre], filas[padre], distancia, fila)) {
+					break;
+				}
+				distancias[i] = distancias[padre];
+				filas[i] = filas[padre];
+				i = padre;
+			}
+			distancias[i] = distancia;
+			filas[i] = fila;
+			return true;
+		}
+		if (!antes(distancia, fila, distancias[0], filas[0])) {
+			return false;
+		}
+		hundir(distancia, fila, tamano);
+		return true;
+	}
+
+	/**
+	 * @brief Coloca un elemento en la raíz y lo hunde hasta restaurar la propiedad de montículo.
+	 *
+	 * @param distancia La distancia del elemento a colocar.
+	 * @param fila La fila del elemento a colocar.
+	 * @param limite El número de posiciones que forman el montículo.
+	 */
+	private void hundir(double distancia, int fila, int limite) {
+		int i = 0;
+		while (true) {
+			int hijo = 2 * i + 1;
+			if (hijo >= limite) {
+				break;
+			}
+			if (hijo + 1 < limite && antes(distancias[hijo], filas[hijo], distancias[hijo + 1], filas[hijo + 1])) {
+				hijo++;
+			}
+			if (!antes(distancia, fila, distancias[hijo], filas[hijo])) {
+				break;
+			}
+			distancias[i] = distancias[hijo];
+			filas[i] = filas[hijo];
+			i = hijo;
+		}
+		distancias[i] = distancia;
+		filas[i] = fila;
+	}
+
+	/**
+	 * @brief Compara dos vecinos por distancia y, a igual distancia, por fila.
+	 *
+	 * @param distancia La distancia del primer vecino.
+	 * @param fila La fila del primer vecino.
+	 * @param otraDistancia La distancia del segundo vecino.
+	 * @param otraFila La fila del segundo vecino.
+	 * @return `true` si el primer vecino va antes (es más cercano) que el segundo.
+	 */
+	static boolean antes(double distancia, int fila, double otraDistancia, int otraFila) {
+		return distancia < otraDistancia || (distancia == otraDistancia && fila < otraFila);
+	}
+
+	/**
+	 * @brief Indica si una cota inferior calculada por un índice supera con seguridad una distancia.
+	 * <p>
+	 * Las cotas de las celdas, bolas o pivotes se calculan con operaciones distintas de las de la
+	 * distancia, así que una cota igual en teoría a la distancia de un candidato puede quedar por
+	 * encima por el redondeo. Como un candidato empatado con el peor vecino aún puede entrar, solo
+	 * se descarta lo que supera la distancia por más que ese error.
+	 *
+	 * @param cotaInferior La cota inferior de la distancia de los candidatos.
+	 * @param distancia La distancia con la que se compara, por ejemplo {@link #peorDistancia()}.
+	 * @param escala La magnitud de los valores con los que se calculó la cota.
+	 * @return `true` si ningún candidato con esa cota puede estar a una distancia menor o igual.
+	 */
+	static boolean descartable(double cotaInferior, double distancia, double escala) {
+		return cotaInferior > distancia + HOLGURA_COTAS * escala;
+	}
+
+	/**
+	 * @brief Establece las filas que el montículo debe rechazar.
+	 * <p>
+	 * Permite que los índices poden con {@link #peorDistancia()} sin contar las filas eliminadas
+	 * de los {@link DatosEntrenamiento}: como esas filas nunca entran, la cota solo depende de las válidas.
+	 *
+	 * @param excluidas Un array con `true` en las filas a rechazar (las posiciones fuera del array se
+	 * aceptan), o `null` para aceptar todas. Se usa la referencia, no una copia.
+	 */
+	public void setExcluidas(boolean[] excluidas) {
+		this.excluidas = excluidas;
+	}
+
+	/**
+	 * @brief Obtiene las filas que el montículo rechaza.
+	 *
+	 * @return El array establecido con {@link #setExcluidas(boolean[])}, o `null` si se aceptan todas.
+	 */
+	public boolean[] getExcluidas() {
+		return excluidas;
+	}
+
+	/**
+	 * @brief Obtiene la distancia del peor vecino cuando el montículo está lleno.
+	 * <p>
+	 * Un candidato a esa misma distancia aún puede entrar si su fila es menor, así que los índices
+	 * solo pueden descartar los candidatos (o las regiones) cuya distancia la supera.
+	 *
+	 * @return La mayor distancia almacenada, o {@link Double#POSITIVE_INFINITY} si aún caben más vecinos.
+	 */
+	public double peorDistancia() {
+		return tamano < distancias.length ? Double.POSITIVE_INFINITY : distancias[0];
+	}
+
+	/**
+	 * @brief Ordena los vecinos por distancia ascendente.
+	 * <p>
+	 * Tras ordenar, {@link #getFila(int)} y {@link #getDistancia(int)} recorren los vecinos del
+	 * más cercano al más lejano. El montículo debe reiniciarse antes de volver a ofrecer candidatos.
+	 */
+	public void ordenar() {
+		if (ordenado) {
+			return;
+		}
+		// Ordenación por montículo: la raíz (el máximo) se mueve al final en cada paso.
+		for (int fin = tamano - 1; fin > 0; fin--) {
+			double distancia = distancias[fin];
+			int fila = filas[fin];
+			distancias[fin] = distancias[0];
+			filas[fin] = filas[0];
+			hundir(distancia, fila, fin);
+		}
+		ordenado = true;
+	}
+
+	/**
+	 * @brief Obtiene el número de vecinos almacenados.
+	 *
+	 * @return El número de vecinos.
+	 */
+	public int tamano() {
+		return tamano;
+	}
+
+	/**
+	 * @brief Obtiene el número máximo de vecinos que admite el montículo.
+	 *
+	 * @return La capacidad (K).
+	 */
+	public int capacidad() {
+		return distancias.length;
+	}
+
+	/**
+	 * @brief Obtiene el índice de fila del vecino en una posición.
+	 *
+	 * @param i La posición (en orden ascendente de distancia si se ha llamado a {@link #ordenar()}).
+	 * @return El índice de fila.
+	 */
+	public int getFila(int i) {
+		return filas[i];
+	}
+
+	/**
+	 * @brief Obtiene la distancia del vecino en una posición.
+	 *
+	 * @param i La posición (en orden ascendente de distancia si se ha llamado a {@link #ordenar()}).
+	 * @return La distancia.
+	 */
+	public double getDistancia(int i) {
+		return distancias[i];
+	}
+}
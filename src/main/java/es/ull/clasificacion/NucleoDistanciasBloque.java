@@ -0,0 +1,252 @@
+package clasificacion;
+
+/**
+ * @file NucleoDistanciasBloque.java
+ * @brief Cálculo por bloques de las distancias entre un lote de consultas y los datos empaquetados.
+ *
+ * Usa el desarrollo {@code ||q - x||^2 = ||q||^2 + ||x||^2 - 2 q·x} con las normas ponderadas de
+ * las filas precalculadas, de modo que el bucle interno es un producto escalar. Las filas de
+ * entrenamiento se recorren en bloques que caben en la caché y cada bloque se reutiliza para
+ * varias consultas antes de pasar al siguiente, en lugar de recorrer todas las filas una vez
+ * por consulta.
+ *
+ * El mismo recorrido sirve para la distancia del coseno ({@link DistanciaCoseno}): con el
+ * producto escalar y las normas ya calculados, {@code 1 - q·x / (||q|| ||x||)}.
+ *
+ * El desarrollo pierde precisión cuando la distancia es muy pequeña frente a las normas, así que
+ * solo sirve de filtro: una fila cuya distancia aproximada, descontado su error máximo de redondeo,
+ * no supera la del K-ésimo vecino se vuelve a medir con {@link Distancia#calcularAcotada} de la
+ * distancia exacta antes de ofrecerse al montículo. Los vecinos y sus distancias son así los mismos
+ * que los de {@link BusquedaExhaustiva#buscar(double[], MonticuloVecinos)} con esa distancia.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class NucleoDistanciasBloque {
+	/**
+	 * @brief Número de consultas que comparten cada bloque de filas de entrenamiento.
+	 */
+	public static final int CONSULTAS_POR_BLOQUE = 16;
+	/**
+	 * @brief Número de valores de entrenamiento por bloque (16384 doubles, 128 KB).
+	 */
+	private static final int VALORES_POR_BLOQUE = 16384;
+
+	/**
+	 * @brief Los datos empaquetados sobre los que se calculan las distancias.
+	 */
+	private final DatosEntrenamiento datos;
+	/**
+	 * @brief Norma ponderada al cuadrado de cada fila, {@code sum(peso_j * x_j^2)}.
+	 */
+	private final double[] normas;
+	/**
+	 * @brief Número de filas de entrenamiento por bloque (múltiplo de 4).
+	 */
+	private final int filasPorBloque;
+	/**
+	 * @brief Indica si se calcula la distancia del coseno en lugar de la euclídea cuadrada.
+	 */
+	private final boolean coseno;
+	/**
+	 * @brief La distancia con la que se miden las filas que pasan el filtro.
+	 */
+	private final Distancia exacta;
+	/**
+	 * @brief Cota del error relativo de redondeo de una distancia aproximada, según la dimensión.
+	 */
+	private final double errorRelativo;
+
+	/**
+	 * @brief Indica si el núcleo puede filtrar con una distancia.
+	 * <p>
+	 * Se comparan las clases exactas, no `instanceof`: una subclase que redefina el cálculo ya no es
+	 * el desarrollo de la norma en que se basan el filtro y su cota de error. La versión SIMD se
+	 * reconoce por la clase de {@link DistanciaEuclidea#preferida()} para no depender del módulo incubado.
+	 *
+	 * @param distancia La distancia a comprobar.
+	 * @return `true` si es exactamente la distancia euclídea (escalar o SIMD) o la del coseno.
+	 */
+	public static boolean admite(Distancia distancia) {
+		if (distancia == null) {
+			return false;
+		}
+		Class<?> clase = distancia.getClass();
+		return clase == DistanciaEuclidea.class || clase == DistanciaCoseno.class
+				|| clase == DistanciaEuclidea.preferida().getClass();
+	}
+
+	/**
+	 * @brief Crea el núcleo para la distancia euclídea cuadrada ponderada.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} sobre los que se calcularán las distancias.
+	 */
+	public NucleoDistanciasBloque(DatosEntrenamiento datos) {
+		this(datos, false);
+	}
+
+	/**
+	 * @brief Crea el núcleo y precalcula la norma ponderada de cada fila.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} sobre los que se calcularán las distancias.
+	 * @param coseno Si es `true`, se calcula la distancia del coseno ponderada; si no, la euclídea cuadrada.
+	 */
+	public NucleoDistanciasBloque(DatosEntrenamiento datos, boolean coseno) {
+		this(datos, coseno ? new DistanciaCoseno() : DistanciaEuclidea.preferida());
+	}
+
+	/**
+	 * @brief Crea el núcleo para una distancia concreta y precalcula la norma ponderada de cada fila.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} sobre los que se calcularán las distancias.
+	 * @param distancia La distancia exacta: una de las que acepta {@link #admite(Distancia)}.
+	 * @throws IllegalArgumentException Si el núcleo no admite la distancia.
+	 */
+	public NucleoDistanciasBloque(DatosEntrenamiento datos, Distancia distancia) {
+		if (!admite(distancia)) {
+			throw new IllegalArgumentException("El núcleo por bloques solo admite las distancias euclídea y del coseno.");
+		}
+		this.datos = datos;
+		this.coseno = distancia instanceof DistanciaCoseno;
+		this.exacta = distancia;
+		// Cada producto escalar y cada norma acumulan a lo sumo un redondeo por dimensión, más los de la combinación final.
+		this.errorRelativo = (4.0 * datos.getDimension() + 16) * Math.ulp(1.0);
+		int dimension = datos.getDimension();
+		int numFilas = datos.numeroFilas();
+		double[] filas = datos.getFilas();
+		double[] pesos = datos.getPesos();
+		this.normas = new double[numFilas];
+		for (int fila = 0, base = 0; fila < numFilas; fila++, base += dimension) {
+			double norma = 0;
+			for (int j = 0; j < dimension; j++) {
+				norma += pesos[j] * filas[base + j] * filas[base + j];
+			}
+			normas[fila] = norma;
+		}
+		this.filasPorBloque = Math.max(4, (VALORES_POR_BLOQUE / Math.max(dimension, 1)) & ~3);
+	}
+
+	/**
+	 * @brief Calcula las distancias de un lote de consultas a todas las filas y las ofrece a sus montículos.
+	 *
+	 * @param consultas Las consultas, con la dimensión de los datos. Las consultas nulas se ignoran.
+	 * @param vecinos Un {@link MonticuloVecinos} por consulta donde se acumulan los resultados.
+	 */
+	public void calcular(double[][] consultas, MonticuloVecinos[] vecinos) {
+		int dimension = datos.getDimension();
+		double[] pesos = datos.getPesos();
+		double[] ponderadas = new double[CONSULTAS_POR_BLOQUE * dimension];
+		double[] normasConsulta = new double[CONSULTAS_POR_BLOQUE];
+		// Solo se recorren las filas cuya norma se precalculó al crear el núcleo.
+		int numFilas = normas.length;
+		for (int primera = 0; primera < consultas.length; primera += CONSULTAS_POR_BLOQUE) {
+			int ultima = Math.min(primera + CONSULTAS_POR_BLOQUE, consultas.length);
+			// Se pondera cada consulta una vez para que el bucle interno sea un producto escalar sin pesos.
+			for (int q = primera; q < ultima; q++) {
+				double[] consulta = consultas[q];
+				if (consulta == null) {
+					continue;
+				}
+				int base = (q - primera) * dimension;
+				double norma = 0;
+				for (int j = 0; j < dimension; j++) {
+					ponderadas[base + j] = pesos[j] * consulta[j];
+					norma += ponderadas[base + j] * consulta[j];
+				}
+				normasConsulta[q - primera] = norma;
+			}
+			for (int desde = 0; desde < numFilas; desde += filasPorBloque) {
+				int hasta = Math.min(desde + filasPorBloque, numFilas);
+				for (int q = primera; q < ultima; q++) {
+					if (consultas[q] != null) {
+						calcularBloque(consultas[q], ponderadas, (q - primera) * dimension, normasConsulta[q - primera], desde, hasta, vecinos[q]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @brief Calcula las distancias de una consulta a un bloque de filas, de cuatro en cuatro.
+	 *
+	 * @param consulta Los valores de la consulta, sin ponderar.
+	 * @param ponderada Array que contiene la consulta multiplicada por los pesos.
+	 * @param desdeConsulta Posición de la consulta en el array.
+	 * @param normaConsulta Norma ponderada al cuadrado de la consulta.
+	 * @param desde Primera fila del bloque (incluida).
+	 * @param hasta Última fila del bloque (excluida).
+	 * @param vecinos El {@link MonticuloVecinos} de la consulta.
+	 */
+	private void calcularBloque(double[] consulta, double[] ponderada, int desdeConsulta, double normaConsulta, int desde, int hasta, MonticuloVecinos vecinos) {
+		double[] filas = datos.getFilas();
+		int dimension = datos.getDimension();
+		int fila = desde;
+		for (; fila + 3 < hasta; fila += 4) {
+			int base0 = fila * dimension;
+			int base1 = base0 + dimension;
+			int base2 = base1 + dimension;
+			int base3 = base2 + dimension;
+			double producto0 = 0;
+			double producto1 = 0;
+			double producto2 = 0;
+			double producto3 = 0;
+			for (int j = 0; j < dimension; j++) {
+				double valor = ponderada[desdeConsulta + j];
+				producto0 += valor * filas[base0 + j];
+				producto1 += valor * filas[base1 + j];
+				producto2 += valor * filas[base2 + j];
+				producto3 += valor * filas[base3 + j];
+			}
+			ofrecer(consulta, normaConsulta, fila, producto0, vecinos);
+			ofrecer(consulta, normaConsulta, fila + 1, producto1, vecinos);
+			ofrecer(consulta, normaConsulta, fila + 2, producto2, vecinos);
+			ofrecer(consulta, normaConsulta, fila + 3, producto3, vecinos);
+		}
+		for (; fila < hasta; fila++) {
+			int base = fila * dimension;
+			double producto = 0;
+			for (int j = 0; j < dimension; j++) {
+				producto += ponderada[desdeConsulta + j] * filas[base + j];
+			}
+			ofrecer(consulta, normaConsulta, fila, producto, vecinos);
+		}
+	}
+
+	/**
+	 * @brief Ofrece una fila al montículo con su distancia exacta si la aproximada no permite descartarla.
+	 *
+	 * @param consulta Los valores de la consulta, sin ponderar.
+	 * @param normaConsulta Norma ponderada al cuadrado de la consulta.
+	 * @param fila La fila de los datos.
+	 * @param producto El producto escalar ponderado de la consulta y la fila.
+	 * @param vecinos El {@link MonticuloVecinos} de la consulta.
+	 */
+	private void ofrecer(double[] consulta, double normaConsulta, int fila, double producto, MonticuloVecinos vecinos) {
+		double peor = vecinos.peorDistancia();
+		// El error del coseno es relativo a 1; el de la euclídea, a la suma de las normas.
+		double error = errorRelativo * (coseno ? 4.0 : normaConsulta + normas[fila]);
+		if (distancia(normaConsulta, fila, producto) - error > peor) {
+			return;
+		}
+		int dimension = datos.getDimension();
+		vecinos.ofrecer(exacta.calcularAcotada(consulta, 0, datos.getFilas(), fila * dimension, dimension, datos.getPesos(), peor), fila);
+	}
+
+	/**
+	 * @brief Obtiene la distancia a partir del producto escalar y las normas.
+	 * <p>
+	 * Para la euclídea, los valores negativos por cancelación se truncan a 0.
+	 *
+	 * @param normaConsulta Norma ponderada al cuadrado de la consulta.
+	 * @param fila La fila de los datos.
+	 * @param producto El producto escalar ponderado de la consulta y la fila.
+	 * @return La distancia euclídea cuadrada o del coseno.
+	 */
+	private double distancia(double normaConsulta, int fila, double producto) {
+		if (coseno) {
+			return DistanciaCoseno.desdeCoseno(producto, normaConsulta, normas[fila]);
+		}
+		return Math.max(normaConsulta + normas[fila] - 2 * producto, 0.0);
+	}
+}
@@ -0,0 +1,480 @@
+package clasificacion;
+
+import datos.Dataset;
+import datos.Instancia;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @file ReduccionPrototipos.java
+ * @brief Algoritmos de reducción del conjunto de entrenamiento a un subconjunto de prototipos.
+ *
+ * Un KNN ajustado con menos filas responde cada consulta en proporción más rápido. Se ofrecen:
+ * <ul>
+ *   <li>{@link #editar(DatosEntrenamiento)}: edición de Wilson (ENN). Elimina las filas que sus
+ *   K vecinos (sin contarse a sí mismas) clasifican mal, lo que limpia el ruido y suaviza las fronteras.</li>
+ *   <li>{@link #condensar(DatosEntrenamiento)}: condensación de Hart (CNN). Conserva un subconjunto
+ *   con el que el vecino más cercano clasifica bien todas las filas, recorriéndolas en orden y
+ *   añadiendo las mal clasificadas hasta que una pasada no añade ninguna.</li>
+ *   <li>{@link #condensarRapido(DatosEntrenamiento)}: condensación rápida (FCNN). Parte del prototipo
+ *   más central de cada clase y, en cada iteración, añade para cada prototipo la fila mal clasificada
+ *   más cercana de su región de Voronoi. Obtiene un subconjunto igualmente consistente, no depende del
+ *   orden de las filas y necesita pocas iteraciones.</li>
+ * </ul>
+ * Las búsquedas de vecinos dominan el coste, así que se reparten entre los hilos del
+ * {@link ForkJoinPool} configurado. La condensación de Hart sigue siendo exacta: cada bloque de filas
+ * se compara en paralelo con los prototipos existentes y después, en orden, solo con los añadidos en
+ * el propio bloque. Los métodos que reciben un {@link Dataset} devuelven otro con las instancias elegidas,
+ * en su orden original.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class ReduccionPrototipos {
+	/**
+	 * @brief Número de filas que se reparten entre los hilos de una vez en la condensación de Hart.
+	 */
+	private static final int FILAS_POR_BLOQUE = 4096;
+	/**
+	 * @brief Número de filas por debajo del cual una {@link TareaRango} deja de dividirse.
+	 */
+	private static final int UMBRAL_TAREA = 64;
+
+	/**
+	 * @brief Número de vecinos con los que se decide la edición.
+	 */
+	private final int k;
+	/**
+	 * @brief La distancia configurada. Por defecto, la euclídea cuadrada ponderada.
+	 */
+	private Distancia distancia = DistanciaEuclidea.preferida();
+	/**
+	 * @brief Fábrica del índice usado en la edición, que recibe la distancia configurada ya preparada, o `null`
+	 * para la búsqueda exhaustiva.
+	 */
+	private FabricaIndice fabricaIndice;
+	/**
+	 * @brief Pool de hilos en el que se reparten las búsquedas. Por defecto, el pool común.
+	 */
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	/**
+	 * @brief Crea la reducción con 3 vecinos para la edición, el valor propuesto por Wilson.
+	 */
+	public ReduccionPrototipos() {
+		this(3);
+	}
+
+	/**
+	 * @brief Crea la reducción.
+	 *
+	 * @param k El número de vecinos con los que se decide la edición. Debe ser un entero positivo.
+	 * @throws IllegalArgumentException Si `k` es menor o igual a 0.
+	 */
+	public ReduccionPrototipos(int k) {
+		if (k <= 0) {
+			throw new IllegalArgumentException("El número de vecinos debe ser mayor que cero.");
+		}
+		this.k = k;
+	}
+
+	/**
+	 * @brief Aplica la edición de Wilson a un dataset.
+	 *
+	 * @param entrenamiento El {@link Dataset} a reducir.
+	 * @return Un {@link Dataset} con las instancias que sus K vecinos clasifican bien.
+	 * @throws IllegalArgumentException Si el dataset es nulo, vacío o sus pesos no son válidos.
+	 */
+	public Dataset editar(Dataset entrenamiento) {
+		DatosEntrenamiento datos = new DatosEntrenamiento(entrenamiento);
+		return seleccionar(entrenamiento, datos, editar(datos));
+	}
+
+	/**
+	 * @brief Aplica la condensación de Hart a un dataset.
+	 *
+	 * @param entrenamiento El {@link Dataset} a reducir.
+	 * @return Un {@link Dataset} con los prototipos condensados.
+	 * @throws IllegalArgumentException Si el dataset es nulo, vacío o sus pesos no son válidos.
+	 */
+	public Dataset condensar(Dataset entrenamiento) {
+		DatosEntrenamiento datos = new DatosEntrenamiento(entrenamiento);
+		return seleccionar(entrenamiento, datos, condensar(datos));
+	}
+
+	/**
+	 * @brief Aplica la condensación rápida (FCNN) a un dataset.
+	 *
+	 * @param entrenamiento El {@link Dataset} a reducir.
+	 * @return Un {@link Dataset} con los prototipos condensados.
+	 * @throws IllegalArgumentException Si el dataset es nulo, vacío o sus pesos no son válidos.
+	 */
+	public Dataset condensarRapido(Dataset entrenamiento) {
+		DatosEntrenamiento datos = new DatosEntrenamiento(entrenamiento);
+		return seleccionar(entrenamiento, datos, condensarRapido(datos));
+	}
+
+	/**
+	 * @brief Elimina las filas que sus K vecinos más cercanos clasifican mal (ENN).
+	 * <p>
+	 * Cada fila se busca con K + 1 vecinos en el índice configurado y se descarta a sí misma; el resto
+	 * vota como en {@link KNN} con votos uniformes. Las decisiones se toman todas sobre los datos
+	 * originales, así que el resultado no depende del orden ni del número de hilos.
+	 *
+	 * @param datos Los datos empaquetados.
+	 * @return Las filas conservadas, en orden creciente.
+	 */
+	public int[] editar(DatosEntrenamiento datos) {
+		Distancia preparada = preparar(datos);
+		IndiceVecinos indice = fabricaIndice != null ? fabricaIndice.construir(datos, preparada) : new BusquedaExhaustiva(datos, preparada);
+		int numFilas = datos.numeroFilas();
+		int dimension = datos.getDimension();
+		double[] filas = datos.getFilas();
+		boolean[] conservar = new boolean[numFilas];
+		pool.invoke(new TareaRango(0, numFilas, UMBRAL_TAREA, (desde, hasta) -> {
+			double[][] consultas = new double[hasta - desde][];
+			MonticuloVecinos[] vecinos = new MonticuloVecinos[hasta - desde];
+			for (int i = 0; i < consultas.length; i++) {
+				consultas[i] = Arrays.copyOfRange(filas, (desde + i) * dimension, (desde + i + 1) * dimension);
+				vecinos[i] = new MonticuloVecinos(k + 1);
+			}
+			indice.buscarLote(consultas, vecinos);
+			double[] puntuaciones = new double[datos.numeroClases()];
+			for (int i = 0; i < consultas.length; i++) {
+				MonticuloVecinos otros = sinFila(vecinos[i], desde + i);
+				int[] codigos = new int[otros.tamano()];
+				for (int j = 0; j < codigos.length; j++) {
+					codigos[j] = datos.getCodigoClase(otros.getFila(j));
+				}
+				Arrays.fill(puntuaciones, 0.0);
+				int prediccion = KNN.votar(otros, codigos, preparada, false, puntuaciones);
+				// Una fila sin más vecinos que ella misma no tiene con qué compararse y se conserva.
+				conservar[desde + i] = prediccion < 0 || prediccion == datos.getCodigoClase(desde + i);
+			}
+		}));
+		return indicesMarcados(conservar);
+	}
+
+	/**
+	 * @brief Quita una fila de los vecinos encontrados, o el vecino más lejano si la fila no está.
+	 *
+	 * @param vecinos Los K + 1 vecinos de la fila.
+	 * @param fila La fila consultada.
+	 * @return Un montículo con los K vecinos restantes.
+	 */
+	private MonticuloVecinos sinFila(MonticuloVecinos vecinos, int fila) {
+		vecinos.ordenar();
+		int quitar = vecinos.tamano() - 1;
+		for (int i = 0; i < vecinos.tamano(); i++) {
+			if (vecinos.getFila(i) == fila) {
+				quitar = i;
+				break;
+			}
+		}
+		MonticuloVecinos resultado = new MonticuloVecinos(k);
+		for (int i = 0; i < vecinos.tamano(); i++) {
+			if (i != quitar) {
+				resultado.ofrecer(vecinos.getDistancia(i), vecinos.getFila(i));
+			}
+		}
+		return resultado;
+	}
+
+	/**
+	 * @brief Obtiene un subconjunto de filas con el que el vecino más cercano clasifica bien todas (CNN de Hart).
+	 * <p>
+	 * Empieza con la primera fila de cada clase y recorre las filas en orden: cada una que el vecino
+	 * más cercano entre los prototipos clasifica mal se añade a ellos. Las pasadas se repiten hasta
+	 * que ninguna añade prototipos. El resultado es el mismo que el del algoritmo secuencial.
+	 *
+	 * @param datos Los datos empaquetados.
+	 * @return Las filas elegidas como prototipos, en orden creciente.
+	 */
+	public int[] condensar(DatosEntrenamiento datos) {
+		Distancia preparada = preparar(datos);
+		int numFilas = datos.numeroFilas();
+		boolean[] elegidas = new boolean[numFilas];
+		int[] prototipos = new int[Math.min(numFilas, 16)];
+		int numPrototipos = 0;
+		boolean[] claseVista = new boolean[datos.numeroClases()];
+		for (int fila = 0; fila < numFilas; fila++) {
+			if (!claseVista[datos.getCodigoClase(fila)]) {
+				claseVista[datos.getCodigoClase(fila)] = true;
+				elegidas[fila] = true;
+				prototipos = anadir(prototipos, numPrototipos++, fila);
+			}
+		}
+
+		double[] mejorDistancia = new double[FILAS_POR_BLOQUE];
+		int[] mejorPrototipo = new int[FILAS_POR_BLOQUE];
+		boolean anadido = true;
+		while (anadido) {
+			anadido = false;
+			for (int inicio = 0; inicio < numFilas; inicio += FILAS_POR_BLOQUE) {
+				int fin = Math.min(inicio + FILAS_POR_BLOQUE, numFilas);
+				int existentes = numPrototipos;
+				int[] congelados = prototipos;
+				int primera = inicio;
+				// Vecino más cercano de cada fila del bloque entre los prototipos previos al bloque, en paralelo.
+				pool.invoke(new TareaRango(inicio, fin, UMBRAL_TAREA, (desde, hasta) -> {
+					for (int fila = desde; fila < hasta; fila++) {
+						mejorPrototipo[fila - primera] = -1;
+						mejorDistancia[fila - primera] = Double.POSITIVE_INFINITY;
+						masCercano(datos, preparada, fila, congelados, 0, existentes, mejorDistancia, mejorPrototipo, fila - primera);
+					}
+				}));
+				// En orden, cada fila se compara además con los prototipos añadidos en este mismo bloque.
+				for (int fila = inicio; fila < fin; fila++) {
+					if (elegidas[fila]) {
+						continue;
+					}
+					masCercano(datos, preparada, fila, prototipos, existentes, numPrototipos, mejorDistancia, mejorPrototipo, fila - inicio);
+					if (datos.getCodigoClase(mejorPrototipo[fila - inicio]) != datos.getCodigoClase(fila)) {
+						elegidas[fila] = true;
+						prototipos = anadir(prototipos, numPrototipos++, fila);
+						anadido = true;
+					}
+				}
+			}
+		}
+		return indicesMarcados(elegidas);
+	}
+
+	/**
+	 * @brief Obtiene un subconjunto consistente de prototipos con la condensación rápida (FCNN).
+	 * <p>
+	 * Los prototipos iniciales son la fila de cada clase más cercana a su centroide numérico. En
+	 * cada iteración, cada fila actualiza en paralelo su prototipo más cercano comparándose solo con
+	 * los añadidos en la iteración anterior; después, para cada prototipo se elige la fila de otra
+	 * clase más cercana a él entre las que lo tienen como prototipo más cercano. Termina cuando
+	 * ningún prototipo tiene filas mal clasificadas.
+	 *
+	 * @param datos Los datos empaquetados.
+	 * @return Las filas elegidas como prototipos, en orden creciente.
+	 */
+	public int[] condensarRapido(DatosEntrenamiento datos) {
+		Distancia preparada = preparar(datos);
+		int numFilas = datos.numeroFilas();
+		boolean[] elegidas = new boolean[numFilas];
+		double[] mejorDistancia = new double[numFilas];
+		int[] mejorPrototipo = new int[numFilas];
+		Arrays.fill(mejorDistancia, Double.POSITIVE_INFINITY);
+		Arrays.fill(mejorPrototipo, -1);
+
+		int[] nuevos = centrales(datos, preparada);
+		while (nuevos.length > 0) {
+			for (int fila : nuevos) {
+				elegidas[fila] = true;
+			}
+			int[] delta = nuevos;
+			pool.invoke(new TareaRango(0, numFilas, UMBRAL_TAREA, (desde, hasta) -> {
+				for (int fila = desde; fila < hasta; fila++) {
+					masCercano(datos, preparada, fila, delta, 0, delta.length, mejorDistancia, mejorPrototipo, fila);
+				}
+			}));
+			// Representante de cada prototipo: la fila mal clasificada de su región más cercana a él.
+			int[] representante = new int[numFilas];
+			Arrays.fill(representante, -1);
+			for (int fila = 0; fila < numFilas; fila++) {
+				int prototipo = mejorPrototipo[fila];
+				if (elegidas[fila] || datos.getCodigoClase(prototipo) == datos.getCodigoClase(fila)) {
+					continue;
+				}
+				int actual = representante[prototipo];
+				if (actual < 0 || mejorDistancia[fila] < mejorDistancia[actual]) {
+					representante[prototipo] = fila;
+				}
+			}
+			int[] siguientes = new int[16];
+			int numSiguientes = 0;
+			for (int prototipo = 0; prototipo < numFilas; prototipo++) {
+				if (representante[prototipo] >= 0) {
+					siguientes = anadir(siguientes, numSiguientes++, representante[prototipo]);
+				}
+			}
+			nuevos = Arrays.copyOf(siguientes, numSiguientes);
+		}
+		return indicesMarcados(elegidas);
+	}
+
+	/**
+	 * @brief Obtiene, para cada clase, la fila más cercana a su centroide numérico.
+	 * <p>
+	 * Si los datos no tienen dimensiones numéricas, se usa la primera fila de cada clase.
+	 *
+	 * @param datos Los datos empaquetados.
+	 * @param preparada La distancia preparada.
+	 * @return Una fila por clase presente.
+	 */
+	private static int[] centrales(DatosEntrenamiento datos, Distancia preparada) {
+		int numFilas = datos.numeroFilas();
+		int dimension = datos.getDimension();
+		int numericas = datos.numeroNumericas();
+		int numClases = datos.numeroClases();
+		double[] filas = datos.getFilas();
+		double[] centroides = new double[numClases * dimension];
+		int[] conteos = new int[numClases];
+		for (int fila = 0; fila < numFilas; fila++) {
+			int clase = datos.getCodigoClase(fila);
+			conteos[clase]++;
+			for (int j = 0; j < numericas; j++) {
+				centroides[clase * dimension + j] += filas[fila * dimension + j];
+			}
+		}
+		for (int clase = 0; clase < numClases; clase++) {
+			for (int j = 0; j < numericas; j++) {
+				centroides[clase * dimension + j] /= Math.max(conteos[clase], 1);
+			}
+		}
+		int[] elegidas = new int[numClases];
+		double[] mejores = new double[numClases];
+		Arrays.fill(elegidas, -1);
+		for (int fila = 0; fila < numFilas; fila++) {
+			int clase = datos.getCodigoClase(fila);
+			double d = 0;
+			if (numericas == dimension) {
+				d = preparada.calcular(filas, fila * dimension, centroides, clase * dimension, dimension, datos.getPesos());
+			}
+			if (elegidas[clase] < 0 || d < mejores[clase]) {
+				elegidas[clase] = fila;
+				mejores[clase] = d;
+			}
+		}
+		int presentes = 0;
+		for (int fila : elegidas) {
+			if (fila >= 0) {
+				elegidas[presentes++] = fila;
+			}
+		}
+		return Arrays.copyOf(elegidas, presentes);
+	}
+
+	/**
+	 * @brief Actualiza el prototipo más cercano de una fila comparándola con un rango de prototipos.
+	 *
+	 * @param datos Los datos empaquetados.
+	 * @param preparada La distancia preparada.
+	 * @param fila La fila.
+	 * @param prototipos Las filas de los prototipos.
+	 * @param desde Primer prototipo a comparar (incluido).
+	 * @param hasta Último prototipo a comparar (excluido).
+	 * @param mejorDistancia La distancia al prototipo más cercano de cada posición.
+	 * @param mejorPrototipo El prototipo más cercano de cada posición.
+	 * @param posicion La posición de la fila en los dos arrays anteriores.
+	 */
+	private static void masCercano(DatosEntrenamiento datos, Distancia preparada, int fila, int[] prototipos, int desde, int hasta,
+			double[] mejorDistancia, int[] mejorPrototipo, int posicion) {
+		double[] filas = datos.getFilas();
+		double[] pesos = datos.getPesos();
+		int dimension = datos.getDimension();
+		for (int i = desde; i < hasta; i++) {
+			int prototipo = prototipos[i];
+			double d = preparada.calcularAcotada(filas, fila * dimension, filas, prototipo * dimension, dimension, pesos, mejorDistancia[posicion]);
+			if (d < mejorDistancia[posicion]) {
+				mejorDistancia[posicion] = d;
+				mejorPrototipo[posicion] = prototipo;
+			}
+		}
+	}
+
+	/**
+	 * @brief Añade un valor a un array que crece duplicando su tamaño.
+	 *
+	 * @param array El array.
+	 * @param tamano El número de posiciones ocupadas.
+	 * @param valor El valor a añadir.
+	 * @return El array con el valor, que puede ser otro si no quedaba espacio.
+	 */
+	private static int[] anadir(int[] array, int tamano, int valor) {
+		int[] resultado = tamano == array.length ? Arrays.copyOf(array, Math.max(2 * tamano, 16)) : array;
+		resultado[tamano] = valor;
+		return resultado;
+	}
+
+	/**
+	 * @brief Obtiene los índices marcados, en orden creciente.
+	 *
+	 * @param marcas Las marcas.
+	 * @return Los índices con marca `true`.
+	 */
+	private static int[] indicesMarcados(boolean[] marcas) {
+		int total = 0;
+		for (boolean marca : marcas) {
+			if (marca) {
+				total++;
+			}
+		}
+		int[] resultado = new int[total];
+		for (int i = 0, j = 0; i < marcas.length; i++) {
+			if (marcas[i]) {
+				resultado[j++] = i;
+			}
+		}
+		return resultado;
+	}
+
+	/**
+	 * @brief Prepara la distancia para los datos, con la heterogénea si hay atributos cualitativos que no admite.
+	 *
+	 * @param datos Los datos empaquetados.
+	 * @return La distancia preparada.
+	 */
+	private Distancia preparar(DatosEntrenamiento datos) {
+		Distancia elegida = (datos.numeroCategoricas() > 0 && !distancia.admiteCategoricos()) ? new DistanciaHeterogenea() : distancia;
+		return elegida.preparar(datos);
+	}
+
+	/**
+	 * @brief Crea un dataset con las instancias de unas filas empaquetadas.
+	 *
+	 * @param entrenamiento El dataset original.
+	 * @param datos Los datos empaquetados a partir de él.
+	 * @param filas Las filas elegidas.
+	 * @return El dataset con las instancias elegidas, con los mismos atributos y pesos.
+	 */
+	private static Dataset seleccionar(Dataset entrenamiento, DatosEntrenamiento datos, int[] filas) {
+		Dataset resultado = new Dataset(entrenamiento.getAtributosEmpty());
+		for (int fila : filas) {
+			Instancia instancia = entrenamiento.getInstance(datos.getFilaOriginal(fila));
+			resultado.add(instancia);
+		}
+		return resultado;
+	}
+
+	/**
+	 * @brief Establece la distancia con la que se comparan las filas.
+	 *
+	 * @param distancia La {@link Distancia} a utilizar.
+	 * @throws IllegalArgumentException Si la distancia es nula.
+	 */
+	public void setDistancia(Distancia distancia) {
+		if (distancia == null) {
+			throw new IllegalArgumentException("La distancia no puede ser nula.");
+		}
+		this.distancia = distancia;
+	}
+
+	/**
+	 * @brief Establece el índice con el que se buscan los vecinos en la edición.
+	 *
+	 * @param fabrica La {@link FabricaIndice} a utilizar, o `null` para la búsqueda exhaustiva con la distancia configurada.
+	 */
+	public void setIndice(FabricaIndice fabrica) {
+		this.fabricaIndice = fabrica;
+	}
+
+	/**
+	 * @brief Establece el pool de hilos en el que se reparten las búsquedas.
+	 *
+	 * @param pool El {@link ForkJoinPool} a utilizar.
+	 * @throws IllegalArgumentException Si el pool es nulo.
+	 */
+	public void setPool(ForkJoinPool pool) {
+		if (pool == null) {
+			throw new IllegalArgumentException("El pool de hilos no puede ser nulo.");
+		}
+		this.pool = pool;
+	}
+}
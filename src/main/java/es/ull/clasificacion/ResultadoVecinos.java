@@ -0,0 +1,72 @@
+package clasificacion;
+
+/**
+ * @file ResultadoVecinos.java
+ * @brief Vecinos de una consulta: índices de fila y distancias en arrays primitivos, del más cercano al más lejano.
+ *
+ * Lo devuelven {@link KNN#buscarVecinos(datos.Instancia, int)} y
+ * {@link KNN#buscarVecinosEnRadio(datos.Instancia, double)}. Las filas son índices de instancia
+ * del {@link datos.Dataset} con el que se ajustó el clasificador (o los identificadores que
+ * devuelve {@link KNN#insertar(datos.Instancia)}) y las distancias son valores de
+ * la métrica ({@link Distancia#haciaMetrica(double)}), no los valores internos de los índices.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class ResultadoVecinos {
+	/**
+	 * @brief Índice de instancia de cada vecino.
+	 */
+	private final int[] filas;
+	/**
+	 * @brief Distancia de cada vecino a la consulta.
+	 */
+	private final double[] distancias;
+
+	/**
+	 * @brief Crea el resultado a partir de arrays ya ordenados por distancia ascendente.
+	 *
+	 * @param filas Índice de instancia de cada vecino.
+	 * @param distancias Distancia de cada vecino, con el mismo tamaño que `filas`.
+	 * @throws IllegalArgumentException Si algún array es nulo o sus tamaños no coinciden.
+	 */
+	public ResultadoVecinos(int[] filas, double[] distancias) {
+		if (filas == null || distancias == null || filas.length != distancias.length) {
+			throw new IllegalArgumentException("Las filas y las distancias deben ser no nulas y tener el mismo tamaño.");
+		}
+		this.filas = filas;
+		this.distancias = distancias;
+	}
+
+	/**
+	 * @brief Obtiene el número de vecinos.
+	 *
+	 * @return El número de vecinos.
+	 */
+	public int tamano() {
+		return filas.length;
+	}
+
+	/**
+	 * @brief Obtiene los índices de instancia de los vecinos, del más cercano al más lejano.
+	 * <p>
+	 * Devuelve la referencia interna, no una copia.
+	 *
+	 * @return El array de índices.
+	 */
+	public int[] getFilas() {
+		return filas;
+	}
+
+	/**
+	 * @brief Obtiene las distancias de los vecinos, en orden ascendente.
+	 * <p>
+	 * Devuelve la referencia interna, no una copia.
+	 *
+	 * @return El array de distancias.
+	 */
+	public double[] getDistancias() {
+		return distancias;
+	}
+}
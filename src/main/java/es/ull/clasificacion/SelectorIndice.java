@@ -0,0 +1,366 @@
+package clasificacion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * @file SelectorIndice.java
+ * @brief Fábrica que elige automáticamente el índice de búsqueda según los datos, la distancia y la exhaustividad pedida.
+ *
+ * Es el índice por defecto de {@link KNN}. Con pocas filas, o con las filas fuera del montículo, construye
+ * directamente una {@link BusquedaExhaustiva}. En otro caso, un modelo de coste descarta los índices que no
+ * encajan con los datos: el {@link ArbolKD} necesita atributos numéricos, la distancia euclídea y pocas
+ * dimensiones; el {@link ArbolBolas}, una métrica y una dimensión moderada; y los índices aproximados
+ * ({@link GrafoHNSW} e {@link IndiceIVF}) solo se consideran si se admite perder vecinos y la dimensión es
+ * demasiado alta para los árboles.
+ *
+ * Los candidatos se calibran sobre una muestra de las filas: se construyen, se resuelven unas pocas filas
+ * de la muestra como consultas y se mide su tiempo y, en los aproximados, la fracción de los vecinos exactos
+ * que encuentran, duplicando su parámetro de búsqueda hasta alcanzar la exhaustividad pedida. Se elige el más
+ * rápido que la alcanza, y la búsqueda exhaustiva si ninguno la mejora. Si la muestra no cubre todas las
+ * filas, el elegido se construye sobre los datos completos y, si es aproximado, su parámetro se vuelve a
+ * comprobar con ellos, porque la exhaustividad baja al crecer los datos. Como {@link MonticuloVecinos}
+ * desempata por fila, todos los índices exactos devuelven los mismos vecinos, así que con objetivo 1
+ * la elección solo cambia el tiempo de búsqueda y no las predicciones.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+public class SelectorIndice implements FabricaIndice {
+	/**
+	 * @brief Número de filas por debajo del cual se usa la búsqueda exhaustiva sin calibrar.
+	 */
+	public static final int MINIMO_FILAS = 4096;
+	/**
+	 * @brief Número máximo de filas de la muestra sobre la que se calibran los candidatos.
+	 */
+	public static final int MUESTRA_CALIBRACION = 8192;
+	/**
+	 * @brief Número de filas de la muestra que se resuelven como consultas al calibrar.
+	 */
+	private static final int CONSULTAS_CALIBRACION = 32;
+	/**
+	 * @brief Número de veces que se mide cada candidato; se toma el menor tiempo.
+	 */
+	private static final int REPETICIONES = 3;
+	/**
+	 * @brief Dimensión máxima con la que se considera el {@link ArbolKD}.
+	 */
+	private static final int DIMENSION_MAXIMA_ARBOL_KD = 16;
+	/**
+	 * @brief Dimensión máxima con la que se considera el {@link ArbolBolas}.
+	 */
+	private static final int DIMENSION_MAXIMA_ARBOL_BOLAS = 32;
+	/**
+	 * @brief Número máximo de veces que se duplica el parámetro de búsqueda de un índice aproximado.
+	 */
+	private static final int DUPLICACIONES_MAXIMAS = 10;
+
+	/**
+	 * @brief Índice candidato: cómo construirlo y, si es aproximado, cómo ajustar su parámetro de búsqueda.
+	 */
+	private static final class Candidato {
+		/**
+		 * @brief Fábrica del índice.
+		 */
+		private final FabricaIndice fabrica;
+		/**
+		 * @brief Asigna el parámetro de búsqueda al índice construido, o `null` si el índice es exacto.
+		 */
+		private final ObjIntConsumer<IndiceVecinos> ajuste;
+		/**
+		 * @brief Valor inicial del parámetro de búsqueda, el más rápido que se prueba.
+		 */
+		private final int parametroInicial;
+
+		/**
+		 * @brief Crea un candidato.
+		 *
+		 * @param fabrica La fábrica del índice.
+		 * @param ajuste La asignación del parámetro de búsqueda, o `null` si el índice es exacto.
+		 * @param parametroInicial El valor inicial del parámetro de búsqueda.
+		 */
+		private Candidato(FabricaIndice fabrica, ObjIntConsumer<IndiceVecinos> ajuste, int parametroInicial) {
+			this.fabrica = fabrica;
+			this.ajuste = ajuste;
+			this.parametroInicial = parametroInicial;
+		}
+	}
+
+	/**
+	 * @brief Número de vecinos de las consultas de calibración.
+	 */
+	private final int k;
+	/**
+	 * @brief Fracción mínima de los vecinos exactos que debe encontrar el índice elegido.
+	 */
+	private final double objetivoExhaustividad;
+	/**
+	 * @brief Pool de hilos de las consultas y de la construcción de {@link IndiceIVF}.
+	 */
+	private final ForkJoinPool pool;
+	/**
+	 * @brief Semilla de las muestras y de los índices aleatorizados, lo que hace la elección reproducible salvo por los tiempos.
+	 */
+	private final long semilla;
+
+	/**
+	 * @brief Crea el selector.
+	 *
+	 * @param k El número de vecinos de las consultas. Debe ser un entero positivo.
+	 * @param objetivoExhaustividad La fracción mínima de vecinos exactos, en (0, 1]; con 1 solo se eligen índices exactos.
+	 * @param pool El {@link ForkJoinPool} de las consultas y de la construcción de los índices que lo usan.
+	 * @throws IllegalArgumentException Si el pool es nulo, o si k o el objetivo no son válidos.
+	 */
+	public SelectorIndice(int k, double objetivoExhaustividad, ForkJoinPool pool) {
+		if (pool == null) {
+			throw new IllegalArgumentException("El pool de hilos no puede ser nulo.");
+		}
+		if (k <= 0) {
+			throw new IllegalArgumentException("El número de vecinos debe ser mayor que cero.");
+		}
+		if (!(objetivoExhaustividad > 0 && objetivoExhaustividad <= 1)) {
+			throw new IllegalArgumentException("El objetivo de exhaustividad debe estar en (0, 1].");
+		}
+		this.k = k;
+		this.objetivoExhaustividad = objetivoExhaustividad;
+		this.pool = pool;
+		this.semilla = 1234L;
+	}
+
+	/**
+	 * @brief Elige el índice más rápido que alcanza la exhaustividad pedida y lo construye sobre los datos.
+	 *
+	 * @param datos Los {@link DatosEntrenamiento} a indexar.
+	 * @param distancia La distancia preparada para los datos, con la que se construyen y comparan los índices.
+	 * @return El índice elegido, construido sobre todas las filas.
+	 * @throws IllegalArgumentException Si la distancia es nula.
+	 */
+	@Override
+	public IndiceVecinos construir(DatosEntrenamiento datos, Distancia distancia) {
+		if (distancia == null) {
+			throw new IllegalArgumentException("La distancia no puede ser nula.");
+		}
+		int numFilas = datos.numeroFilas();
+		if (datos.estaFueraMonticulo() || numFilas < MINIMO_FILAS) {
+			return new BusquedaExhaustiva(datos, distancia);
+		}
+		int[] filas = numFilas > MUESTRA_CALIBRACION ? elegirFilas(numFilas, MUESTRA_CALIBRACION, semilla) : null;
+		DatosEntrenamiento muestra = filas == null ? datos : datos.seleccionar(filas);
+		int numMuestra = muestra.numeroFilas();
+		int vecinos = Math.min(k, numMuestra - CONSULTAS_CALIBRACION);
+		// Las filas que se usan como consultas se excluyen de los resultados, como si no estuvieran indexadas:
+		// una consulta que se encuentra a sí misma da una exhaustividad demasiado optimista.
+		int[] filasConsulta = elegirFilas(numMuestra, CONSULTAS_CALIBRACION, semilla + 1);
+		double[][] consultas = new double[CONSULTAS_CALIBRACION][datos.getDimension()];
+		boolean[] excluidas = new boolean[numMuestra];
+		boolean[] excluidasDatos = new boolean[numFilas];
+		for (int c = 0; c < CONSULTAS_CALIBRACION; c++) {
+			muestra.leerFilas(filasConsulta[c], 1, consultas[c], 0);
+			excluidas[filasConsulta[c]] = true;
+			excluidasDatos[filas == null ? filasConsulta[c] : filas[filasConsulta[c]]] = true;
+		}
+		BusquedaExhaustiva exhaustiva = new BusquedaExhaustiva(muestra, distancia);
+		double[] referencias = referencias(exhaustiva, consultas, excluidas, vecinos);
+
+		Candidato elegido = null;
+		IndiceVecinos indiceElegido = exhaustiva;
+		int parametroElegido = 0;
+		long mejorTiempo = medir(exhaustiva, consultas, excluidas, vecinos);
+		for (Candidato candidato : candidatos(datos, distancia)) {
+			IndiceVecinos indice = candidato.fabrica.construir(muestra, distancia);
+			int parametro = calibrar(candidato, candidato.parametroInicial, indice, consultas, excluidas, referencias, vecinos);
+			if (parametro < 0) {
+				continue;
+			}
+			long tiempo = medir(indice, consultas, excluidas, vecinos);
+			if (tiempo < mejorTiempo) {
+				mejorTiempo = tiempo;
+				elegido = candidato;
+				indiceElegido = indice;
+				parametroElegido = parametro;
+			}
+		}
+
+		if (muestra == datos) {
+			// El índice calibrado ya cubre todas las filas y tiene su parámetro asignado.
+			return indiceElegido;
+		}
+		if (elegido == null) {
+			return new BusquedaExhaustiva(datos, distancia);
+		}
+		IndiceVecinos indice = elegido.fabrica.construir(datos, distancia);
+		if (elegido.ajuste != null) {
+			double[] completas = referencias(new BusquedaExhaustiva(datos, distancia), consultas, excluidasDatos, vecinos);
+			if (calibrar(elegido, parametroElegido, indice, consultas, excluidasDatos, completas, vecinos) < 0) {
+				return new BusquedaExhaustiva(datos, distancia);
+			}
+		}
+		return indice;
+	}
+
+	/**
+	 * @brief Obtiene los índices que el modelo de coste considera para unos datos.
+	 *
+	 * @param datos Los datos a indexar.
+	 * @param distancia La distancia preparada para los datos.
+	 * @return Los candidatos, sin incluir la búsqueda exhaustiva, que siempre se mide.
+	 */
+	private List<Candidato> candidatos(DatosEntrenamiento datos, Distancia distancia) {
+		List<Candidato> candidatos = new ArrayList<>();
+		int dimension = datos.getDimension();
+		boolean numericos = datos.numeroCategoricas() == 0;
+		boolean admiteDatos = numericos || distancia.admiteCategoricos();
+		boolean euclidea = numericos && distancia instanceof DistanciaEuclidea;
+		if (euclidea && dimension <= DIMENSION_MAXIMA_ARBOL_KD) {
+			candidatos.add(new Candidato(ArbolKD::new, null, 0));
+		}
+		if (admiteDatos && distancia.esMetrica() && dimension <= DIMENSION_MAXIMA_ARBOL_BOLAS) {
+			candidatos.add(new Candidato(ArbolBolas::new, null, 0));
+		}
+		if (objetivoExhaustividad < 1 && dimension > DIMENSION_MAXIMA_ARBOL_KD) {
+			// Con pocas dimensiones los árboles ya podan casi todas las filas sin perder vecinos.
+			if (admiteDatos) {
+				candidatos.add(new Candidato(
+						(d, medida) -> new GrafoHNSW(d, medida, GrafoHNSW.M_POR_DEFECTO, GrafoHNSW.EF_CONSTRUCCION_POR_DEFECTO, semilla),
+						(indice, ef) -> ((GrafoHNSW) indice).setEfBusqueda(ef), Math.max(k, 16)));
+			}
+			if (euclidea) {
+				candidatos.add(new Candidato(
+						(d, medida) -> new IndiceIVF(d, medida, (int) Math.max(1, Math.round(4 * Math.sqrt(d.numeroFilas()))), semilla, pool),
+						(indice, sondas) -> ((IndiceIVF) indice).setSondas(sondas), 1));
+			}
+		}
+		return candidatos;
+	}
+
+	/**
+	 * @brief Busca el menor parámetro de búsqueda, duplicándolo desde uno inicial, con el que un índice alcanza la exhaustividad pedida.
+	 *
+	 * @param candidato El candidato al que pertenece el índice.
+	 * @param inicial El primer valor del parámetro que se prueba.
+	 * @param indice El índice construido, al que se deja asignado el parámetro encontrado.
+	 * @param consultas Las consultas.
+	 * @param excluidas Las filas que no pueden devolverse como vecinos.
+	 * @param referencias La distancia al K-ésimo vecino exacto de cada consulta.
+	 * @param vecinos El número de vecinos.
+	 * @return El parámetro encontrado, 0 si el índice es exacto, o -1 si no alcanza la exhaustividad.
+	 */
+	private int calibrar(Candidato candidato, int inicial, IndiceVecinos indice, double[][] consultas, boolean[] excluidas,
+			double[] referencias, int vecinos) {
+		if (candidato.ajuste == null) {
+			return 0;
+		}
+		int parametro = inicial;
+		for (int i = 0; i <= DUPLICACIONES_MAXIMAS; i++) {
+			candidato.ajuste.accept(indice, parametro);
+			if (exhaustividad(indice, consultas, excluidas, referencias, vecinos) >= objetivoExhaustividad) {
+				return parametro;
+			}
+			parametro *= 2;
+		}
+		return -1;
+	}
+
+	/**
+	 * @brief Calcula la distancia al K-ésimo vecino exacto de cada consulta.
+	 *
+	 * @param exhaustiva La búsqueda exhaustiva sobre los datos de referencia.
+	 * @param consultas Las consultas.
+	 * @param excluidas Las filas que no pueden devolverse como vecinos.
+	 * @param vecinos El número de vecinos.
+	 * @return La distancia al último vecino de cada consulta.
+	 */
+	private double[] referencias(BusquedaExhaustiva exhaustiva, double[][] consultas, boolean[] excluidas, int vecinos) {
+		double[] referencias = new double[consultas.length];
+		for (int c = 0; c < consultas.length; c++) {
+			MonticuloVecinos monticulo = new MonticuloVecinos(vecinos);
+			monticulo.setExcluidas(excluidas);
+			exhaustiva.buscar(consultas[c], monticulo);
+			// Sin ordenar, la raíz del montículo es el peor de los K vecinos.
+			referencias[c] = monticulo.peorDistancia();
+		}
+		return referencias;
+	}
+
+	/**
+	 * @brief Calcula la fracción de los vecinos exactos que encuentra un índice.
+	 * <p>
+	 * Cuenta los vecinos devueltos que no están más lejos que el K-ésimo exacto, de modo que los empates
+	 * con él cuentan como aciertos.
+	 *
+	 * @param indice El índice a evaluar.
+	 * @param consultas Las consultas.
+	 * @param excluidas Las filas que no pueden devolverse como vecinos.
+	 * @param referencias La distancia al K-ésimo vecino exacto de cada consulta.
+	 * @param vecinos El número de vecinos.
+	 * @return La exhaustividad, entre 0 y 1.
+	 */
+	private double exhaustividad(IndiceVecinos indice, double[][] consultas, boolean[] excluidas, double[] referencias, int vecinos) {
+		int aciertos = 0;
+		for (int c = 0; c < consultas.length; c++) {
+			MonticuloVecinos monticulo = new MonticuloVecinos(vecinos);
+			monticulo.setExcluidas(excluidas);
+			indice.buscar(consultas[c], monticulo, pool);
+			for (int i = 0; i < monticulo.tamano(); i++) {
+				if (monticulo.getDistancia(i) <= referencias[c]) {
+					aciertos++;
+				}
+			}
+		}
+		return aciertos / (double) (consultas.length * vecinos);
+	}
+
+	/**
+	 * @brief Mide el tiempo que tarda un índice en resolver las consultas, como lo hace {@link KNN}.
+	 *
+	 * @param indice El índice a medir.
+	 * @param consultas Las consultas.
+	 * @param excluidas Las filas que no pueden devolverse como vecinos.
+	 * @param vecinos El número de vecinos.
+	 * @return El menor tiempo, en nanosegundos, de {@link #REPETICIONES} pasadas.
+	 */
+	private long medir(IndiceVecinos indice, double[][] consultas, boolean[] excluidas, int vecinos) {
+		long mejor = Long.MAX_VALUE;
+		for (int repeticion = 0; repeticion < REPETICIONES; repeticion++) {
+			long inicio = System.nanoTime();
+			for (double[] consulta : consultas) {
+				MonticuloVecinos monticulo = new MonticuloVecinos(vecinos);
+				monticulo.setExcluidas(excluidas);
+				indice.buscar(consulta, monticulo, pool);
+			}
+			mejor = Math.min(mejor, System.nanoTime() - inicio);
+		}
+		return mejor;
+	}
+
+	/**
+	 * @brief Elige al azar, en orden creciente, unas filas de los datos.
+	 * <p>
+	 * Recorre las filas una vez eligiendo cada una con la probabilidad justa para completar la muestra
+	 * (muestreo por selección), como {@link KMedias#muestra(DatosEntrenamiento, int, long)}.
+	 *
+	 * @param numFilas El número de filas de los datos.
+	 * @param tamano El número de filas a elegir, como mucho `numFilas`.
+	 * @param semilla La semilla del muestreo.
+	 * @return Las filas elegidas.
+	 */
+	private static int[] elegirFilas(int numFilas, int tamano, long semilla) {
+		int[] filas = new int[tamano];
+		// Suprimir la advertencia de SonarCloud (java:S2245): el generador solo elige la muestra
+		// y se siembra para que el resultado sea reproducible.
+		@SuppressWarnings("java:S2245")
+		Random random = new Random(semilla);
+		int elegidas = 0;
+		for (int fila = 0; fila < numFilas && elegidas < filas.length; fila++) {
+			if (random.nextInt(numFilas - fila) < filas.length - elegidas) {
+				filas[elegidas++] = fila;
+			}
+		}
+		return filas;
+	}
+}
@@ -0,0 +1,76 @@
+package clasificacion;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @file TareaRango.java
+ * @brief Tarea que reparte un rango de posiciones entre los hilos de un pool dividiéndolo recursivamente.
+ *
+ * El rango se parte por la mitad hasta que no supera un umbral, y cada subrango se entrega a un
+ * {@link Trabajo}. La usan {@link KMedias}, {@link ReduccionPrototipos}, los lotes de {@link KNN}
+ * y los tramos de {@link BusquedaExhaustiva}, cada uno con su umbral.
+ *
+ * @author [Tu Nombre/Nombre del Equipo]
+ * @version 1.0
+ * @since 2023-XX-XX
+ */
+class TareaRango extends RecursiveAction {
+	/**
+	 * @brief Trabajo que se aplica a un rango de posiciones.
+	 */
+	@FunctionalInterface
+	interface Trabajo {
+		/**
+		 * @brief Procesa las posiciones de un rango.
+		 *
+		 * @param desde Primera posición (incluida).
+		 * @param hasta Última posición (excluida).
+		 */
+		void procesar(int desde, int hasta);
+	}
+
+	/**
+	 * @brief Primera posición del rango (incluida).
+	 */
+	private final int desde;
+	/**
+	 * @brief Última posición del rango (excluida).
+	 */
+	private final int hasta;
+	/**
+	 * @brief Número de posiciones por debajo del cual el rango deja de dividirse.
+	 */
+	private final int umbral;
+	/**
+	 * @brief El trabajo a aplicar a cada subrango.
+	 */
+	private final transient Trabajo trabajo;
+
+	/**
+	 * @brief Constructor de la tarea.
+	 *
+	 * @param desde Primera posición del rango (incluida).
+	 * @param hasta Última posición del rango (excluida).
+	 * @param umbral Número de posiciones por debajo del cual el rango deja de dividirse. Debe ser positivo.
+	 * @param trabajo El trabajo a aplicar.
+	 */
+	TareaRango(int desde, int hasta, int umbral, Trabajo trabajo) {
+		this.desde = desde;
+		this.hasta = hasta;
+		this.umbral = umbral;
+		this.trabajo = trabajo;
+	}
+
+	/**
+	 * @brief Procesa el rango directamente si es pequeño o lo divide en dos subtareas.
+	 */
+	@Override
+	protected void compute() {
+		if (hasta - desde <= umbral) {
+			trabajo.procesar(desde, hasta);
+			return;
+		}
+		int medio = (desde + hasta) >>> 1;
+		invokeAll(new TareaRango(desde, medio, umbral, trabajo), new TareaRango(medio, hasta, umbral, trabajo));
+	}
+}
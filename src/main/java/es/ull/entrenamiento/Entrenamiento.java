@@ -5,6 +5,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
 
+import clasificacion.BusquedaExhaustiva;
 import clasificacion.KNN;
 import datos.*;
 import org.slf4j.Logger;
@@ -124,21 +125,12 @@ public class Entrenamiento {
 	 * @param valorK El valor de K a utilizar en el clasificador KNN.
 	 */
 	public void generarPrediccion(int valorK) {
-		Dataset pruebas = new Dataset(test);
-		List<String> predicciones = new ArrayList<>();
+		List<String> predicciones = clasificarPruebas(valorK);
 		List<String> clasesReales = new ArrayList<>();
 		Double aciertos = 0.0;
 
-		for (int i = 0; i < pruebas.numeroCasos(); ++i) {
-			ArrayList<Object> instance = new ArrayList<>();
-			// Construir una nueva instancia sin la clase para la clasificación
-			for (int j = 0; j < pruebas.numeroAtributos(); ++j) {
-				instance.add(pruebas.getInstance(i).getValores().get(j));
-			}
-			Instancia nueva = new Instancia(instance);
-			// Clasificar la instancia con KNN
-			String clasePredicha = (new KNN(valorK).clasificar(train, nueva));
-			predicciones.add(clasePredicha);
+		for (int i = 0; i < predicciones.size(); ++i) {
+			String clasePredicha = predicciones.get(i);
 			clasesReales.add(test.getInstance(i).getClase());
 
 			if (clasePredicha != null && clasePredicha.equals(test.getInstance(i).getClase())) {
@@ -157,6 +149,43 @@ public class Entrenamiento {
 		}
 	}
 
+	/**
+	 * @brief Clasifica todas las instancias del conjunto de prueba con un único KNN ajustado al de entrenamiento.
+	 * <p>
+	 * Las instancias se clasifican en paralelo mediante {@link KNN#clasificarLote(Dataset, List)}, con la
+	 * búsqueda exhaustiva: un único lote no compensa calibrar el índice, y así los vecinos son los mismos
+	 * que al clasificar instancia a instancia. Como entonces, si los pesos del conjunto de entrenamiento no
+	 * son válidos se registra el error y ninguna instancia recibe clase. Con atributos cualitativos se
+	 * clasifica con la distancia heterogénea que elige {@link KNN#ajustar(Dataset)}.
+	 *
+	 * @param valorK El valor de K a utilizar en el clasificador KNN.
+	 * @return Las clases predichas, en el mismo orden que las instancias del conjunto de prueba
+	 * (`null` para las que no pudieron clasificarse).
+	 */
+	List<String> clasificarPruebas(int valorK) {
+		Dataset pruebas = new Dataset(test);
+		List<Instancia> instancias = new ArrayList<>(pruebas.numeroCasos());
+		for (int i = 0; i < pruebas.numeroCasos(); ++i) {
+			ArrayList<Object> instance = new ArrayList<>();
+			// Construir una nueva instancia sin la clase para la clasificación
+			for (int j = 0; j < pruebas.numeroAtributos(); ++j) {
+				instance.add(pruebas.getInstance(i).getValores().get(j));
+			}
+			instancias.add(new Instancia(instance));
+		}
+		KNN knn = new KNN(valorK);
+		knn.setIndice(BusquedaExhaustiva::new);
+		try {
+			return knn.clasificarLote(train, instancias);
+		} catch (IllegalArgumentException e) {
+			Logger logger = LoggerFactory.getLogger(Entrenamiento.class);
+			if (logger.isErrorEnabled()) {
+				logger.error("Error: No se pudo ajustar el clasificador al conjunto de entrenamiento: {}", e.getMessage());
+			}
+			return new ArrayList<>(Collections.nCopies(instancias.size(), null));
+		}
+	}
+
 	/**
 	 * @brief Calcula los resultados de Verdaderos Positivos (TP), Falsos Positivos (FP) y Falsos Negativos (FN)
 	 * para cada clase.
@@ -314,15 +343,10 @@ public class Entrenamiento {
 	 * @throws IllegalStateException Si el conjunto de prueba o las clases están vacías.
 	 */
 	public void generarMatriz(int valorK) {
-		Dataset pruebas = new Dataset(test);
+		List<String> predicciones = clasificarPruebas(valorK);
 		Matriz confusion = new Matriz (clases.size(), clases.size());
-		for (int i = 0; i < pruebas.numeroCasos(); ++i) {
-			ArrayList<Object> instance = new ArrayList<>();
-			for (int j = 0; j < pruebas.numeroAtributos(); ++j) {
-				instance.add(pruebas.getInstance(i).getValores().get(j));
-			}
-			Instancia nueva = new Instancia(instance);
-			String clase = (new KNN(valorK).clasificar(train, nueva));
+		for (int i = 0; i < predicciones.size(); ++i) {
+			String clase = predicciones.get(i);
 			confusion.set( clases.indexOf(test.getInstance(i).getClase()),clases.indexOf(clase),confusion.get(clases.indexOf(test.getInstance(i).getClase()),clases.indexOf(clase))+1);
 		}
 		Logger logger = LoggerFactory.getLogger(Entrenamiento.class);
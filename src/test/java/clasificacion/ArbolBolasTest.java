@@ -0,0 +1,90 @@
+package clasificacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file ArbolBolasTest.java
+ * @brief Clase de pruebas unitarias para la clase ArbolBolas.
+ *
+ * Compara los vecinos devueltos por el árbol de bolas con una búsqueda exhaustiva,
+ * tanto con la distancia euclídea ponderada como con otra métrica (Manhattan ponderada).
+ */
+@DisplayName("Tests para la clase ArbolBolas")
+class ArbolBolasTest {
+
+    /**
+     * @brief Métrica Manhattan ponderada utilizada como ejemplo de métrica no euclídea.
+     */
+    private static final Distancia MANHATTAN = new Distancia() {
+        @Override
+        public double calcular(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos) {
+            double suma = 0;
+            for (int j = 0; j < dimension; j++) {
+                suma += pesos[j] * Math.abs(a[desdeA + j] - b[desdeB + j]);
+            }
+            return suma;
+        }
+
+        @Override
+        public boolean esMetrica() {
+            return true;
+        }
+    };
+
+    /**
+     * @brief Prueba que con la distancia euclídea el árbol coincide con la búsqueda exhaustiva en dimensión media.
+     */
+    @Test
+    @DisplayName("Debería devolver los mismos vecinos que la búsqueda exhaustiva con 30 dimensiones")
+    void testCoincideConBusquedaExhaustiva() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(1500, 30, 4, 13L));
+        ArbolBolas arbol = new ArbolBolas(datos);
+        Random random = new Random(17L);
+        for (int consulta = 0; consulta < 30; consulta++) {
+            double[] q = DatosPrueba.consulta(30, random);
+            for (int k : new int[]{1, 10}) {
+                assertArrayEquals(DatosPrueba.distanciasExactas(datos, q, k), DatosPrueba.distancias(arbol, q, k), 1e-9);
+            }
+        }
+        assertTrue(arbol.numeroNodos() > 1);
+    }
+
+    /**
+     * @brief Prueba que el árbol funciona con una métrica distinta de la euclídea.
+     */
+    @Test
+    @DisplayName("Debería devolver los vecinos exactos con una métrica Manhattan ponderada")
+    void testOtraMetrica() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(800, 6, 3, 19L));
+        ArbolBolas arbol = new ArbolBolas(datos, MANHATTAN, 8);
+        Random random = new Random(23L);
+        for (int consulta = 0; consulta < 20; consulta++) {
+            double[] q = DatosPrueba.consulta(6, random);
+            double[] esperadas = new double[datos.numeroFilas()];
+            for (int fila = 0; fila < datos.numeroFilas(); fila++) {
+                esperadas[fila] = MANHATTAN.calcular(q, 0, datos.getFilas(), fila * 6, 6, datos.getPesos());
+            }
+            Arrays.sort(esperadas);
+            assertArrayEquals(Arrays.copyOf(esperadas, 5), DatosPrueba.distancias(arbol, q, 5), 1e-9);
+        }
+    }
+
+    /**
+     * @brief Prueba que se rechazan las distancias que no son métricas.
+     */
+    @Test
+    @DisplayName("Debería lanzar IllegalArgumentException con distancias que no son métricas")
+    void testDistanciaNoMetrica() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(10, 2, 2, 1L));
+        Distancia noMetrica = (a, desdeA, b, desdeB, dimension, pesos) -> 0.0;
+        assertThrows(IllegalArgumentException.class, () -> new ArbolBolas(datos, noMetrica));
+        assertThrows(IllegalArgumentException.class, () -> new ArbolBolas(datos, null));
+        assertThrows(IllegalArgumentException.class, () -> new ArbolBolas(datos, new DistanciaEuclidea(), 0));
+    }
+}
@@ -0,0 +1,97 @@
+package clasificacion;
+
+import datos.Dataset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file ArbolKDTest.java
+ * @brief Clase de pruebas unitarias para la clase ArbolKD.
+ *
+ * Compara los vecinos devueltos por el árbol KD con los de la búsqueda exhaustiva,
+ * que sirve de referencia exacta, con distintos pesos, valores de K y tamaños de hoja.
+ */
+@DisplayName("Tests para la clase ArbolKD")
+class ArbolKDTest {
+
+    /**
+     * @brief Prueba que el árbol devuelve exactamente las mismas distancias que la búsqueda exhaustiva.
+     */
+    @Test
+    @DisplayName("Debería devolver los mismos vecinos que la búsqueda exhaustiva")
+    void testCoincideConBusquedaExhaustiva() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(2000, 4, 3, 7L));
+        ArbolKD arbol = new ArbolKD(datos);
+        Random random = new Random(11L);
+        for (int consulta = 0; consulta < 50; consulta++) {
+            double[] q = DatosPrueba.consulta(4, random);
+            for (int k : new int[]{1, 5, 20}) {
+                assertArrayEquals(DatosPrueba.distanciasExactas(datos, q, k), DatosPrueba.distancias(arbol, q, k), 1e-9);
+            }
+        }
+        assertTrue(arbol.numeroNodos() > 1);
+    }
+
+    /**
+     * @brief Prueba que un atributo con peso cero no influye en la búsqueda.
+     */
+    @Test
+    @DisplayName("Debería respetar los pesos de los atributos, incluidos los pesos nulos")
+    void testPesoCero() {
+        Dataset dataset = DatosPrueba.aleatorio(500, 3, 2, 3L);
+        dataset.cambiarPeso(1, 0.0);
+        DatosEntrenamiento datos = new DatosEntrenamiento(dataset);
+        ArbolKD arbol = new ArbolKD(datos, 4);
+        Random random = new Random(5L);
+        for (int consulta = 0; consulta < 20; consulta++) {
+            double[] q = DatosPrueba.consulta(3, random);
+            assertArrayEquals(DatosPrueba.distanciasExactas(datos, q, 7), DatosPrueba.distancias(arbol, q, 7), 1e-9);
+        }
+    }
+
+    /**
+     * @brief Prueba que filas duplicadas y K mayor que el número de filas se manejan correctamente.
+     */
+    @Test
+    @DisplayName("Debería manejar filas duplicadas y K mayor que el número de filas")
+    void testDuplicadosYKGrande() {
+        Dataset dataset = DatosPrueba.aleatorio(0, 2, 1, 1L);
+        for (int i = 0; i < 40; i++) {
+            dataset.add(Arrays.asList("1.0", "1.0", "A"));
+        }
+        dataset.cambiarPeso(1.0);
+        DatosEntrenamiento datos = new DatosEntrenamiento(dataset);
+        ArbolKD arbol = new ArbolKD(datos, 2);
+
+        double[] distancias = DatosPrueba.distancias(arbol, new double[]{0.0, 1.0}, 50);
+        assertEquals(40, distancias.length);
+        assertEquals(1.0, distancias[39], 1e-12);
+    }
+
+    /**
+     * @brief Prueba que el tamaño de hoja debe ser positivo.
+     */
+    @Test
+    @DisplayName("Debería lanzar IllegalArgumentException si el tamaño de hoja no es positivo")
+    void testTamanoHojaInvalido() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(10, 2, 2, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new ArbolKD(datos, 0));
+    }
+
+    /**
+     * @brief Prueba que el árbol rechaza las distancias distintas de la euclídea ponderada.
+     */
+    @Test
+    @DisplayName("Debería lanzar IllegalArgumentException con una distancia que no sea la euclídea")
+    void testDistanciaNoEuclidea() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(10, 2, 2, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new ArbolKD(datos, new DistanciaManhattan()));
+        assertThrows(IllegalArgumentException.class, () -> new ArbolKD(datos, new DistanciaMahalanobis()));
+        assertTrue(new ArbolKD(datos, new DistanciaEuclidea()).numeroNodos() > 0);
+    }
+}
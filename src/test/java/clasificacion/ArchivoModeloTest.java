@@ -0,0 +1,279 @@
+package clasificacion;
+
+import datos.Dataset;
+import datos.Instancia;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file ArchivoModeloTest.java
+ * @brief Clase de pruebas unitarias para la clase ArchivoModelo.
+ *
+ * Un modelo guardado y abierto de nuevo debe dar las mismas predicciones y vecinos
+ * que el clasificador original.
+ */
+@DisplayName("Tests para la clase ArchivoModelo")
+class ArchivoModeloTest {
+
+    /**
+     * @brief Directorio temporal de cada prueba.
+     */
+    @TempDir
+    Path directorio;
+
+    /**
+     * @brief Prueba que un modelo con atributos cualitativos y filas eliminadas se recupera igual.
+     *
+     * @throws IOException Si falla el acceso al fichero.
+     */
+    @Test
+    @DisplayName("Debería recuperar un modelo mixto con las mismas predicciones e identificadores")
+    void testGuardarYAbrir() throws IOException {
+        Dataset dataset = DatosPrueba.mixto(
+                "0,r,0,A", "0.2,r,0.1,A", "0.1,v,0.3,A", "1,v,1,B", "1.2,a,0.9,B",
+                "0.9,v,1.1,B", "2,a,2,C", "2.1,a,1.8,C", "1.9,r,2.2,C");
+        KNN original = new KNN(3);
+        original.setVotoPonderado(true);
+        original.ajustar(dataset);
+        original.eliminar(4);
+        Path ruta = directorio.resolve("modelo.knn");
+        original.guardar(ruta.toString());
+
+        KNN abierto = KNN.abrir(ruta.toString());
+        assertTrue(abierto.estaAjustado());
+        assertTrue(abierto.esVotoPonderado());
+        assertTrue(abierto.esFueraMonticulo());
+        assertEquals(original.getClases(), abierto.getClases());
+        assertTrue(abierto.getIndice() instanceof BusquedaExhaustiva);
+
+        List<Instancia> pruebas = Arrays.asList(
+                new Instancia(Arrays.<Object>asList(0.1, "r", 0.2, "?")),
+                new Instancia(Arrays.<Object>asList(1.1, "a", 1.0, "?")),
+                new Instancia(Arrays.<Object>asList(1.5, "x", 1.6, "?")));
+        for (Instancia prueba : pruebas) {
+            assertEquals(original.clasificar(prueba), abierto.clasificar(prueba));
+            assertArrayEquals(original.buscarVecinos(prueba, 8).getFilas(), abierto.buscarVecinos(prueba, 8).getFilas());
+            assertArrayEquals(original.buscarVecinos(prueba, 8).getDistancias(), abierto.buscarVecinos(prueba, 8).getDistancias(), 1e-12);
+        }
+        // La fila eliminada no se guarda y los identificadores se conservan.
+        assertFalse(abierto.eliminar(4));
+        assertTrue(abierto.eliminar(8));
+
+        // Con atributos numéricos, las dimensiones se guardan reordenadas y las consultas se reordenan igual.
+        KNN numerico = new KNN(5);
+        numerico.ajustar(DatosPrueba.aleatorio(300, 4, 3, 17L));
+        numerico.guardar(ruta.toString());
+        KNN reabierto = KNN.abrir(ruta.toString());
+        List<Instancia> aleatorias = instancias(DatosPrueba.aleatorio(50, 4, 3, 19L));
+        assertEquals(numerico.clasificarLote(aleatorias), reabierto.clasificarLote(aleatorias));
+    }
+
+    /**
+     * @brief Prueba que los rangos de HEOM se guardan y no se recalculan con las filas vivas al abrir.
+     *
+     * @throws IOException Si falla el acceso al fichero.
+     */
+    @Test
+    @DisplayName("Debería conservar los rangos de HEOM aunque se eliminara la fila que los fijaba")
+    void testGuardarRangosHeterogenea() throws IOException {
+        Dataset dataset = DatosPrueba.mixto(
+                "0,r,0,A", "0.2,r,0.1,A", "0.1,v,0.3,A", "1,v,1,B", "1.2,a,0.9,B", "10,a,10,B");
+        KNN original = new KNN(3);
+        original.ajustar(dataset);
+        // La fila 5 fija el rango de las dos dimensiones numéricas.
+        original.eliminar(5);
+        Path ruta = directorio.resolve("heom.knn");
+        original.guardar(ruta.toString());
+        KNN abierto = KNN.abrir(ruta.toString());
+
+        comprobarVecinos(original, abierto, Arrays.asList(
+                new Instancia(Arrays.<Object>asList(0.1, "r", 0.2, "?")),
+                new Instancia(Arrays.<Object>asList(0.8, "a", 0.6, "?"))), 5);
+    }
+
+    /**
+     * @brief Prueba que las tablas VDM se guardan, incluido un valor cuya única fila se eliminó.
+     *
+     * @throws IOException Si falla el acceso al fichero.
+     */
+    @Test
+    @DisplayName("Debería conservar las tablas VDM aunque se eliminara la única fila de un valor")
+    void testGuardarTablasDiferenciaValores() throws IOException {
+        Dataset dataset = DatosPrueba.mixto(
+                "0,r,0,A", "0.2,r,0.1,A", "0.1,v,0.3,A", "1,v,1,B", "1.2,a,0.9,B", "0.9,n,1.1,B");
+        KNN original = new KNN(3);
+        original.setDistancia(new DistanciaHeterogenea(true));
+        original.ajustar(dataset);
+        // La fila 5 es la única con el valor "n".
+        original.eliminar(5);
+        Path ruta = directorio.resolve("vdm.knn");
+        original.guardar(ruta.toString());
+        KNN abierto = KNN.abrir(ruta.toString());
+
+        List<Instancia> pruebas = Arrays.asList(
+                new Instancia(Arrays.<Object>asList(0.5, "n", 0.5, "?")),
+                new Instancia(Arrays.<Object>asList(0.5, "v", 0.5, "?")));
+        comprobarVecinos(original, abierto, pruebas, 5);
+        for (double distancia : abierto.buscarVecinos(pruebas.get(0), 5).getDistancias()) {
+            assertFalse(Double.isNaN(distancia));
+        }
+    }
+
+    /**
+     * @brief Prueba que el factor de Cholesky de Mahalanobis se guarda y no se recalcula al abrir.
+     *
+     * @throws IOException Si falla el acceso al fichero.
+     */
+    @Test
+    @DisplayName("Debería conservar la covarianza de Mahalanobis aunque se eliminaran filas")
+    void testGuardarMahalanobis() throws IOException {
+        Dataset dataset = DatosPrueba.aleatorio(200, 3, 2, 37L);
+        KNN original = new KNN(3);
+        original.setDistancia(new DistanciaMahalanobis());
+        original.ajustar(dataset);
+        for (int id = 0; id < 50; id++) {
+            original.eliminar(id);
+        }
+        Path ruta = directorio.resolve("mahalanobis.knn");
+        original.guardar(ruta.toString());
+        KNN abierto = KNN.abrir(ruta.toString());
+
+        comprobarVecinos(original, abierto, instancias(DatosPrueba.aleatorio(20, 3, 2, 41L)), 7);
+    }
+
+    /**
+     * @brief Prueba que la tabla de pivotes se guarda y el modelo abierto reconstruye su índice con ella.
+     *
+     * @throws IOException Si falla el acceso al fichero.
+     */
+    @Test
+    @DisplayName("Debería reconstruir el índice con pivotes del modelo guardado")
+    void testGuardarPivotes() throws IOException {
+        KNN original = new KNN(5);
+        original.setIndice(IndicePivotes::new);
+        original.ajustar(DatosPrueba.aleatorio(500, 4, 3, 43L));
+        int[] pivotes = ((IndicePivotes) original.getIndice()).getPivotes();
+        // Se elimina un pivote, cuya columna de la tabla se descarta, y otras filas, algunas también pivotes.
+        original.eliminar(pivotes[0]);
+        for (int id = 0; id < 500; id += 7) {
+            original.eliminar(id);
+        }
+        long vivos = Arrays.stream(pivotes).filter(pivote -> pivote != pivotes[0] && pivote % 7 != 0).count();
+        Path ruta = directorio.resolve("pivotes.knn");
+        original.guardar(ruta.toString());
+        KNN abierto = KNN.abrir(ruta.toString());
+        assertTrue(abierto.getIndice() instanceof IndicePivotes);
+        assertEquals(vivos, ((IndicePivotes) abierto.getIndice()).getPivotes().length);
+        List<Instancia> pruebas = instancias(DatosPrueba.aleatorio(30, 4, 3, 47L));
+        comprobarVecinos(original, abierto, pruebas, 5);
+
+        // La compactación del modelo abierto conserva el índice con pivotes.
+        abierto.eliminar(1);
+        abierto.compactar();
+        assertTrue(abierto.getIndice() instanceof IndicePivotes);
+        original.eliminar(1);
+        comprobarVecinos(original, abierto, pruebas, 5);
+
+        // Un modelo grande con el índice por defecto guarda una tabla calculada al guardar.
+        KNN grande = new KNN(3);
+        grande.ajustar(DatosPrueba.aleatorio(SelectorIndice.MINIMO_FILAS, 3, 3, 53L));
+        grande.guardar(ruta.toString());
+        KNN grandeAbierto = KNN.abrir(ruta.toString());
+        assertTrue(grandeAbierto.getIndice() instanceof IndicePivotes);
+        comprobarVecinos(grande, grandeAbierto, instancias(DatosPrueba.aleatorio(10, 3, 3, 59L)), 3);
+    }
+
+    /**
+     * @brief Comprueba que dos clasificadores dan las mismas predicciones, vecinos y distancias.
+     *
+     * @param original El clasificador original.
+     * @param abierto El clasificador recuperado del fichero.
+     * @param pruebas Las instancias de consulta.
+     * @param k Número de vecinos a comparar.
+     */
+    private static void comprobarVecinos(KNN original, KNN abierto, List<Instancia> pruebas, int k) {
+        for (Instancia prueba : pruebas) {
+            assertEquals(original.clasificar(prueba), abierto.clasificar(prueba));
+            assertArrayEquals(original.buscarVecinos(prueba, k).getFilas(), abierto.buscarVecinos(prueba, k).getFilas());
+            assertArrayEquals(original.buscarVecinos(prueba, k).getDistancias(), abierto.buscarVecinos(prueba, k).getDistancias(), 1e-12);
+        }
+    }
+
+    /**
+     * @brief Obtiene las instancias de un dataset.
+     *
+     * @param dataset El dataset.
+     * @return Sus instancias, en orden.
+     */
+    private static List<Instancia> instancias(Dataset dataset) {
+        List<Instancia> resultado = new ArrayList<>();
+        for (int i = 0; i < dataset.numeroCasos(); i++) {
+            resultado.add(dataset.getInstance(i));
+        }
+        return resultado;
+    }
+
+    /**
+     * @brief Prueba que guardar sobre un modelo abierto no altera las consultas de quien lo tiene abierto.
+     *
+     * @throws IOException Si falla el acceso al fichero.
+     */
+    @Test
+    @DisplayName("Debería guardar sobre un modelo abierto sin alterar sus consultas")
+    void testGuardarSobreModeloAbierto() throws IOException {
+        Path ruta = directorio.resolve("abierto.knn");
+        KNN primero = new KNN(3);
+        primero.ajustar(DatosPrueba.aleatorio(2000, 6, 3, 23L));
+        primero.guardar(ruta.toString());
+        KNN abierto = KNN.abrir(ruta.toString());
+        List<Instancia> pruebas = instancias(DatosPrueba.aleatorio(40, 6, 3, 29L));
+        List<String> esperadas = primero.clasificarLote(pruebas);
+
+        // El propio modelo abierto se guarda sobre su fichero, y después otro modelo distinto.
+        abierto.guardar(ruta.toString());
+        assertEquals(esperadas, abierto.clasificarLote(pruebas));
+        KNN segundo = new KNN(3);
+        segundo.ajustar(DatosPrueba.aleatorio(100, 6, 3, 31L));
+        segundo.guardar(ruta.toString());
+        assertEquals(esperadas, abierto.clasificarLote(pruebas));
+        assertEquals(segundo.clasificarLote(pruebas), KNN.abrir(ruta.toString()).clasificarLote(pruebas));
+
+        // No quedan ficheros temporales en el directorio.
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            assertEquals(1, ficheros.count());
+        }
+    }
+
+    /**
+     * @brief Prueba que se rechazan los ficheros que no son modelos y los modelos sin ajustar.
+     *
+     * @throws IOException Si falla el acceso al fichero.
+     */
+    @Test
+    @DisplayName("Debería rechazar ficheros que no son modelos")
+    void testFicheroNoValido() throws IOException {
+        Path ruta = directorio.resolve("otro.bin");
+        Files.write(ruta, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        assertThrows(IOException.class, () -> KNN.abrir(ruta.toString()));
+        Path corto = directorio.resolve("corto.bin");
+        Files.write(corto, new byte[]{1, 2});
+        assertThrows(IOException.class, () -> KNN.abrir(corto.toString()));
+
+        KNN knn = new KNN(1);
+        assertThrows(IllegalStateException.class, () -> knn.guardar(directorio.resolve("vacio.knn").toString()));
+        knn.setDistancia(new DistanciaMahalanobis(new double[][]{{1.0, 0.0}, {0.0, 1.0}}));
+        knn.ajustar(DatosPrueba.aleatorio(20, 2, 2, 5L));
+        assertThrows(IllegalArgumentException.class, () -> knn.guardar(directorio.resolve("mahalanobis.knn").toString()));
+    }
+}
@@ -0,0 +1,104 @@
+package clasificacion;
+
+import datos.Dataset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file BusquedaExhaustivaTest.java
+ * @brief Clase de pruebas unitarias para la clase BusquedaExhaustiva.
+ *
+ * Comprueba que la búsqueda por fuerza bruta devuelve los vecinos con la
+ * distancia euclídea cuadrada ponderada correcta.
+ */
+@DisplayName("Tests para la clase BusquedaExhaustiva")
+class BusquedaExhaustivaTest {
+
+    /**
+     * @brief Prueba que se devuelven los vecinos más cercanos con su distancia ponderada.
+     */
+    @Test
+    @DisplayName("Debería devolver los vecinos más cercanos con la distancia ponderada")
+    void testBuscar() {
+        Dataset dataset = DatosPrueba.aleatorio(0, 2, 1, 1L);
+        dataset.add(Arrays.asList("0.0", "0.0", "A"));
+        dataset.add(Arrays.asList("1.0", "1.0", "B"));
+        dataset.add(Arrays.asList("3.0", "0.0", "A"));
+        dataset.cambiarPeso(0.5);
+        DatosEntrenamiento datos = new DatosEntrenamiento(dataset);
+
+        MonticuloVecinos vecinos = new MonticuloVecinos(2);
+        new BusquedaExhaustiva(datos).buscar(new double[]{1.0, 0.0}, vecinos);
+        vecinos.ordenar();
+
+        assertEquals(2, vecinos.tamano());
+        // Distancias: fila 0 -> 0.5, fila 1 -> 0.5, fila 2 -> 2.0
+        assertEquals(0.5, vecinos.getDistancia(0), 1e-12);
+        assertEquals(0.5, vecinos.getDistancia(1), 1e-12);
+        assertNotEquals(2, vecinos.getFila(0));
+        assertNotEquals(2, vecinos.getFila(1));
+    }
+
+    /**
+     * @brief Prueba que reordenar las dimensiones y abandonar distancias no cambia los vecinos.
+     */
+    @Test
+    @DisplayName("Debería devolver las mismas distancias con las dimensiones reordenadas")
+    void testDimensionesReordenadas() {
+        Dataset dataset = DatosPrueba.aleatorio(600, 12, 3, 3L);
+        DatosEntrenamiento originales = new DatosEntrenamiento(dataset);
+        DatosEntrenamiento ordenados = new DatosEntrenamiento(dataset, true);
+        Random random = new Random(5L);
+        for (int c = 0; c < 20; c++) {
+            double[] q = DatosPrueba.consulta(12, random);
+            double[] permutada = new double[12];
+            for (int j = 0; j < 12; j++) {
+                permutada[j] = q[ordenados.getOrdenDimensiones()[j]];
+            }
+            assertArrayEquals(DatosPrueba.distancias(new BusquedaExhaustiva(originales), q, 6),
+                    DatosPrueba.distancias(new BusquedaExhaustiva(ordenados), permutada, 6), 1e-9);
+        }
+    }
+
+    /**
+     * @brief Prueba que repartir una consulta en tramos paralelos devuelve los mismos vecinos.
+     */
+    @Test
+    @DisplayName("Debería devolver los mismos vecinos al repartir la consulta entre hilos")
+    void testBuscarEnTramos() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(20000, 16, 3, 7L));
+        for (int fila = 0; fila < datos.numeroFilas(); fila += 3) {
+            datos.eliminar(fila);
+        }
+        BusquedaExhaustiva busqueda = new BusquedaExhaustiva(datos);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Random random = new Random(11L);
+            for (int c = 0; c < 10; c++) {
+                double[] q = DatosPrueba.consulta(16, random);
+                MonticuloVecinos secuencial = new MonticuloVecinos(8);
+                MonticuloVecinos paralelo = new MonticuloVecinos(8);
+                secuencial.setExcluidas(datos.getEliminadas());
+                paralelo.setExcluidas(datos.getEliminadas());
+                busqueda.buscar(q, secuencial);
+                busqueda.buscar(q, paralelo, pool);
+                secuencial.ordenar();
+                paralelo.ordenar();
+                assertEquals(8, paralelo.tamano());
+                for (int i = 0; i < 8; i++) {
+                    assertEquals(secuencial.getDistancia(i), paralelo.getDistancia(i), 0.0);
+                    assertEquals(secuencial.getFila(i), paralelo.getFila(i));
+                    assertFalse(datos.estaEliminada(paralelo.getFila(i)));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package clasificacion;
+
+import datos.Atributo;
+import datos.Cualitativo;
+import datos.Cuantitativo;
+import datos.Dataset;
+import datos.Instancia;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file DatosEntrenamientoTest.java
+ * @brief Clase de pruebas unitarias para la clase DatosEntrenamiento.
+ *
+ * Verifica que el empaquetado de un {@link Dataset} en arrays primitivos conserva
+ * los valores, los pesos y las clases de cada fila, y que las consultas se
+ * convierten correctamente al mismo formato.
+ */
+@DisplayName("Tests para la clase DatosEntrenamiento")
+class DatosEntrenamientoTest {
+
+    /**
+     * @brief Construye un dataset con dos atributos cuantitativos y una clase.
+     *
+     * @param filas Las filas del dataset en formato "x,y,clase".
+     * @return El {@link Dataset} construido.
+     */
+    private Dataset crearDataset(String... filas) {
+        List<Atributo> atributos = new ArrayList<>();
+        atributos.add(new Cuantitativo("x"));
+        atributos.add(new Cuantitativo("y"));
+        atributos.add(new Cualitativo("clase"));
+        Dataset dataset = new Dataset(atributos);
+        for (String fila : filas) {
+            dataset.add(Arrays.asList(fila.split(",")));
+        }
+        return dataset;
+    }
+
+    /**
+     * @brief Prueba que las filas, pesos y clases se empaquetan en el orden del dataset.
+     */
+    @Test
+    @DisplayName("Debería empaquetar valores, pesos y códigos de clase fila a fila")
+    void testEmpaquetado() {
+        Dataset dataset = crearDataset("1.0,2.0,A", "3.0,4.0,B", "5.0,6.0,A");
+        dataset.cambiarPeso(0, 0.5);
+
+        DatosEntrenamiento datos = new DatosEntrenamiento(dataset);
+
+        assertEquals(3, datos.numeroFilas());
+        assertEquals(2, datos.getDimension());
+        assertArrayEquals(new double[]{1.0, 2.0, 3.0, 4.0, 5.0, 6.0}, datos.getFilas(), 1e-12);
+        assertArrayEquals(new double[]{0.5, 1.0}, datos.getPesos(), 1e-12);
+        assertEquals(2, datos.numeroClases());
+        assertEquals(datos.getCodigoClase(0), datos.getCodigoClase(2));
+        assertEquals("A", datos.getClase(datos.getCodigoClase(0)));
+        assertEquals("B", datos.getClase(datos.getCodigoClase(1)));
+        assertEquals(Arrays.asList("A", "B"), datos.getClases());
+    }
+
+    /**
+     * @brief Prueba que una consulta válida se convierte a un array primitivo.
+     */
+    @Test
+    @DisplayName("Debería convertir una instancia de prueba en un array primitivo")
+    void testPrepararConsulta() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(crearDataset("1.0,2.0,A"));
+        Instancia prueba = new Instancia(Arrays.<Object>asList(7.0, 8.0, "?"));
+
+        assertArrayEquals(new double[]{7.0, 8.0}, datos.prepararConsulta(prueba), 1e-12);
+    }
+
+    /**
+     * @brief Prueba que las consultas nulas o de dimensión incorrecta se rechazan.
+     */
+    @Test
+    @DisplayName("Debería devolver null para consultas nulas o de dimensión incorrecta")
+    void testPrepararConsultaInvalida() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(crearDataset("1.0,2.0,A"));
+
+        assertNull(datos.prepararConsulta(null));
+        assertNull(datos.prepararConsulta(new Instancia(Arrays.<Object>asList(7.0, "?"))));
+    }
+
+    /**
+     * @brief Prueba que un dataset nulo o vacío no puede empaquetarse.
+     */
+    @Test
+    @DisplayName("Debería lanzar IllegalArgumentException si el dataset es nulo o vacío")
+    void testDatasetInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> new DatosEntrenamiento(null));
+        assertThrows(IllegalArgumentException.class, () -> new DatosEntrenamiento(crearDataset()));
+    }
+
+    /**
+     * @brief Prueba que las dimensiones se reordenan por peso por varianza y que las consultas siguen el mismo orden.
+     */
+    @Test
+    @DisplayName("Debería reordenar las dimensiones de mayor a menor peso por varianza")
+    void testOrdenarDimensiones() {
+        // x tiene más varianza, pero su peso bajo la deja por detrás de y.
+        Dataset dataset = crearDataset("0.0,1.0,A", "10.0,2.0,B", "20.0,3.0,A");
+        dataset.cambiarPeso(0, 0.001);
+
+        DatosEntrenamiento ordenados = new DatosEntrenamiento(dataset, true);
+        DatosEntrenamiento originales = new DatosEntrenamiento(dataset);
+
+        assertArrayEquals(new int[]{1, 0}, ordenados.getOrdenDimensiones());
+        assertArrayEquals(new int[]{0, 1}, originales.getOrdenDimensiones());
+        assertArrayEquals(new double[]{1.0, 0.0, 2.0, 10.0, 3.0, 20.0}, ordenados.getFilas(), 1e-12);
+        assertArrayEquals(new double[]{1.0, 0.001}, ordenados.getPesos(), 1e-12);
+        assertArrayEquals(new double[]{8.0, 7.0}, ordenados.prepararConsulta(new Instancia(Arrays.<Object>asList(7.0, 8.0, "?"))), 1e-12);
+    }
+
+    /**
+     * @brief Prueba que los atributos cualitativos se codifican como enteros tras los numéricos.
+     */
+    @Test
+    @DisplayName("Debería codificar los atributos cualitativos como enteros al final de cada fila")
+    void testAtributosCualitativos() {
+        Dataset dataset = DatosPrueba.mixto("1.0,rojo,2.0,A", "3.0,azul,4.0,B", "5.0,rojo,6.0,A");
+        dataset.cambiarPeso(1, 0.25);
+
+        DatosEntrenamiento datos = new DatosEntrenamiento(dataset, true);
+
+        assertEquals(3, datos.numeroFilas());
+        assertEquals(3, datos.getDimension());
+        assertEquals(2, datos.numeroNumericas());
+        assertEquals(1, datos.numeroCategoricas());
+        assertEquals(2, datos.numeroValores(2));
+        assertThrows(IllegalArgumentException.class, () -> datos.numeroValores(0));
+        assertEquals(1, datos.getOrdenDimensiones()[2]);
+        assertEquals(0.25, datos.getPesos()[2], 1e-12);
+        double[] filas = datos.getFilas();
+        assertEquals(filas[2], filas[8], 0.0);
+        assertNotEquals(filas[2], filas[5], 0.0);
+
+        double[] consulta = datos.prepararConsulta(new Instancia(Arrays.<Object>asList(3.0, "azul", 4.0, "?")));
+        assertEquals(filas[5], consulta[2], 0.0);
+        double[] desconocido = datos.prepararConsulta(new Instancia(Arrays.<Object>asList(3.0, "verde", 4.0, "?")));
+        assertEquals(DatosEntrenamiento.VALOR_DESCONOCIDO, desconocido[2], 0.0);
+        assertNull(datos.prepararConsulta(new Instancia(Arrays.<Object>asList(3.0, "?"))));
+    }
+
+    /**
+     * @brief Prueba que empaquetar directamente fuera del montículo da los mismos datos que mover después las filas.
+     */
+    @Test
+    @DisplayName("Debería empaquetar directamente fuera del montículo con el mismo resultado")
+    void testEmpaquetarFueraMonticulo() {
+        Dataset mixto = DatosPrueba.mixto("1.0,rojo,2.0,A", "3.0,azul,40.0,B", "5.0,rojo,6.0,A", "2.0,verde,9.0,C");
+        mixto.cambiarPeso(0, 0.5);
+        for (Dataset dataset : new Dataset[]{mixto, DatosPrueba.aleatorio(300, 5, 3, 41L)}) {
+            DatosEntrenamiento movidos = new DatosEntrenamiento(dataset, true);
+            movidos.moverFueraMonticulo();
+            DatosEntrenamiento fuera = new DatosEntrenamiento(dataset, true, true);
+
+            assertTrue(fuera.estaFueraMonticulo());
+            assertEquals(movidos.numeroFilas(), fuera.numeroFilas());
+            assertArrayEquals(movidos.getOrdenDimensiones(), fuera.getOrdenDimensiones());
+            assertArrayEquals(movidos.getPesos(), fuera.getPesos(), 0.0);
+            int dimension = movidos.getDimension();
+            double[] esperadas = new double[movidos.numeroFilas() * dimension];
+            double[] obtenidas = new double[esperadas.length];
+            movidos.leerFilas(0, movidos.numeroFilas(), esperadas, 0);
+            fuera.leerFilas(0, fuera.numeroFilas(), obtenidas, 0);
+            assertArrayEquals(esperadas, obtenidas, 0.0);
+            for (int fila = 0; fila < fuera.numeroFilas(); fila++) {
+                assertEquals(movidos.getCodigoClase(fila), fuera.getCodigoClase(fila));
+                assertEquals(movidos.getFilaOriginal(fila), fuera.getFilaOriginal(fila));
+            }
+            assertEquals(movidos.getClases(), fuera.getClases());
+        }
+    }
+
+    /**
+     * @brief Prueba que se añaden filas con identificadores consecutivos, se eliminan y se compactan.
+     */
+    @Test
+    @DisplayName("Debería añadir, eliminar y compactar filas conservando sus identificadores")
+    void testAnadirEliminarYCompactar() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.mixto("1.0,rojo,2.0,A", "3.0,azul,4.0,B"));
+
+        int fila = datos.anadir(new Instancia(Arrays.<Object>asList(5.0, "verde", 6.0, "C")));
+        assertEquals(2, fila);
+        assertEquals(3, datos.numeroFilas());
+        assertEquals(2, datos.getFilaOriginal(fila));
+        assertEquals(3, datos.numeroValores(2));
+        assertEquals("C", datos.getClase(datos.getCodigoClase(fila)));
+        assertArrayEquals(new double[]{5.0, 6.0, 2.0}, Arrays.copyOfRange(datos.getFilas(), 6, 9), 0.0);
+        assertEquals(-1, datos.anadir(new Instancia(Arrays.<Object>asList(5.0, "?"))));
+
+        assertTrue(datos.eliminar(0));
+        assertFalse(datos.eliminar(0));
+        assertTrue(datos.estaEliminada(0));
+        assertFalse(datos.estaEliminada(1));
+        assertEquals(1, datos.numeroEliminadas());
+        assertEquals(2, datos.numeroFilasVivas());
+        assertThrows(IllegalArgumentException.class, () -> datos.eliminar(3));
+        assertEquals(2, datos.buscarFila(2));
+        assertEquals(-1, datos.buscarFila(7));
+
+        DatosEntrenamiento compactados = datos.compactar();
+        assertEquals(2, compactados.numeroFilas());
+        assertEquals(0, compactados.numeroEliminadas());
+        assertArrayEquals(new int[]{1, 2}, new int[]{compactados.getFilaOriginal(0), compactados.getFilaOriginal(1)});
+        assertSame(datos.getClases(), compactados.getClases());
+
+        // Las filas añadidas tras compactar se copian con su identificador.
+        int nueva = datos.anadir(new Instancia(Arrays.<Object>asList(7.0, "rojo", 8.0, "A")));
+        assertEquals(3, datos.getFilaOriginal(nueva));
+        int copiada = compactados.anadirFila(datos, nueva);
+        assertEquals(3, compactados.getFilaOriginal(copiada));
+        assertEquals(4, compactados.getFilaOriginal(compactados.anadir(new Instancia(Arrays.<Object>asList(9.0, "azul", 1.0, "B")))));
+        DatosEntrenamiento ajenos = new DatosEntrenamiento(DatosPrueba.mixto("1.0,rojo,2.0,A"));
+        assertThrows(IllegalArgumentException.class, () -> compactados.anadirFila(ajenos, 0));
+    }
+}
@@ -0,0 +1,199 @@
+package clasificacion;
+
+import datos.Atributo;
+import datos.Cualitativo;
+import datos.Cuantitativo;
+import datos.Dataset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * @file DatosPrueba.java
+ * @brief Utilidades compartidas por las pruebas de los índices de vecinos.
+ *
+ * Genera datasets aleatorios reproducibles y obtiene los vecinos de referencia
+ * mediante {@link BusquedaExhaustiva} para comparar con ellos el resto de índices.
+ */
+final class DatosPrueba {
+
+    /**
+     * @brief Constructor privado: clase de utilidades.
+     */
+    private DatosPrueba() {
+    }
+
+    /**
+     * @brief Genera un dataset de atributos cuantitativos aleatorios y una clase.
+     *
+     * @param filas El número de filas.
+     * @param dimension El número de atributos cuantitativos.
+     * @param clases El número de clases distintas.
+     * @param semilla La semilla del generador aleatorio.
+     * @return El {@link Dataset} generado, con pesos aleatorios en (0, 1].
+     */
+    static Dataset aleatorio(int filas, int dimension, int clases, long semilla) {
+        return aleatorio(filas, dimension, clases, semilla, 0);
+    }
+
+    /**
+     * @brief Genera un dataset como {@link #aleatorio(int, int, int, long)} con todos los valores desplazados.
+     *
+     * @param filas El número de filas.
+     * @param dimension El número de atributos cuantitativos.
+     * @param clases El número de clases distintas.
+     * @param semilla La semilla del generador aleatorio.
+     * @param desplazamiento El valor que se suma a todos los atributos.
+     * @return El {@link Dataset} generado, con pesos aleatorios en (0, 1].
+     */
+    static Dataset aleatorio(int filas, int dimension, int clases, long semilla, double desplazamiento) {
+        Random random = new Random(semilla);
+        List<Atributo> atributos = new ArrayList<>();
+        for (int d = 0; d < dimension; d++) {
+            Cuantitativo atributo = new Cuantitativo("x" + d);
+            atributo.setPeso(0.1 + 0.9 * random.nextDouble());
+            atributos.add(atributo);
+        }
+        atributos.add(new Cualitativo("clase"));
+        Dataset dataset = new Dataset(atributos);
+        for (int i = 0; i < filas; i++) {
+            List<String> valores = new ArrayList<>();
+            int clase = random.nextInt(clases);
+            for (int d = 0; d < dimension; d++) {
+                // Los grupos de cada clase se desplazan para que la clasificación tenga sentido.
+                valores.add(String.format(Locale.US, "%.6f", desplazamiento + random.nextGaussian() + 2.0 * ((clase + d) % clases)));
+            }
+            valores.add("C" + clase);
+            dataset.add(valores);
+        }
+        return dataset;
+    }
+
+    /**
+     * @brief Genera un dataset de atributos enteros con pocos valores distintos, con muchas filas repetidas y empates.
+     *
+     * @param filas El número de filas.
+     * @param dimension El número de atributos cuantitativos, todos con peso 1.
+     * @param valores El número de valores enteros distintos de cada atributo, desde 0.
+     * @param clases El número de clases distintas.
+     * @param semilla La semilla del generador aleatorio.
+     * @return El {@link Dataset} generado; la clase no depende de los atributos.
+     */
+    static Dataset enteros(int filas, int dimension, int valores, int clases, long semilla) {
+        Random random = new Random(semilla);
+        List<Atributo> atributos = new ArrayList<>();
+        for (int d = 0; d < dimension; d++) {
+            atributos.add(new Cuantitativo("x" + d));
+        }
+        atributos.add(new Cualitativo("clase"));
+        Dataset dataset = new Dataset(atributos);
+        for (int i = 0; i < filas; i++) {
+            List<String> valoresFila = new ArrayList<>();
+            for (int d = 0; d < dimension; d++) {
+                valoresFila.add(Integer.toString(random.nextInt(valores)));
+            }
+            valoresFila.add("C" + random.nextInt(clases));
+            dataset.add(valoresFila);
+        }
+        return dataset;
+    }
+
+    /**
+     * @brief Construye un dataset mixto con los atributos `x` (numérico), `color` (cualitativo),
+     * `y` (numérico) y la clase.
+     *
+     * @param filas Las filas del dataset en formato "x,color,y,clase".
+     * @return El {@link Dataset} construido.
+     */
+    static Dataset mixto(String... filas) {
+        List<Atributo> atributos = new ArrayList<>();
+        atributos.add(new Cuantitativo("x"));
+        atributos.add(new Cualitativo("color"));
+        atributos.add(new Cuantitativo("y"));
+        atributos.add(new Cualitativo("clase"));
+        Dataset dataset = new Dataset(atributos);
+        for (String fila : filas) {
+            dataset.add(Arrays.asList(fila.split(",")));
+        }
+        return dataset;
+    }
+
+    /**
+     * @brief Genera una consulta aleatoria con la misma distribución que {@link #aleatorio}.
+     *
+     * @param dimension La dimensión de la consulta.
+     * @param random El generador aleatorio.
+     * @return Los valores de la consulta.
+     */
+    static double[] consulta(int dimension, Random random) {
+        double[] consulta = new double[dimension];
+        for (int d = 0; d < dimension; d++) {
+            consulta[d] = random.nextGaussian() * 2.0 + 2.0;
+        }
+        return consulta;
+    }
+
+    /**
+     * @brief Obtiene las distancias de los K vecinos exactos, en orden ascendente.
+     *
+     * @param datos Los datos empaquetados.
+     * @param consulta La consulta.
+     * @param k El número de vecinos.
+     * @return Las K distancias más pequeñas.
+     */
+    static double[] distanciasExactas(DatosEntrenamiento datos, double[] consulta, int k) {
+        return distancias(new BusquedaExhaustiva(datos), consulta, k);
+    }
+
+    /**
+     * @brief Obtiene las distancias de los vecinos devueltos por un índice, en orden ascendente.
+     *
+     * @param indice El índice a consultar.
+     * @param consulta La consulta.
+     * @param k El número de vecinos.
+     * @return Las distancias de los vecinos encontrados.
+     */
+    static double[] distancias(IndiceVecinos indice, double[] consulta, int k) {
+        MonticuloVecinos vecinos = vecinos(indice, consulta, k);
+        double[] distancias = new double[vecinos.tamano()];
+        for (int i = 0; i < distancias.length; i++) {
+            distancias[i] = vecinos.getDistancia(i);
+        }
+        return distancias;
+    }
+
+    /**
+     * @brief Obtiene las filas de los vecinos devueltos por un índice, en orden ascendente de distancia.
+     *
+     * @param indice El índice a consultar.
+     * @param consulta La consulta.
+     * @param k El número de vecinos.
+     * @return Las filas de los vecinos encontrados.
+     */
+    static int[] filas(IndiceVecinos indice, double[] consulta, int k) {
+        MonticuloVecinos vecinos = vecinos(indice, consulta, k);
+        int[] filas = new int[vecinos.tamano()];
+        for (int i = 0; i < filas.length; i++) {
+            filas[i] = vecinos.getFila(i);
+        }
+        return filas;
+    }
+
+    /**
+     * @brief Busca los vecinos de una consulta con un índice y los ordena.
+     *
+     * @param indice El índice a consultar.
+     * @param consulta La consulta.
+     * @param k El número de vecinos.
+     * @return El montículo ordenado con los vecinos encontrados.
+     */
+    private static MonticuloVecinos vecinos(IndiceVecinos indice, double[] consulta, int k) {
+        MonticuloVecinos vecinos = new MonticuloVecinos(k);
+        indice.buscar(consulta, vecinos);
+        vecinos.ordenar();
+        return vecinos;
+    }
+}
@@ -0,0 +1,33 @@
+package clasificacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file DistanciaChebyshevTest.java
+ * @brief Clase de pruebas unitarias para la clase DistanciaChebyshev.
+ */
+@DisplayName("Tests para la clase DistanciaChebyshev")
+class DistanciaChebyshevTest {
+
+    /**
+     * @brief Prueba el cálculo ponderado, el abandono por cota y los metadatos.
+     */
+    @Test
+    @DisplayName("Debería calcular la mayor diferencia absoluta ponderada")
+    void testCalcular() {
+        Distancia distancia = new DistanciaChebyshev();
+        double[] a = {1.0, 2.0, -3.0};
+        double[] b = {0.0, 4.0, 1.0};
+        double[] pesos = {1.0, 3.0, 0.5};
+
+        // max(1 * 1, 3 * 2, 0.5 * 4) = 6
+        assertEquals(6.0, distancia.calcular(a, 0, b, 0, 3, pesos), 1e-12);
+        assertEquals(6.0, distancia.calcularAcotada(a, 0, b, 0, 3, pesos, 7.0), 1e-12);
+        assertTrue(distancia.calcularAcotada(a, 0, b, 0, 3, pesos, 0.5) >= 0.5);
+        assertTrue(distancia.esMetrica());
+        assertTrue(distancia.admiteReordenar());
+    }
+}
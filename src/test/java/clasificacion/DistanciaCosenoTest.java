@@ -0,0 +1,58 @@
+package clasificacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file DistanciaCosenoTest.java
+ * @brief Clase de pruebas unitarias para la clase DistanciaCoseno.
+ */
+@DisplayName("Tests para la clase DistanciaCoseno")
+class DistanciaCosenoTest {
+
+    /**
+     * @brief Prueba la distancia entre vectores paralelos, ortogonales, opuestos y nulos.
+     */
+    @Test
+    @DisplayName("Debería valer 0, 1 y 2 para vectores paralelos, ortogonales y opuestos")
+    void testCalcular() {
+        Distancia distancia = new DistanciaCoseno();
+        double[] pesos = {1.0, 1.0};
+
+        assertEquals(0.0, distancia.calcular(new double[]{1, 1}, 0, new double[]{3, 3}, 0, 2, pesos), 1e-12);
+        assertEquals(1.0, distancia.calcular(new double[]{1, 0}, 0, new double[]{0, 5}, 0, 2, pesos), 1e-12);
+        assertEquals(2.0, distancia.calcular(new double[]{1, 2}, 0, new double[]{-1, -2}, 0, 2, pesos), 1e-12);
+        assertEquals(1.0, distancia.calcular(new double[]{0, 0}, 0, new double[]{1, 2}, 0, 2, pesos), 1e-12);
+        assertFalse(distancia.esMetrica());
+        assertTrue(distancia.admiteReordenar());
+    }
+
+    /**
+     * @brief Prueba que la búsqueda exhaustiva por lotes con el coseno coincide con la búsqueda consulta a consulta.
+     */
+    @Test
+    @DisplayName("Debería devolver los mismos vecinos por lotes que consulta a consulta")
+    void testBusquedaPorLotes() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(700, 16, 3, 4L));
+        BusquedaExhaustiva busqueda = new BusquedaExhaustiva(datos, new DistanciaCoseno());
+        Random random = new Random(6L);
+        double[][] consultas = new double[20][];
+        MonticuloVecinos[] lote = new MonticuloVecinos[consultas.length];
+        for (int q = 0; q < consultas.length; q++) {
+            consultas[q] = DatosPrueba.consulta(16, random);
+            lote[q] = new MonticuloVecinos(5);
+        }
+        busqueda.buscarLote(consultas, lote);
+        for (int q = 0; q < consultas.length; q++) {
+            double[] esperadas = DatosPrueba.distancias(busqueda, consultas[q], 5);
+            lote[q].ordenar();
+            for (int i = 0; i < 5; i++) {
+                assertEquals(esperadas[i], lote[q].getDistancia(i), 1e-9);
+            }
+        }
+    }
+}
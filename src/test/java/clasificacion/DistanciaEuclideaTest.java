@@ -0,0 +1,49 @@
+package clasificacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file DistanciaEuclideaTest.java
+ * @brief Clase de pruebas unitarias para la clase DistanciaEuclidea.
+ */
+@DisplayName("Tests para la clase DistanciaEuclidea")
+class DistanciaEuclideaTest {
+
+    /**
+     * @brief Prueba el cálculo ponderado con desplazamientos y la conversión a métrica.
+     */
+    @Test
+    @DisplayName("Debería calcular la distancia euclídea cuadrada ponderada y su raíz")
+    void testCalcular() {
+        Distancia distancia = new DistanciaEuclidea();
+        double[] a = {9.0, 0.0, 0.0};
+        double[] b = {3.0, 4.0};
+        double valor = distancia.calcular(a, 1, b, 0, 2, new double[]{1.0, 0.5});
+
+        // (0-3)^2 * 1 + (0-4)^2 * 0.5 = 9 + 8
+        assertEquals(17.0, valor, 1e-12);
+        assertEquals(Math.sqrt(17.0), distancia.haciaMetrica(valor), 1e-12);
+        assertTrue(distancia.esMetrica());
+    }
+
+    /**
+     * @brief Prueba que la distancia acotada es exacta por debajo de la cota y la alcanza en otro caso.
+     */
+    @Test
+    @DisplayName("Debería abandonar el cálculo cuando la suma parcial alcanza la cota")
+    void testCalcularAcotada() {
+        Distancia distancia = new DistanciaEuclidea();
+        double[] a = {0, 0, 0, 0, 0, 0, 0, 0, 0};
+        double[] b = {3, 3, 3, 3, 1, 1, 1, 1, 1};
+        double[] pesos = {1, 1, 1, 1, 1, 1, 1, 1, 1};
+
+        // Distancia completa: 4 * 9 + 5 * 1 = 41.
+        assertEquals(41.0, distancia.calcularAcotada(a, 0, b, 0, 9, pesos, Double.POSITIVE_INFINITY), 1e-12);
+        assertEquals(41.0, distancia.calcularAcotada(a, 0, b, 0, 9, pesos, 42.0), 1e-12);
+        assertTrue(distancia.calcularAcotada(a, 0, b, 0, 9, pesos, 10.0) >= 10.0);
+        assertTrue(distancia.calcularAcotada(a, 0, b, 0, 9, pesos, 10.0) < 41.0);
+    }
+}
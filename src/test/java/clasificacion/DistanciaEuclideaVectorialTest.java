@@ -0,0 +1,74 @@
+package clasificacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * @file DistanciaEuclideaVectorialTest.java
+ * @brief Clase de pruebas unitarias para la clase DistanciaEuclideaVectorial.
+ *
+ * Las pruebas que usan la API de vectores solo se ejecutan si el módulo
+ * {@code jdk.incubator.vector} está cargado (Maven lo añade a las pruebas).
+ */
+@DisplayName("Tests para la clase DistanciaEuclideaVectorial")
+class DistanciaEuclideaVectorialTest {
+
+    /**
+     * @brief Indica si el módulo de vectores está disponible en la JVM de pruebas.
+     *
+     * @return `true` si el módulo está cargado.
+     */
+    private static boolean moduloDisponible() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    /**
+     * @brief Prueba que la versión SIMD coincide con la escalar para dimensiones con y sin resto.
+     */
+    @Test
+    @DisplayName("Debería calcular la misma distancia que la versión escalar")
+    void testCoincideConEscalar() {
+        assumeTrue(moduloDisponible());
+        Distancia escalar = new DistanciaEuclidea();
+        Distancia vectorial = new DistanciaEuclideaVectorial();
+        Random random = new Random(3L);
+        for (int dimension = 1; dimension <= 40; dimension++) {
+            double[] a = new double[dimension + 3];
+            double[] b = new double[dimension + 5];
+            double[] pesos = new double[dimension];
+            for (int j = 0; j < a.length; j++) {
+                a[j] = random.nextGaussian();
+            }
+            for (int j = 0; j < b.length; j++) {
+                b[j] = random.nextGaussian();
+            }
+            for (int j = 0; j < dimension; j++) {
+                pesos[j] = random.nextDouble();
+            }
+            double esperada = escalar.calcular(a, 3, b, 5, dimension, pesos);
+            double tolerancia = 1e-12 * Math.max(1.0, esperada);
+            assertEquals(esperada, vectorial.calcular(a, 3, b, 5, dimension, pesos), tolerancia);
+            assertEquals(esperada, vectorial.calcularAcotada(a, 3, b, 5, dimension, pesos, esperada * 2), tolerancia);
+            assertTrue(vectorial.calcularAcotada(a, 3, b, 5, dimension, pesos, esperada / 2) >= esperada / 2);
+        }
+        assertTrue(DistanciaEuclideaVectorial.anchoVector() >= 1);
+    }
+
+    /**
+     * @brief Prueba que la implementación preferida depende de la disponibilidad del módulo.
+     */
+    @Test
+    @DisplayName("preferida() debería elegir la versión SIMD solo si el módulo está disponible")
+    void testPreferida() {
+        DistanciaEuclidea preferida = DistanciaEuclidea.preferida();
+        assertEquals(moduloDisponible(), preferida instanceof DistanciaEuclideaVectorial);
+        assertSame(preferida, DistanciaEuclidea.preferida());
+        assertTrue(preferida.esMetrica());
+        assertEquals(3.0, preferida.haciaMetrica(9.0), 1e-12);
+    }
+}
@@ -0,0 +1,113 @@
+package clasificacion;
+
+import datos.Dataset;
+import datos.Instancia;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file DistanciaHeterogeneaTest.java
+ * @brief Clase de pruebas unitarias para la clase DistanciaHeterogenea.
+ */
+@DisplayName("Tests para la clase DistanciaHeterogenea")
+class DistanciaHeterogeneaTest {
+
+    /**
+     * @brief Dataset mixto de ejemplo: el color determina la clase salvo en una fila.
+     */
+    private static final Dataset DATASET = DatosPrueba.mixto(
+            "0.0,rojo,0.0,A", "2.0,rojo,4.0,A", "1.0,azul,1.0,B", "1.0,verde,1.0,B", "1.0,verde,1.0,A");
+
+    /**
+     * @brief Prepara una distancia para el dataset de ejemplo.
+     *
+     * @param datos Los datos empaquetados.
+     * @param diferenciaValores Si se usa el modo VDM.
+     * @return La distancia preparada.
+     */
+    private static Distancia preparar(DatosEntrenamiento datos, boolean diferenciaValores) {
+        Distancia distancia = new DistanciaHeterogenea(diferenciaValores);
+        assertTrue(distancia.requierePreparacion());
+        Distancia preparada = distancia.preparar(datos);
+        assertFalse(preparada.requierePreparacion());
+        return preparada;
+    }
+
+    /**
+     * @brief Prueba el modo HEOM: rangos numéricos y solapamiento de valores cualitativos.
+     */
+    @Test
+    @DisplayName("Debería normalizar por el rango y comparar los valores cualitativos por solapamiento")
+    void testSolapamiento() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DATASET);
+        Distancia distancia = preparar(datos, false);
+        double[] filas = datos.getFilas();
+        double[] pesos = datos.getPesos();
+
+        // Filas 0 y 1: (2 / 2)^2 + (4 / 4)^2 + 0 = 2.
+        assertEquals(2.0, distancia.calcular(filas, 0, filas, 3, 3, pesos), 1e-12);
+        // Filas 0 y 2: (1 / 2)^2 + (1 / 4)^2 + 1.
+        assertEquals(0.25 + 0.0625 + 1.0, distancia.calcular(filas, 0, filas, 6, 3, pesos), 1e-12);
+        double[] desconocido = datos.prepararConsulta(new Instancia(Arrays.<Object>asList(0.0, "negro", 0.0, "?")));
+        assertEquals(1.0, distancia.calcular(desconocido, 0, filas, 0, 3, pesos), 1e-12);
+        assertTrue(distancia.calcularAcotada(filas, 0, filas, 6, 3, pesos, 0.1) >= 0.1);
+        assertEquals(Math.sqrt(2.0), distancia.haciaMetrica(2.0), 1e-12);
+        assertTrue(distancia.admiteCategoricos());
+        assertTrue(distancia.esMetrica());
+    }
+
+    /**
+     * @brief Prueba el modo VDM con las probabilidades de clase de cada valor.
+     */
+    @Test
+    @DisplayName("Debería comparar los valores cualitativos con la diferencia de sus distribuciones de clase")
+    void testDiferenciaValores() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DATASET);
+        Distancia distancia = preparar(datos, true);
+        double[] filas = datos.getFilas();
+        double[] pesos = {0.0, 0.0, 1.0};
+
+        // rojo: P(A) = 1; azul: P(B) = 1; verde: P(A) = P(B) = 0.5.
+        assertEquals(1.0, distancia.calcular(filas, 0, filas, 6, 3, pesos), 1e-12);
+        assertEquals(0.25, distancia.calcular(filas, 0, filas, 9, 3, pesos), 1e-12);
+        assertEquals(0.0, distancia.calcular(filas, 9, filas, 12, 3, pesos), 1e-12);
+    }
+
+    /**
+     * @brief Prueba el modo VDM cuando un valor del diccionario no aparece en las filas preparadas.
+     */
+    @Test
+    @DisplayName("Debería comparar por solapamiento un valor cualitativo sin filas en modo VDM")
+    void testDiferenciaValoresSinFilas() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DATASET);
+        // Sin la única fila azul, el valor sigue en el diccionario pero no tiene probabilidades de clase.
+        Distancia distancia = preparar(datos.seleccionar(new int[]{0, 1, 3, 4}), true);
+        double[] filas = datos.getFilas();
+        double[] pesos = {0.0, 0.0, 1.0};
+
+        assertEquals(1.0, distancia.calcular(filas, 6, filas, 0, 3, pesos), 1e-12);
+        assertEquals(1.0, distancia.calcular(filas, 6, filas, 9, 3, pesos), 1e-12);
+        assertEquals(0.0, distancia.calcular(filas, 6, filas, 6, 3, pesos), 1e-12);
+        assertEquals(0.25, distancia.calcular(filas, 0, filas, 9, 3, pesos), 1e-12);
+    }
+
+    /**
+     * @brief Prueba los errores de uso.
+     */
+    @Test
+    @DisplayName("Debería lanzar excepciones sin preparar, con otra dimensión o con índices que no la admiten")
+    void testErrores() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DATASET);
+        double[] filas = datos.getFilas();
+        assertThrows(IllegalStateException.class, () -> new DistanciaHeterogenea().calcular(filas, 0, filas, 3, 3, datos.getPesos()));
+        Distancia preparada = preparar(datos, false);
+        assertThrows(IllegalArgumentException.class, () -> preparada.calcular(filas, 0, filas, 3, 2, datos.getPesos()));
+        assertThrows(IllegalArgumentException.class, () -> new BusquedaExhaustiva(datos));
+        assertThrows(IllegalArgumentException.class, () -> new ArbolKD(datos));
+        assertNotNull(new ArbolBolas(datos, preparada));
+    }
+}
@@ -0,0 +1,87 @@
+package clasificacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file DistanciaMahalanobisTest.java
+ * @brief Clase de pruebas unitarias para la clase DistanciaMahalanobis.
+ */
+@DisplayName("Tests para la clase DistanciaMahalanobis")
+class DistanciaMahalanobisTest {
+
+    /**
+     * @brief Prueba que la distancia con una matriz explícita coincide con la forma cuadrática.
+     */
+    @Test
+    @DisplayName("Debería calcular (a - b)^T M (a - b) con la matriz indicada")
+    void testMatrizExplicita() {
+        double[][] m = {{2.0, 0.5}, {0.5, 1.0}};
+        DistanciaMahalanobis distancia = new DistanciaMahalanobis(m);
+        double[] a = {1.0, 2.0};
+        double[] b = {0.0, -1.0};
+
+        // d = (1, 3): 2 * 1 + 2 * 0.5 * 1 * 3 + 1 * 9 = 14
+        assertEquals(14.0, distancia.calcular(a, 0, b, 0, 2, new double[]{1.0, 1.0}), 1e-12);
+        assertTrue(distancia.calcularAcotada(a, 0, b, 0, 2, null, 1.0) >= 1.0);
+        assertEquals(Math.sqrt(14.0), distancia.haciaMetrica(14.0), 1e-12);
+        assertTrue(distancia.esMetrica());
+        assertFalse(distancia.admiteReordenar());
+        assertFalse(distancia.requierePreparacion());
+    }
+
+    /**
+     * @brief Prueba que construir desde la covarianza equivale a usar su inversa.
+     */
+    @Test
+    @DisplayName("Debería dar el mismo resultado desde la covarianza que desde su inversa")
+    void testDesdeCovarianza() {
+        double[][] covarianza = {{4.0, 1.0, 0.0}, {1.0, 2.0, 0.5}, {0.0, 0.5, 1.0}};
+        // Inversa calculada a mano: adj(C) / det(C), det = 6.
+        double[][] inversa = {{1.75 / 6, -1.0 / 6, 0.5 / 6}, {-1.0 / 6, 4.0 / 6, -2.0 / 6}, {0.5 / 6, -2.0 / 6, 7.0 / 6}};
+        Distancia desdeCovarianza = DistanciaMahalanobis.desdeCovarianza(covarianza);
+        Distancia desdeInversa = new DistanciaMahalanobis(inversa);
+        Random random = new Random(1L);
+        for (int i = 0; i < 20; i++) {
+            double[] a = DatosPrueba.consulta(3, random);
+            double[] b = DatosPrueba.consulta(3, random);
+            assertEquals(desdeInversa.calcular(a, 0, b, 0, 3, null), desdeCovarianza.calcular(a, 0, b, 0, 3, null), 1e-9);
+        }
+    }
+
+    /**
+     * @brief Prueba que sin matriz se estima la covarianza de los datos y se puede usar con KNN.
+     */
+    @Test
+    @DisplayName("Debería estimar la covarianza de los datos al prepararse")
+    void testPreparar() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(300, 4, 2, 3L));
+        DistanciaMahalanobis sinMatriz = new DistanciaMahalanobis();
+
+        assertTrue(sinMatriz.requierePreparacion());
+        assertThrows(IllegalStateException.class, () -> sinMatriz.calcular(new double[4], 0, new double[4], 0, 4, null));
+        Distancia preparada = sinMatriz.preparar(datos);
+        assertFalse(preparada.requierePreparacion());
+        assertSame(preparada, preparada.preparar(datos));
+        assertEquals(0.0, preparada.calcular(datos.getFilas(), 0, datos.getFilas(), 0, 4, null), 1e-12);
+        assertTrue(preparada.calcular(datos.getFilas(), 0, datos.getFilas(), 4, 4, null) > 0);
+    }
+
+    /**
+     * @brief Prueba que se rechazan matrices no válidas.
+     */
+    @Test
+    @DisplayName("Debería lanzar IllegalArgumentException con matrices no cuadradas o no definidas positivas")
+    void testMatrizInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> new DistanciaMahalanobis(null));
+        assertThrows(IllegalArgumentException.class, () -> new DistanciaMahalanobis(new double[][]{{1.0, 0.0}}));
+        assertThrows(IllegalArgumentException.class, () -> new DistanciaMahalanobis(new double[][]{{1.0, 2.0}, {2.0, 1.0}}));
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(10, 3, 2, 1L));
+        DistanciaMahalanobis dosDimensiones = new DistanciaMahalanobis(new double[][]{{1.0, 0.0}, {0.0, 1.0}});
+        assertThrows(IllegalArgumentException.class, () -> dosDimensiones.preparar(datos));
+    }
+}
@@ -0,0 +1,34 @@
+package clasificacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file DistanciaManhattanTest.java
+ * @brief Clase de pruebas unitarias para la clase DistanciaManhattan.
+ */
+@DisplayName("Tests para la clase DistanciaManhattan")
+class DistanciaManhattanTest {
+
+    /**
+     * @brief Prueba el cálculo ponderado, el abandono por cota y los metadatos.
+     */
+    @Test
+    @DisplayName("Debería calcular la suma ponderada de las diferencias absolutas")
+    void testCalcular() {
+        Distancia distancia = new DistanciaManhattan();
+        double[] a = {1.0, 2.0, -3.0};
+        double[] b = {0.0, 4.0, 1.0};
+        double[] pesos = {1.0, 0.5, 2.0};
+
+        // 1 * 1 + 0.5 * 2 + 2 * 4 = 10
+        assertEquals(10.0, distancia.calcular(a, 0, b, 0, 3, pesos), 1e-12);
+        assertEquals(10.0, distancia.calcularAcotada(a, 0, b, 0, 3, pesos, 11.0), 1e-12);
+        assertTrue(distancia.calcularAcotada(a, 0, b, 0, 3, pesos, 1.5) >= 1.5);
+        assertEquals(10.0, distancia.haciaMetrica(10.0), 1e-12);
+        assertTrue(distancia.esMetrica());
+        assertTrue(distancia.admiteReordenar());
+    }
+}
@@ -0,0 +1,62 @@
+package clasificacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file DistanciaMinkowskiTest.java
+ * @brief Clase de pruebas unitarias para la clase DistanciaMinkowski.
+ */
+@DisplayName("Tests para la clase DistanciaMinkowski")
+class DistanciaMinkowskiTest {
+
+    /**
+     * @brief Vectores de ejemplo.
+     */
+    private static final double[] A = {1.0, 2.0, -3.0};
+    private static final double[] B = {0.0, 4.0, 1.0};
+    private static final double[] PESOS = {1.0, 0.5, 2.0};
+
+    /**
+     * @brief Prueba que los órdenes 1 y 2 coinciden con Manhattan y con la euclídea.
+     */
+    @Test
+    @DisplayName("Debería coincidir con Manhattan para p = 1 y con la euclídea para p = 2")
+    void testOrdenesEspeciales() {
+        assertEquals(new DistanciaManhattan().calcular(A, 0, B, 0, 3, PESOS),
+                new DistanciaMinkowski(1).calcular(A, 0, B, 0, 3, PESOS), 1e-12);
+        assertEquals(new DistanciaEuclidea().calcular(A, 0, B, 0, 3, PESOS),
+                new DistanciaMinkowski(2).calcular(A, 0, B, 0, 3, PESOS), 1e-12);
+        assertEquals(3.0, new DistanciaMinkowski(2).haciaMetrica(9.0), 1e-12);
+    }
+
+    /**
+     * @brief Prueba un orden general, la raíz p-ésima y los metadatos.
+     */
+    @Test
+    @DisplayName("Debería calcular la suma ponderada de potencias y su raíz p-ésima")
+    void testOrdenGeneral() {
+        DistanciaMinkowski distancia = new DistanciaMinkowski(3);
+        // 1 * 1 + 0.5 * 8 + 2 * 64 = 133
+        assertEquals(133.0, distancia.calcular(A, 0, B, 0, 3, PESOS), 1e-9);
+        assertEquals(Math.cbrt(133.0), distancia.haciaMetrica(133.0), 1e-9);
+        assertTrue(distancia.calcularAcotada(A, 0, B, 0, 3, PESOS, 2.0) >= 2.0);
+        assertTrue(distancia.esMetrica());
+        assertFalse(new DistanciaMinkowski(0.5).esMetrica());
+        assertEquals(3.0, distancia.getP(), 0.0);
+    }
+
+    /**
+     * @brief Prueba que se rechazan los órdenes no válidos.
+     */
+    @Test
+    @DisplayName("Debería lanzar IllegalArgumentException con órdenes no positivos o infinitos")
+    void testOrdenInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> new DistanciaMinkowski(0));
+        assertThrows(IllegalArgumentException.class, () -> new DistanciaMinkowski(-1));
+        assertThrows(IllegalArgumentException.class, () -> new DistanciaMinkowski(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new DistanciaMinkowski(Double.POSITIVE_INFINITY));
+    }
+}
@@ -0,0 +1,122 @@
+package clasificacion;
+
+import datos.Dataset;
+import datos.Instancia;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file GrafoHNSWTest.java
+ * @brief Clase de pruebas unitarias para la clase GrafoHNSW.
+ *
+ * Al ser un índice aproximado, se mide la exhaustividad (fracción de los K vecinos
+ * exactos que devuelve el grafo) frente a una búsqueda exhaustiva.
+ */
+@DisplayName("Tests para la clase GrafoHNSW")
+class GrafoHNSWTest {
+
+    /**
+     * @brief Calcula la exhaustividad media de un grafo sobre consultas aleatorias.
+     *
+     * @param datos Los datos indexados.
+     * @param grafo El grafo a evaluar.
+     * @param ef El tamaño de la lista de candidatos para cada consulta.
+     * @param k El número de vecinos.
+     * @return La fracción de vecinos exactos encontrados.
+     */
+    private static double exhaustividad(DatosEntrenamiento datos, GrafoHNSW grafo, int ef, int k) {
+        Random random = new Random(29L);
+        int aciertos = 0;
+        int consultas = 50;
+        for (int c = 0; c < consultas; c++) {
+            double[] q = DatosPrueba.consulta(datos.getDimension(), random);
+            double umbral = DatosPrueba.distanciasExactas(datos, q, k)[k - 1];
+            MonticuloVecinos vecinos = new MonticuloVecinos(k);
+            grafo.buscar(q, vecinos, ef);
+            for (int i = 0; i < vecinos.tamano(); i++) {
+                if (vecinos.getDistancia(i) <= umbral + 1e-12) {
+                    aciertos++;
+                }
+            }
+        }
+        return aciertos / (double) (consultas * k);
+    }
+
+    /**
+     * @brief Prueba que el grafo alcanza una exhaustividad alta y que aumentar efBusqueda no la empeora.
+     */
+    @Test
+    @DisplayName("Debería encontrar casi todos los vecinos exactos y mejorar con efBusqueda")
+    void testExhaustividad() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(3000, 10, 4, 31L));
+        GrafoHNSW grafo = new GrafoHNSW(datos, 12, 100);
+
+        double baja = exhaustividad(datos, grafo, 10, 10);
+        double alta = exhaustividad(datos, grafo, 200, 10);
+        assertTrue(alta >= 0.95, "Exhaustividad con ef=200: " + alta);
+        assertTrue(alta >= baja);
+        assertTrue(grafo.getNivelMaximo() > 0);
+    }
+
+    /**
+     * @brief Prueba que con pocos datos y un efBusqueda mayor que el número de filas la búsqueda es exacta.
+     */
+    @Test
+    @DisplayName("Debería ser exacto cuando efBusqueda cubre todo el conjunto")
+    void testExactoConPocosDatos() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(60, 3, 2, 37L));
+        GrafoHNSW grafo = new GrafoHNSW(datos);
+        grafo.setEfBusqueda(100);
+        Random random = new Random(41L);
+        for (int c = 0; c < 20; c++) {
+            double[] q = DatosPrueba.consulta(3, random);
+            assertArrayEquals(DatosPrueba.distanciasExactas(datos, q, 5), DatosPrueba.distancias(grafo, q, 5), 1e-9);
+        }
+        assertEquals(100, grafo.getEfBusqueda());
+    }
+
+    /**
+     * @brief Prueba que el grafo puede usarse como índice de KNN y que se validan los parámetros.
+     */
+    @Test
+    @DisplayName("Debería servir como índice de KNN y rechazar parámetros inválidos")
+    void testKnnYParametros() {
+        KNN knn = new KNN(3);
+        knn.setIndice((d, distancia) -> new GrafoHNSW(d, distancia, 8, 50, 1234L));
+        knn.ajustar(DatosPrueba.aleatorio(200, 4, 3, 47L));
+        assertTrue(knn.getIndice() instanceof GrafoHNSW);
+        assertNotNull(knn.clasificar(new Instancia(Arrays.<Object>asList(0.5, 0.5, 0.5, 0.5, "?"))));
+
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(10, 2, 2, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new GrafoHNSW(datos, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new GrafoHNSW(datos, 8, 4));
+        assertThrows(IllegalArgumentException.class, () -> new GrafoHNSW(datos, null, 8, 50, 1L));
+        GrafoHNSW grafo = new GrafoHNSW(datos);
+        assertThrows(IllegalArgumentException.class, () -> grafo.setEfBusqueda(0));
+    }
+
+    /**
+     * @brief Prueba que las filas insertadas después de construir el grafo se encuentran igual que las originales.
+     */
+    @Test
+    @DisplayName("Debería mantener la exhaustividad al insertar filas tras construir el grafo")
+    void testInsertar() {
+        // Con la misma semilla, las primeras 1000 filas de ambos datasets coinciden.
+        Dataset completo = DatosPrueba.aleatorio(2000, 6, 4, 53L);
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(1000, 6, 4, 53L));
+        GrafoHNSW grafo = new GrafoHNSW(datos, 12, 100);
+        for (int i = 1000; i < completo.numeroCasos(); i++) {
+            assertTrue(grafo.insertar(datos.anadir(completo.getInstance(i))));
+        }
+
+        assertEquals(2000, datos.numeroFilas());
+        double alta = exhaustividad(datos, grafo, 200, 10);
+        assertTrue(alta >= 0.95, "Exhaustividad con ef=200: " + alta);
+        assertThrows(IllegalArgumentException.class, () -> grafo.insertar(2000));
+    }
+}
@@ -0,0 +1,141 @@
+package clasificacion;
+
+import datos.Dataset;
+import datos.Instancia;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file IndiceIVFTest.java
+ * @brief Clase de pruebas unitarias para la clase IndiceIVF.
+ *
+ * Al ser un índice aproximado, se mide la exhaustividad frente a una búsqueda exhaustiva;
+ * recorriendo todas las celdas el resultado debe ser exacto.
+ */
+@DisplayName("Tests para la clase IndiceIVF")
+class IndiceIVFTest {
+
+    /**
+     * @brief Calcula la exhaustividad media de un índice con un número de celdas recorridas.
+     *
+     * @param datos Los datos indexados.
+     * @param indice El índice a evaluar.
+     * @param sondas El número de celdas recorridas.
+     * @param k El número de vecinos.
+     * @return La fracción de vecinos exactos encontrados.
+     */
+    private static double exhaustividad(DatosEntrenamiento datos, IndiceIVF indice, int sondas, int k) {
+        Random random = new Random(101L);
+        int aciertos = 0;
+        int consultas = 40;
+        for (int c = 0; c < consultas; c++) {
+            double[] q = DatosPrueba.consulta(datos.getDimension(), random);
+            double umbral = DatosPrueba.distanciasExactas(datos, q, k)[k - 1];
+            MonticuloVecinos vecinos = new MonticuloVecinos(k);
+            indice.buscar(q, vecinos, sondas);
+            assertEquals(k, vecinos.tamano());
+            for (int i = 0; i < vecinos.tamano(); i++) {
+                if (vecinos.getDistancia(i) <= umbral + 1e-12) {
+                    aciertos++;
+                }
+            }
+        }
+        return aciertos / (double) (consultas * k);
+    }
+
+    /**
+     * @brief Prueba que la exhaustividad crece con las celdas recorridas y es total con todas.
+     */
+    @Test
+    @DisplayName("Debería mejorar con más celdas y ser exacto recorriéndolas todas")
+    void testExhaustividad() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(5000, 16, 4, 103L));
+        IndiceIVF indice = new IndiceIVF(datos, DistanciaEuclidea.preferida(), 64);
+
+        assertEquals(64, indice.numeroCeldas());
+        int total = 0;
+        for (int c = 0; c < indice.numeroCeldas(); c++) {
+            total += indice.tamanoCelda(c);
+        }
+        assertEquals(5000, total);
+        double una = exhaustividad(datos, indice, 1, 10);
+        double varias = exhaustividad(datos, indice, 16, 10);
+        assertTrue(varias >= 0.9, "Exhaustividad con 16 celdas: " + varias);
+        assertTrue(varias >= una);
+        assertEquals(1.0, exhaustividad(datos, indice, 64, 10), 0.0);
+    }
+
+    /**
+     * @brief Prueba que la construcción no depende del número de hilos y que admite datos fuera del montículo.
+     */
+    @Test
+    @DisplayName("Debería construir las mismas celdas con uno o varios hilos y fuera del montículo")
+    void testHilosYFueraMonticulo() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(3000, 8, 3, 107L));
+        DatosEntrenamiento fuera = new DatosEntrenamiento(DatosPrueba.aleatorio(3000, 8, 3, 107L));
+        fuera.moverFueraMonticulo();
+        ForkJoinPool unHilo = new ForkJoinPool(1);
+        try {
+            IndiceIVF secuencial = new IndiceIVF(datos, DistanciaEuclidea.preferida(), 20, 5L, unHilo);
+            IndiceIVF paralelo = new IndiceIVF(fuera, DistanciaEuclidea.preferida(), 20, 5L, ForkJoinPool.commonPool());
+            for (int c = 0; c < 20; c++) {
+                assertEquals(secuencial.tamanoCelda(c), paralelo.tamanoCelda(c));
+            }
+            Random random = new Random(109L);
+            for (int c = 0; c < 10; c++) {
+                double[] q = DatosPrueba.consulta(8, random);
+                assertArrayEquals(DatosPrueba.distancias(secuencial, q, 5), DatosPrueba.distancias(paralelo, q, 5), 0.0);
+            }
+        } finally {
+            unHilo.shutdown();
+        }
+    }
+
+    /**
+     * @brief Prueba que las filas insertadas se encuentran y que el índice sirve en KNN.
+     */
+    @Test
+    @DisplayName("Debería encontrar las filas insertadas y servir como índice de KNN")
+    void testInsertarYKnn() {
+        // Con la misma semilla, las primeras 1000 filas de ambos datasets coinciden.
+        Dataset completo = DatosPrueba.aleatorio(1500, 6, 3, 113L);
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(1000, 6, 3, 113L));
+        IndiceIVF indice = new IndiceIVF(datos, DistanciaEuclidea.preferida(), 16);
+        for (int i = 1000; i < completo.numeroCasos(); i++) {
+            assertTrue(indice.insertar(datos.anadir(completo.getInstance(i))));
+        }
+        Random random = new Random(127L);
+        for (int c = 0; c < 10; c++) {
+            double[] q = DatosPrueba.consulta(6, random);
+            MonticuloVecinos vecinos = new MonticuloVecinos(5);
+            indice.buscar(q, vecinos, 16);
+            vecinos.ordenar();
+            double[] esperadas = DatosPrueba.distanciasExactas(datos, q, 5);
+            for (int i = 0; i < 5; i++) {
+                assertEquals(esperadas[i], vecinos.getDistancia(i), 1e-9);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> indice.insertar(1500));
+
+        KNN knn = new KNN(3);
+        knn.setIndice(IndiceIVF::new);
+        knn.ajustar(DatosPrueba.aleatorio(400, 4, 3, 131L));
+        assertTrue(knn.getIndice() instanceof IndiceIVF);
+        assertNotNull(knn.clasificar(new Instancia(Arrays.<Object>asList(0.5, 0.5, 0.5, 0.5, "?"))));
+
+        assertThrows(IllegalArgumentException.class, () -> new IndiceIVF(datos, null, 4));
+        assertThrows(IllegalArgumentException.class, () -> new IndiceIVF(datos, DistanciaEuclidea.preferida(), 0));
+        assertThrows(IllegalArgumentException.class, () -> new IndiceIVF(datos, DistanciaEuclidea.preferida(), 4, 1L, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new IndiceIVF(new DatosEntrenamiento(DatosPrueba.mixto("0,r,0,A", "1,v,1,B"))));
+        assertThrows(IllegalArgumentException.class, () -> indice.setSondas(0));
+        indice.setSondas(3);
+        assertEquals(3, indice.getSondas());
+    }
+}
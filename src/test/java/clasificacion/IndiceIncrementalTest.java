@@ -0,0 +1,101 @@
+package clasificacion;
+
+import datos.Dataset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file IndiceIncrementalTest.java
+ * @brief Clase de pruebas unitarias para la clase IndiceIncremental.
+ *
+ * Tras añadir y eliminar filas, los vecinos deben coincidir con los de una búsqueda
+ * exhaustiva sobre los datos compactados.
+ */
+@DisplayName("Tests para la clase IndiceIncremental")
+class IndiceIncrementalTest {
+
+    /**
+     * @brief Añade a los datos y al índice las filas del dataset completo que faltan en los datos.
+     *
+     * @param datos Los datos, construidos con las primeras filas del dataset.
+     * @param indice El índice incremental.
+     * @param completo El dataset completo.
+     */
+    private static void anadirRestantes(DatosEntrenamiento datos, IndiceIncremental indice, Dataset completo) {
+        for (int i = datos.numeroFilas(); i < completo.numeroCasos(); i++) {
+            assertTrue(indice.insertar(datos.anadir(completo.getInstance(i))));
+        }
+    }
+
+    /**
+     * @brief Prueba que un árbol KD con filas añadidas y eliminadas devuelve los vecinos exactos.
+     */
+    @Test
+    @DisplayName("Debería buscar en las filas pendientes y descartar las eliminadas")
+    void testInsertarYEliminar() {
+        // Con la misma semilla, las primeras 300 filas de ambos datasets coinciden.
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(300, 4, 3, 61L));
+        IndiceIncremental indice = new IndiceIncremental(datos, new ArbolKD(datos), DistanciaEuclidea.preferida());
+        anadirRestantes(datos, indice, DatosPrueba.aleatorio(400, 4, 3, 61L));
+        for (int fila = 0; fila < datos.numeroFilas(); fila += 7) {
+            datos.eliminar(fila);
+        }
+        assertEquals(100, indice.numeroPendientes());
+        assertEquals(400, datos.numeroFilas());
+
+        DatosEntrenamiento compactados = datos.compactar();
+        BusquedaExhaustiva referencia = new BusquedaExhaustiva(compactados);
+        Random random = new Random(67L);
+        double[][] consultas = new double[20][];
+        MonticuloVecinos[] lote = new MonticuloVecinos[consultas.length];
+        for (int c = 0; c < consultas.length; c++) {
+            consultas[c] = DatosPrueba.consulta(4, random);
+            lote[c] = new MonticuloVecinos(10);
+            assertArrayEquals(DatosPrueba.distancias(referencia, consultas[c], 10), DatosPrueba.distancias(indice, consultas[c], 10), 1e-9);
+
+            double radio = DatosPrueba.distancias(referencia, consultas[c], 10)[9];
+            MonticuloVecinos dentro = indice.buscarRadio(consultas[c], radio);
+            assertEquals(referencia.buscarRadio(consultas[c], radio).tamano(), dentro.tamano());
+            for (int i = 0; i < dentro.tamano(); i++) {
+                assertFalse(datos.estaEliminada(dentro.getFila(i)));
+            }
+        }
+        indice.buscarLote(consultas, lote);
+        for (int c = 0; c < consultas.length; c++) {
+            lote[c].ordenar();
+            double[] esperadas = DatosPrueba.distancias(referencia, consultas[c], 10);
+            for (int i = 0; i < 10; i++) {
+                assertEquals(esperadas[i], lote[c].getDistancia(i), 1e-9);
+                assertFalse(datos.estaEliminada(lote[c].getFila(i)));
+            }
+        }
+    }
+
+    /**
+     * @brief Prueba que las filas que acepta el índice base no quedan pendientes.
+     */
+    @Test
+    @DisplayName("Debería delegar las inserciones en el índice base cuando las admite")
+    void testInsercionEnIndiceBase() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(50, 3, 2, 71L));
+        GrafoHNSW grafo = new GrafoHNSW(datos);
+        grafo.setEfBusqueda(200);
+        IndiceIncremental indice = new IndiceIncremental(datos, grafo, DistanciaEuclidea.preferida());
+        anadirRestantes(datos, indice, DatosPrueba.aleatorio(80, 3, 2, 71L));
+        datos.eliminar(3);
+
+        assertEquals(0, indice.numeroPendientes());
+        assertSame(grafo, indice.getBase());
+        Random random = new Random(73L);
+        for (int c = 0; c < 10; c++) {
+            double[] q = DatosPrueba.consulta(3, random);
+            assertArrayEquals(DatosPrueba.distanciasExactas(datos.compactar(), q, 5), DatosPrueba.distancias(indice, q, 5), 1e-9);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new IndiceIncremental(datos, null, DistanciaEuclidea.preferida()));
+        assertThrows(IllegalArgumentException.class, () -> new IndiceIncremental(null, grafo, DistanciaEuclidea.preferida()));
+    }
+}
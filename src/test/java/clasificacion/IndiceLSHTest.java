@@ -0,0 +1,166 @@
+package clasificacion;
+
+import datos.Instancia;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file IndiceLSHTest.java
+ * @brief Clase de pruebas unitarias para la clase IndiceLSH.
+ *
+ * Al ser un índice aproximado, se mide la exhaustividad (fracción de los K vecinos
+ * exactos que devuelve el índice) frente a una búsqueda exhaustiva, con consultas
+ * cercanas a filas de los datos.
+ */
+@DisplayName("Tests para la clase IndiceLSH")
+class IndiceLSHTest {
+
+    /**
+     * @brief Genera consultas desplazando ligeramente filas elegidas al azar.
+     *
+     * @param datos Los datos indexados.
+     * @param numConsultas El número de consultas.
+     * @return Las consultas.
+     */
+    private static double[][] consultas(DatosEntrenamiento datos, int numConsultas) {
+        Random random = new Random(61L);
+        double[][] consultas = new double[numConsultas][datos.getDimension()];
+        for (double[] consulta : consultas) {
+            datos.leerFilas(random.nextInt(datos.numeroFilas()), 1, consulta, 0);
+            for (int j = 0; j < consulta.length; j++) {
+                consulta[j] += 0.2 * random.nextGaussian();
+            }
+        }
+        return consultas;
+    }
+
+    /**
+     * @brief Calcula la exhaustividad media de un índice con un número de sondas.
+     *
+     * @param exacta La búsqueda exacta de referencia, con la misma distancia.
+     * @param indice El índice a evaluar.
+     * @param consultas Las consultas.
+     * @param sondas El número de sondas por tabla.
+     * @param k El número de vecinos.
+     * @return La fracción de vecinos exactos encontrados.
+     */
+    private static double exhaustividad(BusquedaExhaustiva exacta, IndiceLSH indice, double[][] consultas, int sondas, int k) {
+        int aciertos = 0;
+        for (double[] q : consultas) {
+            double umbral = DatosPrueba.distancias(exacta, q, k)[k - 1];
+            MonticuloVecinos vecinos = new MonticuloVecinos(k);
+            indice.buscar(q, vecinos, sondas);
+            assertEquals(k, vecinos.tamano());
+            for (int i = 0; i < vecinos.tamano(); i++) {
+                if (vecinos.getDistancia(i) <= umbral + 1e-12) {
+                    aciertos++;
+                }
+            }
+        }
+        return aciertos / (double) (consultas.length * k);
+    }
+
+    /**
+     * @brief Prueba que con muchas dimensiones la distancia euclídea alcanza una exhaustividad alta y mejora con las sondas.
+     */
+    @Test
+    @DisplayName("Debería encontrar casi todos los vecinos euclídeos y mejorar con el sondeo múltiple")
+    void testExhaustividadEuclidea() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(4000, 64, 4, 67L));
+        IndiceLSH indice = new IndiceLSH(datos);
+        double[][] consultas = consultas(datos, 40);
+        BusquedaExhaustiva exacta = new BusquedaExhaustiva(datos);
+
+        double sinSondas = exhaustividad(exacta, indice, consultas, 0, 10);
+        double conSondas = exhaustividad(exacta, indice, consultas, 16, 10);
+        assertTrue(conSondas >= 0.9, "Exhaustividad con 16 sondas: " + conSondas);
+        assertTrue(conSondas >= sinSondas);
+        assertTrue(indice.getAnchura() > 0);
+        assertTrue(indice.numeroCubetas(0) > 1);
+    }
+
+    /**
+     * @brief Prueba que con la distancia del coseno se usan hiperplanos y se alcanza una exhaustividad alta.
+     */
+    @Test
+    @DisplayName("Debería encontrar casi todos los vecinos con la distancia del coseno")
+    void testExhaustividadCoseno() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(4000, 64, 4, 71L));
+        DistanciaCoseno coseno = new DistanciaCoseno();
+        IndiceLSH indice = new IndiceLSH(datos, coseno, 16, 12, 0.0, 5L);
+        double[][] consultas = consultas(datos, 40);
+
+        double sinSondas = exhaustividad(new BusquedaExhaustiva(datos, coseno), indice, consultas, 0, 10);
+        double conSondas = exhaustividad(new BusquedaExhaustiva(datos, coseno), indice, consultas, 8, 10);
+        assertTrue(conSondas >= 0.9, "Exhaustividad con 8 sondas: " + conSondas);
+        assertTrue(conSondas >= sinSondas);
+        assertEquals(0.0, indice.getAnchura(), 0.0);
+    }
+
+    /**
+     * @brief Prueba que el índice da los mismos vecinos con las filas fuera del montículo y respeta las filas eliminadas.
+     */
+    @Test
+    @DisplayName("Debería dar los mismos vecinos fuera del montículo y excluir las filas eliminadas")
+    void testFueraMonticuloYEliminadas() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(1500, 32, 3, 73L));
+        DatosEntrenamiento fuera = new DatosEntrenamiento(DatosPrueba.aleatorio(1500, 32, 3, 73L));
+        fuera.moverFueraMonticulo();
+        IndiceLSH enMonticulo = new IndiceLSH(datos);
+        IndiceLSH fueraMonticulo = new IndiceLSH(fuera);
+        for (double[] q : consultas(datos, 10)) {
+            assertArrayEquals(DatosPrueba.distancias(enMonticulo, q, 5), DatosPrueba.distancias(fueraMonticulo, q, 5), 0.0);
+        }
+
+        List<Integer> eliminadas = new ArrayList<>();
+        for (int fila = 0; fila < datos.numeroFilas(); fila += 2) {
+            datos.eliminar(fila);
+            eliminadas.add(fila);
+        }
+        for (double[] q : consultas(datos, 10)) {
+            MonticuloVecinos vecinos = new MonticuloVecinos(5);
+            vecinos.setExcluidas(datos.getEliminadas());
+            enMonticulo.buscar(q, vecinos);
+            assertEquals(5, vecinos.tamano());
+            for (int i = 0; i < vecinos.tamano(); i++) {
+                assertFalse(eliminadas.contains(vecinos.getFila(i)));
+            }
+        }
+    }
+
+    /**
+     * @brief Prueba que el índice puede usarse en KNN y que se validan los parámetros.
+     */
+    @Test
+    @DisplayName("Debería servir como índice de KNN y rechazar parámetros inválidos")
+    void testKnnYParametros() {
+        KNN knn = new KNN(3);
+        knn.setIndice(IndiceLSH::new);
+        knn.ajustar(DatosPrueba.aleatorio(300, 4, 3, 79L));
+        assertTrue(knn.getIndice() instanceof IndiceLSH);
+        assertNotNull(knn.clasificar(new Instancia(Arrays.<Object>asList(0.5, 0.5, 0.5, 0.5, "?"))));
+
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(10, 2, 2, 1L));
+        DistanciaEuclidea euclidea = new DistanciaEuclidea();
+        assertThrows(IllegalArgumentException.class, () -> new IndiceLSH(datos, null));
+        assertThrows(IllegalArgumentException.class, () -> new IndiceLSH(datos, new DistanciaManhattan()));
+        assertThrows(IllegalArgumentException.class, () -> new IndiceLSH(datos, euclidea, 0, 4, 0.0, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new IndiceLSH(datos, euclidea, 4, 65, 0.0, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new IndiceLSH(datos, euclidea, 4, 4, -1.0, 1L));
+        assertThrows(IllegalArgumentException.class,
+                () -> new IndiceLSH(new DatosEntrenamiento(DatosPrueba.mixto("0,r,0,A", "1,v,1,B")), euclidea));
+        IndiceLSH indice = new IndiceLSH(datos);
+        assertThrows(IllegalArgumentException.class, () -> indice.setSondas(-1));
+        indice.setSondas(0);
+        assertEquals(0, indice.getSondas());
+        // Con pocas filas y sin sondas, las filas restantes completan el resultado.
+        assertEquals(10, DatosPrueba.distancias(indice, new double[]{100.0, -100.0}, 10).length);
+    }
+}
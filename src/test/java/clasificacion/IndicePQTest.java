@@ -0,0 +1,137 @@
+package clasificacion;
+
+import datos.Dataset;
+import datos.Instancia;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file IndicePQTest.java
+ * @brief Clase de pruebas unitarias para la clase IndicePQ.
+ *
+ * Se mide la exhaustividad frente a una búsqueda exhaustiva con y sin reordenar las
+ * candidatas con la distancia exacta, y la compresión de las filas.
+ */
+@DisplayName("Tests para la clase IndicePQ")
+class IndicePQTest {
+
+    /**
+     * @brief Calcula la exhaustividad media de un índice con un número de candidatas a reordenar.
+     *
+     * @param datos Los datos indexados.
+     * @param indice El índice a evaluar.
+     * @param reordenar El número de candidatas por vecino que se reordenan.
+     * @param k El número de vecinos.
+     * @return La fracción de vecinos exactos encontrados.
+     */
+    private static double exhaustividad(DatosEntrenamiento datos, IndicePQ indice, int reordenar, int k) {
+        Random random = new Random(137L);
+        BusquedaExhaustiva exacta = new BusquedaExhaustiva(datos);
+        int aciertos = 0;
+        int consultas = 40;
+        for (int c = 0; c < consultas; c++) {
+            double[] q = DatosPrueba.consulta(datos.getDimension(), random);
+            MonticuloVecinos esperados = new MonticuloVecinos(k);
+            exacta.buscar(q, esperados);
+            MonticuloVecinos vecinos = new MonticuloVecinos(k);
+            indice.buscar(q, vecinos, reordenar);
+            assertEquals(k, vecinos.tamano());
+            for (int i = 0; i < k; i++) {
+                for (int j = 0; j < k; j++) {
+                    if (vecinos.getFila(i) == esperados.getFila(j)) {
+                        aciertos++;
+                    }
+                }
+            }
+        }
+        return aciertos / (double) (consultas * k);
+    }
+
+    /**
+     * @brief Prueba que las filas se comprimen unas 32 veces y que reordenar recupera casi todos los vecinos.
+     */
+    @Test
+    @DisplayName("Debería comprimir las filas y encontrar casi todos los vecinos al reordenar")
+    void testExhaustividadYCompresion() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(5000, 32, 4, 139L));
+        IndicePQ indice = new IndicePQ(datos);
+
+        assertEquals(8, indice.numeroSubespacios());
+        assertEquals(5000L * 32 * Double.BYTES / 32, indice.bytesCodigos());
+        double aproximada = exhaustividad(datos, indice, 0, 10);
+        double reordenada = exhaustividad(datos, indice, 10, 10);
+        assertTrue(reordenada >= 0.9, "Exhaustividad reordenando 100 candidatas: " + reordenada);
+        assertTrue(reordenada >= aproximada);
+        assertTrue(aproximada >= 0.3, "Exhaustividad sin reordenar: " + aproximada);
+    }
+
+    /**
+     * @brief Prueba que el índice da los mismos vecinos fuera del montículo y que codifica las filas insertadas.
+     */
+    @Test
+    @DisplayName("Debería dar los mismos vecinos fuera del montículo y codificar las filas insertadas")
+    void testFueraMonticuloEInsertar() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(2000, 12, 3, 149L));
+        DatosEntrenamiento fuera = new DatosEntrenamiento(DatosPrueba.aleatorio(2000, 12, 3, 149L));
+        fuera.moverFueraMonticulo();
+        IndicePQ enMonticulo = new IndicePQ(datos, 4);
+        IndicePQ fueraMonticulo = new IndicePQ(fuera, 4);
+        Random random = new Random(151L);
+        for (int c = 0; c < 10; c++) {
+            double[] q = DatosPrueba.consulta(12, random);
+            assertArrayEquals(DatosPrueba.distancias(enMonticulo, q, 5), DatosPrueba.distancias(fueraMonticulo, q, 5), 0.0);
+        }
+
+        // Con la misma semilla, las primeras 2000 filas de ambos datasets coinciden.
+        Dataset completo = DatosPrueba.aleatorio(2100, 12, 3, 149L);
+        for (int i = 2000; i < completo.numeroCasos(); i++) {
+            assertTrue(enMonticulo.insertar(datos.anadir(completo.getInstance(i))));
+        }
+        assertEquals(2100L * 4, enMonticulo.bytesCodigos());
+        // Con todas las filas como candidatas, la reordenación da los vecinos exactos.
+        for (int c = 0; c < 10; c++) {
+            double[] q = DatosPrueba.consulta(12, random);
+            MonticuloVecinos vecinos = new MonticuloVecinos(5);
+            enMonticulo.buscar(q, vecinos, 420);
+            vecinos.ordenar();
+            double[] esperadas = DatosPrueba.distanciasExactas(datos, q, 5);
+            for (int i = 0; i < 5; i++) {
+                assertEquals(esperadas[i], vecinos.getDistancia(i), 1e-9);
+            }
+        }
+        assertFalse(enMonticulo.insertar(5));
+        assertThrows(IllegalArgumentException.class, () -> enMonticulo.insertar(2100));
+    }
+
+    /**
+     * @brief Prueba que el índice puede usarse en KNN y que se validan los parámetros.
+     */
+    @Test
+    @DisplayName("Debería servir como índice de KNN y rechazar parámetros inválidos")
+    void testKnnYParametros() {
+        KNN knn = new KNN(3);
+        knn.setIndice(IndicePQ::new);
+        knn.ajustar(DatosPrueba.aleatorio(400, 8, 3, 157L));
+        assertTrue(knn.getIndice() instanceof IndicePQ);
+        assertNotNull(knn.clasificar(new Instancia(Arrays.<Object>asList(0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, "?"))));
+
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(50, 3, 2, 1L));
+        assertEquals(3, new IndicePQ(datos, 10).numeroSubespacios());
+        assertThrows(IllegalArgumentException.class, () -> new IndicePQ(datos, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new IndicePQ(datos, new DistanciaManhattan(), 2, 1L, ForkJoinPool.commonPool()));
+        assertThrows(IllegalArgumentException.class, () -> new IndicePQ(datos, DistanciaEuclidea.preferida(), 2, 1L, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new IndicePQ(new DatosEntrenamiento(DatosPrueba.mixto("0,r,0,A", "1,v,1,B"))));
+        IndicePQ indice = new IndicePQ(datos);
+        assertThrows(IllegalArgumentException.class, () -> indice.setReordenar(-1));
+        indice.setReordenar(0);
+        assertEquals(0, indice.getReordenar());
+    }
+}
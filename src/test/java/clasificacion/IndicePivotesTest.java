@@ -0,0 +1,154 @@
+package clasificacion;
+
+import datos.Dataset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file IndicePivotesTest.java
+ * @brief Clase de pruebas unitarias para la clase IndicePivotes.
+ *
+ * Los vecinos deben coincidir con los de una búsqueda exhaustiva con la misma métrica,
+ * calculando solo una parte de las distancias.
+ */
+@DisplayName("Tests para la clase IndicePivotes")
+class IndicePivotesTest {
+
+    /**
+     * @brief Métrica propia que cuenta las distancias calculadas (Manhattan ponderada).
+     */
+    private static class ManhattanContada implements Distancia {
+        /**
+         * @brief Número de distancias calculadas.
+         */
+        private int llamadas;
+
+        /**
+         * @brief Calcula la distancia Manhattan ponderada y cuenta la llamada.
+         *
+         * @param a Array que contiene el primer vector.
+         * @param desdeA Posición del primer vector.
+         * @param b Array que contiene el segundo vector.
+         * @param desdeB Posición del segundo vector.
+         * @param dimension Número de valores de cada vector.
+         * @param pesos Peso de cada dimensión.
+         * @return La distancia.
+         */
+        @Override
+        public double calcular(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos) {
+            llamadas++;
+            double suma = 0;
+            for (int j = 0; j < dimension; j++) {
+                suma += pesos[j] * Math.abs(a[desdeA + j] - b[desdeB + j]);
+            }
+            return suma;
+        }
+
+        /**
+         * @brief La distancia Manhattan es una métrica.
+         *
+         * @return `true`.
+         */
+        @Override
+        public boolean esMetrica() {
+            return true;
+        }
+    }
+
+    /**
+     * @brief Prueba que con una métrica propia los vecinos son exactos y se calculan pocas distancias.
+     */
+    @Test
+    @DisplayName("Debería devolver los vecinos exactos calculando pocas distancias")
+    void testExactoConPoda() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(4000, 4, 3, 163L));
+        ManhattanContada metrica = new ManhattanContada();
+        IndicePivotes indice = new IndicePivotes(datos, metrica, 12, 7L);
+        BusquedaExhaustiva exhaustiva = new BusquedaExhaustiva(datos, new DistanciaManhattan());
+        IndicePivotes euclideo = new IndicePivotes(datos);
+        Random random = new Random(167L);
+        int consultas = 30;
+        metrica.llamadas = 0;
+        for (int c = 0; c < consultas; c++) {
+            double[] q = DatosPrueba.consulta(4, random);
+            assertArrayEquals(DatosPrueba.distancias(exhaustiva, q, 10), DatosPrueba.distancias(indice, q, 10), 1e-9);
+            assertArrayEquals(DatosPrueba.distanciasExactas(datos, q, 10), DatosPrueba.distancias(euclideo, q, 10), 1e-9);
+        }
+        // Las 12 distancias a los pivotes más las que la tabla no descarta, muy por debajo de las 4000 filas.
+        assertTrue(metrica.llamadas < consultas * 4000 / 4, "Distancias calculadas: " + metrica.llamadas);
+    }
+
+    /**
+     * @brief Prueba que la búsqueda por radio es exacta y que se excluyen las filas eliminadas.
+     */
+    @Test
+    @DisplayName("Debería buscar por radio y excluir las filas eliminadas")
+    void testRadioYEliminadas() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(1500, 3, 3, 173L));
+        IndicePivotes indice = new IndicePivotes(datos);
+        BusquedaExhaustiva exhaustiva = new BusquedaExhaustiva(datos);
+        Random random = new Random(179L);
+        for (int c = 0; c < 10; c++) {
+            double[] q = DatosPrueba.consulta(3, random);
+            double radio = DatosPrueba.distanciasExactas(datos, q, 25)[24];
+            assertEquals(exhaustiva.buscarRadio(q, radio).tamano(), indice.buscarRadio(q, radio).tamano());
+        }
+
+        for (int fila = 0; fila < datos.numeroFilas(); fila += 3) {
+            datos.eliminar(fila);
+        }
+        for (int c = 0; c < 10; c++) {
+            double[] q = DatosPrueba.consulta(3, random);
+            MonticuloVecinos esperados = new MonticuloVecinos(5);
+            MonticuloVecinos vecinos = new MonticuloVecinos(5);
+            esperados.setExcluidas(datos.getEliminadas());
+            vecinos.setExcluidas(datos.getEliminadas());
+            exhaustiva.buscar(q, esperados);
+            indice.buscar(q, vecinos);
+            esperados.ordenar();
+            vecinos.ordenar();
+            for (int i = 0; i < 5; i++) {
+                assertEquals(esperados.getDistancia(i), vecinos.getDistancia(i), 1e-9);
+                assertFalse(datos.estaEliminada(vecinos.getFila(i)));
+            }
+        }
+    }
+
+    /**
+     * @brief Prueba que el índice se reconstruye con su tabla, admite inserciones y funciona fuera del montículo.
+     */
+    @Test
+    @DisplayName("Debería reconstruirse con su tabla, insertar filas y funcionar fuera del montículo")
+    void testTablaInsertarYFueraMonticulo() {
+        // Con la misma semilla, las primeras 800 filas de ambos datasets coinciden.
+        Dataset completo = DatosPrueba.aleatorio(900, 5, 3, 181L);
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(800, 5, 3, 181L));
+        IndicePivotes indice = new IndicePivotes(datos);
+        for (int i = 800; i < completo.numeroCasos(); i++) {
+            assertTrue(indice.insertar(datos.anadir(completo.getInstance(i))));
+        }
+        assertEquals(900, indice.numeroFilas());
+        assertEquals(900 * IndicePivotes.PIVOTES_POR_DEFECTO, indice.getTabla().length);
+        assertFalse(indice.insertar(3));
+
+        datos.moverFueraMonticulo();
+        IndicePivotes recuperado = new IndicePivotes(datos, DistanciaEuclidea.preferida(), indice.getPivotes(), indice.getTabla());
+        Random random = new Random(191L);
+        for (int c = 0; c < 10; c++) {
+            double[] q = DatosPrueba.consulta(5, random);
+            assertArrayEquals(DatosPrueba.distanciasExactas(datos, q, 7), DatosPrueba.distancias(recuperado, q, 7), 1e-9);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new IndicePivotes(datos, new DistanciaCoseno()));
+        assertThrows(IllegalArgumentException.class, () -> new IndicePivotes(datos, DistanciaEuclidea.preferida(), 0, 1L));
+        assertThrows(IllegalArgumentException.class,
+                () -> new IndicePivotes(datos, DistanciaEuclidea.preferida(), indice.getPivotes(), new double[5]));
+        assertThrows(IllegalArgumentException.class,
+                () -> new IndicePivotes(datos, DistanciaEuclidea.preferida(), new int[]{900}, new double[900]));
+        assertThrows(IllegalArgumentException.class, () -> indice.insertar(900));
+    }
+}
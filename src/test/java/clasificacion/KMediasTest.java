@@ -0,0 +1,89 @@
+package clasificacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file KMediasTest.java
+ * @brief Clase de pruebas unitarias para la clase KMedias.
+ *
+ * Con grupos bien separados, los centroides deben coincidir con los centros de los
+ * grupos, y el resultado no debe depender del número de hilos.
+ */
+@DisplayName("Tests para la clase KMedias")
+class KMediasTest {
+
+    /**
+     * @brief Genera filas alrededor de cuatro centros separados en el plano.
+     *
+     * @param numFilas El número de filas.
+     * @return Las filas empaquetadas, de dimensión 2.
+     */
+    private static double[] grupos(int numFilas) {
+        double[][] centros = {{0, 0}, {10, 0}, {0, 10}, {10, 10}};
+        Random random = new Random(97L);
+        double[] valores = new double[numFilas * 2];
+        for (int fila = 0; fila < numFilas; fila++) {
+            double[] centro = centros[fila % centros.length];
+            valores[2 * fila] = centro[0] + 0.5 * random.nextGaussian();
+            valores[2 * fila + 1] = centro[1] + 0.5 * random.nextGaussian();
+        }
+        return valores;
+    }
+
+    /**
+     * @brief Prueba que se encuentran los centros de grupos separados y que las filas se asignan a su grupo.
+     */
+    @Test
+    @DisplayName("Debería encontrar los centros de grupos separados")
+    void testAgrupar() {
+        double[] valores = grupos(2000);
+        double[] pesos = {1.0, 1.0};
+        KMedias kMedias = new KMedias(4, 50, 3L);
+        double[] centroides = kMedias.agrupar(valores, 2000, 2, pesos);
+
+        assertEquals(8, centroides.length);
+        double[][] centros = {{0, 0}, {10, 0}, {0, 10}, {10, 10}};
+        for (double[] centro : centros) {
+            int c = KMedias.masCercano(centroides, centro, 0, 2, pesos);
+            assertEquals(centro[0], centroides[2 * c], 0.1);
+            assertEquals(centro[1], centroides[2 * c + 1], 0.1);
+        }
+        int[] asignaciones = kMedias.asignar(centroides, valores, 2000, 2, pesos);
+        for (int fila = 4; fila < 2000; fila++) {
+            assertEquals(asignaciones[fila % 4], asignaciones[fila]);
+        }
+    }
+
+    /**
+     * @brief Prueba que el resultado es el mismo con uno o varios hilos y que se validan los parámetros.
+     */
+    @Test
+    @DisplayName("Debería dar los mismos centroides con uno o varios hilos")
+    void testHilosYParametros() {
+        double[] valores = grupos(5000);
+        double[] pesos = {0.5, 2.0};
+        KMedias paralelo = new KMedias(16);
+        KMedias secuencial = new KMedias(16);
+        ForkJoinPool unHilo = new ForkJoinPool(1);
+        try {
+            secuencial.setPool(unHilo);
+            assertArrayEquals(secuencial.agrupar(valores, 5000, 2, pesos), paralelo.agrupar(valores, 5000, 2, pesos), 0.0);
+        } finally {
+            unHilo.shutdown();
+        }
+
+        // Con menos filas que centroides, cada fila es un centroide.
+        assertEquals(6, paralelo.agrupar(valores, 3, 2, pesos).length);
+        assertEquals(16, paralelo.getNumCentroides());
+        assertThrows(IllegalArgumentException.class, () -> new KMedias(0));
+        assertThrows(IllegalArgumentException.class, () -> new KMedias(4, 0, 1L));
+        assertThrows(IllegalArgumentException.class, () -> paralelo.agrupar(new double[0], 0, 2, pesos));
+        assertThrows(IllegalArgumentException.class, () -> paralelo.setPool(null));
+    }
+}
@@ -15,6 +15,9 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -592,4 +595,698 @@ class KNNTest {
         String clasePredicha = knn.clasificar(dataset, prueba);
         assertEquals("ClaseA", clasePredicha, "Debería clasificar como la clase de la instancia idéntica");
     }
-}
\ No newline at end of file
+
+    /**
+     * @brief Construye un dataset real con dos atributos cuantitativos y una clase.
+     *
+     * @param filas Las filas del dataset en formato "x,y,clase".
+     * @return El {@link Dataset} construido.
+     */
+    private static Dataset crearDatasetReal(String... filas) {
+        List<Atributo> atributos = new ArrayList<>();
+        atributos.add(new Cuantitativo("x"));
+        atributos.add(new Cuantitativo("y"));
+        atributos.add(new Cualitativo("clase"));
+        Dataset dataset = new Dataset(atributos);
+        for (String fila : filas) {
+            dataset.add(Arrays.asList(fila.split(",")));
+        }
+        return dataset;
+    }
+
+    /**
+     * @brief Prueba que el modo ajustado produce la misma clase que la clasificación sin ajustar.
+     */
+    @Test
+    @DisplayName("El modo ajustado debería clasificar igual que el modo sin ajustar")
+    void testClasificarAjustadoCoincideConSinAjustar() {
+        Dataset dataset = crearDatasetReal("1.0,1.0,A", "1.1,1.1,A", "5.0,5.0,B", "1.2,1.2,A", "5.5,5.0,B", "10.0,10.0,C");
+        Instancia prueba = new Instancia(Arrays.<Object>asList(4.8, 4.9, "?"));
+        knn = new KNN(3);
+
+        String sinAjustar = knn.clasificar(dataset, prueba);
+        knn.ajustar(dataset);
+
+        assertTrue(knn.estaAjustado());
+        assertEquals(sinAjustar, knn.clasificar(prueba));
+        assertEquals("A", knn.clasificar(new Instancia(Arrays.<Object>asList(1.0, 1.0, "?"))));
+    }
+
+    /**
+     * @brief Prueba que los pesos del dataset se tienen en cuenta en el modo ajustado.
+     */
+    @Test
+    @DisplayName("El modo ajustado debería aplicar los pesos de los atributos")
+    void testClasificarAjustadoConPesos() {
+        Dataset dataset = crearDatasetReal("1.0,0.0,A", "0.0,1.0,B");
+        dataset.cambiarPeso(1, 0.0);
+        knn = new KNN(1);
+        knn.ajustar(dataset);
+
+        // Solo cuenta el primer atributo: (0.9, 0.0) está más cerca de A en x.
+        assertEquals("A", knn.clasificar(new Instancia(Arrays.<Object>asList(0.9, 0.0, "?"))));
+    }
+
+    /**
+     * @brief Prueba que el modo ajustado rechaza consultas inválidas y exige ajuste previo.
+     */
+    @Test
+    @DisplayName("El modo ajustado debería devolver null ante consultas inválidas y exigir ajuste previo")
+    void testClasificarAjustadoEntradasInvalidas() {
+        assertFalse(knn.estaAjustado());
+        assertThrows(IllegalStateException.class, () -> knn.clasificar(new Instancia(Arrays.<Object>asList(1.0, 1.0, "?"))));
+
+        knn.ajustar(crearDatasetReal("1.0,1.0,A"));
+        assertNull(knn.clasificar(null));
+        assertNull(knn.clasificar(new Instancia(Arrays.<Object>asList(1.0, "?"))));
+    }
+
+    /**
+     * @brief Prueba que el clasificador ajustado con un árbol KD predice lo mismo que con búsqueda exhaustiva.
+     */
+    @Test
+    @DisplayName("El modo ajustado con árbol KD debería clasificar igual que con búsqueda exhaustiva")
+    void testClasificarAjustadoConArbolKD() {
+        Dataset dataset = DatosPrueba.aleatorio(1000, 3, 3, 21L);
+        KNN exhaustivo = new KNN(5);
+        exhaustivo.ajustar(dataset);
+        KNN conArbol = new KNN(5);
+        conArbol.setIndice(ArbolKD::new);
+        conArbol.ajustar(dataset);
+
+        assertTrue(conArbol.getIndice() instanceof ArbolKD);
+        Random random = new Random(4L);
+        for (int i = 0; i < 30; i++) {
+            double[] q = DatosPrueba.consulta(3, random);
+            Instancia prueba = new Instancia(Arrays.<Object>asList(q[0], q[1], q[2], "?"));
+            assertEquals(exhaustivo.clasificar(prueba), conArbol.clasificar(prueba));
+        }
+        assertThrows(IllegalArgumentException.class, () -> conArbol.setIndice(null));
+    }
+
+    /**
+     * @brief Prueba que los índices configurados reciben la distancia configurada y no la euclídea.
+     */
+    @Test
+    @DisplayName("Los índices configurados deberían usar la distancia configurada en el clasificador")
+    void testIndiceConDistanciaConfigurada() {
+        Dataset dataset = DatosPrueba.aleatorio(500, 3, 3, 23L);
+        KNN exhaustivo = new KNN(5);
+        exhaustivo.setDistancia(new DistanciaManhattan());
+        exhaustivo.ajustar(dataset);
+        KNN conArbol = new KNN(5);
+        conArbol.setDistancia(new DistanciaManhattan());
+        conArbol.setIndice(ArbolBolas::new);
+        conArbol.ajustar(dataset);
+
+        assertTrue(conArbol.getIndice() instanceof ArbolBolas);
+        Random random = new Random(6L);
+        for (int i = 0; i < 50; i++) {
+            double[] q = DatosPrueba.consulta(3, random);
+            Instancia prueba = new Instancia(Arrays.<Object>asList(q[0], q[1], q[2], "?"));
+            assertEquals(exhaustivo.clasificar(prueba), conArbol.clasificar(prueba));
+            assertArrayEquals(exhaustivo.buscarVecinos(prueba).getDistancias(), conArbol.buscarVecinos(prueba).getDistancias(), 1e-12);
+        }
+
+        // El árbol KD solo admite la distancia euclídea: se rechaza y se conserva el índice anterior.
+        assertThrows(IllegalArgumentException.class, () -> conArbol.setIndice(ArbolKD::new));
+        assertTrue(conArbol.getIndice() instanceof ArbolBolas);
+        KNN sinAjustar = new KNN(5);
+        sinAjustar.setDistancia(new DistanciaManhattan());
+        sinAjustar.setIndice(ArbolKD::new);
+        assertThrows(IllegalArgumentException.class, () -> sinAjustar.ajustar(dataset));
+        assertFalse(sinAjustar.estaAjustado());
+    }
+
+    /**
+     * @brief Prueba que la clasificación por lotes coincide con la clasificación individual y respeta el orden.
+     */
+    @Test
+    @DisplayName("clasificarLote debería devolver las mismas clases que clasificar en el orden de entrada")
+    void testClasificarLote() {
+        Dataset dataset = DatosPrueba.aleatorio(500, 3, 4, 8L);
+        Random random = new Random(12L);
+        List<Instancia> pruebas = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            double[] q = DatosPrueba.consulta(3, random);
+            pruebas.add(new Instancia(Arrays.<Object>asList(q[0], q[1], q[2], "?")));
+        }
+        pruebas.add(new Instancia(Arrays.<Object>asList(1.0, "?")));
+        knn = new KNN(5);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            knn.setPool(pool);
+            List<String> predicciones = knn.clasificarLote(dataset, pruebas);
+
+            assertEquals(pruebas.size(), predicciones.size());
+            for (int i = 0; i < pruebas.size(); i++) {
+                assertEquals(knn.clasificar(pruebas.get(i)), predicciones.get(i));
+            }
+            assertNull(predicciones.get(pruebas.size() - 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @brief Prueba que el lote coincide con la clasificación individual aunque los valores sean grandes frente a las distancias.
+     */
+    @Test
+    @DisplayName("clasificarLote debería coincidir con clasificar con atributos del orden de 1e7")
+    void testClasificarLoteValoresGrandes() {
+        Dataset dataset = DatosPrueba.aleatorio(1500, 4, 3, 31L, 1e7);
+        Random random = new Random(37L);
+        List<Instancia> pruebas = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            double[] q = DatosPrueba.consulta(4, random);
+            pruebas.add(new Instancia(Arrays.<Object>asList(1e7 + q[0], 1e7 + q[1], 1e7 + q[2], 1e7 + q[3], "?")));
+        }
+        knn = new KNN(5);
+        List<String> predicciones = knn.clasificarLote(dataset, pruebas);
+        for (int i = 0; i < pruebas.size(); i++) {
+            assertEquals(knn.clasificar(pruebas.get(i)), predicciones.get(i), "Instancia " + i);
+        }
+    }
+
+    /**
+     * @brief Prueba los casos límite de la clasificación por lotes.
+     */
+    @Test
+    @DisplayName("clasificarLote debería manejar entradas vacías, nulas y clasificadores sin ajustar")
+    void testClasificarLoteEntradasInvalidas() {
+        List<Instancia> pruebas = Collections.singletonList(new Instancia(Arrays.<Object>asList(1.0, 1.0, "?")));
+
+        assertEquals(Collections.singletonList(null), knn.clasificarLote(null, pruebas));
+        assertThrows(IllegalStateException.class, () -> knn.clasificarLote(pruebas));
+        assertThrows(IllegalArgumentException.class, () -> knn.clasificarLote(crearDatasetReal("1.0,1.0,A"), null));
+        assertThrows(IllegalArgumentException.class, () -> knn.setPool(null));
+        assertTrue(knn.clasificarLote(crearDatasetReal("1.0,1.0,A"), new ArrayList<>()).isEmpty());
+    }
+
+    /**
+     * @brief Prueba que la clasificación sin ajustar conserva solo los K vecinos más cercanos con muchos datos.
+     */
+    @Test
+    @DisplayName("clasificar sin ajustar debería coincidir con el modo ajustado en un dataset grande")
+    void testClasificarSinAjustarDatasetGrande() {
+        // Dos clases y K impar: no hay empates en la votación.
+        Dataset dataset = DatosPrueba.aleatorio(2000, 3, 2, 16L);
+        Random random = new Random(2L);
+        for (int valorK : new int[]{1, 7}) {
+            knn = new KNN(valorK);
+            knn.ajustar(dataset);
+            for (int i = 0; i < 25; i++) {
+                double[] q = DatosPrueba.consulta(3, random);
+                Instancia prueba = new Instancia(Arrays.<Object>asList(q[0], q[1], q[2], "?"));
+                assertEquals(knn.clasificar(prueba), knn.clasificar(dataset, prueba));
+            }
+        }
+    }
+
+    /**
+     * @brief Prueba que se pueden usar otras distancias y que cambiarla obliga a ajustar de nuevo.
+     */
+    @Test
+    @DisplayName("setDistancia debería cambiar la distancia y descartar el ajuste anterior")
+    void testSetDistancia() {
+        Dataset dataset = DatosPrueba.aleatorio(500, 3, 2, 21L);
+        knn = new KNN(5);
+        assertThrows(IllegalArgumentException.class, () -> knn.setDistancia(null));
+        knn.ajustar(dataset);
+        assertTrue(knn.estaAjustado());
+
+        Random random = new Random(9L);
+        for (Distancia distancia : new Distancia[]{new DistanciaManhattan(), new DistanciaChebyshev(), new DistanciaMahalanobis()}) {
+            knn.setDistancia(distancia);
+            assertSame(distancia, knn.getDistancia());
+            assertFalse(knn.estaAjustado());
+            knn.ajustar(dataset);
+            for (int i = 0; i < 10; i++) {
+                double[] q = DatosPrueba.consulta(3, random);
+                Instancia prueba = new Instancia(Arrays.<Object>asList(q[0], q[1], q[2], "?"));
+                assertEquals(knn.clasificar(prueba), knn.clasificar(dataset, prueba));
+            }
+        }
+    }
+
+    /**
+     * @brief Prueba que sin ajustar la distancia preparada se reutiliza mientras el dataset no cambie.
+     */
+    @Test
+    @DisplayName("clasificar sin ajustar debería preparar la distancia una sola vez por dataset")
+    void testClasificarSinAjustarReutilizaPreparacion() {
+        Dataset dataset = DatosPrueba.aleatorio(300, 3, 2, 23L);
+        int[] preparaciones = new int[1];
+        Distancia distancia = new DistanciaMahalanobis() {
+            @Override
+            public Distancia preparar(DatosEntrenamiento datos) {
+                preparaciones[0]++;
+                return super.preparar(datos);
+            }
+        };
+        knn = new KNN(5);
+        knn.setDistancia(distancia);
+        KNN ajustado = new KNN(5);
+        ajustado.setDistancia(distancia);
+        Random random = new Random(29L);
+        List<Instancia> pruebas = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            double[] q = DatosPrueba.consulta(3, random);
+            pruebas.add(new Instancia(Arrays.<Object>asList(q[0], q[1], q[2], "?")));
+        }
+        ajustado.ajustar(dataset);
+        preparaciones[0] = 0;
+        for (Instancia prueba : pruebas) {
+            assertEquals(ajustado.clasificar(prueba), knn.clasificar(dataset, prueba));
+        }
+        assertEquals(1, preparaciones[0]);
+
+        // Al añadir un caso, la distancia se prepara de nuevo sobre los datos actuales.
+        dataset.add(new Instancia(Arrays.<Object>asList(0.5, 0.5, 0.5, dataset.getInstance(0).getValores().get(3))));
+        ajustado.ajustar(dataset);
+        preparaciones[0] = 0;
+        for (Instancia prueba : pruebas) {
+            assertEquals(ajustado.clasificar(prueba), knn.clasificar(dataset, prueba));
+        }
+        assertEquals(1, preparaciones[0]);
+    }
+
+    /**
+     * @brief Prueba que los atributos cualitativos participan en la distancia del modo ajustado.
+     */
+    @Test
+    @DisplayName("ajustar debería usar la distancia heterogénea con atributos cualitativos")
+    void testClasificarAtributosCualitativos() {
+        // Los valores numéricos son iguales: solo el color distingue las clases.
+        Dataset dataset = DatosPrueba.mixto("1.0,rojo,1.0,A", "1.0,rojo,1.0,A", "1.0,azul,1.0,B", "1.0,azul,1.0,B");
+        knn = new KNN(1);
+        knn.ajustar(dataset);
+
+        assertTrue(knn.getDistancia() instanceof DistanciaEuclidea);
+        assertEquals("A", knn.clasificar(new Instancia(Arrays.<Object>asList(1.0, "rojo", 1.0, "?"))));
+        assertEquals("B", knn.clasificar(new Instancia(Arrays.<Object>asList(1.0, "azul", 1.0, "?"))));
+
+        knn.setDistancia(new DistanciaHeterogenea(true));
+        knn.ajustar(dataset);
+        assertEquals(Arrays.asList("B", "A"), knn.clasificarLote(Arrays.asList(
+                new Instancia(Arrays.<Object>asList(1.0, "azul", 1.0, "?")),
+                new Instancia(Arrays.<Object>asList(1.0, "rojo", 1.0, "?")))));
+    }
+
+    /**
+     * @brief Prueba las puntuaciones por clase con votos uniformes y ponderados por la distancia.
+     */
+    @Test
+    @DisplayName("predecirProbabilidades debería devolver la proporción de votos de cada clase")
+    void testPredecirProbabilidades() {
+        Dataset dataset = crearDatasetReal("0.0,0.0,A", "1.0,0.0,A", "0.0,4.0,B", "9.0,9.0,C");
+        knn = new KNN(3);
+        knn.ajustar(dataset);
+        Instancia prueba = new Instancia(Arrays.<Object>asList(0.0, 1.0, "?"));
+
+        assertEquals(Arrays.asList("A", "B", "C"), knn.getClases());
+        assertArrayEquals(new double[]{2.0 / 3, 1.0 / 3, 0.0}, knn.predecirProbabilidades(prueba), 1e-12);
+
+        // Distancias 1, sqrt(2) y 3: los votos son sus inversos.
+        knn.setVotoPonderado(true);
+        assertTrue(knn.esVotoPonderado());
+        double total = 1.0 + 1.0 / Math.sqrt(2.0) + 1.0 / 3.0;
+        assertArrayEquals(new double[]{(1.0 + 1.0 / Math.sqrt(2.0)) / total, (1.0 / 3.0) / total, 0.0},
+                knn.predecirProbabilidades(prueba), 1e-12);
+
+        // Con un vecino a distancia 0 solo vota él.
+        assertArrayEquals(new double[]{0.0, 1.0, 0.0},
+                knn.predecirProbabilidades(new Instancia(Arrays.<Object>asList(0.0, 4.0, "?"))), 1e-12);
+    }
+
+    /**
+     * @brief Prueba la versión que reutiliza el array de puntuaciones y sus casos límite.
+     */
+    @Test
+    @DisplayName("predecirProbabilidades debería reutilizar el array indicado y validar sus entradas")
+    void testPredecirProbabilidadesReutilizandoArray() {
+        assertThrows(IllegalStateException.class, () -> knn.predecirProbabilidades(new Instancia(Arrays.<Object>asList(0.0, 0.0, "?"))));
+        assertThrows(IllegalStateException.class, () -> knn.getClases());
+        knn = new KNN(2);
+        knn.ajustar(crearDatasetReal("0.0,0.0,A", "1.0,0.0,B"));
+        double[] probabilidades = new double[3];
+
+        assertTrue(knn.predecirProbabilidades(new Instancia(Arrays.<Object>asList(0.0, 0.0, "?")), probabilidades));
+        assertArrayEquals(new double[]{0.5, 0.5, 0.0}, probabilidades, 1e-12);
+        assertFalse(knn.predecirProbabilidades(new Instancia(Arrays.<Object>asList(0.0, "?")), probabilidades));
+        assertArrayEquals(new double[3], probabilidades, 0.0);
+        assertNull(knn.predecirProbabilidades((Instancia) null));
+        assertThrows(IllegalArgumentException.class, () -> knn.predecirProbabilidades(new Instancia(Arrays.<Object>asList(0.0, 0.0, "?")), new double[1]));
+        assertThrows(IllegalArgumentException.class, () -> knn.predecirProbabilidades(new Instancia(Arrays.<Object>asList(0.0, 0.0, "?")), null));
+    }
+
+    /**
+     * @brief Prueba que los empates se resuelven a favor de la clase con el vecino más cercano.
+     */
+    @Test
+    @DisplayName("Los empates deberían resolverse a favor de la clase con el vecino más cercano")
+    void testDesempateDeterminista() {
+        // A tiene menor código, pero el vecino más cercano a la consulta es de B.
+        Dataset dataset = crearDatasetReal("0.0,0.0,A", "3.0,0.0,B");
+        knn = new KNN(2);
+        knn.ajustar(dataset);
+        Instancia prueba = new Instancia(Arrays.<Object>asList(2.0, 0.0, "?"));
+
+        assertEquals("B", knn.clasificar(prueba));
+        assertEquals("B", knn.clasificar(dataset, prueba));
+        assertEquals(Collections.singletonList("B"), knn.clasificarLote(Collections.singletonList(prueba)));
+        // A igual distancia gana la clase del vecino de menor fila.
+        assertEquals("A", knn.clasificar(new Instancia(Arrays.<Object>asList(1.5, 0.0, "?"))));
+    }
+
+    /**
+     * @brief Prueba que un empate completo se resuelve por la fila del vecino más cercano, igual en todos los modos.
+     */
+    @Test
+    @DisplayName("Un empate completo debería resolverse igual con y sin ajustar")
+    void testDesempatePorFila() {
+        // A tiene menor código, pero el vecino de B a la misma distancia está en una fila anterior.
+        Dataset dataset = crearDatasetReal("5.0,0.0,A", "0.0,0.0,B", "3.0,0.0,A");
+        Instancia prueba = new Instancia(Arrays.<Object>asList(1.5, 0.0, "?"));
+        for (boolean ponderado : new boolean[]{false, true}) {
+            knn = new KNN(2);
+            knn.setVotoPonderado(ponderado);
+            assertEquals("B", knn.clasificar(dataset, prueba));
+            knn.ajustar(dataset);
+            assertEquals("B", knn.clasificar(prueba));
+            assertEquals("B", knn.clasificar(dataset, prueba));
+            assertEquals(Collections.singletonList("B"), knn.clasificarLote(Collections.singletonList(prueba)));
+            assertArrayEquals(new String[]{"B", "B"}, knn.clasificarMultiplesK(prueba, 2));
+        }
+    }
+
+    /**
+     * @brief Prueba que buscarVecinos devuelve índices de instancia y distancias ordenadas.
+     */
+    @Test
+    @DisplayName("buscarVecinos debería devolver los índices y distancias de los K vecinos más cercanos")
+    void testBuscarVecinos() {
+        Dataset dataset = crearDatasetReal("0.0,0.0,A", "3.0,4.0,B", "1.0,0.0,A", "9.0,9.0,C");
+        knn = new KNN(2);
+        assertThrows(IllegalStateException.class, () -> knn.buscarVecinos(new Instancia(Arrays.<Object>asList(0.0, 0.0, "?"))));
+        knn.ajustar(dataset);
+        Instancia prueba = new Instancia(Arrays.<Object>asList(0.0, 0.0, "?"));
+
+        ResultadoVecinos vecinos = knn.buscarVecinos(prueba);
+        assertEquals(2, vecinos.tamano());
+        assertArrayEquals(new int[]{0, 2}, vecinos.getFilas());
+        assertArrayEquals(new double[]{0.0, 1.0}, vecinos.getDistancias(), 1e-12);
+
+        ResultadoVecinos tres = knn.buscarVecinos(prueba, 3);
+        assertArrayEquals(new int[]{0, 2, 1}, tres.getFilas());
+        assertEquals(5.0, tres.getDistancias()[2], 1e-12);
+        assertEquals(4, knn.buscarVecinos(prueba, 10).tamano());
+        assertNull(knn.buscarVecinos(new Instancia(Arrays.<Object>asList(0.0, "?"))));
+        assertThrows(IllegalArgumentException.class, () -> knn.buscarVecinos(prueba, 0));
+    }
+
+    /**
+     * @brief Prueba la búsqueda por radio con la búsqueda exhaustiva y con un índice que usa la implementación por defecto.
+     */
+    @Test
+    @DisplayName("buscarVecinosEnRadio debería devolver exactamente las instancias dentro del radio")
+    void testBuscarVecinosEnRadio() {
+        Dataset dataset = DatosPrueba.aleatorio(800, 3, 2, 5L);
+        knn = new KNN(5);
+        knn.ajustar(dataset);
+        KNN conArbol = new KNN(5);
+        conArbol.setIndice(ArbolKD::new);
+        conArbol.ajustar(dataset);
+        DatosEntrenamiento datos = new DatosEntrenamiento(dataset);
+        Random random = new Random(3L);
+        for (int i = 0; i < 10; i++) {
+            double[] q = DatosPrueba.consulta(3, random);
+            Instancia prueba = new Instancia(Arrays.<Object>asList(q[0], q[1], q[2], "?"));
+            double radio = 0.5 + i * 0.3;
+            int esperadas = 0;
+            for (int fila = 0; fila < datos.numeroFilas(); fila++) {
+                if (Math.sqrt(new DistanciaEuclidea().calcular(q, 0, datos.getFilas(), fila * 3, 3, datos.getPesos())) <= radio) {
+                    esperadas++;
+                }
+            }
+            ResultadoVecinos exhaustivo = knn.buscarVecinosEnRadio(prueba, radio);
+            ResultadoVecinos arbol = conArbol.buscarVecinosEnRadio(prueba, radio);
+            assertEquals(esperadas, exhaustivo.tamano());
+            assertEquals(esperadas, arbol.tamano());
+            for (int j = 0; j < esperadas; j++) {
+                assertTrue(exhaustivo.getDistancias()[j] <= radio);
+                assertEquals(exhaustivo.getDistancias()[j], arbol.getDistancias()[j], 1e-9);
+                assertTrue(j == 0 || exhaustivo.getDistancias()[j - 1] <= exhaustivo.getDistancias()[j]);
+            }
+        }
+        Instancia prueba = new Instancia(Arrays.<Object>asList(0.0, 0.0, 0.0, "?"));
+        assertThrows(IllegalArgumentException.class, () -> knn.buscarVecinosEnRadio(prueba, -1.0));
+        assertThrows(IllegalArgumentException.class, () -> knn.buscarVecinosEnRadio(prueba, Double.NaN));
+        assertEquals(dataset.numeroCasos(), knn.buscarVecinosEnRadio(prueba, Double.POSITIVE_INFINITY).tamano());
+    }
+
+    /**
+     * @brief Prueba que las predicciones para varios K en una pasada coinciden con clasificadores independientes.
+     */
+    @Test
+    @DisplayName("clasificarMultiplesK debería coincidir con un clasificador por cada valor de K")
+    void testClasificarMultiplesK() {
+        Dataset dataset = DatosPrueba.aleatorio(600, 3, 3, 8L);
+        int kMaximo = 15;
+        knn.ajustar(dataset);
+        KNN[] porK = new KNN[kMaximo];
+        for (int valorK = 1; valorK <= kMaximo; valorK++) {
+            porK[valorK - 1] = new KNN(valorK);
+            porK[valorK - 1].ajustar(dataset);
+        }
+        Random random = new Random(12L);
+        List<Instancia> pruebas = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            double[] q = DatosPrueba.consulta(3, random);
+            pruebas.add(new Instancia(Arrays.<Object>asList(q[0], q[1], q[2], "?")));
+        }
+        for (boolean ponderado : new boolean[]{false, true}) {
+            knn.setVotoPonderado(ponderado);
+            List<String[]> lote = knn.clasificarLoteMultiplesK(pruebas, kMaximo);
+            for (int i = 0; i < pruebas.size(); i++) {
+                String[] predicciones = knn.clasificarMultiplesK(pruebas.get(i), kMaximo);
+                assertArrayEquals(predicciones, lote.get(i));
+                for (int valorK = 1; valorK <= kMaximo; valorK++) {
+                    porK[valorK - 1].setVotoPonderado(ponderado);
+                    assertEquals(porK[valorK - 1].clasificar(pruebas.get(i)), predicciones[valorK - 1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Prueba los casos límite de la clasificación con varios K.
+     */
+    @Test
+    @DisplayName("clasificarMultiplesK debería validar sus entradas y repetir la predicción si faltan vecinos")
+    void testClasificarMultiplesKCasosLimite() {
+        Instancia prueba = new Instancia(Arrays.<Object>asList(0.0, 0.0, "?"));
+        assertThrows(IllegalStateException.class, () -> knn.clasificarMultiplesK(prueba, 3));
+        knn.ajustar(crearDatasetReal("0.0,0.0,A", "5.0,5.0,B"));
+
+        assertArrayEquals(new String[]{"A", "A", "A", "A"}, knn.clasificarMultiplesK(prueba, 4));
+        assertNull(knn.clasificarMultiplesK(new Instancia(Arrays.<Object>asList(0.0, "?")), 3));
+        assertThrows(IllegalArgumentException.class, () -> knn.clasificarMultiplesK(prueba, 0));
+        assertThrows(IllegalArgumentException.class, () -> knn.clasificarLoteMultiplesK(null, 3));
+        assertTrue(knn.clasificarLoteMultiplesK(new ArrayList<>(), 3).isEmpty());
+    }
+
+    /**
+     * @brief Obtiene el índice construido por la fábrica, sin el envoltorio incremental.
+     *
+     * @param indice El índice del clasificador.
+     * @return El índice base.
+     */
+    private static IndiceVecinos indiceBase(IndiceVecinos indice) {
+        return indice instanceof IndiceIncremental ? ((IndiceIncremental) indice).getBase() : indice;
+    }
+
+    /**
+     * @brief Genera consultas aleatorias de tres dimensiones.
+     *
+     * @param cantidad El número de consultas.
+     * @param semilla La semilla del generador.
+     * @return Las instancias de consulta.
+     */
+    private static List<Instancia> consultasAleatorias(int cantidad, long semilla) {
+        Random random = new Random(semilla);
+        List<Instancia> pruebas = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            double[] q = DatosPrueba.consulta(3, random);
+            pruebas.add(new Instancia(Arrays.<Object>asList(q[0], q[1], q[2], "?")));
+        }
+        return pruebas;
+    }
+
+    /**
+     * @brief Prueba que insertar y eliminar instancias da los mismos vecinos que ajustar con el dataset resultante.
+     */
+    @Test
+    @DisplayName("insertar y eliminar deberían actualizar el clasificador ajustado sin reajustarlo")
+    void testInsertarYEliminar() {
+        Instancia nueva = new Instancia(Arrays.<Object>asList(0.0, 0.0, 0.0, "A"));
+        assertThrows(IllegalStateException.class, () -> knn.insertar(nueva));
+        assertThrows(IllegalStateException.class, () -> knn.eliminar(0));
+        assertThrows(IllegalStateException.class, () -> knn.compactar());
+
+        // Con la misma semilla, las primeras 300 filas de los datasets coinciden.
+        knn = new KNN(5);
+        knn.setIndice(ArbolKD::new);
+        knn.ajustar(DatosPrueba.aleatorio(300, 3, 3, 83L));
+        Dataset completo = DatosPrueba.aleatorio(400, 3, 3, 83L);
+        Dataset referencia = DatosPrueba.aleatorio(400, 3, 3, 83L);
+        for (int i = 300; i < completo.numeroCasos(); i++) {
+            assertEquals(i, knn.insertar(completo.getInstance(i)));
+        }
+        assertEquals(-1, knn.insertar(new Instancia(Arrays.<Object>asList(0.0, "?"))));
+        for (int identificador = 399; identificador >= 0; identificador -= 6) {
+            assertTrue(knn.eliminar(identificador));
+            referencia.delete(identificador);
+        }
+        assertFalse(knn.eliminar(399));
+        assertFalse(knn.eliminar(1000));
+
+        KNN exacto = new KNN(5);
+        exacto.ajustar(referencia);
+        List<Instancia> pruebas = consultasAleatorias(20, 89L);
+        List<ResultadoVecinos> antes = new ArrayList<>();
+        for (Instancia prueba : pruebas) {
+            ResultadoVecinos vecinos = knn.buscarVecinos(prueba);
+            assertArrayEquals(exacto.buscarVecinos(prueba).getDistancias(), vecinos.getDistancias(), 1e-9);
+            for (int identificador : vecinos.getFilas()) {
+                assertNotEquals(0, (399 - identificador) % 6);
+            }
+            assertEquals(exacto.clasificar(prueba), knn.clasificar(prueba));
+            antes.add(vecinos);
+        }
+        assertEquals(exacto.clasificarLote(pruebas), knn.clasificarLote(pruebas));
+
+        // Compactar libera las filas eliminadas sin cambiar los identificadores.
+        knn.compactar();
+        assertTrue(knn.getIndice() instanceof ArbolKD);
+        for (int i = 0; i < pruebas.size(); i++) {
+            ResultadoVecinos despues = knn.buscarVecinos(pruebas.get(i));
+            assertArrayEquals(antes.get(i).getFilas(), despues.getFilas());
+            assertArrayEquals(antes.get(i).getDistancias(), despues.getDistancias(), 1e-12);
+        }
+        assertThrows(IllegalArgumentException.class, () -> knn.setProporcionCompactacion(0.0));
+    }
+
+    /**
+     * @brief Prueba que la compactación automática reconstruye el índice en segundo plano sin perder cambios.
+     *
+     * @throws InterruptedException Si se interrumpe la espera.
+     */
+    @Test
+    @DisplayName("Debería compactar en segundo plano y conservar los cambios hechos mientras tanto")
+    void testCompactacionEnSegundoPlano() throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        knn.setPool(pool);
+        knn.setIndice(ArbolKD::new);
+        knn.setProporcionCompactacion(0.1);
+        assertEquals(0.1, knn.getProporcionCompactacion());
+        knn.ajustar(DatosPrueba.aleatorio(300, 3, 3, 97L));
+        IndiceVecinos inicial = knn.getIndice();
+        Dataset completo = DatosPrueba.aleatorio(400, 3, 3, 97L);
+        Dataset referencia = DatosPrueba.aleatorio(400, 3, 3, 97L);
+        for (int i = 300; i < completo.numeroCasos(); i++) {
+            knn.insertar(completo.getInstance(i));
+        }
+        for (int identificador = 390; identificador >= 0; identificador -= 10) {
+            knn.eliminar(identificador);
+            referencia.delete(identificador);
+        }
+
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (indiceBase(knn.getIndice()) == inicial && System.nanoTime() < limite) {
+            Thread.sleep(5);
+            // Cualquier modificación instala la compactación terminada si no pudo instalarse sola.
+            knn.eliminar(-1);
+        }
+        assertNotSame(inicial, indiceBase(knn.getIndice()));
+        assertTrue(indiceBase(knn.getIndice()) instanceof ArbolKD);
+
+        KNN exacto = new KNN(3);
+        exacto.ajustar(referencia);
+        for (Instancia prueba : consultasAleatorias(20, 101L)) {
+            assertArrayEquals(exacto.buscarVecinos(prueba, 10).getDistancias(), knn.buscarVecinos(prueba, 10).getDistancias(), 1e-9);
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * @brief Prueba que al ajustar fuera del montículo se omiten las instancias inválidas y se preparan las distancias.
+     */
+    @Test
+    @DisplayName("Debería empaquetar fuera del montículo omitiendo instancias inválidas y preparando la distancia")
+    void testFueraMonticuloSinCopiaEnMonticulo() {
+        TestInstancia inst1 = new TestInstancia(new TestVector(1.0, 1.0), "ClaseA");
+        TestInstancia instNullVector = new TestInstancia(null, "ClaseNull");
+        TestInstancia inst2 = new TestInstancia(new TestVector(4.0, 4.0), "ClaseB");
+        Dataset conInvalidas = new TestDataset(Arrays.asList(instNullVector, inst1, inst2), Arrays.asList(1.0, 1.0, 0.0));
+        KNN fuera = new KNN(1);
+        fuera.setFueraMonticulo(true);
+        fuera.ajustar(conInvalidas);
+        assertEquals(2, fuera.buscarVecinos(new TestInstancia(new TestVector(0.0, 0.0), null), 5).tamano());
+        assertEquals("ClaseB", fuera.clasificar(new TestInstancia(new TestVector(3.5, 3.5), null)));
+
+        Dataset dataset = DatosPrueba.aleatorio(400, 3, 3, 127L);
+        KNN dentro = new KNN(5);
+        dentro.setDistancia(new DistanciaMahalanobis());
+        dentro.ajustar(dataset);
+        KNN mahalanobis = new KNN(5);
+        mahalanobis.setDistancia(new DistanciaMahalanobis());
+        mahalanobis.setFueraMonticulo(true);
+        mahalanobis.ajustar(dataset);
+        for (Instancia prueba : consultasAleatorias(20, 131L)) {
+            assertArrayEquals(dentro.buscarVecinos(prueba).getFilas(), mahalanobis.buscarVecinos(prueba).getFilas());
+        }
+    }
+
+    /**
+     * @brief Prueba que guardar los datos fuera del montículo no cambia los resultados.
+     */
+    @Test
+    @DisplayName("Debería dar los mismos resultados con los datos fuera del montículo")
+    void testFueraMonticulo() {
+        Dataset dataset = DatosPrueba.aleatorio(500, 3, 3, 103L);
+        KNN fuera = new KNN(5);
+        fuera.setFueraMonticulo(true);
+        assertTrue(fuera.esFueraMonticulo());
+        fuera.ajustar(dataset);
+        KNN dentro = new KNN(5);
+        dentro.ajustar(dataset);
+
+        for (Instancia prueba : consultasAleatorias(20, 107L)) {
+            assertEquals(dentro.clasificar(prueba), fuera.clasificar(prueba));
+            ResultadoVecinos esperados = dentro.buscarVecinos(prueba);
+            assertArrayEquals(esperados.getFilas(), fuera.buscarVecinos(prueba).getFilas());
+            double radio = esperados.getDistancias()[esperados.getDistancias().length - 1];
+            assertArrayEquals(dentro.buscarVecinosEnRadio(prueba, radio).getFilas(), fuera.buscarVecinosEnRadio(prueba, radio).getFilas());
+        }
+        assertEquals(dentro.clasificarLote(consultasAleatorias(30, 109L)), fuera.clasificarLote(consultasAleatorias(30, 109L)));
+
+        // Las eliminaciones y la compactación mantienen los datos fuera del montículo; las inserciones no se admiten.
+        assertThrows(IllegalStateException.class, () -> fuera.insertar(dataset.getInstance(0)));
+        for (int identificador = 0; identificador < 500; identificador += 4) {
+            assertTrue(fuera.eliminar(identificador));
+            assertTrue(dentro.eliminar(identificador));
+        }
+        fuera.compactar();
+        for (Instancia prueba : consultasAleatorias(20, 113L)) {
+            assertArrayEquals(dentro.buscarVecinos(prueba).getFilas(), fuera.buscarVecinos(prueba).getFilas());
+        }
+
+        assertThrows(IllegalStateException.class, () -> fuera.setIndice(ArbolKD::new));
+        assertTrue(fuera.getIndice() instanceof BusquedaExhaustiva);
+        KNN conArbol = new KNN(5);
+        conArbol.setIndice(ArbolKD::new);
+        conArbol.setFueraMonticulo(true);
+        assertThrows(IllegalStateException.class, () -> conArbol.ajustar(dataset));
+    }
+}
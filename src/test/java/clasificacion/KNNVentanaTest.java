@@ -0,0 +1,152 @@
+package clasificacion;
+
+import datos.Dataset;
+import datos.Instancia;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file KNNVentanaTest.java
+ * @brief Clase de pruebas unitarias para la clase KNNVentana.
+ *
+ * Verifica que la ventana conserva solo las instancias más recientes (por número y por
+ * tiempo) y que clasifica igual que un {@link KNN} ajustado con esas mismas instancias.
+ */
+@DisplayName("Tests para la clase KNNVentana")
+class KNNVentanaTest {
+
+    /**
+     * @brief Crea una instancia bidimensional etiquetada.
+     *
+     * @param x El primer valor.
+     * @param y El segundo valor.
+     * @param clase La clase.
+     * @return La instancia.
+     */
+    private static Instancia instancia(double x, double y, String clase) {
+        return new Instancia(Arrays.<Object>asList(x, y, clase));
+    }
+
+    /**
+     * @brief Prueba que al llenarse la ventana se descarta la instancia más antigua.
+     */
+    @Test
+    @DisplayName("Debería descartar la instancia más antigua cuando la ventana está llena")
+    void testDescartaLaMasAntigua() {
+        KNNVentana ventana = new KNNVentana(1, 3);
+        Instancia prueba = instancia(0.0, 0.0, "?");
+        assertNull(ventana.clasificar(prueba));
+
+        assertTrue(ventana.anadir(instancia(0.0, 0.0, "A"), 1));
+        assertTrue(ventana.anadir(instancia(5.0, 5.0, "B"), 2));
+        assertTrue(ventana.anadir(instancia(6.0, 6.0, "B"), 3));
+        assertEquals("A", ventana.clasificar(prueba));
+
+        assertTrue(ventana.anadir(instancia(7.0, 7.0, "C"), 4));
+        assertEquals(3, ventana.tamano());
+        assertEquals(3, ventana.capacidad());
+        assertEquals("B", ventana.clasificar(prueba));
+        assertEquals(Arrays.asList("A", "B", "C"), ventana.getClases());
+
+        assertFalse(ventana.anadir(new Instancia(Arrays.<Object>asList(1.0, "A")), 5));
+        assertFalse(ventana.anadir(null, 5));
+        assertNull(ventana.clasificar(new Instancia(Arrays.<Object>asList(1.0, "?"))));
+        assertThrows(IllegalArgumentException.class, () -> ventana.anadir(instancia(1.0, 1.0, "A"), 2));
+        ventana.vaciar();
+        assertEquals(0, ventana.tamano());
+        assertNull(ventana.clasificar(prueba));
+    }
+
+    /**
+     * @brief Prueba que las instancias más antiguas que la duración de la ventana se descartan.
+     */
+    @Test
+    @DisplayName("Debería descartar las instancias que salen de la ventana temporal")
+    void testVentanaTemporal() {
+        KNNVentana ventana = new KNNVentana(1, 100);
+        ventana.setDuracionVentana(10);
+        ventana.anadir(instancia(0.0, 0.0, "A"), 0);
+        ventana.anadir(instancia(9.0, 9.0, "B"), 5);
+        assertEquals("A", ventana.clasificar(instancia(1.0, 1.0, "?")));
+
+        ventana.anadir(instancia(9.0, 9.0, "B"), 11);
+        assertEquals(2, ventana.tamano());
+        assertEquals("B", ventana.clasificar(instancia(1.0, 1.0, "?")));
+        assertEquals(1, ventana.expirar(16));
+        assertEquals(1, ventana.tamano());
+        assertEquals(0, ventana.expirar(16));
+        assertThrows(IllegalArgumentException.class, () -> ventana.setDuracionVentana(-1));
+    }
+
+    /**
+     * @brief Prueba que añadir con la hora del sistema no falla si el reloj ha retrocedido.
+     */
+    @Test
+    @DisplayName("Debería admitir instancias con la hora del sistema aunque el reloj retroceda")
+    void testRelojQueRetrocede() {
+        KNNVentana ventana = new KNNVentana(1, 10);
+        // Una marca en el futuro equivale a que el reloj del sistema retroceda una hora tras añadirla.
+        assertTrue(ventana.anadir(instancia(0.0, 0.0, "A"), System.currentTimeMillis() + 3_600_000L));
+        assertTrue(ventana.anadir(instancia(9.0, 9.0, "B")));
+        assertEquals(2, ventana.tamano());
+        assertEquals("B", ventana.clasificar(instancia(8.0, 8.0, "?")));
+    }
+
+    /**
+     * @brief Prueba que la ventana clasifica igual que un KNN ajustado con las últimas instancias del flujo.
+     */
+    @Test
+    @DisplayName("Debería clasificar como un KNN ajustado con las instancias de la ventana")
+    void testEquivaleAKnnSobreLaVentana() {
+        Dataset flujo = DatosPrueba.aleatorio(500, 3, 3, 107L);
+        Dataset ultimas = DatosPrueba.aleatorio(500, 3, 3, 107L);
+        for (int i = 0; i < 350; i++) {
+            ultimas.delete(0);
+        }
+        double[] pesos = new double[3];
+        for (int j = 0; j < 3; j++) {
+            pesos[j] = ultimas.getPesosDouble().get(j);
+        }
+        KNNVentana ventana = new KNNVentana(5, 150);
+        ventana.setPesos(pesos);
+        for (int i = 0; i < flujo.numeroCasos(); i++) {
+            assertTrue(ventana.anadir(flujo.getInstance(i), i));
+        }
+        KNN knn = new KNN(5);
+        knn.ajustar(ultimas);
+
+        Random random = new Random(109L);
+        for (boolean ponderado : new boolean[]{false, true}) {
+            ventana.setVotoPonderado(ponderado);
+            knn.setVotoPonderado(ponderado);
+            for (int c = 0; c < 30; c++) {
+                double[] q = DatosPrueba.consulta(3, random);
+                Instancia prueba = new Instancia(Arrays.<Object>asList(q[0], q[1], q[2], "?"));
+                assertEquals(knn.clasificar(prueba), ventana.clasificar(prueba));
+            }
+        }
+    }
+
+    /**
+     * @brief Prueba la validación de los parámetros.
+     */
+    @Test
+    @DisplayName("Debería rechazar parámetros y distancias no válidos")
+    void testParametrosInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> new KNNVentana(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new KNNVentana(3, 0));
+        KNNVentana ventana = new KNNVentana(3, 10);
+        assertThrows(IllegalArgumentException.class, () -> ventana.setDistancia(null));
+        assertThrows(IllegalArgumentException.class, () -> ventana.setDistancia(new DistanciaHeterogenea()));
+        ventana.setDistancia(new DistanciaManhattan());
+        ventana.anadir(instancia(1.0, 2.0, "A"), 0);
+        assertThrows(IllegalArgumentException.class, () -> ventana.setPesos(new double[]{1.0}));
+        ventana.setPesos(new double[]{1.0, 0.5});
+        assertEquals("A", ventana.clasificar(instancia(0.0, 0.0, "?")));
+    }
+}
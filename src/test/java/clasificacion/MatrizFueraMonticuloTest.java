@@ -0,0 +1,78 @@
+package clasificacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file MatrizFueraMonticuloTest.java
+ * @brief Clase de pruebas unitarias para la clase MatrizFueraMonticulo.
+ *
+ * Con trozos de pocas filas, las lecturas y escrituras que cruzan de un trozo a otro
+ * deben devolver los mismos valores que el array original.
+ */
+@DisplayName("Tests para la clase MatrizFueraMonticulo")
+class MatrizFueraMonticuloTest {
+
+    /**
+     * @brief Genera un array de filas cuyos valores identifican su posición.
+     *
+     * @param filas El número de filas.
+     * @param dimension El número de valores de cada fila.
+     * @return El array, fila a fila.
+     */
+    private static double[] valores(int filas, int dimension) {
+        double[] valores = new double[filas * dimension];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = i * 0.5;
+        }
+        return valores;
+    }
+
+    /**
+     * @brief Prueba que las lecturas que cruzan trozos devuelven las filas escritas.
+     */
+    @Test
+    @DisplayName("Debería leer y escribir filas repartidas en varios trozos")
+    void testLeerEscribir() {
+        double[] valores = valores(10, 3);
+        MatrizFueraMonticulo matriz = new MatrizFueraMonticulo(10, 3, 4);
+        matriz.escribir(0, 10, valores, 0);
+        assertEquals(3, matriz.numeroTrozos());
+        assertEquals(10, matriz.numeroFilas());
+        assertEquals(3, matriz.getDimension());
+
+        double[] leidos = new double[7 * 3 + 1];
+        matriz.leer(2, 7, leidos, 1);
+        for (int i = 0; i < 7 * 3; i++) {
+            assertEquals(valores[2 * 3 + i], leidos[i + 1]);
+        }
+        assertEquals(valores[9 * 3 + 2], matriz.get(9, 2));
+
+        MatrizFueraMonticulo copia = MatrizFueraMonticulo.copiar(valores, 10, 3);
+        assertEquals(1, copia.numeroTrozos());
+        assertEquals(valores[4 * 3 + 1], copia.get(4, 1));
+    }
+
+    /**
+     * @brief Prueba que seleccionar copia las filas en el orden indicado y que se validan los rangos.
+     */
+    @Test
+    @DisplayName("Debería seleccionar filas y rechazar las que no existen")
+    void testSeleccionarYLimites() {
+        MatrizFueraMonticulo matriz = new MatrizFueraMonticulo(10, 2, 3);
+        matriz.escribir(0, 10, valores(10, 2), 0);
+        MatrizFueraMonticulo seleccion = matriz.seleccionar(new int[]{9, 0, 4});
+        assertEquals(3, seleccion.numeroFilas());
+        assertEquals(matriz.get(9, 1), seleccion.get(0, 1));
+        assertEquals(matriz.get(0, 0), seleccion.get(1, 0));
+        assertEquals(matriz.get(4, 1), seleccion.get(2, 1));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> matriz.leer(8, 3, new double[6], 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> matriz.get(0, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> matriz.get(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new MatrizFueraMonticulo(-1, 2));
+        assertThrows(IllegalArgumentException.class, () -> MatrizFueraMonticulo.copiar(new double[3], 2, 2));
+    }
+}
@@ -0,0 +1,120 @@
+package clasificacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file MonticuloVecinosTest.java
+ * @brief Clase de pruebas unitarias para la clase MonticuloVecinos.
+ *
+ * Verifica que el montículo acotado conserva exactamente los K candidatos de menor
+ * distancia, que rechaza a los peores sin modificarse y que puede ordenarse y reutilizarse.
+ */
+@DisplayName("Tests para la clase MonticuloVecinos")
+class MonticuloVecinosTest {
+
+    /**
+     * @brief Prueba que se conservan los K candidatos más cercanos, ordenados al final.
+     */
+    @Test
+    @DisplayName("Debería conservar los K vecinos más cercanos y ordenarlos de forma ascendente")
+    void testConservaLosKMejores() {
+        MonticuloVecinos vecinos = new MonticuloVecinos(3);
+        double[] distancias = {5.0, 1.0, 4.0, 0.5, 3.0, 2.0};
+        for (int i = 0; i < distancias.length; i++) {
+            vecinos.ofrecer(distancias[i], i);
+        }
+
+        assertEquals(3, vecinos.tamano());
+        assertEquals(2.0, vecinos.peorDistancia());
+        vecinos.ordenar();
+        assertArrayEquals(new int[]{3, 1, 5}, new int[]{vecinos.getFila(0), vecinos.getFila(1), vecinos.getFila(2)});
+        assertEquals(0.5, vecinos.getDistancia(0));
+        assertEquals(2.0, vecinos.getDistancia(2));
+    }
+
+    /**
+     * @brief Prueba que un candidato igual o peor que el K-ésimo se rechaza.
+     */
+    @Test
+    @DisplayName("Debería rechazar candidatos que no mejoran al peor vecino")
+    void testRechazaCandidatosPeores() {
+        MonticuloVecinos vecinos = new MonticuloVecinos(2);
+        assertEquals(Double.POSITIVE_INFINITY, vecinos.peorDistancia());
+        assertTrue(vecinos.ofrecer(1.0, 0));
+        assertTrue(vecinos.ofrecer(2.0, 1));
+        assertFalse(vecinos.ofrecer(2.0, 2));
+        assertFalse(vecinos.ofrecer(3.0, 3));
+        assertTrue(vecinos.ofrecer(1.5, 4));
+        assertEquals(1.5, vecinos.peorDistancia());
+    }
+
+    /**
+     * @brief Prueba que los empates se resuelven a favor de la menor fila, sea cual sea el orden de llegada.
+     */
+    @Test
+    @DisplayName("Debería desempatar por fila independientemente del orden de los candidatos")
+    void testDesempatePorFila() {
+        int[][] ordenes = {{0, 1, 2, 3, 4, 5}, {5, 4, 3, 2, 1, 0}, {3, 5, 0, 4, 2, 1}};
+        for (int[] orden : ordenes) {
+            MonticuloVecinos vecinos = new MonticuloVecinos(3);
+            for (int fila : orden) {
+                vecinos.ofrecer(fila == 4 ? 0.5 : 1.0, fila);
+            }
+            vecinos.ordenar();
+            assertArrayEquals(new int[]{4, 0, 1}, new int[]{vecinos.getFila(0), vecinos.getFila(1), vecinos.getFila(2)});
+        }
+        MonticuloVecinos vecinos = new MonticuloVecinos(1);
+        assertTrue(vecinos.ofrecer(1.0, 7));
+        assertTrue(vecinos.ofrecer(1.0, 3));
+        assertFalse(vecinos.ofrecer(1.0, 5));
+        assertEquals(3, vecinos.getFila(0));
+    }
+
+    /**
+     * @brief Prueba que el montículo puede reiniciarse y que no admite candidatos tras ordenar.
+     */
+    @Test
+    @DisplayName("Debería poder reiniciarse y exigir reinicio tras ordenar")
+    void testReiniciar() {
+        MonticuloVecinos vecinos = new MonticuloVecinos(2);
+        vecinos.ofrecer(1.0, 0);
+        vecinos.ordenar();
+        assertThrows(IllegalStateException.class, () -> vecinos.ofrecer(0.5, 1));
+
+        vecinos.reiniciar();
+        assertEquals(0, vecinos.tamano());
+        assertTrue(vecinos.ofrecer(0.5, 1));
+        assertEquals(2, vecinos.capacidad());
+    }
+
+    /**
+     * @brief Prueba que la capacidad debe ser positiva.
+     */
+    @Test
+    @DisplayName("Debería lanzar IllegalArgumentException si la capacidad no es positiva")
+    void testCapacidadInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> new MonticuloVecinos(0));
+        assertThrows(IllegalArgumentException.class, () -> new MonticuloVecinos(-1));
+    }
+
+    /**
+     * @brief Prueba que las filas excluidas no entran en el montículo ni cuentan para el peor vecino.
+     */
+    @Test
+    @DisplayName("Debería rechazar las filas excluidas")
+    void testExcluidas() {
+        MonticuloVecinos vecinos = new MonticuloVecinos(2);
+        vecinos.setExcluidas(new boolean[]{false, true});
+        assertFalse(vecinos.ofrecer(0.5, 1));
+        assertTrue(vecinos.ofrecer(1.0, 0));
+        assertTrue(vecinos.ofrecer(2.0, 5));
+        assertEquals(2.0, vecinos.peorDistancia());
+
+        vecinos.setExcluidas(null);
+        assertTrue(vecinos.ofrecer(0.5, 1));
+        assertEquals(1.0, vecinos.peorDistancia());
+    }
+}
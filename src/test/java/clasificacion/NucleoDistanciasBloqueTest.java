@@ -0,0 +1,153 @@
+package clasificacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file NucleoDistanciasBloqueTest.java
+ * @brief Clase de pruebas unitarias para la clase NucleoDistanciasBloque.
+ */
+@DisplayName("Tests para la clase NucleoDistanciasBloque")
+class NucleoDistanciasBloqueTest {
+
+    /**
+     * @brief Prueba que el cálculo por bloques coincide con las distancias exactas en varios bloques de consultas y filas.
+     */
+    @Test
+    @DisplayName("Debería devolver los mismos vecinos que el cálculo exacto, ignorando consultas nulas")
+    void testCoincideConDistanciasExactas() {
+        // 1003 filas de dimensión 37: varios bloques de filas y un resto que no es múltiplo de 4.
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(1003, 37, 3, 5L));
+        Random random = new Random(7L);
+        double[][] consultas = new double[40][];
+        MonticuloVecinos[] vecinos = new MonticuloVecinos[consultas.length];
+        for (int q = 0; q < consultas.length; q++) {
+            consultas[q] = q == 20 ? null : DatosPrueba.consulta(37, random);
+            vecinos[q] = new MonticuloVecinos(7);
+        }
+
+        new NucleoDistanciasBloque(datos).calcular(consultas, vecinos);
+
+        for (int q = 0; q < consultas.length; q++) {
+            if (consultas[q] == null) {
+                assertEquals(0, vecinos[q].tamano());
+                continue;
+            }
+            vecinos[q].ordenar();
+            double[] obtenidas = new double[vecinos[q].tamano()];
+            for (int i = 0; i < obtenidas.length; i++) {
+                obtenidas[i] = vecinos[q].getDistancia(i);
+            }
+            assertArrayEquals(DatosPrueba.distanciasExactas(datos, consultas[q], 7), obtenidas, 1e-9);
+        }
+    }
+
+    /**
+     * @brief Prueba que, con valores grandes frente a las distancias, los vecinos y sus distancias son
+     * exactamente los de la búsqueda consulta a consulta.
+     */
+    @Test
+    @DisplayName("Debería coincidir exactamente con la búsqueda consulta a consulta con valores del orden de 1e6")
+    void testCoincideConValoresGrandes() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(2000, 6, 3, 13L, 1e6));
+        BusquedaExhaustiva busqueda = new BusquedaExhaustiva(datos);
+        Random random = new Random(17L);
+        double[][] consultas = new double[300][];
+        MonticuloVecinos[] vecinos = new MonticuloVecinos[consultas.length];
+        for (int q = 0; q < consultas.length; q++) {
+            consultas[q] = DatosPrueba.consulta(6, random);
+            for (int d = 0; d < 6; d++) {
+                consultas[q][d] += 1e6;
+            }
+            vecinos[q] = new MonticuloVecinos(5);
+        }
+
+        busqueda.buscarLote(consultas, vecinos);
+
+        for (int q = 0; q < consultas.length; q++) {
+            vecinos[q].ordenar();
+            MonticuloVecinos uno = new MonticuloVecinos(5);
+            busqueda.buscar(consultas[q], uno);
+            uno.ordenar();
+            for (int i = 0; i < uno.tamano(); i++) {
+                assertEquals(uno.getFila(i), vecinos[q].getFila(i));
+                assertEquals(uno.getDistancia(i), vecinos[q].getDistancia(i), 0.0);
+            }
+        }
+    }
+
+    /**
+     * @brief Prueba que la distancia de una consulta a una fila idéntica no es negativa.
+     */
+    @Test
+    @DisplayName("Debería truncar a 0 las distancias negativas por cancelación")
+    void testDistanciaNoNegativa() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(5, 3, 2, 9L));
+        double[] consulta = new double[3];
+        System.arraycopy(datos.getFilas(), 6, consulta, 0, 3);
+        MonticuloVecinos[] vecinos = {new MonticuloVecinos(1)};
+
+        new BusquedaExhaustiva(datos).buscarLote(new double[][]{consulta}, vecinos);
+
+        assertEquals(2, vecinos[0].getFila(0));
+        assertTrue(vecinos[0].getDistancia(0) >= 0.0);
+        assertEquals(0.0, vecinos[0].getDistancia(0), 1e-12);
+    }
+
+    /**
+     * @brief Prueba que una subclase de la distancia euclídea que redefine el cálculo no usa el núcleo por bloques.
+     */
+    @Test
+    @DisplayName("No debería usar el núcleo con subclases que redefinen la distancia")
+    void testSubclaseNoAdmitida() {
+        // Redefine la distancia como la de Manhattan: el filtro euclídeo descartaría vecinos reales.
+        Distancia manhattan = new DistanciaEuclidea() {
+            @Override
+            public double calcular(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos) {
+                double distancia = 0;
+                for (int j = 0; j < dimension; j++) {
+                    distancia += pesos[j] * Math.abs(a[desdeA + j] - b[desdeB + j]);
+                }
+                return distancia;
+            }
+
+            @Override
+            public double calcularAcotada(double[] a, int desdeA, double[] b, int desdeB, int dimension, double[] pesos, double cota) {
+                return calcular(a, desdeA, b, desdeB, dimension, pesos);
+            }
+        };
+        assertTrue(NucleoDistanciasBloque.admite(new DistanciaEuclidea()));
+        assertTrue(NucleoDistanciasBloque.admite(DistanciaEuclidea.preferida()));
+        assertTrue(NucleoDistanciasBloque.admite(new DistanciaCoseno()));
+        assertFalse(NucleoDistanciasBloque.admite(manhattan));
+        assertFalse(NucleoDistanciasBloque.admite(null));
+
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(500, 8, 3, 19L));
+        assertThrows(IllegalArgumentException.class, () -> new NucleoDistanciasBloque(datos, manhattan));
+        BusquedaExhaustiva busqueda = new BusquedaExhaustiva(datos, manhattan);
+        Random random = new Random(23L);
+        double[][] consultas = new double[50][];
+        MonticuloVecinos[] vecinos = new MonticuloVecinos[consultas.length];
+        for (int q = 0; q < consultas.length; q++) {
+            consultas[q] = DatosPrueba.consulta(8, random);
+            vecinos[q] = new MonticuloVecinos(5);
+        }
+
+        busqueda.buscarLote(consultas, vecinos);
+
+        for (int q = 0; q < consultas.length; q++) {
+            vecinos[q].ordenar();
+            MonticuloVecinos uno = new MonticuloVecinos(5);
+            busqueda.buscar(consultas[q], uno);
+            uno.ordenar();
+            assertEquals(uno.tamano(), vecinos[q].tamano());
+            for (int i = 0; i < uno.tamano(); i++) {
+                assertEquals(uno.getFila(i), vecinos[q].getFila(i));
+            }
+        }
+    }
+}
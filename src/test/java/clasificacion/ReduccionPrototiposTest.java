@@ -0,0 +1,116 @@
+package clasificacion;
+
+import datos.Dataset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file ReduccionPrototiposTest.java
+ * @brief Clase de pruebas unitarias para la clase ReduccionPrototipos.
+ *
+ * Las condensaciones deben dar subconjuntos consistentes (el vecino más cercano entre los
+ * prototipos clasifica bien todas las filas) y la edición debe eliminar el ruido.
+ */
+@DisplayName("Tests para la clase ReduccionPrototipos")
+class ReduccionPrototiposTest {
+
+    /**
+     * @brief Comprueba que el vecino más cercano entre los prototipos clasifica bien todas las filas.
+     *
+     * @param datos Los datos completos.
+     * @param prototipos Las filas elegidas como prototipos.
+     */
+    private static void comprobarConsistente(DatosEntrenamiento datos, int[] prototipos) {
+        DatosEntrenamiento reducidos = datos.seleccionar(prototipos);
+        BusquedaExhaustiva indice = new BusquedaExhaustiva(reducidos);
+        double[] filas = datos.getFilas();
+        int dimension = datos.getDimension();
+        for (int fila = 0; fila < datos.numeroFilas(); fila++) {
+            MonticuloVecinos vecino = new MonticuloVecinos(1);
+            indice.buscar(Arrays.copyOfRange(filas, fila * dimension, (fila + 1) * dimension), vecino);
+            assertEquals(datos.getCodigoClase(fila), reducidos.getCodigoClase(vecino.getFila(0)), "Fila " + fila);
+        }
+    }
+
+    /**
+     * @brief Prueba que las dos condensaciones dan subconjuntos consistentes y más pequeños.
+     */
+    @Test
+    @DisplayName("Debería condensar a un subconjunto consistente")
+    void testCondensar() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(1500, 3, 3, 83L));
+        ReduccionPrototipos reduccion = new ReduccionPrototipos();
+
+        int[] hart = reduccion.condensar(datos);
+        int[] rapida = reduccion.condensarRapido(datos);
+        assertTrue(hart.length < datos.numeroFilas() / 2);
+        assertTrue(rapida.length < datos.numeroFilas() / 2);
+        comprobarConsistente(datos, hart);
+        comprobarConsistente(datos, rapida);
+        for (int i = 1; i < hart.length; i++) {
+            assertTrue(hart[i - 1] < hart[i]);
+        }
+    }
+
+    /**
+     * @brief Prueba que la edición elimina un punto de una clase rodeado de puntos de otra.
+     */
+    @Test
+    @DisplayName("Debería eliminar con la edición las filas mal clasificadas por sus vecinos")
+    void testEditar() {
+        Dataset dataset = DatosPrueba.mixto(
+                "0,r,0,A", "0.1,r,0,A", "0,r,0.1,A", "0.1,r,0.1,A", "0.05,r,0.05,B",
+                "5,r,5,B", "5.1,r,5,B", "5,r,5.1,B", "5.1,r,5.1,B");
+        Dataset editado = new ReduccionPrototipos(3).editar(dataset);
+
+        assertEquals(8, editado.numeroCasos());
+        for (int i = 0; i < editado.numeroCasos(); i++) {
+            assertNotEquals("0.05", editado.getInstance(i).getValores().get(0).toString());
+        }
+        assertEquals(dataset.numeroAtributos(), editado.numeroAtributos());
+        assertThrows(IllegalArgumentException.class, () -> new ReduccionPrototipos(0));
+    }
+
+    /**
+     * @brief Prueba que el resultado no depende del número de hilos y que el dataset reducido sirve para clasificar.
+     */
+    @Test
+    @DisplayName("Debería dar el mismo resultado con uno o varios hilos")
+    void testHilos() {
+        Dataset dataset = DatosPrueba.aleatorio(2000, 4, 3, 89L);
+        DatosEntrenamiento datos = new DatosEntrenamiento(dataset);
+        ReduccionPrototipos paralela = new ReduccionPrototipos(5);
+        ReduccionPrototipos secuencial = new ReduccionPrototipos(5);
+        ForkJoinPool unHilo = new ForkJoinPool(1);
+        try {
+            secuencial.setPool(unHilo);
+            assertArrayEquals(secuencial.editar(datos), paralela.editar(datos));
+            assertArrayEquals(secuencial.condensar(datos), paralela.condensar(datos));
+            assertArrayEquals(secuencial.condensarRapido(datos), paralela.condensarRapido(datos));
+        } finally {
+            unHilo.shutdown();
+        }
+
+        paralela.setIndice(ArbolKD::new);
+        Dataset editado = paralela.editar(dataset);
+        Dataset condensado = paralela.condensarRapido(editado);
+        assertTrue(condensado.numeroCasos() < editado.numeroCasos());
+        assertTrue(editado.numeroCasos() < dataset.numeroCasos());
+
+        // Sobre los datos editados, los prototipos clasifican igual que el conjunto editado completo.
+        KNN completo = new KNN(1);
+        completo.ajustar(editado);
+        KNN reducido = new KNN(1);
+        reducido.ajustar(condensado);
+        for (int i = 0; i < editado.numeroCasos(); i++) {
+            assertEquals(completo.clasificar(editado.getInstance(i)), reducido.clasificar(editado.getInstance(i)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> paralela.setPool(null));
+        assertThrows(IllegalArgumentException.class, () -> paralela.setDistancia(null));
+    }
+}
@@ -0,0 +1,40 @@
+package clasificacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file ResultadoVecinosTest.java
+ * @brief Clase de pruebas unitarias para la clase ResultadoVecinos.
+ */
+@DisplayName("Tests para la clase ResultadoVecinos")
+class ResultadoVecinosTest {
+
+    /**
+     * @brief Prueba que el resultado conserva los arrays recibidos.
+     */
+    @Test
+    @DisplayName("Debería devolver las filas y distancias recibidas")
+    void testConstructor() {
+        int[] filas = {4, 1};
+        double[] distancias = {0.5, 2.0};
+        ResultadoVecinos resultado = new ResultadoVecinos(filas, distancias);
+
+        assertEquals(2, resultado.tamano());
+        assertSame(filas, resultado.getFilas());
+        assertSame(distancias, resultado.getDistancias());
+    }
+
+    /**
+     * @brief Prueba que se rechazan arrays nulos o de distinto tamaño.
+     */
+    @Test
+    @DisplayName("Debería lanzar IllegalArgumentException con arrays nulos o de distinto tamaño")
+    void testConstructorInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> new ResultadoVecinos(null, new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new ResultadoVecinos(new int[0], null));
+        assertThrows(IllegalArgumentException.class, () -> new ResultadoVecinos(new int[1], new double[2]));
+    }
+}
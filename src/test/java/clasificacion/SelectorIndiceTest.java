@@ -0,0 +1,198 @@
+package clasificacion;
+
+import datos.Dataset;
+import datos.Instancia;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @file SelectorIndiceTest.java
+ * @brief Clase de pruebas unitarias para la clase SelectorIndice.
+ *
+ * Los tiempos de la calibración dependen de la máquina, así que solo se comprueba el tipo elegido
+ * cuando la diferencia entre índices es muy grande; en los demás casos se comprueba que el índice
+ * elegido cumple la exhaustividad pedida.
+ */
+@DisplayName("Tests para la clase SelectorIndice")
+class SelectorIndiceTest {
+
+    /**
+     * @brief Calcula la exhaustividad media de un índice con filas no indexadas como consultas.
+     *
+     * @param datos Los datos indexados.
+     * @param consultas Las filas de las consultas, con la misma distribución que las indexadas.
+     * @param indice El índice a evaluar.
+     * @param k El número de vecinos.
+     * @return La fracción de vecinos exactos encontrados.
+     */
+    private static double exhaustividad(DatosEntrenamiento datos, DatosEntrenamiento consultas, IndiceVecinos indice, int k) {
+        int aciertos = 0;
+        for (int c = 0; c < consultas.numeroFilas(); c++) {
+            double[] q = new double[consultas.getDimension()];
+            consultas.leerFilas(c, 1, q, 0);
+            double limite = DatosPrueba.distanciasExactas(datos, q, k)[k - 1];
+            for (double distancia : DatosPrueba.distancias(indice, q, k)) {
+                if (distancia <= limite) {
+                    aciertos++;
+                }
+            }
+        }
+        return aciertos / (double) (consultas.numeroFilas() * k);
+    }
+
+    /**
+     * @brief Prueba que con pocas filas o fuera del montículo se usa la búsqueda exhaustiva.
+     */
+    @Test
+    @DisplayName("Debería usar la búsqueda exhaustiva con pocas filas o fuera del montículo")
+    void testExhaustivaSinCalibrar() {
+        SelectorIndice selector = new SelectorIndice(5, 1, ForkJoinPool.commonPool());
+        DatosEntrenamiento pocas = new DatosEntrenamiento(DatosPrueba.aleatorio(SelectorIndice.MINIMO_FILAS - 1, 3, 3, 199L));
+        assertTrue(selector.construir(pocas, DistanciaEuclidea.preferida()) instanceof BusquedaExhaustiva);
+
+        DatosEntrenamiento fuera = new DatosEntrenamiento(DatosPrueba.aleatorio(10000, 3, 3, 211L));
+        fuera.moverFueraMonticulo();
+        assertTrue(selector.construir(fuera, DistanciaEuclidea.preferida()) instanceof BusquedaExhaustiva);
+    }
+
+    /**
+     * @brief Prueba que con muchas filas y pocas dimensiones se elige un árbol y que los vecinos son exactos.
+     */
+    @Test
+    @DisplayName("Debería elegir un árbol con muchas filas y pocas dimensiones")
+    void testArbol() {
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(30000, 3, 3, 223L));
+        IndiceVecinos indice = new SelectorIndice(5, 1, ForkJoinPool.commonPool()).construir(datos, DistanciaEuclidea.preferida());
+        // Ambos árboles podan casi todas las filas; cuál es más rápido depende de la máquina.
+        assertTrue(indice instanceof ArbolKD || indice instanceof ArbolBolas, "Índice elegido: " + indice.getClass().getSimpleName());
+        Random random = new Random(227L);
+        for (int c = 0; c < 10; c++) {
+            double[] q = DatosPrueba.consulta(3, random);
+            assertArrayEquals(DatosPrueba.distanciasExactas(datos, q, 5), DatosPrueba.distancias(indice, q, 5), 1e-9);
+        }
+    }
+
+    /**
+     * @brief Prueba que sin admitir pérdidas solo se eligen índices exactos, y que con un objetivo menor
+     * el índice elegido lo cumple.
+     */
+    @Test
+    @DisplayName("Debería elegir índices exactos con objetivo 1 y cumplir un objetivo menor")
+    void testObjetivoExhaustividad() {
+        // Con la misma semilla, las primeras 5000 filas coinciden; las 50 siguientes son las consultas.
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(5000, 20, 4, 229L));
+        DatosEntrenamiento completos = new DatosEntrenamiento(DatosPrueba.aleatorio(5050, 20, 4, 229L));
+        int[] filasConsulta = new int[50];
+        for (int i = 0; i < filasConsulta.length; i++) {
+            filasConsulta[i] = 5000 + i;
+        }
+        DatosEntrenamiento consultas = completos.seleccionar(filasConsulta);
+        IndiceVecinos exacto = new SelectorIndice(10, 1, ForkJoinPool.commonPool()).construir(datos, DistanciaEuclidea.preferida());
+        assertFalse(exacto instanceof GrafoHNSW || exacto instanceof IndiceIVF);
+        assertEquals(1.0, exhaustividad(datos, consultas, exacto, 10), 0.0);
+
+        IndiceVecinos aproximado = new SelectorIndice(10, 0.9, ForkJoinPool.commonPool()).construir(datos, DistanciaEuclidea.preferida());
+        double obtenida = exhaustividad(datos, consultas, aproximado, 10);
+        assertTrue(obtenida >= 0.8, aproximado.getClass().getSimpleName() + ": " + obtenida);
+
+        // Con una métrica distinta de la euclídea no se considera el árbol KD, pero los vecinos siguen siendo exactos.
+        DatosEntrenamiento pocasDimensiones = new DatosEntrenamiento(DatosPrueba.aleatorio(9000, 4, 3, 233L));
+        IndiceVecinos manhattan = new SelectorIndice(5, 1, ForkJoinPool.commonPool()).construir(pocasDimensiones, new DistanciaManhattan());
+        assertFalse(manhattan instanceof ArbolKD);
+        BusquedaExhaustiva referencia = new BusquedaExhaustiva(pocasDimensiones, new DistanciaManhattan());
+        Random random = new Random(239L);
+        for (int c = 0; c < 10; c++) {
+            double[] q = DatosPrueba.consulta(4, random);
+            assertArrayEquals(DatosPrueba.distancias(referencia, q, 5), DatosPrueba.distancias(manhattan, q, 5), 1e-9);
+        }
+    }
+
+    /**
+     * @brief Prueba que con muchos empates todos los índices exactos devuelven los mismos vecinos y predicciones.
+     */
+    @Test
+    @DisplayName("Deberían coincidir los vecinos de todos los índices exactos aunque haya empates")
+    void testEmpatesIndicesExactos() {
+        // Cinco valores por atributo en tres dimensiones: unas 400 filas idénticas por cada punto, y
+        // filas suficientes para que la búsqueda exhaustiva se reparta en tramos.
+        Dataset dataset = DatosPrueba.enteros(50000, 3, 5, 3, 257L);
+        DatosEntrenamiento datos = new DatosEntrenamiento(dataset);
+        Distancia distancia = DistanciaEuclidea.preferida();
+        BusquedaExhaustiva referencia = new BusquedaExhaustiva(datos, distancia);
+        IndiceVecinos[] exactos = {
+                new ArbolKD(datos, distancia, 8),
+                new ArbolBolas(datos, distancia, 8),
+                new IndicePivotes(datos, distancia),
+                new SelectorIndice(7, 1, ForkJoinPool.commonPool()).construir(datos, distancia)
+        };
+        KNN knn = new KNN(7);
+        knn.ajustar(dataset);
+        KNN exhaustiva = new KNN(7);
+        exhaustiva.ajustar(dataset);
+        exhaustiva.setIndice(BusquedaExhaustiva::new);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Random random = new Random(263L);
+        for (int c = 0; c < 60; c++) {
+            // Con valores enteros y medios, muchas filas distintas quedan a la misma distancia.
+            double[] q = {random.nextInt(9) / 2.0, random.nextInt(9) / 2.0, random.nextInt(9) / 2.0};
+            int[] esperadas = DatosPrueba.filas(referencia, q, 7);
+            for (IndiceVecinos indice : exactos) {
+                assertArrayEquals(esperadas, DatosPrueba.filas(indice, q, 7), indice.getClass().getSimpleName());
+            }
+            MonticuloVecinos enParalelo = new MonticuloVecinos(7);
+            referencia.buscar(q, enParalelo, pool);
+            enParalelo.ordenar();
+            for (int i = 0; i < esperadas.length; i++) {
+                assertEquals(esperadas[i], enParalelo.getFila(i));
+            }
+            Instancia prueba = new Instancia(Arrays.<Object>asList(q[0], q[1], q[2], "?"));
+            assertArrayEquals(exhaustiva.buscarVecinos(prueba).getFilas(), knn.buscarVecinos(prueba).getFilas());
+            assertEquals(exhaustiva.clasificar(prueba), knn.clasificar(prueba));
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * @brief Prueba que KNN elige el índice automáticamente y que se validan los parámetros.
+     */
+    @Test
+    @DisplayName("Debería elegir el índice de KNN automáticamente y rechazar parámetros inválidos")
+    void testKnnYParametros() {
+        Dataset dataset = DatosPrueba.aleatorio(30000, 2, 3, 241L);
+        KNN knn = new KNN(5);
+        assertEquals(1.0, knn.getObjetivoExhaustividad(), 0.0);
+        knn.ajustar(dataset);
+        assertFalse(knn.getIndice() instanceof BusquedaExhaustiva, "Índice elegido: " + knn.getIndice().getClass().getSimpleName());
+
+        KNN exhaustiva = new KNN(5);
+        exhaustiva.ajustar(dataset);
+        exhaustiva.setIndice(BusquedaExhaustiva::new);
+        Random random = new Random(251L);
+        List<Instancia> pruebas = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            double[] q = DatosPrueba.consulta(2, random);
+            pruebas.add(new Instancia(Arrays.<Object>asList(q[0], q[1], "?")));
+        }
+        for (Instancia prueba : pruebas) {
+            assertArrayEquals(exhaustiva.buscarVecinos(prueba).getDistancias(), knn.buscarVecinos(prueba).getDistancias(), 1e-9);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> knn.setObjetivoExhaustividad(0));
+        assertThrows(IllegalArgumentException.class, () -> knn.setObjetivoExhaustividad(1.5));
+        assertThrows(IllegalArgumentException.class, () -> knn.setObjetivoExhaustividad(Double.NaN));
+        knn.setObjetivoExhaustividad(0.95);
+        assertEquals(0.95, knn.getObjetivoExhaustividad(), 0.0);
+        DatosEntrenamiento datos = new DatosEntrenamiento(DatosPrueba.aleatorio(10, 2, 2, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new SelectorIndice(5, 1, ForkJoinPool.commonPool()).construir(datos, null));
+        assertThrows(IllegalArgumentException.class, () -> new SelectorIndice(0, 1, ForkJoinPool.commonPool()));
+        assertThrows(IllegalArgumentException.class, () -> new SelectorIndice(5, 1, null));
+    }
+}
@@ -745,6 +745,49 @@ class EntrenamientoTest {
 
     }
 
+    /**
+     * @brief Tests that the test split is classified through the packed KNN with mixed attributes.
+     *
+     * The qualitative attribute is compared with the heterogeneous distance chosen by `KNN.ajustar`;
+     * instance by instance, those instances could not be classified and every prediction was null.
+     */
+    @Test
+    @DisplayName("clasificarPruebas debería clasificar con atributos cualitativos")
+    void testClasificarPruebasAtributosCualitativos() {
+        List<Atributo> attrs = Arrays.asList(new Cuantitativo("x"), new Cualitativo("color"), new Cualitativo("clase"));
+        Dataset datos = new Dataset(attrs);
+        for (String fila : new String[]{"1.0,rojo,A", "1.0,rojo,A", "1.0,azul,B", "1.0,azul,B", "1.0,azul,B", "1.0,rojo,A"}) {
+            datos.add(Arrays.asList(fila.split(",")));
+        }
+        entrenamiento = new Entrenamiento(datos, 4.0 / 6); // train: A, A, B, B; test: B, A
+
+        assertEquals(Arrays.asList("B", "A"), entrenamiento.clasificarPruebas(1));
+    }
+
+    /**
+     * @brief Tests that invalid training weights leave every test instance without a class instead of throwing.
+     */
+    @Test
+    @DisplayName("clasificarPruebas debería devolver null para todas las instancias si los pesos no son válidos")
+    void testClasificarPruebasPesosInvalidos() {
+        List<Atributo> attrs = Arrays.asList(new Cuantitativo("x"), new Cualitativo("clase"));
+        Dataset datos = new Dataset(attrs);
+        for (String fila : new String[]{"1.0,A", "2.0,B", "1.5,A", "2.5,B"}) {
+            datos.add(Arrays.asList(fila.split(",")));
+        }
+        entrenamiento = new Entrenamiento(datos, 0.5); // train: A, B; test: A, B
+        Dataset train = (Dataset) getPrivateField(entrenamiento, "train");
+        Dataset sinPesos = new Dataset(train) {
+            @Override
+            public List<Double> getPesosDouble() {
+                return null;
+            }
+        };
+        setPrivateField(entrenamiento, "train", sinPesos);
+
+        assertEquals(Arrays.asList(null, null), entrenamiento.clasificarPruebas(1));
+    }
+
     // --- Helper Methods ---
 
     /**
@@ -765,6 +808,23 @@ class EntrenamientoTest {
         }
     }
 
+    /**
+     * @brief Utility method to replace private fields for testing purposes.
+     * @param obj The object whose private field is replaced.
+     * @param fieldName The name of the private field.
+     * @param value The new value of the private field.
+     * @throws AssertionError if the private field cannot be accessed.
+     */
+    private void setPrivateField(Object obj, String fieldName, Object value) {
+        try {
+            java.lang.reflect.Field field = obj.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(obj, value);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            fail("No se pudo modificar el campo privado '" + fieldName + "': " + e.getMessage());
+        }
+    }
+
     private static List<String> mockPredictionQueue; ///< Queue for predefined KNN predictions.
     private static int predictionQueueIndex = 0; ///< Current index in the prediction queue.
 